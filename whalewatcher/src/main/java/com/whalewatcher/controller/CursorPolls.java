@@ -0,0 +1,62 @@
+package com.whalewatcher.controller;
+
+import com.whalewatcher.repository.CursorPage;
+import com.whalewatcher.repository.EventSignal;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongFunction;
+
+/*
+ * after=<cursor> requests of the whale endpoints: only events newer than the cursor, oldest first, with
+ * the next cursor in X-Whale-Cursor and events lost to eviction in X-Whale-Missed. With wait=<seconds>
+ * an empty answer is held back until an event arrives or the wait is over. The request is parked as a
+ * DeferredResult plus a callback on the repository's EventSignal, no servlet thread waits.
+ */
+final class CursorPolls {
+
+    static final String CURSOR_HEADER = "X-Whale-Cursor";
+    static final String MISSED_HEADER = "X-Whale-Missed";
+    static final int MAX_WAIT_SECONDS = 30;
+
+    private CursorPolls() {}
+
+    static <E> DeferredResult<ResponseEntity<List<E>>> poll(long after, int waitSeconds, EventSignal signal,
+                                                           LongFunction<CursorPage<E>> read) {
+        int wait = Math.max(0, Math.min(waitSeconds, MAX_WAIT_SECONDS));
+        CursorPage<E> first = read.apply(after);
+        if (wait == 0 || hasNews(first)) {
+            DeferredResult<ResponseEntity<List<E>>> result = new DeferredResult<>();
+            result.setResult(response(first));
+            return result;
+        }
+
+        // the first read normalized the cursor (e.g. one from before a restart)
+        long cursor = first.cursor();
+        DeferredResult<ResponseEntity<List<E>>> result = new DeferredResult<>(wait * 1_000L);
+        BooleanSupplier waiter = () -> {
+            if (result.isSetOrExpired()) return true;
+            CursorPage<E> page = read.apply(cursor);
+            if (!hasNews(page)) return false;
+            result.setResult(response(page));
+            return true;
+        };
+        result.onTimeout(() -> result.setResult(response(first)));
+        result.onCompletion(() -> signal.cancel(waiter));
+        signal.await(waiter);
+        return result;
+    }
+
+    private static boolean hasNews(CursorPage<?> page) {
+        return !page.events().isEmpty() || page.missed() > 0;
+    }
+
+    private static <E> ResponseEntity<List<E>> response(CursorPage<E> page) {
+        return ResponseEntity.ok()
+                .header(CURSOR_HEADER, Long.toString(page.cursor()))
+                .header(MISSED_HEADER, Long.toString(page.missed()))
+                .body(page.events());
+    }
+}
@@ -0,0 +1,148 @@
+package com.whalewatcher.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.persistence.HistoryCursor;
+import com.whalewatcher.persistence.HistoryPage;
+import com.whalewatcher.persistence.WhaleHistory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * Whale history from the database, only with persistence enabled. Unlike /whales, which serves the
+ * latest events from memory, this covers everything persisted.
+ *
+ * /history pages newest first: the next page's cursor comes in X-Whale-Next-Cursor and goes back as
+ * before=<cursor>, no header on the last page. /history/export streams the whole selection as
+ * newline-delimited JSON while it is read.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "whalewatcher.persistence", name = "enabled", havingValue = "true")
+public class HistoryController {
+
+    static final String NEXT_HEADER = "X-Whale-Next-Cursor";
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // tie-breakers after event_time in each table's keyset: id off-chain, chain and tx hash on-chain
+    private static final int OFFCHAIN_TIES = 1;
+    private static final int ONCHAIN_TIES = 2;
+
+    private final WhaleHistory history;
+    private final ObjectWriter writer;
+
+    public HistoryController(WhaleHistory history, ObjectMapper mapper) {
+        this.history = history;
+        // flushing is left to the generator's buffer, not done per row
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @GetMapping("/offchain/history")
+    public ResponseEntity<List<OffChainWhaleEvent>> offChain(
+            @RequestParam(required = false) Asset asset,
+            @RequestParam(required = false) Exchange exchange,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return page(history.offChain(asset, exchange, TimeRanges.of(since, until), cursor(before, OFFCHAIN_TIES), limit));
+    }
+
+    @GetMapping("/offchain/history/export")
+    public ResponseEntity<StreamingResponseBody> exportOffChain(
+            @RequestParam(required = false) Asset asset,
+            @RequestParam(required = false) Exchange exchange,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
+    ) {
+        var range = TimeRanges.of(since, until);
+        return export(sink -> history.exportOffChain(asset, exchange, range, sink::accept));
+    }
+
+    @GetMapping("/onchain/history")
+    public ResponseEntity<List<OnChainWhaleEvent>> onChain(
+            @RequestParam(required = false) Asset asset,
+            @RequestParam(required = false) Chain chain,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return page(history.onChain(asset, chain, TimeRanges.of(since, until), cursor(before, ONCHAIN_TIES), limit));
+    }
+
+    @GetMapping("/onchain/history/export")
+    public ResponseEntity<StreamingResponseBody> exportOnChain(
+            @RequestParam(required = false) Asset asset,
+            @RequestParam(required = false) Chain chain,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
+    ) {
+        var range = TimeRanges.of(since, until);
+        return export(sink -> history.exportOnChain(asset, chain, range, sink::accept));
+    }
+
+    // A cursor from the other table (or not from encode() at all) is the client's error, not a 500
+    private static HistoryCursor cursor(String before, int ties) {
+        if (before == null || before.isBlank()) return null;
+        HistoryCursor cursor;
+        try {
+            cursor = HistoryCursor.decode(before);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid before cursor");
+        }
+        if (cursor.ties().size() != ties) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "before cursor is not from this history");
+        }
+        return cursor;
+    }
+
+    private static <E> ResponseEntity<List<E>> page(HistoryPage<E> page) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.next() != null) ok.header(NEXT_HEADER, page.next().encode());
+        return ok.body(page.events());
+    }
+
+    // Runs on the MVC async executor, rows are serialized as the export reads them
+    private ResponseEntity<StreamingResponseBody> export(Function<Consumer<Object>, Long> run) {
+        StreamingResponseBody body = out -> {
+            // closing the generator flushes it; the response stream is the container's to close
+            try (JsonGenerator json = writer.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                // rows are framed by the '\n' after each; Jackson's default " " would lead every line after the first
+                json.setRootValueSeparator(null);
+                run.apply(event -> {
+                    try {
+                        writer.writeValue(json, event);
+                        json.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // mostly the client going away mid-export
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
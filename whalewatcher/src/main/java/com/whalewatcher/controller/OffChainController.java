@@ -3,9 +3,11 @@ package com.whalewatcher.controller;
 import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.Exchange;
 import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.repository.TimeRange;
 import com.whalewatcher.repository.WhaleEventRepository;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 
@@ -19,30 +21,48 @@ public class OffChainController {
         this.whaleEventRepository = whaleEventRepository;
     }
 
+    // All endpoints take optional since/until (epoch ms of the event, since inclusive, until exclusive),
+    // or after=<cursor> and wait=<seconds> for incremental polling (see CursorPolls)
+
     // Get all whale events
     @GetMapping("/whales")
     public ResponseEntity<List<OffChainWhaleEvent>> getAll(
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
     ) {
-        return ResponseEntity.ok(whaleEventRepository.getAll(limit));
+        TimeRange range = TimeRanges.of(since, until);
+        return ResponseEntity.ok(range == null
+                ? whaleEventRepository.getAll(limit)
+                : whaleEventRepository.getAll(range, limit));
     }
 
     // Get whale events based on their asset
     @GetMapping("/whales/asset/{asset}")
     public ResponseEntity<List<OffChainWhaleEvent>> getByAsset(
             @PathVariable Asset asset,
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
     ) {
-        return ResponseEntity.ok(whaleEventRepository.getAllByAsset(asset, limit));
+        TimeRange range = TimeRanges.of(since, until);
+        return ResponseEntity.ok(range == null
+                ? whaleEventRepository.getAllByAsset(asset, limit)
+                : whaleEventRepository.getAllByAsset(asset, range, limit));
     }
 
     // Get whale events based on the exchange
     @GetMapping("/whales/exchange/{exchange}")
     public ResponseEntity<List<OffChainWhaleEvent>> getByExchange(
             @PathVariable Exchange exchange,
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
     ) {
-        return ResponseEntity.ok(whaleEventRepository.getAllByExchange(exchange, limit));
+        TimeRange range = TimeRanges.of(since, until);
+        return ResponseEntity.ok(range == null
+                ? whaleEventRepository.getAllByExchange(exchange, limit)
+                : whaleEventRepository.getAllByExchange(exchange, range, limit));
     }
 
     // Get whales events based on the asset and exchange
@@ -50,8 +70,59 @@ public class OffChainController {
     public ResponseEntity<List<OffChainWhaleEvent>> getByAssetAndExchange(
             @PathVariable Asset asset,
             @PathVariable Exchange exchange,
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
+    ) {
+        TimeRange range = TimeRanges.of(since, until);
+        return ResponseEntity.ok(range == null
+                ? whaleEventRepository.getByAssetAndExchange(asset, exchange, limit)
+                : whaleEventRepository.getByAssetAndExchange(asset, exchange, range, limit));
+    }
+
+    // Incremental polling: events after the cursor of the same endpoint
+
+    @GetMapping(value = "/whales", params = "after")
+    public DeferredResult<ResponseEntity<List<OffChainWhaleEvent>>> pollAll(
+            @RequestParam long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int wait
+    ) {
+        return CursorPolls.poll(after, wait, whaleEventRepository.signal(),
+                cursor -> whaleEventRepository.getAllAfter(cursor, limit));
+    }
+
+    @GetMapping(value = "/whales/asset/{asset}", params = "after")
+    public DeferredResult<ResponseEntity<List<OffChainWhaleEvent>>> pollByAsset(
+            @PathVariable Asset asset,
+            @RequestParam long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int wait
+    ) {
+        return CursorPolls.poll(after, wait, whaleEventRepository.signal(),
+                cursor -> whaleEventRepository.getAllByAssetAfter(asset, cursor, limit));
+    }
+
+    @GetMapping(value = "/whales/exchange/{exchange}", params = "after")
+    public DeferredResult<ResponseEntity<List<OffChainWhaleEvent>>> pollByExchange(
+            @PathVariable Exchange exchange,
+            @RequestParam long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int wait
+    ) {
+        return CursorPolls.poll(after, wait, whaleEventRepository.signal(),
+                cursor -> whaleEventRepository.getAllByExchangeAfter(exchange, cursor, limit));
+    }
+
+    @GetMapping(value = "/whales/asset/{asset}/exchange/{exchange}", params = "after")
+    public DeferredResult<ResponseEntity<List<OffChainWhaleEvent>>> pollByAssetAndExchange(
+            @PathVariable Asset asset,
+            @PathVariable Exchange exchange,
+            @RequestParam long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int wait
     ) {
-        return ResponseEntity.ok(whaleEventRepository.getByAssetAndExchange(asset, exchange, limit));
+        return CursorPolls.poll(after, wait, whaleEventRepository.signal(),
+                cursor -> whaleEventRepository.getByAssetAndExchangeAfter(asset, exchange, cursor, limit));
     }
-}
\ No newline at end of file
+}
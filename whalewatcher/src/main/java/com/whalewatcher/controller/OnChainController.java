@@ -3,9 +3,11 @@ package com.whalewatcher.controller;
 import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.OnChainWhaleEvent;
 import com.whalewatcher.repository.OnChainEventBuffer;
+import com.whalewatcher.repository.TimeRange;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 
@@ -16,16 +18,44 @@ public class OnChainController {
     private final OnChainEventBuffer buffer;
 
     @GetMapping("/whales")
-    public List<OnChainWhaleEvent> whales(@RequestParam(defaultValue = "50") int limit) {
+    public List<OnChainWhaleEvent> whales(@RequestParam(defaultValue = "50") int limit,
+                                          @RequestParam(required = false) Long since,
+                                          @RequestParam(required = false) Long until) {
         int safeLimit = Math.max(1, Math.min(limit, 500));
-        return buffer.getAll(safeLimit);
+        TimeRange range = TimeRanges.of(since, until);
+        return range == null ? buffer.getAll(safeLimit) : buffer.getAll(range, safeLimit);
     }
 
     @GetMapping("whales/asset/{asset}")
     public ResponseEntity<List<OnChainWhaleEvent>> getByAsset(
             @PathVariable Asset asset,
-            @RequestParam(defaultValue = "100") int limit
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
     ) {
-        return ResponseEntity.ok(buffer.getAllByAsset(asset, limit));
+        TimeRange range = TimeRanges.of(since, until);
+        return ResponseEntity.ok(range == null
+                ? buffer.getAllByAsset(asset, limit)
+                : buffer.getAllByAsset(asset, range, limit));
     }
-}
\ No newline at end of file
+
+    // Incremental polling: events after the cursor of the same endpoint (see CursorPolls)
+    @GetMapping(value = "/whales", params = "after")
+    public DeferredResult<ResponseEntity<List<OnChainWhaleEvent>>> pollWhales(
+            @RequestParam long after,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "0") int wait
+    ) {
+        return CursorPolls.poll(after, wait, buffer.signal(), cursor -> buffer.getAllAfter(cursor, limit));
+    }
+
+    @GetMapping(value = "whales/asset/{asset}", params = "after")
+    public DeferredResult<ResponseEntity<List<OnChainWhaleEvent>>> pollByAsset(
+            @PathVariable Asset asset,
+            @RequestParam long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "0") int wait
+    ) {
+        return CursorPolls.poll(after, wait, buffer.signal(), cursor -> buffer.getAllByAssetAfter(asset, cursor, limit));
+    }
+}
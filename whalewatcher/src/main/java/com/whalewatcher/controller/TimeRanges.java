@@ -0,0 +1,21 @@
+package com.whalewatcher.controller;
+
+import com.whalewatcher.repository.TimeRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// since/until request parameters of the whale endpoints
+final class TimeRanges {
+
+    private TimeRanges() {}
+
+    // null when neither end is given, the plain "latest N" query applies
+    static TimeRange of(Long since, Long until) {
+        if (since == null && until == null) return null;
+        try {
+            return TimeRange.of(since, until);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
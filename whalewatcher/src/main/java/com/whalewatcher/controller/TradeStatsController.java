@@ -0,0 +1,33 @@
+package com.whalewatcher.controller;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.persistence.segment.TradeQuery;
+import com.whalewatcher.persistence.segment.TradeSegmentStore;
+import com.whalewatcher.persistence.segment.TradeStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Volume and price summary over every stored trade, not only whales; needs whalewatcher.tradestore.enabled
+@RestController
+@ConditionalOnProperty(prefix = "whalewatcher.tradestore", name = "enabled", havingValue = "true")
+public class TradeStatsController {
+
+    private final TradeSegmentStore store;
+
+    public TradeStatsController(TradeSegmentStore store) {
+        this.store = store;
+    }
+
+    @GetMapping("/offchain/trades/stats")
+    public TradeStats stats(
+            @RequestParam(required = false) Asset asset,
+            @RequestParam(required = false) Exchange exchange,
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Long until
+    ) {
+        return store.scan(new TradeQuery(TimeRanges.of(since, until), asset, exchange), TradeStats::new);
+    }
+}
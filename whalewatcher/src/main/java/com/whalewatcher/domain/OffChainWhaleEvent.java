@@ -15,5 +15,11 @@ public record OffChainWhaleEvent(
         double price,
         double quantity,
         double totalUsd,
-        long timestampMs
-) {}
+        long timestampMs,
+        long tradeId
+) {
+    public OffChainWhaleEvent(String id, Exchange exchange, Asset asset, String side,
+                              double price, double quantity, double totalUsd, long timestampMs) {
+        this(id, exchange, asset, side, price, quantity, totalUsd, timestampMs, Trade.NO_TRADE_ID);
+    }
+}
@@ -4,6 +4,7 @@ package com.whalewatcher.domain;
  * Represents a single raw trade event received directly from an exchange's WebSocket feed.
  *
  * This object mirrors the data structure sent by the exchange before any processing or normalization takes place.
+ * tradeId is the venue's numeric trade identifier, or NO_TRADE_ID when the venue does not provide one.
  */
 
 public record Trade(
@@ -12,5 +13,16 @@ public record Trade(
         double price,
         double volume,
         String side,
-        long timestamp
-) {}
+        long timestamp,
+        long tradeId
+) {
+    public static final long NO_TRADE_ID = -1L;
+
+    public Trade(Exchange exchange, String symbol, double price, double volume, String side, long timestamp) {
+        this(exchange, symbol, price, volume, side, timestamp, NO_TRADE_ID);
+    }
+
+    public boolean hasTradeId() {
+        return tradeId != NO_TRADE_ID;
+    }
+}
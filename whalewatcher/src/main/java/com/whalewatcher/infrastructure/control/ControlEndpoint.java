@@ -0,0 +1,127 @@
+package com.whalewatcher.infrastructure.control;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.websocket.ExchangeStreamManager;
+import com.whalewatcher.ingest.onchain.OnChainControl;
+import com.whalewatcher.ingest.onchain.OnChainSettings;
+import com.whalewatcher.service.WhaleDetectionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Runtime control plane under /actuator/control, no restart (and no dropped sockets or buffers) needed:
+ *
+ *   GET  /actuator/control                                      current streams, thresholds, on-chain settings
+ *   POST /actuator/control/streams/KRAKEN      {"action":"stop"} start / stop one exchange's connections
+ *   POST /actuator/control/thresholds/BTC      {"usd":40000000}  default whale threshold of an asset
+ *   POST /actuator/control/thresholds/BTC      {"usd":1e7,"exchange":"UPBIT"}  per-exchange override
+ *   POST /actuator/control/thresholds/BTC      {"exchange":"UPBIT"}            drop the override
+ *   POST /actuator/control/onchain             {"pollMs":15000,"whaleThresholdEth":1000}
+ *
+ * Thresholds and on-chain settings are immutable snapshots swapped atomically, the ingest threads
+ * read them without locking.
+ *
+ * Not exposed over HTTP by default, the service has no authentication and anyone reaching the endpoint
+ * could stop every stream. To enable it, move the actuator to an internal port and address and add
+ * control to the exposed endpoints:
+ *
+ *   management.server.port=8081
+ *   management.server.address=127.0.0.1
+ *   management.endpoints.web.exposure.include=health,info,metrics,control
+ */
+@Component
+@Endpoint(id = "control")
+public class ControlEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(ControlEndpoint.class);
+
+    private final ExchangeStreamManager streams;
+    private final WhaleDetectionService detection;
+    private final OnChainControl onChain;
+
+    public ControlEndpoint(ExchangeStreamManager streams, WhaleDetectionService detection, OnChainControl onChain) {
+        this.streams = streams;
+        this.detection = detection;
+        this.onChain = onChain;
+    }
+
+    @ReadOperation
+    public Map<String, Object> control() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("streams", Map.of("running", streams.running()));
+        out.put("thresholds", detection.thresholds().describe());
+        out.put("onchain", onChain.current());
+        return out;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Selector String section, @Selector String key,
+                                      @Nullable String action, @Nullable String exchange, @Nullable Double usd) {
+        switch (section) {
+            case "streams" -> {
+                Exchange ex = parse(Exchange.class, key);
+                boolean changed = switch (action == null ? "" : action.toLowerCase(Locale.ROOT)) {
+                    case "start" -> streams.start(ex);
+                    case "stop" -> streams.stop(ex);
+                    default -> throw new InvalidEndpointRequestException("action must be start or stop", "Bad action");
+                };
+                log.info("Control: {} {}{}", action, ex, changed ? "" : " (no change)");
+            }
+            case "thresholds" -> {
+                Asset asset = parse(Asset.class, key);
+                Exchange ex = exchange == null ? null : parse(Exchange.class, exchange);
+                if (usd == null && ex == null) {
+                    throw new InvalidEndpointRequestException("usd is required to change a default", "Missing usd");
+                }
+                try {
+                    detection.updateThresholds(t -> usd == null ? t.without(ex, asset) : t.with(ex, asset, usd));
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidEndpointRequestException(e.getMessage(), "Bad threshold");
+                }
+                log.info("Control: whale threshold {} {} -> {}", ex == null ? "default" : ex, asset,
+                        usd == null ? "default" : usd);
+            }
+            default -> throw new InvalidEndpointRequestException("Unknown section " + section, "Unknown section");
+        }
+        return control();
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Selector String section, @Nullable Long pollMs, @Nullable Long maxBlocksPerPoll,
+                                      @Nullable BigDecimal whaleThresholdEth, @Nullable BigDecimal whaleThresholdBtc) {
+        if (!"onchain".equals(section)) {
+            throw new InvalidEndpointRequestException("Unknown section " + section, "Unknown section");
+        }
+        try {
+            onChain.update(s -> new OnChainSettings(
+                    pollMs == null ? s.pollMs() : pollMs,
+                    maxBlocksPerPoll == null ? s.maxBlocksPerPoll() : maxBlocksPerPoll,
+                    whaleThresholdEth == null ? s.whaleThresholdEth() : whaleThresholdEth,
+                    whaleThresholdBtc == null ? s.whaleThresholdBtc() : whaleThresholdBtc));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Bad on-chain setting");
+        }
+        return control();
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("Unknown " + type.getSimpleName() + " " + value, "Unknown value");
+        }
+    }
+}
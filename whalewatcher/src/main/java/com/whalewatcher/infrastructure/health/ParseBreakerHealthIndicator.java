@@ -0,0 +1,45 @@
+package com.whalewatcher.infrastructure.health;
+
+import com.whalewatcher.ingest.offchain.websocket.ParseCircuitBreaker;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Reports exchanges whose parse breaker is open under /actuator/health ("parseBreaker" component).
+ * A broken feed is DEGRADED rather than DOWN, the other venues keep ingesting.
+ */
+@Component
+public class ParseBreakerHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Parse breaker open for at least one exchange");
+
+    private final ParseCircuitBreaker breaker;
+
+    public ParseBreakerHealthIndicator(ParseCircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    @Override
+    public Health health() {
+        List<ParseCircuitBreaker.State> open = breaker.openBreakers();
+        if (open.isEmpty()) return Health.up().build();
+
+        Health.Builder health = Health.status(DEGRADED);
+        for (ParseCircuitBreaker.State s : open) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("openedAt", Instant.ofEpochMilli(s.openedAtMs()).toString());
+            details.put("rejectRate", Math.round(s.lastRejectRate() * 1000) / 1000.0);
+            details.put("skipped", s.skipped());
+            details.put("quarantine", s.quarantine());
+            health.withDetail(s.exchange().name(), details);
+        }
+        return health.build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import com.whalewatcher.domain.Chain;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+
+@Name("whalewatcher.BlockProcessed")
+@Label("Block Processed")
+@Category({"WhaleWatcher", "On-Chain"})
+@Description("Fetching and scanning one block for whale transfers")
+@StackTrace(false)
+@Registered(false)
+public final class BlockProcessedEvent extends Event {
+
+    @Label("Chain")
+    String chain;
+
+    @Label("Block Number")
+    long blockNumber;
+
+    @Label("Transactions")
+    int transactions;
+
+    @Label("Whales")
+    int whales;
+
+    public void complete(Chain chain, long blockNumber, int transactions, int whales) {
+        if (!shouldCommit()) return;
+
+        this.chain = chain.name();
+        this.blockNumber = blockNumber;
+        this.transactions = transactions;
+        this.whales = whales;
+        commit();
+    }
+}
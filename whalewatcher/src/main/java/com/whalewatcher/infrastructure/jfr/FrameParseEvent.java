@@ -0,0 +1,45 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import com.whalewatcher.domain.Exchange;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/*
+ * Time spent turning one raw frame into trades. Only parses slower than the threshold are recorded
+ * by default, lower it to 0 ms in the recording settings to see every frame.
+ */
+@Name("whalewatcher.FrameParse")
+@Label("Frame Parse")
+@Category({"WhaleWatcher", "Ingest"})
+@Description("Parsing of one raw frame into trades")
+@Threshold("1 ms")
+@StackTrace(false)
+@Registered(false)
+public final class FrameParseEvent extends Event {
+
+    @Label("Exchange")
+    String exchange;
+
+    @Label("Frame Size")
+    @DataAmount
+    int size;
+
+    @Label("Trades")
+    int trades;
+
+    public void complete(Exchange exchange, String raw, int trades) {
+        if (!shouldCommit()) return;
+
+        this.exchange = exchange.name();
+        this.size = raw == null ? 0 : raw.length();
+        this.trades = trades;
+        commit();
+    }
+}
@@ -0,0 +1,43 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import com.whalewatcher.domain.Exchange;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+
+/*
+ * One raw frame handed to the ingest engine by an adapter IO thread.
+ * Fires for every frame, so it is off unless a recording enables it explicitly.
+ */
+@Name("whalewatcher.FrameReceived")
+@Label("Frame Received")
+@Category({"WhaleWatcher", "Ingest"})
+@Description("Raw WebSocket frame published by an exchange adapter")
+@Enabled(false)
+@StackTrace(false)
+@Registered(false)
+public final class FrameReceivedEvent extends Event {
+
+    @Label("Exchange")
+    String exchange;
+
+    // UTF-16 chars, equal to the bytes on the wire for the ASCII JSON venues send
+    @Label("Frame Size")
+    @DataAmount
+    int size;
+
+    public static void emit(Exchange exchange, String raw) {
+        FrameReceivedEvent event = new FrameReceivedEvent();
+        if (!event.isEnabled()) return;
+
+        event.exchange = exchange.name();
+        event.size = raw.length();
+        event.commit();
+    }
+}
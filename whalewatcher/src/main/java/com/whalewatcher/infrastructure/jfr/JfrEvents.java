@@ -0,0 +1,39 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/*
+ * Registers the custom JFR events (whalewatcher.jfr.enabled, on by default).
+ *
+ * The events are declared @Registered(false): until registered they are not instrumented and every
+ * begin/commit is a no-op the JIT removes. Once registered, each event is still toggled and
+ * thresholded per recording like the JDK events, e.g.
+ *   -XX:StartFlightRecording:++whalewatcher.FrameReceived#enabled=true,+whalewatcher.FrameParse#threshold=0ms
+ */
+@Component
+public class JfrEvents {
+
+    static final List<Class<? extends Event>> EVENTS = List.of(
+            FrameReceivedEvent.class,
+            FrameParseEvent.class,
+            NormalizeEvent.class,
+            WhaleDetectedEvent.class,
+            RepositorySaveEvent.class,
+            RpcCallEvent.class,
+            BlockProcessedEvent.class
+    );
+
+    public JfrEvents(@Value("${whalewatcher.jfr.enabled:true}") boolean enabled) {
+        if (enabled) register();
+    }
+
+    public static void register() {
+        if (!FlightRecorder.isAvailable()) return;
+        EVENTS.forEach(FlightRecorder::register);
+    }
+}
@@ -0,0 +1,40 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import com.whalewatcher.domain.Asset;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("whalewatcher.Normalize")
+@Label("Normalize Trade")
+@Category({"WhaleWatcher", "Ingest"})
+@Description("Symbol and side normalization of one trade into an OffChainWhaleEvent")
+@Threshold("1 ms")
+@StackTrace(false)
+@Registered(false)
+public final class NormalizeEvent extends Event {
+
+    @Label("Exchange")
+    String exchange;
+
+    @Label("Symbol")
+    String symbol;
+
+    // null when the venue symbol is not tracked
+    @Label("Asset")
+    String asset;
+
+    public void complete(String exchange, String symbol, Asset asset) {
+        if (!shouldCommit()) return;
+
+        this.exchange = exchange;
+        this.symbol = symbol;
+        this.asset = asset == null ? null : asset.name();
+        commit();
+    }
+}
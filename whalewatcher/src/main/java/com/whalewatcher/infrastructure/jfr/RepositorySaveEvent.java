@@ -0,0 +1,39 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("whalewatcher.RepositorySave")
+@Label("Repository Save")
+@Category({"WhaleWatcher", "Storage"})
+@Description("Storing one whale event")
+@Threshold("1 ms")
+@StackTrace(false)
+@Registered(false)
+public final class RepositorySaveEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    // exchange or chain of the saved event
+    @Label("Source")
+    String source;
+
+    @Label("Events Held")
+    int size;
+
+    public void complete(String repository, String source, int size) {
+        if (!shouldCommit()) return;
+
+        this.repository = repository;
+        this.source = source;
+        this.size = size;
+        commit();
+    }
+}
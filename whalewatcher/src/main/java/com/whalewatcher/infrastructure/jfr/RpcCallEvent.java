@@ -0,0 +1,37 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import com.whalewatcher.domain.Chain;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+
+@Name("whalewatcher.RpcCall")
+@Label("RPC Call")
+@Category({"WhaleWatcher", "On-Chain"})
+@Description("JSON-RPC request to a chain node, including retries")
+@StackTrace(false)
+@Registered(false)
+public final class RpcCallEvent extends Event {
+
+    @Label("Chain")
+    String chain;
+
+    @Label("Method")
+    String method;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public void complete(Chain chain, String method, boolean succeeded) {
+        if (!shouldCommit()) return;
+
+        this.chain = chain.name();
+        this.method = method;
+        this.succeeded = succeeded;
+        commit();
+    }
+}
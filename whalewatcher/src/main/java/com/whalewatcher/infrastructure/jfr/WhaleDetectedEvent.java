@@ -0,0 +1,49 @@
+package com.whalewatcher.infrastructure.jfr;
+
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Registered;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("whalewatcher.WhaleDetected")
+@Label("Whale Detected")
+@Category({"WhaleWatcher", "Ingest"})
+@Description("Off-chain trade above its asset's whale threshold")
+@StackTrace(false)
+@Registered(false)
+public final class WhaleDetectedEvent extends Event {
+
+    @Label("Exchange")
+    String exchange;
+
+    @Label("Asset")
+    String asset;
+
+    @Label("Side")
+    String side;
+
+    @Label("Total USD")
+    double totalUsd;
+
+    // Venue trade time to detection, the end-to-end ingest latency (includes clock skew to the venue)
+    @Label("Trade Age")
+    @Timespan(Timespan.MILLISECONDS)
+    long ageMs;
+
+    public static void emit(OffChainWhaleEvent whale) {
+        WhaleDetectedEvent event = new WhaleDetectedEvent();
+        if (!event.isEnabled()) return;
+
+        event.exchange = whale.exchange().name();
+        event.asset = whale.asset().name();
+        event.side = whale.side();
+        event.totalUsd = whale.totalUsd();
+        event.ageMs = System.currentTimeMillis() - whale.timestampMs();
+        event.commit();
+    }
+}
@@ -0,0 +1,127 @@
+package com.whalewatcher.infrastructure.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Rate-limited log site for hot and error paths, e.g.
+ *
+ *   private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+ *   ERRORS.log(exchange.name(), "Parse failed: " + e.getMessage(), e);
+ *
+ * The first occurrence per key in a window is logged (with its stack trace), further ones are only
+ * counted and reported once per window as "N similar errors in last 10s". A repeating failure costs
+ * a map lookup and an increment on the calling thread instead of a console write.
+ */
+public final class ThrottledLog {
+
+    private static final List<ThrottledLog> SITES = new CopyOnWriteArrayList<>();
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "throttled-log-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        FLUSHER.scheduleWithFixedDelay(ThrottledLog::flushAll, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private final Logger log;
+    private final Level level;
+    private final long windowMs;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+
+    private ThrottledLog(Logger log, Level level, Duration window) {
+        this.log = log;
+        this.level = level;
+        this.windowMs = window.toMillis();
+    }
+
+    public static ThrottledLog warn(Logger log, Duration window) {
+        return of(log, Level.WARN, window);
+    }
+
+    public static ThrottledLog error(Logger log, Duration window) {
+        return of(log, Level.ERROR, window);
+    }
+
+    public static ThrottledLog of(Logger log, Level level, Duration window) {
+        ThrottledLog site = new ThrottledLog(log, level, window);
+        SITES.add(site);
+        return site;
+    }
+
+    public void log(String message, Throwable error) {
+        log("", message, error);
+    }
+
+    public void log(String key, String message, Throwable error) {
+        if (!log.isEnabledForLevel(level)) return;
+
+        Site s = sites.computeIfAbsent(key, k -> new Site());
+        long now = System.currentTimeMillis();
+        long start = s.windowStart.get();
+
+        if (now - start >= windowMs && s.windowStart.compareAndSet(start, now)) {
+            report(key, s, now - start);
+            if (key.isEmpty()) log.atLevel(level).setCause(error).log(message);
+            else log.atLevel(level).setCause(error).log("[{}] {}", key, message);
+            return;
+        }
+        s.suppressed.increment();
+        s.latest = message;
+    }
+
+    // Occurrences not logged yet (all keys)
+    public long pending() {
+        long n = 0;
+        for (Site s : sites.values()) n += s.suppressed.sum();
+        return n;
+    }
+
+    // Reports windows that ended with suppressed occurrences, keeps the next one closed while they continue
+    void flush(long now) {
+        sites.forEach((key, s) -> {
+            long start = s.windowStart.get();
+            if (now - start >= windowMs && s.suppressed.sum() > 0 && s.windowStart.compareAndSet(start, now)) {
+                report(key, s, now - start);
+            }
+        });
+    }
+
+    private void report(String key, Site s, long elapsedMs) {
+        long n = s.suppressed.sumThenReset();
+        if (n == 0) return;
+        long seconds = Math.max(1, Math.min(elapsedMs, windowMs) / 1000);
+        if (key.isEmpty()) log.atLevel(level).log("{} similar errors in last {}s, latest: {}", n, seconds, s.latest);
+        else log.atLevel(level).log("[{}] {} similar errors in last {}s, latest: {}", key, n, seconds, s.latest);
+    }
+
+    static void flushAll() {
+        long now = System.currentTimeMillis();
+        for (ThrottledLog site : SITES) {
+            try {
+                site.flush(now);
+            } catch (Exception ignored) {
+                // never let a logging failure stop the flusher
+            }
+        }
+    }
+
+    private static final class Site {
+        final AtomicLong windowStart = new AtomicLong(Long.MIN_VALUE / 2);
+        final LongAdder suppressed = new LongAdder();
+        volatile String latest;
+    }
+}
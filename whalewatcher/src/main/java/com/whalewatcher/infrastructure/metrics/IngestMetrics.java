@@ -0,0 +1,191 @@
+package com.whalewatcher.infrastructure.metrics;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.pipeline.RingIngestPipeline;
+import com.whalewatcher.ingest.offchain.websocket.ExchangeStreamManager;
+import com.whalewatcher.ingest.offchain.websocket.JitWarmup;
+import com.whalewatcher.ingest.offchain.websocket.ParseCircuitBreaker;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.ingest.offchain.websocket.RedundantFeedMerger;
+import com.whalewatcher.ingest.offchain.websocket.WsWorkers;
+import com.whalewatcher.service.TradeDeduplicator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/*
+ * Exposes the off-chain ingest counters through Micrometer (/actuator/metrics).
+ * The components keep plain counters, this binder only reads them when the registry is scraped.
+ */
+@Component
+public class IngestMetrics implements MeterBinder {
+
+    private final RawWsBus bus;
+    private final TradeDeduplicator deduplicator;
+    private final ParseCircuitBreaker breaker;
+    private final RedundantFeedMerger merger;
+    private final ExchangeStreamManager streams;
+    private final JitWarmup warmup;
+    // one of the two engines is present, depending on streams.engine
+    private final ObjectProvider<WsWorkers> workers;
+    private final ObjectProvider<RingIngestPipeline> ring;
+
+    public IngestMetrics(RawWsBus bus, TradeDeduplicator deduplicator, ParseCircuitBreaker breaker,
+                         RedundantFeedMerger merger, ExchangeStreamManager streams, JitWarmup warmup,
+                         ObjectProvider<WsWorkers> workers, ObjectProvider<RingIngestPipeline> ring) {
+        this.bus = bus;
+        this.deduplicator = deduplicator;
+        this.breaker = breaker;
+        this.merger = merger;
+        this.streams = streams;
+        this.warmup = warmup;
+        this.workers = workers;
+        this.ring = ring;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("whalewatcher.warmup.time", warmup, JitWarmup::warmupMs)
+                .description("Time the JIT warm-up ran before the streams connected")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("whalewatcher.warmup.steady.latency", warmup, JitWarmup::steadyNsPerFrame)
+                .description("Per-frame parse, normalize and detect time once the warm-up settled")
+                .baseUnit("nanoseconds")
+                .register(registry);
+        Gauge.builder("whalewatcher.bus.size", bus, RawWsBus::size)
+                .description("Raw frames waiting for a worker")
+                .register(registry);
+        Gauge.builder("whalewatcher.bus.bytes", bus, RawWsBus::bytesInFlight)
+                .description("Estimated heap held by queued raw frames")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("whalewatcher.bus.express.size", bus, RawWsBus::expressSize)
+                .description("Likely-whale frames waiting in the express lane")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.bus.express", bus, RawWsBus::expressCount)
+                .description("Frames routed to the express lane")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.bus.dropped", bus, RawWsBus::droppedCount)
+                .description("Raw frames dropped because the bus was over its byte or message budget")
+                .register(registry);
+
+        workers.ifAvailable(w -> bindWorkers(registry, w));
+        ring.ifAvailable(r -> bindRing(registry, r));
+
+        for (Exchange ex : Exchange.values()) {
+            FunctionCounter.builder("whalewatcher.bus.frames", bus, b -> b.publishedCount(ex))
+                    .description("Raw frames received from the exchange")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+            Gauge.builder("whalewatcher.bus.exchange.bytes", bus, b -> b.bytesInFlight(ex))
+                    .description("Estimated heap held by queued raw frames of one exchange")
+                    .baseUnit("bytes")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+            FunctionCounter.builder("whalewatcher.trades.duplicates", deduplicator, d -> d.duplicates(ex))
+                    .description("Trades dropped because their trade id was already ingested")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+            Gauge.builder("whalewatcher.trades.missing", deduplicator, d -> d.missing(ex))
+                    .description("Trade ids skipped on sequential streams (data loss)")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+            FunctionCounter.builder("whalewatcher.parse.rejected", breaker, b -> b.rejectedCount(ex))
+                    .description("Frames that failed to parse or yielded no trades")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+            FunctionCounter.builder("whalewatcher.parse.skipped", breaker, b -> b.skippedCount(ex))
+                    .description("Frames skipped unparsed while the exchange's parse breaker was open")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+            Gauge.builder("whalewatcher.parse.breaker.open", breaker, b -> b.isOpen(ex) ? 1 : 0)
+                    .description("1 while the exchange's parse breaker is open")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+
+            Gauge.builder("whalewatcher.streams.first.trade", streams, s -> s.timeToFirstTradeMs(ex))
+                    .description("Time from starting the stream to its first trade frame")
+                    .baseUnit("milliseconds")
+                    .tag("exchange", ex.name())
+                    .register(registry);
+
+            if (merger.isRedundant(ex)) bindRedundancy(registry, ex);
+        }
+    }
+
+    private void bindRedundancy(MeterRegistry registry, Exchange ex) {
+        for (int c : new int[]{RedundantFeedMerger.PRIMARY, RedundantFeedMerger.STANDBY}) {
+            String connection = c == RedundantFeedMerger.PRIMARY ? "primary" : "standby";
+            FunctionCounter.builder("whalewatcher.redundancy.wins", merger, m -> m.wins(ex, c))
+                    .description("Frames both connections delivered where this one was first")
+                    .tags("exchange", ex.name(), "connection", connection)
+                    .register(registry);
+            FunctionCounter.builder("whalewatcher.redundancy.lead", merger, m -> m.leadSeconds(ex, c))
+                    .description("Total head start of the connection's wins over the other connection")
+                    .baseUnit("seconds")
+                    .tags("exchange", ex.name(), "connection", connection)
+                    .register(registry);
+            FunctionCounter.builder("whalewatcher.redundancy.solo", merger, m -> m.solo(ex, c))
+                    .description("Frames only this connection delivered within the merge window")
+                    .tags("exchange", ex.name(), "connection", connection)
+                    .register(registry);
+        }
+    }
+
+    private void bindWorkers(MeterRegistry registry, WsWorkers workers) {
+        Gauge.builder("whalewatcher.workers.active", workers, WsWorkers::workerCount)
+                .description("WsWorkers threads currently draining the bus")
+                .register(registry);
+        Gauge.builder("whalewatcher.workers.dequeue.latency", workers, WsWorkers::dequeueLatencyMs)
+                .description("Average time frames waited on the bus during the last control interval")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.workers.scaling", workers, WsWorkers::scaleUps)
+                .description("Elastic pool decisions")
+                .tag("direction", "up")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.workers.scaling", workers, WsWorkers::scaleDowns)
+                .description("Elastic pool decisions")
+                .tag("direction", "down")
+                .register(registry);
+
+        Gauge.builder("whalewatcher.workers.partition.skew", workers, WsWorkers::partitionSkew)
+                .description("Busiest partition's frames relative to a fair share (PARTITIONED dispatch)")
+                .register(registry);
+        for (int i = 0; i < workers.partitionCount(); i++) {
+            int p = i;
+            FunctionCounter.builder("whalewatcher.workers.partition.processed", workers, w -> w.partitionProcessed(p))
+                    .description("Frames processed by one partition")
+                    .tag("partition", String.valueOf(p))
+                    .register(registry);
+            Gauge.builder("whalewatcher.workers.partition.depth", workers, w -> w.partitionDepth(p))
+                    .description("Frames queued for one partition")
+                    .tag("partition", String.valueOf(p))
+                    .register(registry);
+        }
+    }
+
+    private void bindRing(MeterRegistry registry, RingIngestPipeline ring) {
+        Gauge.builder("whalewatcher.ring.backlog", ring, RingIngestPipeline::backlog)
+                .description("Frames claimed in the ring but not yet through the store stage")
+                .register(registry);
+        Gauge.builder("whalewatcher.ring.remaining", ring, RingIngestPipeline::remainingCapacity)
+                .description("Free ring slots before producers drop frames")
+                .register(registry);
+        Gauge.builder("whalewatcher.ring.lag", ring, RingIngestPipeline::parseLag)
+                .description("Frames published but not yet past a stage")
+                .tag("stage", "parse")
+                .register(registry);
+        Gauge.builder("whalewatcher.ring.lag", ring, RingIngestPipeline::detectLag)
+                .description("Frames published but not yet past a stage")
+                .tag("stage", "detect")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.ring.parse.errors", ring, RingIngestPipeline::parseErrors)
+                .description("Frames the parse stage could not parse")
+                .register(registry);
+    }
+}
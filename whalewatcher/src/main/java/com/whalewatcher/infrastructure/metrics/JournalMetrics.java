@@ -0,0 +1,50 @@
+package com.whalewatcher.infrastructure.metrics;
+
+import com.whalewatcher.persistence.journal.WhaleJournal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/*
+ * Whale journal meters. Events per commit (appended / commits) shows how well group commit batches;
+ * drops mean the disk could not keep up with the queue.
+ */
+@Component
+public class JournalMetrics implements MeterBinder {
+
+    private final WhaleJournal journal;
+
+    public JournalMetrics(WhaleJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!journal.enabled()) return;
+
+        Gauge.builder("whalewatcher.journal.queue.size", journal, WhaleJournal::queued)
+                .description("Journal records waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.journal.appended", journal, WhaleJournal::appended)
+                .description("Whale events written to the journal")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.journal.commits", journal, WhaleJournal::commits)
+                .description("Group commits, one write and sync each")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.journal.dropped", journal, WhaleJournal::dropped)
+                .description("Records not journaled because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.journal.failed", journal, WhaleJournal::failed)
+                .description("Records that could not be encoded")
+                .register(registry);
+        Gauge.builder("whalewatcher.journal.replay.time", journal, WhaleJournal::replayMs)
+                .description("Time the startup replay of the journal took")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("whalewatcher.journal.replay.events", journal, WhaleJournal::replayedEvents)
+                .description("Whale events restored from the journal on startup")
+                .register(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.whalewatcher.infrastructure.metrics;
+
+import com.whalewatcher.persistence.WriteBehindPersister;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/*
+ * Write-behind persistence meters. A growing queue or any drops mean the database is not keeping up
+ * with the whales (or is down and the writer is backing off).
+ */
+@Component
+public class PersistenceMetrics implements MeterBinder {
+
+    private final WriteBehindPersister persister;
+
+    public PersistenceMetrics(WriteBehindPersister persister) {
+        this.persister = persister;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!persister.enabled()) return;
+
+        Gauge.builder("whalewatcher.persist.queue.size", persister, WriteBehindPersister::queued)
+                .description("Whale events waiting to be written to the database")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.persist.written", persister, WriteBehindPersister::written)
+                .description("Whale events written to the database")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.persist.dropped", persister, WriteBehindPersister::dropped)
+                .description("Whale events not persisted because the write-behind queue was full")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.persist.retries", persister, WriteBehindPersister::retries)
+                .description("Failed batch inserts that were retried")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.persist.failed", persister, WriteBehindPersister::failed)
+                .description("Whale events given up on after the last retry")
+                .register(registry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.whalewatcher.infrastructure.metrics;
+
+import com.whalewatcher.persistence.segment.TradeSegmentStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/*
+ * Trade store meters, only with the store enabled. Drops mean a segment could not be created
+ * (disk full, permissions) or trades arrived after shutdown began.
+ */
+@Component
+public class TradeStoreMetrics implements MeterBinder {
+
+    private final ObjectProvider<TradeSegmentStore> store;
+
+    public TradeStoreMetrics(ObjectProvider<TradeSegmentStore> store) {
+        this.store = store;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TradeSegmentStore s = store.getIfAvailable();
+        if (s == null) return;
+
+        FunctionCounter.builder("whalewatcher.trades.appended", s, TradeSegmentStore::appended)
+                .description("Trades written to the columnar trade store")
+                .register(registry);
+        FunctionCounter.builder("whalewatcher.trades.dropped", s, TradeSegmentStore::dropped)
+                .description("Trades the trade store could not take")
+                .register(registry);
+        Gauge.builder("whalewatcher.trades.rows", s, TradeSegmentStore::rows)
+                .description("Trades held across all segments")
+                .register(registry);
+        Gauge.builder("whalewatcher.trades.segments", s, TradeSegmentStore::segmentCount)
+                .description("Segments in the trade store")
+                .register(registry);
+        Gauge.builder("whalewatcher.trades.bytes", s, TradeSegmentStore::bytes)
+                .description("Bytes of written rows and indexes, on disk and in the page cache")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
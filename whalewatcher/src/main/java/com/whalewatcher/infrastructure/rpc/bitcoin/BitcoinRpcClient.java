@@ -1,5 +1,7 @@
 package com.whalewatcher.infrastructure.rpc.bitcoin;
 
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.infrastructure.jfr.RpcCallEvent;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -52,6 +54,19 @@ public class BitcoinRpcClient {
 
     // Send a rpc request to Bitcoin (QuickNode)
     private Map<?, ?> postRpc(String method, List<?> params) {
+        RpcCallEvent jfr = new RpcCallEvent();
+        jfr.begin();
+        try {
+            Map<?, ?> resp = call(method, params);
+            jfr.complete(Chain.BITCOIN, method, true);
+            return resp;
+        } catch (RuntimeException e) {
+            jfr.complete(Chain.BITCOIN, method, false);
+            throw e;
+        }
+    }
+
+    private Map<?, ?> call(String method, List<?> params) {
         long id = rpcId.getAndIncrement();
 
         Map<String, Object> body = Map.of(
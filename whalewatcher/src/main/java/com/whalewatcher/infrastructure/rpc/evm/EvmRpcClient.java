@@ -1,5 +1,7 @@
 package com.whalewatcher.infrastructure.rpc.evm;
 
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.infrastructure.jfr.RpcCallEvent;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -47,6 +49,19 @@ public class EvmRpcClient {
 
     // Send a JSON-RPC request to Ethereum (QuickNode)
     private Map<?, ?> postRpc(String method, List<?> params) {
+        RpcCallEvent jfr = new RpcCallEvent();
+        jfr.begin();
+        try {
+            Map<?, ?> resp = call(method, params);
+            jfr.complete(Chain.ETHEREUM, method, true);
+            return resp;
+        } catch (RuntimeException e) {
+            jfr.complete(Chain.ETHEREUM, method, false);
+            throw e;
+        }
+    }
+
+    private Map<?, ?> call(String method, List<?> params) {
         long id = rpcId.getAndIncrement();
 
         Map<String, Object> body = Map.of(
@@ -0,0 +1,50 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/*
+ * Parks waiting stages on a condition. Signallers only take the lock when a stage is actually parked,
+ * so a busy pipeline pays one volatile read per publish.
+ */
+final class BlockingWaitStrategy implements WaitStrategy {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition progress = lock.newCondition();
+    private final AtomicBoolean signalNeeded = new AtomicBoolean();
+
+    @Override
+    public long waitFor(long sequence, SequenceBarrier barrier, BooleanSupplier running) throws InterruptedException {
+        long available = barrier.available(sequence);
+        if (available >= sequence) return available;
+
+        lock.lock();
+        try {
+            while ((available = barrier.available(sequence)) < sequence) {
+                if (!running.getAsBoolean()) return sequence - 1;
+                signalNeeded.set(true);
+                // re-check after raising the flag, a signal may have raced us
+                if ((available = barrier.available(sequence)) >= sequence) break;
+                progress.await(10, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAll() {
+        if (signalNeeded.get() && signalNeeded.getAndSet(false)) {
+            lock.lock();
+            try {
+                progress.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
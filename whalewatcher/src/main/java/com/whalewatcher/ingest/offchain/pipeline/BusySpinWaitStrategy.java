@@ -0,0 +1,19 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import java.util.function.BooleanSupplier;
+
+final class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public long waitFor(long sequence, SequenceBarrier barrier, BooleanSupplier running) {
+        long available;
+        while ((available = barrier.available(sequence)) < sequence) {
+            if (!running.getAsBoolean()) return sequence - 1;
+            Thread.onSpinWait();
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAll() {}
+}
@@ -0,0 +1,91 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+ * Preallocated multi-producer ring of IngestSlots.
+ *
+ * Producers claim a sequence with a CAS on the cursor and never wait: when the slowest (gating) stage
+ * is a full lap behind, tryClaim fails and the frame is dropped, like a full RawWsBus. A claimed slot
+ * becomes visible to stages when its availability flag holds the sequence's lap number.
+ */
+final class IngestRing {
+
+    private final IngestSlot[] slots;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray published;
+
+    private final Sequence cursor = new Sequence(-1);
+    private final Sequence gatingCache = new Sequence(-1);
+    private volatile Sequence[] gating = new Sequence[0];
+
+    IngestRing(int size) {
+        if (Integer.bitCount(size) != 1) throw new IllegalArgumentException("Ring size must be a power of two: " + size);
+        this.slots = new IngestSlot[size];
+        for (int i = 0; i < size; i++) slots[i] = new IngestSlot();
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) published.set(i, -1);
+    }
+
+    int size() { return slots.length; }
+
+    long cursor() { return cursor.get(); }
+
+    // Stages the producers must not lap, set once before the first claim
+    void gateOn(Sequence... sequences) {
+        this.gating = sequences;
+    }
+
+    IngestSlot slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    // Next sequence to fill, or -1 if the ring is full
+    long tryClaim() {
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - slots.length;
+
+            if (wrapPoint > gatingCache.get()) {
+                long min = minGating(current);
+                gatingCache.publish(min);
+                if (wrapPoint > min) return -1;
+            }
+            if (cursor.compareAndSet(current, next)) return next;
+        }
+    }
+
+    void publish(long sequence) {
+        published.set((int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    // Highest sequence in [lowerBound, cursor] such that every sequence up to it is published
+    long highestPublished(long lowerBound) {
+        long hi = cursor.get();
+        for (long s = lowerBound; s <= hi; s++) {
+            if (!isPublished(s)) return s - 1;
+        }
+        return hi;
+    }
+
+    // Free slots before producers start dropping
+    long remainingCapacity() {
+        return slots.length - (cursor.get() - minGating(cursor.get()));
+    }
+
+    private long minGating(long fallback) {
+        long min = fallback;
+        for (Sequence s : gating) {
+            min = Math.min(min, s.get());
+        }
+        return min;
+    }
+}
@@ -0,0 +1,32 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.Trade;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Mutable ring entry, allocated once and reused for every frame that lands on its index.
+ * Each stage only touches the fields it owns, the sequence barriers order the hand-offs.
+ */
+final class IngestSlot {
+
+    // written by the producer
+    Exchange exchange;
+    String raw;
+    long receivedAtMs;
+
+    // written by the parse stage
+    List<Trade> trades = List.of();
+
+    // written by the detect stage, drained by the store stage
+    final List<OffChainWhaleEvent> whales = new ArrayList<>(4);
+
+    void clear() {
+        raw = null;
+        trades = List.of();
+        whales.clear();
+    }
+}
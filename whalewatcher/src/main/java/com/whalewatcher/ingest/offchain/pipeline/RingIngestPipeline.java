@@ -0,0 +1,326 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.Trade;
+import com.whalewatcher.infrastructure.jfr.WhaleDetectedEvent;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import com.whalewatcher.ingest.offchain.websocket.IngestEngine;
+import com.whalewatcher.ingest.offchain.websocket.ParseCircuitBreaker;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.ingest.offchain.websocket.WsMessageParser;
+import com.whalewatcher.repository.WhaleEventRepository;
+import com.whalewatcher.service.NormalizationService;
+import com.whalewatcher.service.SymbolMapper;
+import com.whalewatcher.service.TradeDeduplicator;
+import com.whalewatcher.service.TradeRecorder;
+import com.whalewatcher.service.WhaleDetectionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/*
+ * Alternative off-chain ingest engine (streams.engine=RING) replacing RawWsBus queueing and WsWorkers.
+ *
+ * Frames are written into a preallocated ring by the adapter threads and flow through three stages,
+ * each gated on the one before it:
+ *
+ *   parse  (parseThreads threads, thread k takes sequences k, k+n, ...)  raw -> trades
+ *   detect (1 thread, in sequence order)                                  dedup, trade store, whale check
+ *   store  (1 thread, gates the producers)                                repository save, slot reset
+ *
+ * No queue nodes or message wrappers are allocated per frame, and the detect stage checks the whale
+ * threshold on primitives so an OffChainWhaleEvent is only built for actual whales. Gson parsing
+ * inside WsMessageParser still allocates per frame.
+ *
+ * On shutdown drain() waits for the store stage to catch up with the last claimed slot before the
+ * stage threads stop, see IngestShutdown.
+ */
+@Component
+@ConditionalOnProperty(prefix = "streams", name = "engine", havingValue = "RING")
+public class RingIngestPipeline implements RawWsBus.FrameSink, IngestEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RingIngestPipeline.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.error(log, Duration.ofSeconds(10));
+
+    private final RawWsBus bus;
+    private final WsMessageParser parser;
+    private final TradeDeduplicator deduplicator;
+    private final SymbolMapper symbolMapper;
+    private final WhaleDetectionService whaleDetectionService;
+    private final NormalizationService normalizationService;
+    private final WhaleEventRepository repository;
+    private final RingPipelineProperties props;
+    private final ParseCircuitBreaker breaker;
+    private final TradeRecorder recorder;
+
+    private final IngestRing ring;
+    private final WaitStrategy waitStrategy;
+    private final Sequence[] parseSequences;
+    private final Sequence detectSequence = new Sequence(-1);
+    private final Sequence storeSequence = new Sequence(-1);
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final Sequence parseErrors = new Sequence(0);
+
+    private volatile boolean running = true;
+    private final BooleanSupplier isRunning = () -> running;
+
+    public RingIngestPipeline(RawWsBus bus, WsMessageParser parser, TradeDeduplicator deduplicator,
+                              SymbolMapper symbolMapper, WhaleDetectionService whaleDetectionService,
+                              NormalizationService normalizationService, WhaleEventRepository repository,
+                              RingPipelineProperties props) {
+        this(bus, parser, deduplicator, symbolMapper, whaleDetectionService, normalizationService, repository,
+                props, ParseCircuitBreaker.disabled(), TradeRecorder.NONE);
+    }
+
+    @Autowired
+    public RingIngestPipeline(RawWsBus bus, WsMessageParser parser, TradeDeduplicator deduplicator,
+                              SymbolMapper symbolMapper, WhaleDetectionService whaleDetectionService,
+                              NormalizationService normalizationService, WhaleEventRepository repository,
+                              RingPipelineProperties props, ParseCircuitBreaker breaker,
+                              ObjectProvider<TradeRecorder> recorder) {
+        this(bus, parser, deduplicator, symbolMapper, whaleDetectionService, normalizationService, repository,
+                props, breaker, recorder.getIfAvailable(() -> TradeRecorder.NONE));
+    }
+
+    public RingIngestPipeline(RawWsBus bus, WsMessageParser parser, TradeDeduplicator deduplicator,
+                              SymbolMapper symbolMapper, WhaleDetectionService whaleDetectionService,
+                              NormalizationService normalizationService, WhaleEventRepository repository,
+                              RingPipelineProperties props, ParseCircuitBreaker breaker, TradeRecorder recorder) {
+        this.bus = bus;
+        this.parser = parser;
+        this.deduplicator = deduplicator;
+        this.symbolMapper = symbolMapper;
+        this.whaleDetectionService = whaleDetectionService;
+        this.normalizationService = normalizationService;
+        this.repository = repository;
+        this.props = props;
+        this.breaker = breaker;
+        this.recorder = recorder;
+
+        this.ring = new IngestRing(props.getSize());
+        this.waitStrategy = WaitStrategy.of(props.getWaitStrategy());
+
+        int n = Math.max(1, props.getParseThreads());
+        this.parseSequences = new Sequence[n];
+        for (int k = 0; k < n; k++) {
+            // all of thread k's sequences below k are trivially done
+            parseSequences[k] = new Sequence(k - 1);
+        }
+        ring.gateOn(storeSequence);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int k = 0; k < parseSequences.length; k++) {
+            int stride = k;
+            threads.add(new Thread(() -> parseLoop(stride), "ring-parse-" + k));
+        }
+        threads.add(new Thread(this::detectLoop, "ring-detect"));
+        threads.add(new Thread(this::storeLoop, "ring-store"));
+        threads.forEach(t -> {
+            t.setDaemon(true);
+            t.start();
+        });
+
+        bus.redirectTo(this);
+        log.info("Ring ingest pipeline started: size={} parseThreads={} wait={}",
+                ring.size(), parseSequences.length, props.getWaitStrategy());
+    }
+
+    // Producer side, runs on the adapter IO threads
+    @Override
+    public boolean offer(Exchange exchange, String raw) {
+        long seq = ring.tryClaim();
+        if (seq < 0) return false;
+
+        IngestSlot slot = ring.slot(seq);
+        slot.exchange = exchange;
+        slot.raw = raw;
+        slot.receivedAtMs = System.currentTimeMillis();
+        ring.publish(seq);
+
+        waitStrategy.signalAll();
+        return true;
+    }
+
+    private void parseLoop(int k) {
+        int stride = parseSequences.length;
+        Sequence own = parseSequences[k];
+        SequenceBarrier published = ring::highestPublished;
+        long next = k;
+
+        while (running) {
+            try {
+                long available = waitStrategy.waitFor(next, published, isRunning);
+                for (; next <= available; next += stride) {
+                    IngestSlot slot = ring.slot(next);
+                    parse(slot);
+                    // everything of ours before our next sequence is done
+                    own.publish(next + stride - 1);
+                }
+                waitStrategy.signalAll();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void parse(IngestSlot slot) {
+        if (!breaker.admit(slot.exchange)) {
+            slot.trades = List.of();
+            return;
+        }
+        try {
+            slot.trades = parser.parse(slot.exchange, slot.raw);
+        } catch (Exception e) {
+            slot.trades = List.of();
+            parseErrors.incrementAndGet();
+            breaker.rejected(slot.exchange, slot.raw, e);
+            return;
+        }
+        if (slot.trades.isEmpty()) breaker.rejected(slot.exchange, slot.raw, null);
+        else breaker.accepted(slot.exchange);
+    }
+
+    private void detectLoop() {
+        SequenceBarrier parsed = requested -> minOf(parseSequences);
+        long next = 0;
+
+        while (running) {
+            try {
+                long available = waitStrategy.waitFor(next, parsed, isRunning);
+                for (; next <= available; next++) {
+                    try {
+                        detect(ring.slot(next));
+                    } catch (Exception e) {
+                        // the whales found before the error still go to the store stage
+                        ERRORS.log("detect", "Ring detect error: " + e.getMessage(), e);
+                    }
+                }
+                detectSequence.publish(available);
+                waitStrategy.signalAll();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void detect(IngestSlot slot) {
+        List<Trade> trades = slot.trades;
+        for (int i = 0; i < trades.size(); i++) {
+            Trade t = trades.get(i);
+            if (!deduplicator.firstSeen(t)) continue;
+            recorder.record(t);
+
+            Asset asset = symbolMapper.normalize(t.symbol(), t.exchange());
+            if (asset == null || !whaleDetectionService.isWhale(t.exchange(), asset, t.price() * t.volume())) continue;
+
+            OffChainWhaleEvent event = normalizationService.normalize(t);
+            if (event != null) {
+                WhaleDetectedEvent.emit(event);
+                slot.whales.add(event);
+            }
+        }
+    }
+
+    private void storeLoop() {
+        SequenceBarrier detected = requested -> detectSequence.get();
+        long next = 0;
+
+        while (running) {
+            try {
+                long available = waitStrategy.waitFor(next, detected, isRunning);
+                for (; next <= available; next++) {
+                    IngestSlot slot = ring.slot(next);
+                    List<OffChainWhaleEvent> whales = slot.whales;
+                    for (int i = 0; i < whales.size(); i++) {
+                        // each whale is saved once, a failing one is logged and skipped
+                        try {
+                            repository.save(whales.get(i));
+                        } catch (Exception e) {
+                            ERRORS.log("store", "Ring store error: " + e.getMessage(), e);
+                        }
+                    }
+                    slot.clear();
+                }
+                // frees the slots for the producers
+                storeSequence.publish(available);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static long minOf(Sequence[] sequences) {
+        long min = Long.MAX_VALUE;
+        for (Sequence s : sequences) {
+            min = Math.min(min, s.get());
+        }
+        return min;
+    }
+
+    // Frames claimed but not yet through the store stage
+    public long backlog() {
+        return ring.cursor() - storeSequence.get();
+    }
+
+    public long parseLag() {
+        return ring.cursor() - minOf(parseSequences);
+    }
+
+    public long detectLag() {
+        return ring.cursor() - detectSequence.get();
+    }
+
+    public long remainingCapacity() {
+        return ring.remainingCapacity();
+    }
+
+    public long parseErrors() {
+        return parseErrors.get();
+    }
+
+    @Override
+    public DrainReport drain(Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long before = storeSequence.get();
+
+        try {
+            while (backlog() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long discarded = backlog();
+        long stored = storeSequence.get() - before;
+        stop();
+        return new DrainReport(stored, discarded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        waitStrategy.signalAll();
+        for (Thread t : threads) t.interrupt();
+    }
+}
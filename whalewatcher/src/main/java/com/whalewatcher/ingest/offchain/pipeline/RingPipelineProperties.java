@@ -0,0 +1,29 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * Settings of the ring engine (streams.engine=RING).
+ */
+@Component
+@ConfigurationProperties(prefix = "streams.ring")
+public class RingPipelineProperties {
+
+    // Slots in the ring, must be a power of two
+    private int size = 65_536;
+
+    // Threads sharing the parse stage (each takes every n-th sequence)
+    private int parseThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 2));
+
+    private WaitStrategy.Type waitStrategy = WaitStrategy.Type.BLOCKING;
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public int getParseThreads() { return parseThreads; }
+    public void setParseThreads(int parseThreads) { this.parseThreads = parseThreads; }
+
+    public WaitStrategy.Type getWaitStrategy() { return waitStrategy; }
+    public void setWaitStrategy(WaitStrategy.Type waitStrategy) { this.waitStrategy = waitStrategy; }
+}
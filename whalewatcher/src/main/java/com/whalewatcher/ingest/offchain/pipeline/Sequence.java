@@ -0,0 +1,21 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Progress counter of a producer or stage. Padded so two hot sequences never share a cache line.
+ */
+final class Sequence extends AtomicLong {
+
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    Sequence(long initial) {
+        super(initial);
+    }
+
+    // Release store, enough for readers that only need to see the slot writes before it
+    void publish(long value) {
+        lazySet(value);
+    }
+}
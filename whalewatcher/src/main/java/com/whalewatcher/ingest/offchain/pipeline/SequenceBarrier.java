@@ -0,0 +1,10 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+/*
+ * What a stage depends on: the highest sequence it may process, given the one it wants next.
+ */
+interface SequenceBarrier {
+
+    // Highest ready sequence >= requested - 1
+    long available(long requested);
+}
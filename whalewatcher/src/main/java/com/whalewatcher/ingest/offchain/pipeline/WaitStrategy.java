@@ -0,0 +1,26 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import java.util.function.BooleanSupplier;
+
+/*
+ * How a stage waits for its barrier. Trades CPU for latency: BUSY_SPIN burns a core per stage for the
+ * lowest wake-up latency, YIELDING spins briefly then yields, BLOCKING parks until signalled.
+ */
+public interface WaitStrategy {
+
+    enum Type { BLOCKING, YIELDING, BUSY_SPIN }
+
+    // Returns the highest available sequence >= sequence, or sequence - 1 once running turns false
+    long waitFor(long sequence, SequenceBarrier barrier, BooleanSupplier running) throws InterruptedException;
+
+    // Called after every publish or stage progress
+    void signalAll();
+
+    static WaitStrategy of(Type type) {
+        return switch (type) {
+            case BLOCKING -> new BlockingWaitStrategy();
+            case YIELDING -> new YieldingWaitStrategy();
+            case BUSY_SPIN -> new BusySpinWaitStrategy();
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.whalewatcher.ingest.offchain.pipeline;
+
+import java.util.function.BooleanSupplier;
+
+final class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public long waitFor(long sequence, SequenceBarrier barrier, BooleanSupplier running) {
+        int counter = SPIN_TRIES;
+        long available;
+        while ((available = barrier.available(sequence)) < sequence) {
+            if (!running.getAsBoolean()) return sequence - 1;
+            if (counter > 0) {
+                counter--;
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAll() {}
+}
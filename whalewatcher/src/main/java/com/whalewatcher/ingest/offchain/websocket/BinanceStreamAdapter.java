@@ -1,32 +1,59 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class BinanceStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(BinanceStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public BinanceStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public BinanceStreamAdapter(RawWsBus bus) {
-        super(URI.create(
-                "wss://stream.binance.com:9443/stream?streams=" +
-                        "btcusdt@trade/" +
-                        "ethusdt@trade/" +
-                        "bnbusdt@trade/" +
-                        "solusdt@trade/" +
-                        "xrpusdt@trade"
-        ));
+    BinanceStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(streamUri(props, connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
+    }
+
+    // Combined stream URL, @aggTrade carries one message per taker order instead of one per fill
+    private static URI streamUri(StreamProperties props, int connection) {
+        String channel = props.channelModeFor(Exchange.BINANCE) == ChannelMode.AGGREGATE ? "@aggTrade" : "@trade";
+        String streams = Stream.of("btcusdt", "ethusdt", "bnbusdt", "solusdt", "xrpusdt")
+                .map(s -> s + channel)
+                .collect(Collectors.joining("/"));
+        return URI.create(props.uriFor(Exchange.BINANCE, "wss://stream.binance.com:9443/stream", connection) + "?streams=" + streams);
     }
 
     @Override
     public Exchange exchange() { return Exchange.BINANCE; }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new BinanceStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() { this.connect(); }
 
@@ -37,22 +64,23 @@ public class BinanceStreamAdapter extends WebSocketClient implements ExchangeStr
 
     @Override
     public void onOpen(ServerHandshake handshake) {
-        System.out.println("Binance connection opened");
+        log.info("Binance connection opened");
     }
 
     @Override
     public void onMessage(String msg) {
-        if (msg == null || msg.isBlank()) return;
-        bus.publish(Exchange.BINANCE, msg);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.BINANCE, msg)) return;
+        bus.publish(Exchange.BINANCE, connection, msg);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Binance connection closed: " + code + " " + reason);
+        log.info("Binance connection closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception ex) {
-        ex.printStackTrace();
+        ERRORS.log("Binance stream error: " + ex.getMessage(), ex);
     }
 }
\ No newline at end of file
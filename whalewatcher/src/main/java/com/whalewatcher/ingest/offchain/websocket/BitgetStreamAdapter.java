@@ -1,16 +1,23 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 import java.util.concurrent.*;
 
 @Component
 public class BitgetStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(BitgetStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     // Bitget requires heartbeats every 30 seconds to keep the connection otherwise the connection will be closed
     private final ScheduledExecutorService heartbeat =
             Executors.newSingleThreadScheduledExecutor();
@@ -18,10 +25,20 @@ public class BitgetStreamAdapter extends WebSocketClient implements ExchangeStre
     private volatile ScheduledFuture<?> heartbeatTask;
 
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public BitgetStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public BitgetStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://ws.bitget.com/v2/ws/public"));
+    BitgetStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.BITGET, "wss://ws.bitget.com/v2/ws/public", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -29,6 +46,11 @@ public class BitgetStreamAdapter extends WebSocketClient implements ExchangeStre
         return Exchange.BITGET;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new BitgetStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -68,21 +90,20 @@ public class BitgetStreamAdapter extends WebSocketClient implements ExchangeStre
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        // Bitget heartbeat response, no enqueue
-        if ("pong".equalsIgnoreCase(raw.trim())) return;
+        // pong and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.BITGET, raw)) return;
 
-        bus.publish(Exchange.BITGET, raw);
+        bus.publish(Exchange.BITGET, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Bitget connection closed: " + code + " " + reason);
+        log.info("Bitget connection closed: {} {}", code, reason);
         if (heartbeatTask != null) heartbeatTask.cancel(true);
     }
 
     @Override
     public void onError(Exception e) {
-        e.printStackTrace();
+        ERRORS.log("Bitget stream error: " + e.getMessage(), e);
     }
 }
\ No newline at end of file
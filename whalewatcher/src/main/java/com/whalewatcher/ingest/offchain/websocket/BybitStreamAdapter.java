@@ -1,20 +1,37 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 
 @Component
 public class BybitStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(BybitStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public BybitStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public BybitStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://stream.bybit.com/v5/public/spot"));
+    BybitStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.BYBIT, "wss://stream.bybit.com/v5/public/spot", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -22,6 +39,11 @@ public class BybitStreamAdapter extends WebSocketClient implements ExchangeStrea
         return Exchange.BYBIT;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new BybitStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -48,22 +70,23 @@ public class BybitStreamAdapter extends WebSocketClient implements ExchangeStrea
         }
         """;
         send(subscribeMessage);
-        System.out.println("Bybit connection opened + subscribed");
+        log.info("Bybit connection opened + subscribed");
     }
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        bus.publish(Exchange.BYBIT, raw);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.BYBIT, raw)) return;
+        bus.publish(Exchange.BYBIT, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Bybit connection closed: " + code + " " + reason);
+        log.info("Bybit connection closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception e) {
-        e.printStackTrace();
+        ERRORS.log("Bybit stream error: " + e.getMessage(), e);
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+/*
+ * Which public trade channel an adapter subscribes to.
+ *
+ * TRADE is one message per fill. AGGREGATE merges the fills of one taker order into a single message
+ * (e.g. Binance @aggTrade), which carries the same notional in fewer frames.
+ */
+public enum ChannelMode {
+    TRADE,
+    AGGREGATE
+}
@@ -1,20 +1,37 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 
 @Component
 public class CoinbaseStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(CoinbaseStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public CoinbaseStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public CoinbaseStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://advanced-trade-ws.coinbase.com"));
+    CoinbaseStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.COINBASE, "wss://advanced-trade-ws.coinbase.com", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -22,6 +39,11 @@ public class CoinbaseStreamAdapter extends WebSocketClient implements ExchangeSt
         return Exchange.COINBASE;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new CoinbaseStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -53,22 +75,23 @@ public class CoinbaseStreamAdapter extends WebSocketClient implements ExchangeSt
         """;
         send(subscribeHeartbeats);
 
-        System.out.println("Coinbase connection opened + subscribed");
+        log.info("Coinbase connection opened + subscribed");
     }
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        bus.publish(Exchange.COINBASE, raw);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.COINBASE, raw)) return;
+        bus.publish(Exchange.COINBASE, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Coinbase connection closed: " + code + " " + reason);
+        log.info("Coinbase connection closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception ex) {
-        ex.printStackTrace();
+        ERRORS.log("Coinbase stream error: " + ex.getMessage(), ex);
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import com.whalewatcher.domain.Exchange;
+
+/*
+ * Tells control frames (welcome, ping/pong, heartbeats, subscribe acks) from data frames on the adapter
+ * IO thread, without parsing JSON.
+ *
+ * Venues put the discriminating field near the start of the frame, so only the first HEAD_CHARS are
+ * scanned. Anything not positively recognized as control is DATA and reaches the workers untouched.
+ */
+public final class ControlFrameClassifier {
+
+    public enum Kind { DATA, WELCOME, PING, PONG, HEARTBEAT, ACK, IGNORED }
+
+    static final int HEAD_CHARS = 160;
+
+    private static final String TYPE = "\"type\":\"";
+    private static final String SUBJECT = "\"subject\":\"";
+    private static final String METHOD = "\"method\":\"";
+    private static final String CHANNEL = "\"channel\":\"";
+    private static final String EVENT = "\"event\":\"";
+    private static final String OP = "\"op\":\"";
+
+    private ControlFrameClassifier() {}
+
+    public static Kind classify(Exchange exchange, String raw) {
+        if (raw == null || raw.isBlank()) return Kind.IGNORED;
+
+        return switch (exchange) {
+            case KUCOIN -> kucoin(raw);
+            case CRYPTOCOM -> {
+                if (is(raw, METHOD, "public/heartbeat")) yield Kind.HEARTBEAT;
+                // subscribe responses carry a result only once they hold trades
+                if (is(raw, METHOD, "subscribe") && !raw.contains("\"result\"")) yield Kind.ACK;
+                yield Kind.DATA;
+            }
+            case BITGET -> {
+                if (raw.length() <= 6 && raw.trim().equalsIgnoreCase("pong")) yield Kind.PONG;
+                if (is(raw, EVENT, "subscribe") || is(raw, EVENT, "error")) yield Kind.ACK;
+                yield Kind.DATA;
+            }
+            case MEXC -> {
+                if (is(raw, CHANNEL, "pong")) yield Kind.PONG;
+                if (is(raw, CHANNEL, "rs.")) yield Kind.ACK;
+                yield Kind.DATA;
+            }
+            case KRAKEN -> {
+                if (is(raw, CHANNEL, "heartbeat")) yield Kind.HEARTBEAT;
+                if (is(raw, CHANNEL, "status")) yield Kind.IGNORED;
+                if (raw.startsWith("{\"method\"")) yield Kind.ACK;
+                yield Kind.DATA;
+            }
+            case COINBASE -> {
+                if (is(raw, CHANNEL, "heartbeats")) yield Kind.HEARTBEAT;
+                if (is(raw, CHANNEL, "subscriptions")) yield Kind.ACK;
+                yield Kind.DATA;
+            }
+            case BYBIT -> {
+                if (is(raw, OP, "pong") || is(raw, OP, "ping")) yield Kind.PONG;
+                if (is(raw, OP, "subscribe")) yield Kind.ACK;
+                yield Kind.DATA;
+            }
+            case OKX, GATE -> {
+                if (is(raw, EVENT, "subscribe") || is(raw, EVENT, "error")) yield Kind.ACK;
+                if (raw.length() <= 6 && raw.trim().equalsIgnoreCase("pong")) yield Kind.PONG;
+                yield Kind.DATA;
+            }
+            case UPBIT -> raw.startsWith("{\"status\"") ? Kind.HEARTBEAT : Kind.DATA;
+            case BINANCE -> raw.startsWith("{\"result\"") ? Kind.ACK : Kind.DATA;
+        };
+    }
+
+    public static boolean isData(Exchange exchange, String raw) {
+        return classify(exchange, raw) == Kind.DATA;
+    }
+
+    // KuCoin pushes one type per frame, only l3match messages are trades
+    private static Kind kucoin(String raw) {
+        if (is(raw, TYPE, "message")) {
+            return is(raw, SUBJECT, "trade.l3match") ? Kind.DATA : Kind.IGNORED;
+        }
+        if (is(raw, TYPE, "welcome")) return Kind.WELCOME;
+        if (is(raw, TYPE, "pong")) return Kind.PONG;
+        if (is(raw, TYPE, "ping")) return Kind.PING;
+        if (is(raw, TYPE, "ack")) return Kind.ACK;
+        return Kind.IGNORED;
+    }
+
+    // True if the first occurrence of key in the frame's head has a value starting with prefix
+    static boolean is(String raw, String key, String prefix) {
+        int end = Math.min(raw.length(), HEAD_CHARS);
+        int i = raw.indexOf(key, 0, end);
+        if (i < 0) return false;
+        return raw.regionMatches(true, i + key.length(), prefix, 0, prefix.length());
+    }
+
+    // Numeric field such as a heartbeat id, -1 if absent
+    public static long longField(String raw, String field) {
+        String key = "\"" + field + "\":";
+        int i = raw.indexOf(key, 0, Math.min(raw.length(), HEAD_CHARS));
+        if (i < 0) return -1;
+
+        long v = 0;
+        boolean digits = false;
+        for (int p = i + key.length(); p < raw.length(); p++) {
+            char c = raw.charAt(p);
+            if (c < '0' || c > '9') break;
+            v = v * 10 + (c - '0');
+            digits = true;
+        }
+        return digits ? v : -1;
+    }
+}
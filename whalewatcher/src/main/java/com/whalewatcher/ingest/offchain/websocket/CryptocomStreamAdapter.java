@@ -2,11 +2,15 @@ package com.whalewatcher.ingest.offchain.websocket;
 
 import com.google.gson.Gson;
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -15,24 +19,36 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class CryptocomStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(CryptocomStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private static final Gson GSON = new Gson();
 
     // DTOs
-    record MethodOnly(String method, long id) {}
     record RespondHeartbeat(long id, String method) {}
 
     record SubscribeReq(long id, String method, SubscribeParams params) {}
     record SubscribeParams(List<String> channels) {}
 
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
 
     // scheduler for delayed subscribe (avoid TOO_MANY_REQUESTS error)
     private final ScheduledExecutorService scheduler =
             Executors.newSingleThreadScheduledExecutor();
 
-    public CryptocomStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://stream.crypto.com/v2/market"));
+    @Autowired
+    public CryptocomStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
+
+    CryptocomStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.CRYPTOCOM, "wss://stream.crypto.com/v2/market", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -40,6 +56,11 @@ public class CryptocomStreamAdapter extends WebSocketClient implements ExchangeS
         return Exchange.CRYPTOCOM;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new CryptocomStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -53,7 +74,7 @@ public class CryptocomStreamAdapter extends WebSocketClient implements ExchangeS
 
     @Override
     public void onOpen(ServerHandshake handshake) {
-        System.out.println("Crypto.com connection opened");
+        log.info("Crypto.com connection opened");
 
         // ~1s delay before sending requests to avoid TOO_MANY_REQUESTS error
         scheduler.schedule(() -> {
@@ -70,37 +91,35 @@ public class CryptocomStreamAdapter extends WebSocketClient implements ExchangeS
                 SubscribeReq sub = new SubscribeReq(reqId, "subscribe", new SubscribeParams(channels));
 
                 this.send(GSON.toJson(sub));
-                System.out.println("Crypto.com subscribed: " + channels);
+                log.info("Crypto.com subscribed: {}", channels);
             } catch (Exception e) {
-                System.err.println("Crypto.com subscribe error: " + e.getMessage());
+                log.warn("Crypto.com subscribe error: {}", e.getMessage());
             }
         }, 1, TimeUnit.SECONDS);
     }
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-
-        // Respond to heartbeat (workers cannot call send()).
-        try {
-            MethodOnly m = GSON.fromJson(raw, MethodOnly.class);
-            if (m != null && m.method() != null
-                    && "public/heartbeat".equalsIgnoreCase(m.method())) {
-                RespondHeartbeat resp = new RespondHeartbeat(m.id(), "public/respond-heartbeat");
-                this.send(GSON.toJson(resp));
-                return;
+        switch (ControlFrameClassifier.classify(Exchange.CRYPTOCOM, raw)) {
+            // Respond to heartbeat (workers cannot call send()).
+            case HEARTBEAT -> {
+                try {
+                    long id = ControlFrameClassifier.longField(raw, "id");
+                    this.send(GSON.toJson(new RespondHeartbeat(id, "public/respond-heartbeat")));
+                } catch (Exception ignored) {}
             }
-        } catch (Exception ignored) {}
-        bus.publish(Exchange.CRYPTOCOM, raw);
+            case DATA -> bus.publish(Exchange.CRYPTOCOM, connection, raw);
+            default -> {}
+        }
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Crypto.com connection closed: " + code + " " + reason);
+        log.info("Crypto.com connection closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception e) {
-        e.printStackTrace();
+        ERRORS.log("Crypto.com stream error: " + e.getMessage(), e);
     }
 }
\ No newline at end of file
@@ -1,39 +1,194 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.simulator.ExchangeSimulator;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
+/*
+ * Owns the exchange connections. Enabled streams are connected in parallel on virtual threads after the
+ * context is up, so a slow venue (KuCoin's token call, a hanging handshake) delays neither readiness
+ * nor the other venues. Each stream's time from start to its first trade frame is logged and exposed
+ * as whalewatcher.streams.first.trade. With streams.warmup enabled, the JIT warm-up runs first on the same
+ * background thread, so the venues only connect once the hot path is compiled.
+ */
 @Component
 public class ExchangeStreamManager {
 
+    private static final Logger log = LoggerFactory.getLogger(ExchangeStreamManager.class);
+
     private final List<ExchangeStreamer> streamers;
     private final StreamProperties props;
+    private final ObjectProvider<ExchangeSimulator> simulator;
+    private final RawWsBus bus;
+    private final RedundantFeedMerger merger;
+    private final JitWarmup warmup;
+
+    // connections per running exchange: the primary, then the warm standby of redundant exchanges
+    private final Map<Exchange, List<ExchangeStreamer>> running = new EnumMap<>(Exchange.class);
+    // Delay from the startup connect to each exchange's first trade frame, -1 while unknown
+    private final AtomicLongArray firstTradeMs = new AtomicLongArray(Exchange.values().length);
+
+    private boolean stopped; // guarded by this
 
-    public  ExchangeStreamManager(List<ExchangeStreamer> streamers, StreamProperties props) {
+    private final ExecutorService starter =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("stream-start-", 0).factory());
+
+    // Spring's adapter beans connect once, a later start uses a fresh connection
+    private final Set<Exchange> used = EnumSet.noneOf(Exchange.class);
+
+    public  ExchangeStreamManager(List<ExchangeStreamer> streamers, StreamProperties props,
+                                  ObjectProvider<ExchangeSimulator> simulator,
+                                  RawWsBus bus, RedundantFeedMerger merger, JitWarmup warmup) {
         this.streamers = streamers;
         this.props = props;
+        this.simulator = simulator;
+        this.bus = bus;
+        this.merger = merger;
+        this.warmup = warmup;
+        for (int i = 0; i < Exchange.values().length; i++) {
+            firstTradeMs.set(i, -1);
+        }
     }
 
     @PostConstruct
     public void startEnabled() {
         Set<Exchange> enabled = props.getEnabled().stream().collect(Collectors.toSet());
 
-        streamers.stream()
-                .filter(s -> enabled.contains(s.exchange()))
-                .forEach(ExchangeStreamer::start);
+        props.getChannelModes().forEach((exchange, mode) -> {
+            if (mode == ChannelMode.AGGREGATE && !StreamProperties.supportsAggregate(exchange)) {
+                log.warn("{} has no aggregated trade channel, using TRADE", exchange);
+            }
+        });
+
+        bus.mergeRedundant(merger);
+
+        List<Exchange> toStart = streamers.stream()
+                .map(ExchangeStreamer::exchange)
+                .filter(enabled::contains)
+                .toList();
+        starter.execute(() -> {
+            if (props.getWarmup().isEnabled()) {
+                try {
+                    warmup.run(toStart);
+                } catch (Exception e) {
+                    log.warn("JIT warm-up failed, connecting cold: {}", e.toString());
+                }
+            }
+            toStart.forEach(ex -> starter.execute(() -> startAsync(ex)));
+        });
+
+        log.info("Starting exchange streams in the background{}: {}",
+                props.getWarmup().isEnabled() ? " after the JIT warm-up" : "", toStart);
+        List<Exchange> redundant = toStart.stream().filter(merger::isRedundant).toList();
+        if (!redundant.isEmpty()) {
+            log.info("Starting warm-standby streams: {}", redundant);
+        }
+    }
+
+    private void startAsync(Exchange exchange) {
+        // When load testing locally, make sure the simulator is listening before adapters connect to it
+        simulator.ifAvailable(ExchangeSimulator::awaitStarted);
+
+        long t0 = System.currentTimeMillis();
+        try {
+            start(exchange);
+        } catch (Exception e) {
+            log.error("{} stream failed to start: {}", exchange, e.getMessage(), e);
+            return;
+        }
+
+        bus.firstFrame(exchange)
+                .orTimeout(props.getStartTimeoutMs(), TimeUnit.MILLISECONDS)
+                .whenComplete((firstAt, err) -> {
+                    if (err != null) {
+                        log.warn("{} sent no trades within {}ms of starting", exchange, props.getStartTimeoutMs());
+                        // keep waiting, the delay is still recorded once a trade arrives
+                        bus.firstFrame(exchange).thenAccept(at -> recordFirstTrade(exchange, t0, at));
+                        return;
+                    }
+                    recordFirstTrade(exchange, t0, firstAt);
+                });
+    }
+
+    private void recordFirstTrade(Exchange exchange, long startedAt, long firstAt) {
+        long ms = Math.max(0, firstAt - startedAt);
+        if (firstTradeMs.compareAndSet(exchange.ordinal(), -1, ms)) {
+            log.info("{} first trade {}ms after start", exchange, ms);
+        }
+    }
+
+    // Start to first trade frame, NaN until the exchange has traded
+    public double timeToFirstTradeMs(Exchange exchange) {
+        long ms = firstTradeMs.get(exchange.ordinal());
+        return ms < 0 ? Double.NaN : ms;
+    }
+
+    // False if the exchange is already running or has no adapter, or was stopped while connecting.
+    // Connecting happens outside the lock, so streams starting in parallel do not wait for each other.
+    public boolean start(Exchange exchange) {
+        List<ExchangeStreamer> connections;
+        synchronized (this) {
+            if (stopped || running.containsKey(exchange)) return false;
+            ExchangeStreamer bean = streamers.stream().filter(s -> s.exchange() == exchange).findFirst().orElse(null);
+            if (bean == null) return false;
 
-        System.out.println("Started exchange streams: " + enabled);
+            List<ExchangeStreamer> created = new ArrayList<>(2);
+            created.add(used.add(exchange) ? bean : bean.newConnection(0));
+            if (merger.isRedundant(exchange)) created.add(bean.standby());
+            connections = List.copyOf(created);
+            running.put(exchange, connections);
+        }
+
+        connections.forEach(ExchangeStreamer::start);
+        synchronized (this) {
+            if (running.get(exchange) == connections) return true;
+        }
+        // stop() or stopAll() ran while connecting and closed clients that had not connected yet
+        connections.forEach(ExchangeStreamer::stop);
+        log.info("{} was stopped while connecting, closed its connections", exchange);
+        return false;
+    }
+
+    // Closes the exchange's connections, false if it was not running
+    public synchronized boolean stop(Exchange exchange) {
+        List<ExchangeStreamer> connections = running.remove(exchange);
+        if (connections == null) return false;
+        connections.forEach(ExchangeStreamer::stop);
+        return true;
+    }
+
+    public synchronized Set<Exchange> running() {
+        return running.isEmpty() ? Set.of() : Collections.unmodifiableSet(EnumSet.copyOf(running.keySet()));
     }
 
     @PreDestroy
-    public void stopAll() {
-        streamers.forEach(ExchangeStreamer::stop);
-        System.out.println("Stopped all exchange streams");
+    public synchronized void stopAll() {
+        // no background start may connect after this
+        stopped = true;
+        starter.shutdownNow();
+
+        // IngestShutdown stops the streams before the engine drains, this is the fallback
+        if (running.isEmpty()) return;
+        running.values().forEach(connections -> connections.forEach(ExchangeStreamer::stop));
+        running.clear();
+        log.info("Stopped all exchange streams");
     }
 }
@@ -6,4 +6,12 @@ public interface ExchangeStreamer {
     Exchange exchange();
     void start();
     void stop();
+
+    // A new, not yet started connection to the same stream. A stopped streamer is not restarted,
+    // connection 0 replaces the primary, 1 is a warm standby (see StreamProperties.Redundancy)
+    ExchangeStreamer newConnection(int connection);
+
+    default ExchangeStreamer standby() {
+        return newConnection(1);
+    }
 }
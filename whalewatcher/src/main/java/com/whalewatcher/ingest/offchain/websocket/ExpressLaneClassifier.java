@@ -0,0 +1,121 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import com.whalewatcher.domain.Exchange;
+
+import java.util.List;
+
+/*
+ * Decides on the adapter thread whether a raw frame goes to the express lane of the RawWsBus.
+ *
+ * No JSON parsing: for every size field in the frame it reads the size and the price of the same
+ * (flat) trade object with indexOf scans, and flags the frame if any fill reaches minUsd. Frames that
+ * mention one of the configured venue symbols are always express.
+ */
+public final class ExpressLaneClassifier {
+
+    // Size / price field names per venue, as in WsMessageParser's records (indexed by ordinal)
+    private static final String[] SIZE_KEYS = new String[Exchange.values().length];
+    private static final String[] PRICE_KEYS = new String[Exchange.values().length];
+
+    static {
+        keys(Exchange.BINANCE, "q", "p");
+        keys(Exchange.COINBASE, "size", "price");
+        keys(Exchange.KRAKEN, "qty", "price");
+        keys(Exchange.BITGET, "size", "price");
+        keys(Exchange.BYBIT, "v", "p");
+        keys(Exchange.CRYPTOCOM, "q", "p");
+        keys(Exchange.GATE, "amount", "price");
+        keys(Exchange.UPBIT, "trade_volume", "trade_price");
+        keys(Exchange.OKX, "sz", "px");
+        keys(Exchange.KUCOIN, "size", "price");
+        keys(Exchange.MEXC, "v", "p");
+    }
+
+    private static void keys(Exchange exchange, String size, String price) {
+        SIZE_KEYS[exchange.ordinal()] = "\"" + size + "\":";
+        PRICE_KEYS[exchange.ordinal()] = "\"" + price + "\":";
+    }
+
+    private final double minUsd;
+    private final String[] symbols;
+
+    public ExpressLaneClassifier(double minUsd, List<String> symbols) {
+        this.minUsd = minUsd;
+        this.symbols = symbols.stream().map(s -> "\"" + s + "\"").toArray(String[]::new);
+    }
+
+    // Classifier that never selects the express lane
+    public static ExpressLaneClassifier disabled() {
+        return new ExpressLaneClassifier(Double.POSITIVE_INFINITY, List.of());
+    }
+
+    public boolean isExpress(Exchange exchange, String raw) {
+        if (raw == null) return false;
+
+        for (String s : symbols) {
+            if (raw.contains(s)) return true;
+        }
+        if (minUsd == Double.POSITIVE_INFINITY) return false;
+
+        String sizeKey = SIZE_KEYS[exchange.ordinal()];
+        String priceKey = PRICE_KEYS[exchange.ordinal()];
+
+        int i = raw.indexOf(sizeKey);
+        while (i >= 0) {
+            int objStart = raw.lastIndexOf('{', i);
+            int objEnd = raw.indexOf('}', i);
+            if (objEnd < 0) objEnd = raw.length();
+
+            double size = readNumber(raw, i + sizeKey.length());
+            if (size > 0) {
+                int p = raw.indexOf(priceKey, objStart);
+                if (p >= 0 && p < objEnd) {
+                    double price = readNumber(raw, p + priceKey.length());
+                    if (price * size >= minUsd) return true;
+                }
+            }
+            i = raw.indexOf(sizeKey, i + sizeKey.length());
+        }
+        return false;
+    }
+
+    // Reads a plain or quoted decimal at pos, -1 if there is none
+    static double readNumber(String s, int pos) {
+        int n = s.length();
+        if (pos < n && s.charAt(pos) == '"') pos++;
+
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        int start = pos;
+
+        for (; pos < n; pos++) {
+            char c = s.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (fraction) scale++;
+                } else if (!fraction) {
+                    scale--;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == 'e' || c == 'E') {
+                // rare (tiny quantities), not worth a fast path
+                int end = pos + 1;
+                while (end < n && "+-0123456789".indexOf(s.charAt(end)) >= 0) end++;
+                try {
+                    return Double.parseDouble(s.substring(start, end));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) return -1;
+        return scale >= 0 ? mantissa / Math.pow(10, scale) : mantissa * Math.pow(10, -scale);
+    }
+}
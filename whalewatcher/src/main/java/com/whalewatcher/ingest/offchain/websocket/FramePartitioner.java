@@ -0,0 +1,65 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import com.whalewatcher.domain.Exchange;
+
+/*
+ * Maps a raw frame to a worker partition by (exchange, symbol) without parsing it.
+ *
+ * Every venue pushes one channel per frame, so the first occurrence of the channel / symbol field
+ * identifies the stream. Frames without one (acks, heartbeats) fall back to the exchange alone.
+ */
+public final class FramePartitioner {
+
+    // Field holding the stream's symbol or channel name per venue (indexed by ordinal)
+    private static final String[] KEY_FIELDS = new String[Exchange.values().length];
+
+    static {
+        key(Exchange.BINANCE, "stream");
+        key(Exchange.COINBASE, "product_id");
+        key(Exchange.KRAKEN, "symbol");
+        key(Exchange.BITGET, "instId");
+        key(Exchange.BYBIT, "topic");
+        key(Exchange.CRYPTOCOM, "instrument_name");
+        key(Exchange.GATE, "currency_pair");
+        key(Exchange.UPBIT, "code");
+        key(Exchange.OKX, "instId");
+        key(Exchange.KUCOIN, "topic");
+        key(Exchange.MEXC, "symbol");
+    }
+
+    private static void key(Exchange exchange, String field) {
+        KEY_FIELDS[exchange.ordinal()] = "\"" + field + "\":\"";
+    }
+
+    private FramePartitioner() {}
+
+    public static int partition(Exchange exchange, String raw, int partitions) {
+        int h = exchange.ordinal() * 0x9E3779B1;
+        int start = valueStart(exchange, raw);
+        if (start >= 0) {
+            // hash the value in place, this runs once per frame on the dispatch thread
+            for (int k = start, n = raw.length(); k < n; k++) {
+                char c = raw.charAt(k);
+                if (c == '"') break;
+                h = 31 * h + c;
+            }
+        }
+        h ^= (h >>> 16);
+        return Math.floorMod(h, partitions);
+    }
+
+    // Symbol / channel value of the frame, null if it carries none
+    public static String symbolOf(Exchange exchange, String raw) {
+        int start = valueStart(exchange, raw);
+        if (start < 0) return null;
+        int end = raw.indexOf('"', start);
+        return end < 0 ? null : raw.substring(start, end);
+    }
+
+    private static int valueStart(Exchange exchange, String raw) {
+        if (raw == null) return -1;
+        String field = KEY_FIELDS[exchange.ordinal()];
+        int i = raw.indexOf(field);
+        return i < 0 ? -1 : i + field.length();
+    }
+}
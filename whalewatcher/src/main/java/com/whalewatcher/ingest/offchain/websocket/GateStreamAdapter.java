@@ -1,20 +1,37 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 
 @Component
 public class GateStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(GateStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public GateStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public GateStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://api.gateio.ws/ws/v4/"));
+    GateStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.GATE, "wss://api.gateio.ws/ws/v4/", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -22,6 +39,11 @@ public class GateStreamAdapter extends WebSocketClient implements ExchangeStream
         return Exchange.GATE;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new GateStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -43,22 +65,23 @@ public class GateStreamAdapter extends WebSocketClient implements ExchangeStream
         }
         """;
         send(subscribe);
-        System.out.println("Gate.io connection opened + subscribed");
+        log.info("Gate.io connection opened + subscribed");
     }
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        bus.publish(Exchange.GATE, raw);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.GATE, raw)) return;
+        bus.publish(Exchange.GATE, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Gate stream closed: " + code + " " + reason);
+        log.info("Gate stream closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception e) {
-        e.printStackTrace();
+        ERRORS.log("Gate.io stream error: " + e.getMessage(), e);
     }
 }
\ No newline at end of file
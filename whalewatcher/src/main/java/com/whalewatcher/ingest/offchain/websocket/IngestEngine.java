@@ -0,0 +1,15 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import java.time.Duration;
+
+/*
+ * The active off-chain ingest engine (WsWorkers or RingIngestPipeline), as seen by IngestShutdown.
+ */
+public interface IngestEngine {
+
+    // Frames worked off during the drain versus frames still queued when the deadline hit
+    record DrainReport(long processed, long discarded, long elapsedMs) {}
+
+    // Processes what is already queued, then stops. Callers close the adapters first.
+    DrainReport drain(Duration timeout);
+}
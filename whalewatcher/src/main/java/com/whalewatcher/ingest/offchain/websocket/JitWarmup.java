@@ -0,0 +1,202 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.Trade;
+import com.whalewatcher.service.NormalizationService;
+import com.whalewatcher.service.SymbolMapper;
+import com.whalewatcher.service.WhaleDetectionService;
+import com.whalewatcher.simulator.SimulatedFrames;
+import com.whalewatcher.simulator.SimulatedFrames.SimTrade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/*
+ * Runs fixture frames of every enabled venue through parse -> normalize -> detect before the streams
+ * connect, so the first real trades do not pay for interpretation and C1/C2 compilation. The results
+ * are discarded: nothing reaches the deduplicator, the repository or the alert path.
+ *
+ * Rounds repeat until the per-frame time has settled (see StreamProperties.Warmup) and the warm-up time
+ * and steady-state latency are logged and exposed as whalewatcher.warmup.*.
+ */
+@Component
+public class JitWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(JitWarmup.class);
+
+    // Rough venue prices, only the order of magnitude matters for the USD amounts
+    private static final Map<Asset, Double> PRICES = Map.of(
+            Asset.BTC, 65_000.0,
+            Asset.ETH, 3_200.0,
+            Asset.SOL, 150.0,
+            Asset.XRP, 0.6,
+            Asset.BNB, 600.0
+    );
+
+    // Every WHALE_EVERY-th fixture trade is above the default thresholds, so the whale branch warms up too
+    private static final int WHALE_EVERY = 64;
+    private static final double WHALE_USD = 75_000_000;
+
+    public record Fixture(Exchange exchange, String raw) {}
+
+    public record Report(int rounds, long frames, long elapsedMs,
+                         double firstNsPerFrame, double steadyNsPerFrame, boolean settled) {}
+
+    private final WsMessageParser parser;
+    private final NormalizationService normalization;
+    private final WhaleDetectionService detection;
+    private final SymbolMapper symbolMapper;
+    private final StreamProperties props;
+
+    private volatile Report last;
+    // keeps the results observable so the JIT cannot drop the work as dead code
+    private volatile long sink;
+
+    public JitWarmup(WsMessageParser parser, NormalizationService normalization, WhaleDetectionService detection,
+                     SymbolMapper symbolMapper, StreamProperties props) {
+        this.parser = parser;
+        this.normalization = normalization;
+        this.detection = detection;
+        this.symbolMapper = symbolMapper;
+        this.props = props;
+    }
+
+    // Blocks until warm; null when disabled or there is nothing to warm
+    public Report run(List<Exchange> exchanges) {
+        StreamProperties.Warmup cfg = props.getWarmup();
+        if (!cfg.isEnabled() || exchanges.isEmpty()) return null;
+
+        List<Fixture> corpus = corpus(exchanges, cfg.getFramesPerExchange());
+        if (corpus.isEmpty()) return null;
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean jitTimed = jit != null && jit.isCompilationTimeMonitoringSupported();
+
+        int window = Math.max(1, cfg.getStableRounds());
+        double[] recent = new double[window];
+        long start = System.nanoTime();
+        long deadline = start + cfg.getMaxMs() * 1_000_000L;
+        double first = Double.NaN;
+        int rounds = 0;
+        boolean settled = false;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            long compiledBefore = jitTimed ? jit.getTotalCompilationTime() : 0;
+            long t0 = System.nanoTime();
+            sink += round(corpus);
+            long roundNs = System.nanoTime() - t0;
+            long compiledMs = jitTimed ? jit.getTotalCompilationTime() - compiledBefore : 0;
+
+            double nsPerFrame = (double) roundNs / corpus.size();
+            if (rounds == 0) first = nsPerFrame;
+            recent[rounds % window] = nsPerFrame;
+            rounds++;
+
+            if (rounds >= Math.max(cfg.getMinRounds(), window)
+                    && withinTolerance(recent, cfg.getTolerance())
+                    && compiledMs * 1_000_000.0 <= cfg.getMaxCompileShare() * roundNs) {
+                settled = true;
+                break;
+            }
+            if (System.nanoTime() - deadline >= 0) break;
+        }
+
+        double steady = 0;
+        int n = Math.min(rounds, window);
+        for (int i = 0; i < n; i++) steady += recent[i];
+        steady = n == 0 ? Double.NaN : steady / n;
+
+        Report report = new Report(rounds, (long) rounds * corpus.size(),
+                (System.nanoTime() - start) / 1_000_000, first, steady, settled);
+        last = report;
+        log.info("JIT warm-up: {} rounds of {} frames in {}ms, first {} us/frame, steady {} us/frame ({})",
+                rounds, corpus.size(), report.elapsedMs(),
+                String.format("%.2f", first / 1_000), String.format("%.2f", steady / 1_000),
+                settled ? "settled" : "deadline");
+        return report;
+    }
+
+    public Report lastReport() {
+        return last;
+    }
+
+    public double warmupMs() {
+        Report r = last;
+        return r == null ? Double.NaN : r.elapsedMs();
+    }
+
+    public double steadyNsPerFrame() {
+        Report r = last;
+        return r == null ? Double.NaN : r.steadyNsPerFrame();
+    }
+
+    // Same stages as a worker, minus everything with side effects
+    private long round(List<Fixture> corpus) {
+        long acc = 0;
+        for (Fixture f : corpus) {
+            for (Trade trade : parser.parse(f.exchange(), f.raw())) {
+                OffChainWhaleEvent event = normalization.normalize(trade);
+                if (event == null) continue;
+                acc += detection.isWhale(event.exchange(), event.asset(), event.totalUsd()) ? 2 : 1;
+            }
+        }
+        return acc;
+    }
+
+    private static boolean withinTolerance(double[] recent, double tolerance) {
+        double min = Double.MAX_VALUE, max = 0;
+        for (double v : recent) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        return (max - min) <= tolerance * min;
+    }
+
+    // Venues interleaved frame by frame, as the workers see them; fixed seed so every start warms the same corpus
+    public List<Fixture> corpus(List<Exchange> exchanges, int framesPerExchange) {
+        SplittableRandom rnd = new SplittableRandom(42);
+        long now = System.currentTimeMillis();
+        List<Fixture> corpus = new ArrayList<>(exchanges.size() * framesPerExchange);
+
+        for (int i = 0; i < framesPerExchange; i++) {
+            for (Exchange ex : exchanges) {
+                List<String> symbols = SimulatedFrames.SYMBOLS.get(ex);
+                if (symbols == null) continue;
+                String symbol = symbols.get(i % symbols.size());
+                int size = SimulatedFrames.singleTradeFrames(ex) ? 1 : 1 + rnd.nextInt(3);
+
+                List<SimTrade> trades = new ArrayList<>(size);
+                for (int t = 0; t < size; t++) {
+                    trades.add(trade(rnd, ex, symbol, now, (long) i * 4 + t, i % WHALE_EVERY == 0 && t == 0));
+                }
+
+                boolean aggregate = ex == Exchange.BINANCE && props.channelModeFor(ex) == ChannelMode.AGGREGATE;
+                String raw = aggregate && i % 2 == 0
+                        ? SimulatedFrames.binanceAggTrade(trades.get(0), i * 4L, i * 4L + 2)
+                        : SimulatedFrames.frame(ex, trades);
+                corpus.add(new Fixture(ex, raw));
+            }
+        }
+        return corpus;
+    }
+
+    private SimTrade trade(SplittableRandom rnd, Exchange ex, String symbol, long now, long id, boolean whale) {
+        Asset asset = symbolMapper.normalize(symbol, ex);
+        double price = PRICES.getOrDefault(asset, 100.0) * (1 + (rnd.nextDouble() - 0.5) * 0.01);
+        double usd = whale ? WHALE_USD : -Math.log(1 - rnd.nextDouble()) * 5_000.0;
+        return new SimTrade(symbol,
+                Math.round(price * 100.0) / 100.0,
+                Math.round(usd / price * 1e6) / 1e6,
+                rnd.nextBoolean(),
+                now + id,
+                id + 1);
+    }
+}
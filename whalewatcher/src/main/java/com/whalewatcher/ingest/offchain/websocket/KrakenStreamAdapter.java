@@ -1,21 +1,38 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 
 @Component
 public class KrakenStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(KrakenStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public KrakenStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public KrakenStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://ws.kraken.com/v2"));
+    KrakenStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.KRAKEN, "wss://ws.kraken.com/v2", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -23,6 +40,11 @@ public class KrakenStreamAdapter extends WebSocketClient implements ExchangeStre
         return Exchange.KRAKEN;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new KrakenStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -46,22 +68,23 @@ public class KrakenStreamAdapter extends WebSocketClient implements ExchangeStre
         }
         """;
         send(subscribeMessage);
-        System.out.println("Kraken connection opened + subscribed");
+        log.info("Kraken connection opened + subscribed");
     }
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        bus.publish(Exchange.KRAKEN, raw);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.KRAKEN, raw)) return;
+        bus.publish(Exchange.KRAKEN, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Kraken connection closed: " + code + " " + reason);
+        log.info("Kraken connection closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception ex) {
-        ex.printStackTrace();
+        ERRORS.log("Kraken stream error: " + ex.getMessage(), ex);
     }
 }
\ No newline at end of file
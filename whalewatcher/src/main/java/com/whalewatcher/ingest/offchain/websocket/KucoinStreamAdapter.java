@@ -2,11 +2,16 @@ package com.whalewatcher.ingest.offchain.websocket;
 
 import com.google.gson.Gson;
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.net.URLEncoder;
@@ -22,6 +27,9 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class KucoinStreamAdapter implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(KucoinStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private static final Gson GSON = new Gson();
 
     // REST DTOs
@@ -30,16 +38,33 @@ public class KucoinStreamAdapter implements ExchangeStreamer {
     record InstanceServer(String endpoint, long pingInterval, long pingTimeout) {}
 
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+    private final URI bulletUri;
 
     private volatile KucoinClient client;
 
-    public KucoinStreamAdapter(RawWsBus bus) {
+    @Autowired
+    public KucoinStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
+
+    KucoinStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
+        this.bulletUri = props.uriFor(Exchange.KUCOIN, "https://api.kucoin.com/api/v1/bullet-public", connection);
     }
 
     @Override
     public Exchange exchange() { return Exchange.KUCOIN; }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new KucoinStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         try {
@@ -53,12 +78,13 @@ public class KucoinStreamAdapter implements ExchangeStreamer {
             client = new KucoinClient(
                     URI.create(wsUrl),
                     bus,
+                    connection,
                     server.pingInterval()
             );
 
             client.connect();
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("KuCoin start failed: {}", e.getMessage(), e);
         }
     }
 
@@ -68,10 +94,13 @@ public class KucoinStreamAdapter implements ExchangeStreamer {
     }
 
     private BulletData fetchBulletPublic() throws Exception {
-        var http = java.net.http.HttpClient.newHttpClient();
+        // bounded by the stream start timeout, the token call runs before the socket connects
+        Duration timeout = Duration.ofMillis(props.getStartTimeoutMs());
+        var http = java.net.http.HttpClient.newBuilder().connectTimeout(timeout).build();
 
         var request = java.net.http.HttpRequest.newBuilder()
-                .uri(URI.create("https://api.kucoin.com/api/v1/bullet-public"))
+                .uri(bulletUri)
+                .timeout(timeout)
                 .POST(java.net.http.HttpRequest.BodyPublishers.noBody())
                 .build();
 
@@ -98,47 +127,41 @@ public class KucoinStreamAdapter implements ExchangeStreamer {
         record KucoinSubscribeMsg(String id, String type, String topic, boolean response) {}
         record KucoinPingMsg(String id, String type) {}
 
-        record KucoinMsg(String type, String subject) {}
-
         private final RawWsBus bus;
+        private final int connection;
         private final ScheduledExecutorService heartbeat =
                 Executors.newSingleThreadScheduledExecutor();
 
         private final long pingIntervalMs;
         private volatile boolean subscribed = false;
 
-        KucoinClient(URI serverUri, RawWsBus bus, long pingIntervalMs) {
+        KucoinClient(URI serverUri, RawWsBus bus, int connection, long pingIntervalMs) {
             super(serverUri);
             this.bus = bus;
+            this.connection = connection;
             this.pingIntervalMs = pingIntervalMs > 0 ? pingIntervalMs : 18_000;
         }
 
         @Override
         public void onOpen(ServerHandshake handshake) {
-            System.out.println("KuCoin opened (waiting for welcome...)");
+            log.info("KuCoin opened (waiting for welcome...)");
             startHeartbeat();
         }
 
         @Override
         public void onMessage(String raw) {
-            if (raw == null || raw.isBlank()) return;
-
-            // detect welcome then subscribe
-            try {
-                KucoinMsg msg = GSON.fromJson(raw, KucoinMsg.class);
-                if (msg != null && msg.type() != null) {
-                    if (!subscribed && "welcome".equalsIgnoreCase(msg.type())) {
+            switch (ControlFrameClassifier.classify(Exchange.KUCOIN, raw)) {
+                // detect welcome then subscribe
+                case WELCOME -> {
+                    if (!subscribed) {
                         subscribed = true;
                         sendSubscribeForFiveSymbols();
-                        return;
                     }
-                    // Only forward trade messages to workers
-                    if (!"message".equalsIgnoreCase(msg.type())) return;
-                    if (!"trade.l3match".equalsIgnoreCase(msg.subject())) return;
-
-                    bus.publish(Exchange.KUCOIN, raw);
                 }
-            } catch (Exception ignored) {}
+                // Only forward trade messages to workers
+                case DATA -> bus.publish(Exchange.KUCOIN, connection, raw);
+                default -> {}
+            }
         }
 
         private void sendSubscribeForFiveSymbols() {
@@ -157,7 +180,7 @@ public class KucoinStreamAdapter implements ExchangeStreamer {
             );
 
             this.send(GSON.toJson(sub));
-            System.out.println("KuCoin subscribed: " + topic);
+            log.info("KuCoin subscribed: {}", topic);
         }
 
         private void startHeartbeat() {
@@ -174,14 +197,14 @@ public class KucoinStreamAdapter implements ExchangeStreamer {
 
         @Override
         public void onClose(int code, String reason, boolean remote) {
-            System.out.println("KuCoin closed: " + code + " " + reason);
+            log.info("KuCoin closed: {} {}", code, reason);
             subscribed = false;
             try { heartbeat.shutdownNow(); } catch (Exception ignored) {}
         }
 
         @Override
         public void onError(Exception ex) {
-            ex.printStackTrace();
+            ERRORS.log("KuCoin stream error: " + ex.getMessage(), ex);
         }
     }
 }
\ No newline at end of file
@@ -2,11 +2,15 @@ package com.whalewatcher.ingest.offchain.websocket;
 
 import com.google.gson.Gson;
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -15,6 +19,9 @@ import java.util.concurrent.TimeUnit;
 @Component
 public class MexcStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(MexcStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private static final Gson GSON = new Gson();
 
     // DTOs
@@ -22,14 +29,24 @@ public class MexcStreamAdapter extends WebSocketClient implements ExchangeStream
     record SubDealMsg(String method, DealParam param) {}
 
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
 
     // scheduler for delayed / spaced subscribe sends
     private final ScheduledExecutorService scheduler =
             Executors.newSingleThreadScheduledExecutor();
 
-    public MexcStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://contract.mexc.com/edge"));
+    @Autowired
+    public MexcStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
+
+    MexcStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.MEXC, "wss://contract.mexc.com/edge", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -37,6 +54,11 @@ public class MexcStreamAdapter extends WebSocketClient implements ExchangeStream
         return Exchange.MEXC;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new MexcStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -50,7 +72,7 @@ public class MexcStreamAdapter extends WebSocketClient implements ExchangeStream
 
     @Override
     public void onOpen(ServerHandshake handshake) {
-        System.out.println("MEXC connection opened");
+        log.info("MEXC connection opened");
 
         List<String> symbols = List.of("BTC_USDT", "ETH_USDT", "BNB_USDT", "SOL_USDT", "XRP_USDT");
 
@@ -68,27 +90,28 @@ public class MexcStreamAdapter extends WebSocketClient implements ExchangeStream
                     SubDealMsg sub = new SubDealMsg("sub.deal", new DealParam(sym, false));
                     this.send(GSON.toJson(sub));
                 } catch (Exception e) {
-                    System.err.println("MEXC subscribe error (" + sym + "): " + e.getMessage());
+                    log.warn("MEXC subscribe error ({}): {}", sym, e.getMessage());
                 }
             }, delay, TimeUnit.MILLISECONDS);
         }
 
-        System.out.println("MEXC subscribing: " + symbols);
+        log.info("MEXC subscribing: {}", symbols);
     }
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        bus.publish(Exchange.MEXC, raw);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.MEXC, raw)) return;
+        bus.publish(Exchange.MEXC, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("MEXC connection closed: code=" + code + " reason=" + reason + " remote=" + remote);
+        log.info("MEXC connection closed: code={} reason={} remote={}", code, reason, remote);
     }
 
     @Override
     public void onError(Exception e) {
-        e.printStackTrace();
+        ERRORS.log("MEXC stream error: " + e.getMessage(), e);
     }
 }
\ No newline at end of file
@@ -1,20 +1,37 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
+import java.time.Duration;
 
 @Component
 public class OkxStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(OkxStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public OkxStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public OkxStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://ws.okx.com:8443/ws/v5/public"));
+    OkxStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.OKX, "wss://ws.okx.com:8443/ws/v5/public", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -22,6 +39,11 @@ public class OkxStreamAdapter extends WebSocketClient implements ExchangeStreame
         return Exchange.OKX;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new OkxStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -47,22 +69,23 @@ public class OkxStreamAdapter extends WebSocketClient implements ExchangeStreame
         }
         """;
         send(subscribe);
-        System.out.println("OKX connection opened + subscribed");
+        log.info("OKX connection opened + subscribed");
     }
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        bus.publish(Exchange.OKX, raw);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.OKX, raw)) return;
+        bus.publish(Exchange.OKX, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("OKX connection closed: " + code + " " + reason);
+        log.info("OKX connection closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception e) {
-        e.printStackTrace();
+        ERRORS.log("OKX stream error: " + e.getMessage(), e);
     }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * Per-exchange parse circuit breaker. Every windowMs the share of frames that failed to parse is
+ * evaluated: at least minFrames frames with a reject rate >= tripRejectRate opens the breaker. While
+ * open only one in sampleEvery frames of that exchange is parsed, and the breaker closes again once a
+ * window of at least minSampledFrames sampled frames stays at or below resetRejectRate.
+ */
+@Component
+@ConfigurationProperties(prefix = "streams.breaker")
+public class ParseBreakerProperties {
+
+    private boolean enabled = true;
+
+    private long windowMs = 10_000;
+
+    private int minFrames = 200;
+
+    private double tripRejectRate = 0.9;
+
+    private int sampleEvery = 100;
+
+    private int minSampledFrames = 5;
+
+    private double resetRejectRate = 0.5;
+
+    // Rejected frames kept per exchange for diagnosis, truncated to quarantineChars
+    private int quarantineSize = 20;
+    private int quarantineChars = 1_024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public int getMinFrames() {
+        return minFrames;
+    }
+
+    public void setMinFrames(int minFrames) {
+        this.minFrames = minFrames;
+    }
+
+    public double getTripRejectRate() {
+        return tripRejectRate;
+    }
+
+    public void setTripRejectRate(double tripRejectRate) {
+        this.tripRejectRate = tripRejectRate;
+    }
+
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    public int getMinSampledFrames() {
+        return minSampledFrames;
+    }
+
+    public void setMinSampledFrames(int minSampledFrames) {
+        this.minSampledFrames = minSampledFrames;
+    }
+
+    public double getResetRejectRate() {
+        return resetRejectRate;
+    }
+
+    public void setResetRejectRate(double resetRejectRate) {
+        this.resetRejectRate = resetRejectRate;
+    }
+
+    public int getQuarantineSize() {
+        return quarantineSize;
+    }
+
+    public void setQuarantineSize(int quarantineSize) {
+        this.quarantineSize = quarantineSize;
+    }
+
+    public int getQuarantineChars() {
+        return quarantineChars;
+    }
+
+    public void setQuarantineChars(int quarantineChars) {
+        this.quarantineChars = quarantineChars;
+    }
+}
@@ -0,0 +1,207 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import com.whalewatcher.domain.Exchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/*
+ * Stops a venue whose message format changed from eating the worker pool.
+ *
+ * The ingest engines ask admit() before parsing a frame and report the outcome afterwards. A frame is
+ * rejected when the parser throws or yields no trades (control frames are already dropped by the
+ * adapters, see ControlFrameClassifier). When an exchange's reject rate over a window trips the
+ * breaker, its frames are only sampled, rejected samples are quarantined for diagnosis and the
+ * health endpoint reports the exchange as degraded until sampled frames parse again. Sampled frames
+ * add up across windows until there are minSampledFrames of them, so a low-rate venue that trips can
+ * still close.
+ */
+@Component
+public class ParseCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(ParseCircuitBreaker.class);
+
+    public record Quarantined(long atMs, String reason, String frame) {}
+
+    public record State(Exchange exchange, boolean open, long openedAtMs, double lastRejectRate,
+                        long trips, long rejected, long skipped, List<Quarantined> quarantine) {}
+
+    private final ParseBreakerProperties props;
+    private final boolean enabled;
+    private final Map<Exchange, Breaker> breakers = new EnumMap<>(Exchange.class);
+    // epoch ms
+    private final LongSupplier clock;
+
+    public ParseCircuitBreaker() {
+        this(new ParseBreakerProperties());
+    }
+
+    @Autowired
+    public ParseCircuitBreaker(ParseBreakerProperties props) {
+        this(props, System::currentTimeMillis);
+    }
+
+    public ParseCircuitBreaker(ParseBreakerProperties props, LongSupplier clock) {
+        this.props = props;
+        this.enabled = props.isEnabled();
+        this.clock = clock;
+        long now = clock.getAsLong();
+        for (Exchange ex : Exchange.values()) {
+            breakers.put(ex, new Breaker(now));
+        }
+    }
+
+    // Never trips, for engines constructed outside Spring
+    public static ParseCircuitBreaker disabled() {
+        ParseBreakerProperties props = new ParseBreakerProperties();
+        props.setEnabled(false);
+        return new ParseCircuitBreaker(props);
+    }
+
+    // False when the frame should be skipped unparsed
+    public boolean admit(Exchange exchange) {
+        if (!enabled || exchange == null) return true;
+        Breaker b = breakers.get(exchange);
+        if (!b.open) return true;
+
+        if (b.sampled.incrementAndGet() % Math.max(1, props.getSampleEvery()) == 0) return true;
+        b.skipped.increment();
+        return false;
+    }
+
+    public void accepted(Exchange exchange) {
+        if (!enabled || exchange == null) return;
+        Breaker b = breakers.get(exchange);
+        b.frames.increment();
+        roll(exchange, b);
+    }
+
+    // error is null when the parser returned nothing
+    public void rejected(Exchange exchange, String raw, Exception error) {
+        if (!enabled || exchange == null) return;
+        Breaker b = breakers.get(exchange);
+        b.frames.increment();
+        b.rejects.increment();
+        b.rejected.increment();
+        if (b.open) quarantine(b, raw, error);
+        if (roll(exchange, b) && b.open) quarantine(b, raw, error);
+    }
+
+    public boolean isOpen(Exchange exchange) {
+        return breakers.get(exchange).open;
+    }
+
+    public long rejectedCount(Exchange exchange) {
+        return breakers.get(exchange).rejected.sum();
+    }
+
+    public long skippedCount(Exchange exchange) {
+        return breakers.get(exchange).skipped.sum();
+    }
+
+    public State state(Exchange exchange) {
+        Breaker b = breakers.get(exchange);
+        List<Quarantined> samples;
+        synchronized (b.quarantine) {
+            samples = new ArrayList<>(b.quarantine);
+        }
+        return new State(exchange, b.open, b.openedAtMs, b.lastRejectRate, b.trips.get(),
+                b.rejected.sum(), b.skipped.sum(), samples);
+    }
+
+    public List<State> openBreakers() {
+        List<State> out = new ArrayList<>();
+        for (Exchange ex : Exchange.values()) {
+            if (breakers.get(ex).open) out.add(state(ex));
+        }
+        return out;
+    }
+
+    // Evaluates the window once it has elapsed, returns true if the breaker changed state
+    private boolean roll(Exchange exchange, Breaker b) {
+        long now = clock.getAsLong();
+        if (now - b.windowStartMs < props.getWindowMs()) return false;
+
+        synchronized (b) {
+            if (now - b.windowStartMs < props.getWindowMs()) return false;
+            b.windowStartMs = now;
+
+            long frames = b.frames.sumThenReset();
+            long rejects = b.rejects.sumThenReset();
+            double rate = frames == 0 ? 0 : (double) rejects / frames;
+            b.lastRejectRate = rate;
+
+            if (!b.open && frames >= props.getMinFrames() && rate >= props.getTripRejectRate()) {
+                b.open = true;
+                b.openedAtMs = now;
+                b.trips.incrementAndGet();
+                b.sampledFrames = 0;
+                b.sampledRejects = 0;
+                log.warn("Parse breaker OPEN for {}: {}% of {} frames rejected, sampling 1 in {} frames",
+                        exchange, Math.round(rate * 100), frames, props.getSampleEvery());
+                return true;
+            }
+            if (!b.open) return false;
+
+            b.sampledFrames += frames;
+            b.sampledRejects += rejects;
+            if (b.sampledFrames < props.getMinSampledFrames()) return false;
+            double sampledRate = (double) b.sampledRejects / b.sampledFrames;
+            b.sampledFrames = 0;
+            b.sampledRejects = 0;
+            if (sampledRate <= props.getResetRejectRate()) {
+                b.open = false;
+                log.info("Parse breaker closed for {} after {}s, {} frames skipped in total",
+                        exchange, (now - b.openedAtMs) / 1000, b.skipped.sum());
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private void quarantine(Breaker b, String raw, Exception error) {
+        String frame = raw == null ? "" : raw;
+        if (frame.length() > props.getQuarantineChars()) frame = frame.substring(0, props.getQuarantineChars());
+        String reason = error == null ? "no trades" : error.getClass().getSimpleName() + ": " + error.getMessage();
+
+        synchronized (b.quarantine) {
+            if (b.quarantine.size() >= props.getQuarantineSize()) b.quarantine.removeFirst();
+            b.quarantine.addLast(new Quarantined(clock.getAsLong(), reason, frame));
+        }
+    }
+
+    private static final class Breaker {
+        // current window
+        final LongAdder frames = new LongAdder();
+        final LongAdder rejects = new LongAdder();
+        volatile long windowStartMs;
+
+        volatile boolean open;
+        volatile long openedAtMs;
+        volatile double lastRejectRate;
+        // sampled frames while open, across windows; guarded by the breaker
+        long sampledFrames;
+        long sampledRejects;
+
+        final AtomicLong sampled = new AtomicLong();
+        final AtomicLong trips = new AtomicLong();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final Deque<Quarantined> quarantine = new ArrayDeque<>();
+
+        Breaker(long now) {
+            this.windowStartMs = now;
+        }
+    }
+}
@@ -1,39 +1,220 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.jfr.FrameReceivedEvent;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
 
+/*
+ * Hand-off between the adapter threads and WsWorkers, in two lanes.
+ *
+ * The express lane holds frames the ExpressLaneClassifier flags as likely whales and is always drained
+ * first. The normal lane is bounded by bytes and count and sheds new frames when over budget. One
+ * semaphore permit per queued frame lets take() block on both lanes at once.
+ */
 @Component
 public class RawWsBus {
 
+    private static final Logger log = LoggerFactory.getLogger(RawWsBus.class);
+    private static final ThrottledLog DROPS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     public record RawWsMsg(Exchange exchange, String raw, long receivedAtMs) {}
 
-    private static final int WS_QUEUE_CAPACITY = 200_000;
+    // Alternative consumer taking frames directly from publish() (the ring engine), false means dropped
+    public interface FrameSink {
+        boolean offer(Exchange exchange, String raw);
+    }
+
+    // RawWsMsg + String headers + queue slot, on top of the frame's chars (Latin-1 compact strings)
+    static final int MSG_OVERHEAD_BYTES = 72;
+
+    private static final long UNLIMITED = Long.MAX_VALUE;
 
-    private final BlockingQueue<RawWsMsg> q =
-            new ArrayBlockingQueue<>(WS_QUEUE_CAPACITY);
+    private final BlockingQueue<RawWsMsg> q;
+    private final BlockingQueue<RawWsMsg> express;
+    private final Semaphore available = new Semaphore(0);
+    private volatile ExpressLaneClassifier classifier;
+    private volatile FrameSink sink;
+    private volatile RedundantFeedMerger merger;
+
+    private final long maxBytes;
+    private final long[] exchangeMaxBytes = new long[Exchange.values().length];
+
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLongArray exchangeBytes = new AtomicLongArray(Exchange.values().length);
 
     private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong expressCount = new AtomicLong();
+
+    // Frames received per exchange (indexed by ordinal), the inbound message rate
+    private final AtomicLongArray published = new AtomicLongArray(Exchange.values().length);
+    // Completed with the arrival time (epoch ms) of each exchange's first frame
+    private final List<CompletableFuture<Long>> firstFrame = Stream.of(Exchange.values())
+            .map(ex -> new CompletableFuture<Long>())
+            .toList();
+
+    public RawWsBus() {
+        this(new RawWsBusProperties());
+    }
+
+    @Autowired
+    public RawWsBus(RawWsBusProperties props) {
+        this.q = new ArrayBlockingQueue<>(props.getMaxMessages());
+        this.maxBytes = props.getMaxBytes().toBytes();
+        for (Exchange ex : Exchange.values()) {
+            DataSize budget = props.getExchangeMaxBytes().get(ex);
+            exchangeMaxBytes[ex.ordinal()] = budget == null ? UNLIMITED : budget.toBytes();
+        }
+
+        RawWsBusProperties.Express ep = props.getExpress();
+        this.express = new ArrayBlockingQueue<>(Math.max(1, ep.getMaxMessages()));
+        this.classifier = ep.isEnabled()
+                ? new ExpressLaneClassifier(ep.getMinUsd(), ep.getSymbols())
+                : ExpressLaneClassifier.disabled();
+    }
+
+    // Frame from one of several connections to the same stream, only the first copy goes on
+    public void publish(Exchange exchange, int connection, String raw) {
+        RedundantFeedMerger m = merger;
+        if (m != null && !m.firstArrival(exchange, connection, raw)) return;
+        publish(exchange, raw);
+    }
 
     public void publish(Exchange exchange, String raw) {
-        boolean ok = q.offer(new RawWsMsg(exchange, raw, System.currentTimeMillis()));
-        if (!ok) {
-            long d = dropped.incrementAndGet();
-            if (d % 10_000 == 0) {
-                System.err.println("RawWsBus FULL — dropped=" + d);
-            }
+        if (published.incrementAndGet(exchange.ordinal()) == 1) {
+            firstFrame.get(exchange.ordinal()).complete(System.currentTimeMillis());
+        }
+        FrameReceivedEvent.emit(exchange, raw);
+
+        FrameSink s = sink;
+        if (s != null) {
+            if (!s.offer(exchange, raw)) dropped(exchange);
+            return;
+        }
+
+        long size = estimateBytes(raw);
+
+        // Express frames are accounted but never shed, unless the express lane itself is full
+        if (classifier.isExpress(exchange, raw)
+                && express.offer(new RawWsMsg(exchange, raw, System.currentTimeMillis()))) {
+            exchangeBytes.addAndGet(exchange.ordinal(), size);
+            bytes.addAndGet(size);
+            expressCount.incrementAndGet();
+            available.release();
+            return;
         }
+
+        boolean ok = reserve(exchange, size);
+        if (ok) {
+            ok = q.offer(new RawWsMsg(exchange, raw, System.currentTimeMillis()));
+            if (!ok) release(exchange, size);
+        }
+
+        if (ok) {
+            available.release();
+        } else {
+            dropped(exchange);
+        }
+    }
+
+    private void dropped(Exchange exchange) {
+        dropped.incrementAndGet();
+        // constant message, the totals are in the bus.dropped metric
+        DROPS.log(exchange.name(), "RawWsBus FULL, dropping frames", null);
+    }
+
+    // Hands every further frame to the sink instead of the lanes
+    public void redirectTo(FrameSink sink) {
+        this.sink = sink;
+    }
+
+    // Deduplicates frames of redundant (primary + standby) connections before they are published
+    public void mergeRedundant(RedundantFeedMerger merger) {
+        this.merger = merger;
     }
 
     public RawWsMsg take() throws InterruptedException {
-        return q.take();
+        available.acquire();
+        return dequeue();
     }
 
-    public int size() { return q.size(); }
+    // Like take(), but gives up after the timeout and returns null
+    public RawWsMsg poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!available.tryAcquire(timeout, unit)) return null;
+        return dequeue();
+    }
+
+    private RawWsMsg dequeue() {
+        // a permit guarantees a frame in one of the lanes
+        RawWsMsg m = express.poll();
+        if (m == null) m = q.poll();
+
+        release(m.exchange(), estimateBytes(m.raw()));
+        return m;
+    }
+
+    // Route everything through the normal lane, for consumers that need per-stream FIFO order
+    public void disableExpressLane() {
+        classifier = ExpressLaneClassifier.disabled();
+    }
+
+    public int size() { return q.size() + express.size(); }
+
+    public int expressSize() { return express.size(); }
+
+    public long expressCount() { return expressCount.get(); }
 
     public long droppedCount() { return dropped.get(); }
-}
\ No newline at end of file
+
+    public long publishedCount(Exchange exchange) { return published.get(exchange.ordinal()); }
+
+    public CompletableFuture<Long> firstFrame(Exchange exchange) { return firstFrame.get(exchange.ordinal()); }
+
+    // Estimated heap held by queued frames
+    public long bytesInFlight() { return bytes.get(); }
+
+    public long bytesInFlight(Exchange exchange) { return exchangeBytes.get(exchange.ordinal()); }
+
+    static long estimateBytes(String raw) {
+        return MSG_OVERHEAD_BYTES + (raw == null ? 0 : raw.length());
+    }
+
+    // Claims size against the exchange budget, then the total budget, undoing the first if the second fails
+    private boolean reserve(Exchange exchange, long size) {
+        int i = exchange.ordinal();
+        long limit = exchangeMaxBytes[i];
+        while (true) {
+            long cur = exchangeBytes.get(i);
+            if (cur + size > limit) return false;
+            if (exchangeBytes.compareAndSet(i, cur, cur + size)) break;
+        }
+        while (true) {
+            long cur = bytes.get();
+            if (cur + size > maxBytes) {
+                exchangeBytes.addAndGet(i, -size);
+                return false;
+            }
+            if (bytes.compareAndSet(cur, cur + size)) return true;
+        }
+    }
+
+    private void release(Exchange exchange, long size) {
+        exchangeBytes.addAndGet(exchange.ordinal(), -size);
+        bytes.addAndGet(-size);
+    }
+}
@@ -0,0 +1,83 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import com.whalewatcher.domain.Exchange;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Capacity of the RawWsBus. Frames are bounded by their total (estimated) heap size first, the message
+ * count is a secondary cap. Per-exchange budgets keep one bursting venue from starving the others.
+ * Likely-whale frames take a small express lane that is drained first and never shed.
+ */
+@Component
+@ConfigurationProperties(prefix = "streams.bus")
+public class RawWsBusProperties {
+
+    private DataSize maxBytes = DataSize.ofMegabytes(64);
+
+    private int maxMessages = 200_000;
+
+    // Optional per-exchange byte budgets, unlimited (up to maxBytes) when absent
+    private Map<Exchange, DataSize> exchangeMaxBytes = new EnumMap<>(Exchange.class);
+
+    private final Express express = new Express();
+
+    public static class Express {
+
+        private boolean enabled = true;
+
+        // Frames holding a fill of at least this notional are express. Matches the lowest whale threshold.
+        private double minUsd = 20_000_000;
+
+        // Venue symbols (e.g. BTCUSDT) whose frames are always express
+        private List<String> symbols = new ArrayList<>();
+
+        private int maxMessages = 10_000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public double getMinUsd() { return minUsd; }
+        public void setMinUsd(double minUsd) { this.minUsd = minUsd; }
+
+        public List<String> getSymbols() { return symbols; }
+        public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+
+        public int getMaxMessages() { return maxMessages; }
+        public void setMaxMessages(int maxMessages) { this.maxMessages = maxMessages; }
+    }
+
+    public DataSize getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(DataSize maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    public void setMaxMessages(int maxMessages) {
+        this.maxMessages = maxMessages;
+    }
+
+    public Map<Exchange, DataSize> getExchangeMaxBytes() {
+        return exchangeMaxBytes;
+    }
+
+    public void setExchangeMaxBytes(Map<Exchange, DataSize> exchangeMaxBytes) {
+        this.exchangeMaxBytes = exchangeMaxBytes;
+    }
+
+    public Express getExpress() {
+        return express;
+    }
+}
@@ -0,0 +1,380 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import com.whalewatcher.domain.Exchange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Merges the primary and standby connection of a redundant exchange, first arrival wins.
+ *
+ * Runs on the adapter IO threads before RawWsBus: each data frame is keyed by a 64-bit hash and looked
+ * up in a bounded window of recent keys. Where the venue has trade ids the key covers the symbol and
+ * the trade ids in the frame, so per-push envelope fields (timestamps, sequence numbers) do not matter;
+ * otherwise it covers the frame's content minus the venue's push-time fields. A venue that batches
+ * the same trades differently on the two connections still yields two keys, TradeDeduplicator drops
+ * the repeats further down. The first copy is published, the copy
+ * from the other connection is dropped and the gap between the two is recorded as the winner's lead.
+ * Frames that only one connection delivered within the window (the other was stalled or reconnecting)
+ * are counted as solo frames, the gaps the standby covered.
+ *
+ * Identical frames legitimately repeated on one connection (venues without trade ids) are kept apart
+ * by counting copies per connection: the n-th copy from one side only matches the n-th from the other.
+ */
+@Component
+public class RedundantFeedMerger {
+
+    private static final Logger log = LoggerFactory.getLogger(RedundantFeedMerger.class);
+
+    public static final int PRIMARY = 0;
+    public static final int STANDBY = 1;
+
+    public record Stats(Exchange exchange, long[] wins, long[] leadNanos, long[] solo, long duplicates) {}
+
+    private final Feed[] feeds = new Feed[Exchange.values().length];
+    private final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "redundant-feed-report");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public RedundantFeedMerger(StreamProperties props) {
+        this(props.getRedundancy().getExchanges(), props.getRedundancy().getWindow());
+
+        long reportMs = props.getRedundancy().getReportMs();
+        if (!props.getRedundancy().getExchanges().isEmpty() && reportMs > 0) {
+            reporter.scheduleWithFixedDelay(this::report, reportMs, reportMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public RedundantFeedMerger(List<Exchange> exchanges, int window) {
+        for (Exchange ex : exchanges) {
+            feeds[ex.ordinal()] = new Feed(window);
+        }
+    }
+
+    public boolean isRedundant(Exchange exchange) {
+        return feeds[exchange.ordinal()] != null;
+    }
+
+    // False when another connection already delivered this frame
+    public boolean firstArrival(Exchange exchange, int connection, String raw) {
+        Feed feed = feeds[exchange.ordinal()];
+        if (feed == null) return true;
+        return feed.arrive(key(exchange, raw), connection, System.nanoTime());
+    }
+
+    public Stats stats(Exchange exchange) {
+        Feed feed = feeds[exchange.ordinal()];
+        if (feed == null) return null;
+        synchronized (feed) {
+            return new Stats(exchange, feed.wins.clone(), feed.leadNanos.clone(), feed.solo.clone(), feed.duplicates);
+        }
+    }
+
+    // Matched frames the connection delivered first
+    public long wins(Exchange exchange, int connection) {
+        Stats s = stats(exchange);
+        return s == null ? 0 : s.wins()[connection];
+    }
+
+    // Total head start of the connection's wins, divide by wins() for the average lead
+    public double leadSeconds(Exchange exchange, int connection) {
+        Stats s = stats(exchange);
+        return s == null ? 0 : s.leadNanos()[connection] / 1e9;
+    }
+
+    // Frames only this connection delivered within the window
+    public long solo(Exchange exchange, int connection) {
+        Stats s = stats(exchange);
+        return s == null ? 0 : s.solo()[connection];
+    }
+
+    // JSON field names per venue: trade ids, the symbol the ids belong to, and per-push fields
+    private record KeyFields(String[] ids, String[] symbol, String[] envelope) {
+        static KeyFields of(List<String> ids, List<String> symbol, List<String> envelope) {
+            return new KeyFields(ids.toArray(String[]::new), symbol.toArray(String[]::new), envelope.toArray(String[]::new));
+        }
+    }
+
+    private static final Map<Exchange, KeyFields> KEY_FIELDS = new EnumMap<>(Map.ofEntries(
+            // t: trade id of @trade, a: aggregate id of @aggTrade
+            Map.entry(Exchange.BINANCE, KeyFields.of(List.of("t", "a"), List.of("s"), List.of())),
+            Map.entry(Exchange.COINBASE, KeyFields.of(List.of("trade_id"), List.of("product_id"), List.of("sequence_num", "timestamp"))),
+            Map.entry(Exchange.KRAKEN, KeyFields.of(List.of("trade_id"), List.of("symbol"), List.of())),
+            Map.entry(Exchange.BYBIT, KeyFields.of(List.of("i"), List.of("topic"), List.of("ts"))),
+            Map.entry(Exchange.UPBIT, KeyFields.of(List.of("sequential_id"), List.of("code"), List.of("timestamp"))),
+            Map.entry(Exchange.OKX, KeyFields.of(List.of("tradeId"), List.of("instId"), List.of())),
+            Map.entry(Exchange.BITGET, KeyFields.of(List.of("tradeId"), List.of("instId"), List.of("ts"))),
+            Map.entry(Exchange.GATE, KeyFields.of(List.of("id"), List.of("currency_pair"), List.of("time", "time_ms"))),
+            Map.entry(Exchange.KUCOIN, KeyFields.of(List.of("tradeId"), List.of("symbol"), List.of())),
+            Map.entry(Exchange.CRYPTOCOM, KeyFields.of(List.of("i"), List.of("instrument_name"), List.of("id"))),
+            Map.entry(Exchange.MEXC, KeyFields.of(List.of(), List.of("symbol"), List.of("ts")))));
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /*
+     * One pass over the frame's JSON keys, no parsing or allocation: FNV-1a over the symbol and trade id
+     * values when the frame has trade ids, else over the whole frame except the envelope fields' values.
+     */
+    static long key(Exchange exchange, String raw) {
+        KeyFields fields = KEY_FIELDS.get(exchange);
+        long ids = FNV_OFFSET;
+        long content = FNV_OFFSET;
+        int idCount = 0;
+        int hashedTo = 0;
+
+        int i = raw.indexOf('"');
+        while (i >= 0) {
+            int end = stringEnd(raw, i);
+            if (end < 0) break;
+            int colon = skipSpace(raw, end + 1);
+            if (colon >= raw.length() || raw.charAt(colon) != ':') {
+                // a string value, not a key
+                i = raw.indexOf('"', end + 1);
+                continue;
+            }
+            int from = skipSpace(raw, colon + 1);
+            int to = scalarEnd(raw, from);
+            if (to < 0) {
+                // object or array value, its keys come next
+                i = raw.indexOf('"', colon + 1);
+                continue;
+            }
+            if (fields != null) {
+                boolean id = matches(raw, i + 1, end, fields.ids());
+                if (id || matches(raw, i + 1, end, fields.symbol())) {
+                    ids = fnv(ids, raw, from, to);
+                    ids = (ids ^ (id ? ',' : ':')) * FNV_PRIME;
+                    if (id) idCount++;
+                }
+                if (matches(raw, i + 1, end, fields.envelope())) {
+                    content = fnv(content, raw, hashedTo, from);
+                    hashedTo = to;
+                }
+            }
+            i = raw.indexOf('"', to);
+        }
+
+        long h = idCount > 0 ? ids : fnv(content, raw, hashedTo, raw.length());
+        return h == 0 ? 1 : h;
+    }
+
+    private static long fnv(long h, String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            h ^= s.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static boolean matches(String raw, int from, int to, String[] names) {
+        for (String name : names) {
+            if (name.length() == to - from && raw.regionMatches(from, name, 0, name.length())) return true;
+        }
+        return false;
+    }
+
+    // Index of the quote closing the string opened at start, -1 if unterminated
+    private static int stringEnd(String s, int start) {
+        for (int i = start + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') i++;
+            else if (c == '"') return i;
+        }
+        return -1;
+    }
+
+    private static int skipSpace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    // End (exclusive) of the string, number or literal at from, -1 for an object or array
+    private static int scalarEnd(String s, int from) {
+        if (from >= s.length()) return s.length();
+        char c = s.charAt(from);
+        if (c == '{' || c == '[') return -1;
+        if (c == '"') {
+            int end = stringEnd(s, from);
+            return end < 0 ? s.length() : end + 1;
+        }
+        int i = from;
+        while (i < s.length() && ",}] \t\r\n".indexOf(s.charAt(i)) < 0) i++;
+        return i;
+    }
+
+    private void report() {
+        for (Exchange ex : Exchange.values()) {
+            Feed feed = feeds[ex.ordinal()];
+            if (feed == null) continue;
+
+            long[] wins, lead, maxLead, solo;
+            synchronized (feed) {
+                wins = feed.intervalWins.clone();
+                lead = feed.intervalLeadNanos.clone();
+                maxLead = feed.intervalMaxLeadNanos.clone();
+                solo = feed.intervalSolo.clone();
+                feed.resetInterval();
+            }
+            long matched = wins[PRIMARY] + wins[STANDBY];
+            if (matched == 0 && solo[PRIMARY] + solo[STANDBY] == 0) continue;
+
+            log.info("{} redundant feed: primary won {}% (avg lead {}ms, max {}ms), standby won {}% (avg lead {}ms, max {}ms), "
+                            + "solo frames primary={} standby={}",
+                    ex, percent(wins[PRIMARY], matched), avgMs(lead[PRIMARY], wins[PRIMARY]), maxLead[PRIMARY] / 1_000_000,
+                    percent(wins[STANDBY], matched), avgMs(lead[STANDBY], wins[STANDBY]), maxLead[STANDBY] / 1_000_000,
+                    solo[PRIMARY], solo[STANDBY]);
+        }
+    }
+
+    private static long percent(long part, long total) {
+        return total == 0 ? 0 : Math.round(100.0 * part / total);
+    }
+
+    private static String avgMs(long nanos, long n) {
+        return n == 0 ? "-" : String.format("%.2f", nanos / 1e6 / n);
+    }
+
+    @PreDestroy
+    public void stop() {
+        reporter.shutdownNow();
+    }
+
+    /*
+     * Open-addressing table of recent frame keys (linear probing, backward-shift deletion) with an
+     * insertion-order ring for eviction, like BoundedLongSet but with per-key arrival state.
+     */
+    private static final class Feed {
+        private static final long EMPTY = 0L;
+
+        final long[] ring;
+        final long[] keys;
+        final long[] firstNanos;
+        final int[] copies0;
+        final int[] copies1;
+        final int ringMask;
+        final int tableMask;
+        long inserted;
+
+        // cumulative, indexed by connection
+        final long[] wins = new long[2];
+        final long[] leadNanos = new long[2];
+        final long[] solo = new long[2];
+        long duplicates;
+
+        // since the last report
+        final long[] intervalWins = new long[2];
+        final long[] intervalLeadNanos = new long[2];
+        final long[] intervalMaxLeadNanos = new long[2];
+        final long[] intervalSolo = new long[2];
+
+        Feed(int window) {
+            int cap = Integer.highestOneBit(Math.max(2, window - 1)) << 1;
+            ring = new long[cap];
+            keys = new long[cap << 1];
+            firstNanos = new long[cap << 1];
+            copies0 = new int[cap << 1];
+            copies1 = new int[cap << 1];
+            ringMask = cap - 1;
+            tableMask = keys.length - 1;
+        }
+
+        synchronized boolean arrive(long key, int connection, long now) {
+            int i = slot(key);
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) return arriveAgain(i, connection, now);
+                i = (i + 1) & tableMask;
+            }
+
+            int r = (int) (inserted & ringMask);
+            if (inserted >= ring.length) evict(ring[r]);
+
+            int at = freeSlot(key);
+            keys[at] = key;
+            firstNanos[at] = now;
+            copies0[at] = connection == PRIMARY ? 1 : 0;
+            copies1[at] = connection == PRIMARY ? 0 : 1;
+            ring[r] = key;
+            inserted++;
+            return true;
+        }
+
+        private boolean arriveAgain(int i, int connection, long now) {
+            int own = connection == PRIMARY ? ++copies0[i] : ++copies1[i];
+            int other = connection == PRIMARY ? copies1[i] : copies0[i];
+            if (own > other) return true; // a new repeat of the frame, the other side has not sent it yet
+
+            duplicates++;
+            if (own == 1) {
+                int winner = 1 - connection;
+                long lead = now - firstNanos[i];
+                wins[winner]++;
+                leadNanos[winner] += lead;
+                intervalWins[winner]++;
+                intervalLeadNanos[winner] += lead;
+                intervalMaxLeadNanos[winner] = Math.max(intervalMaxLeadNanos[winner], lead);
+            }
+            return false;
+        }
+
+        private void evict(long key) {
+            int i = slot(key);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) return;
+                i = (i + 1) & tableMask;
+            }
+
+            // only one connection ever delivered it
+            if (copies1[i] == 0) { solo[PRIMARY]++; intervalSolo[PRIMARY]++; }
+            else if (copies0[i] == 0) { solo[STANDBY]++; intervalSolo[STANDBY]++; }
+
+            int j = i;
+            while (true) {
+                j = (j + 1) & tableMask;
+                if (keys[j] == EMPTY) break;
+                int home = slot(keys[j]);
+                boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays) {
+                    keys[i] = keys[j];
+                    firstNanos[i] = firstNanos[j];
+                    copies0[i] = copies0[j];
+                    copies1[i] = copies1[j];
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+        }
+
+        private int freeSlot(long key) {
+            int i = slot(key);
+            while (keys[i] != EMPTY) i = (i + 1) & tableMask;
+            return i;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & tableMask;
+        }
+
+        void resetInterval() {
+            for (int c = 0; c < 2; c++) {
+                intervalWins[c] = 0;
+                intervalLeadNanos[c] = 0;
+                intervalMaxLeadNanos[c] = 0;
+                intervalSolo[c] = 0;
+            }
+        }
+    }
+}
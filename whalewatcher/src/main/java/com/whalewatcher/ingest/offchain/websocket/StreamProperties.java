@@ -4,15 +4,125 @@ import com.whalewatcher.domain.Exchange;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 @ConfigurationProperties(prefix = "streams")
 public class StreamProperties {
 
+    // Venues with a public aggregated trade channel. OKX "trades" is already aggregated per taker order.
+    private static final Set<Exchange> AGGREGATE_CHANNELS = EnumSet.of(Exchange.BINANCE);
+
+    // QUEUE: RawWsBus + WsWorkers, RING: preallocated staged pipeline (see RingIngestPipeline)
+    public enum Engine { QUEUE, RING }
+
+    private Engine engine = Engine.QUEUE;
+
     private List<Exchange> enabled = new ArrayList<>();
 
+    // Optional per-exchange endpoint overrides (e.g. pointing the adapters at the local simulator).
+    // For KuCoin this is the bullet-public REST endpoint, the WebSocket URL is handed out by that call.
+    private Map<Exchange, String> uris = new EnumMap<>(Exchange.class);
+
+    // Per-exchange trade channel, TRADE unless overridden
+    private Map<Exchange, ChannelMode> channelModes = new EnumMap<>(Exchange.class);
+
+    private final Redundancy redundancy = new Redundancy();
+
+    private final Warmup warmup = new Warmup();
+
+    // Streams connect in parallel after startup, a stream without a trade frame by then is reported as slow
+    private long startTimeoutMs = 15_000;
+
+    // On shutdown the ingest engine gets this long to work off queued frames once the adapters are closed
+    private long drainTimeoutMs = 10_000;
+
+    /*
+     * Exchanges kept on a warm standby connection next to the primary one. Both feeds are merged by
+     * RedundantFeedMerger, the first copy of a frame wins and the later copy is dropped if it arrives
+     * within the last window frames of that exchange.
+     */
+    public static class Redundancy {
+
+        private List<Exchange> exchanges = new ArrayList<>();
+
+        // Optional endpoint of the standby connection (another host or region), the primary endpoint when absent
+        private Map<Exchange, String> standbyUris = new EnumMap<>(Exchange.class);
+
+        private int window = 8_192;
+
+        private long reportMs = 60_000;
+
+        public List<Exchange> getExchanges() { return exchanges; }
+        public void setExchanges(List<Exchange> exchanges) { this.exchanges = exchanges; }
+
+        public Map<Exchange, String> getStandbyUris() { return standbyUris; }
+        public void setStandbyUris(Map<Exchange, String> standbyUris) { this.standbyUris = standbyUris; }
+
+        public int getWindow() { return window; }
+        public void setWindow(int window) { this.window = window; }
+
+        public long getReportMs() { return reportMs; }
+        public void setReportMs(long reportMs) { this.reportMs = reportMs; }
+    }
+
+    /*
+     * JIT warm-up before the streams connect (see JitWarmup). Rounds over framesPerExchange fixture frames
+     * per venue repeat until stableRounds consecutive rounds agree on the per-frame time within
+     * tolerance and the JIT compiled for at most maxCompileShare of the round, or until maxMs.
+     */
+    public static class Warmup {
+
+        private boolean enabled = false;
+
+        private int framesPerExchange = 256;
+
+        private int minRounds = 5;
+
+        private int stableRounds = 3;
+
+        private double tolerance = 0.10;
+
+        private double maxCompileShare = 0.05;
+
+        private long maxMs = 20_000;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public int getFramesPerExchange() { return framesPerExchange; }
+        public void setFramesPerExchange(int framesPerExchange) { this.framesPerExchange = framesPerExchange; }
+
+        public int getMinRounds() { return minRounds; }
+        public void setMinRounds(int minRounds) { this.minRounds = minRounds; }
+
+        public int getStableRounds() { return stableRounds; }
+        public void setStableRounds(int stableRounds) { this.stableRounds = stableRounds; }
+
+        public double getTolerance() { return tolerance; }
+        public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+
+        public double getMaxCompileShare() { return maxCompileShare; }
+        public void setMaxCompileShare(double maxCompileShare) { this.maxCompileShare = maxCompileShare; }
+
+        public long getMaxMs() { return maxMs; }
+        public void setMaxMs(long maxMs) { this.maxMs = maxMs; }
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Engine engine) {
+        this.engine = engine;
+    }
+
     public List<Exchange> getEnabled() {
         return enabled;
     }
@@ -20,4 +130,66 @@ public class StreamProperties {
     public void setEnabled(List<Exchange> enabled) {
         this.enabled = enabled;
     }
+
+    public Map<Exchange, String> getUris() {
+        return uris;
+    }
+
+    public void setUris(Map<Exchange, String> uris) {
+        this.uris = uris;
+    }
+
+    public Map<Exchange, ChannelMode> getChannelModes() {
+        return channelModes;
+    }
+
+    public void setChannelModes(Map<Exchange, ChannelMode> channelModes) {
+        this.channelModes = channelModes;
+    }
+
+    public long getStartTimeoutMs() {
+        return startTimeoutMs;
+    }
+
+    public void setStartTimeoutMs(long startTimeoutMs) {
+        this.startTimeoutMs = startTimeoutMs;
+    }
+
+    public long getDrainTimeoutMs() {
+        return drainTimeoutMs;
+    }
+
+    public void setDrainTimeoutMs(long drainTimeoutMs) {
+        this.drainTimeoutMs = drainTimeoutMs;
+    }
+
+    public Redundancy getRedundancy() {
+        return redundancy;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public static boolean supportsAggregate(Exchange exchange) {
+        return AGGREGATE_CHANNELS.contains(exchange);
+    }
+
+    // Falls back to TRADE for venues without an aggregated channel
+    public ChannelMode channelModeFor(Exchange exchange) {
+        ChannelMode mode = channelModes.getOrDefault(exchange, ChannelMode.TRADE);
+        return mode == ChannelMode.AGGREGATE && !supportsAggregate(exchange) ? ChannelMode.TRADE : mode;
+    }
+
+    // Resolve the endpoint for an exchange, falling back to the venue's public URL
+    public URI uriFor(Exchange exchange, String defaultUri) {
+        String override = uris.get(exchange);
+        return URI.create(override == null || override.isBlank() ? defaultUri : override);
+    }
+
+    // Endpoint of one connection, 0 = primary, 1 = standby
+    public URI uriFor(Exchange exchange, String defaultUri, int connection) {
+        String standby = connection == 0 ? null : redundancy.getStandbyUris().get(exchange);
+        return standby == null || standby.isBlank() ? uriFor(exchange, defaultUri) : URI.create(standby);
+    }
 }
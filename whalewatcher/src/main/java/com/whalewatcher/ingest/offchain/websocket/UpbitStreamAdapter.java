@@ -1,22 +1,39 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @Component
 public class UpbitStreamAdapter extends WebSocketClient implements ExchangeStreamer {
 
+    private static final Logger log = LoggerFactory.getLogger(UpbitStreamAdapter.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.warn(log, Duration.ofSeconds(10));
+
     private final RawWsBus bus;
+    private final StreamProperties props;
+    // 0 = primary, 1 = warm standby (streams.redundancy)
+    private final int connection;
+
+    @Autowired
+    public UpbitStreamAdapter(RawWsBus bus, StreamProperties props) {
+        this(bus, props, 0);
+    }
 
-    public UpbitStreamAdapter(RawWsBus bus) {
-        super(URI.create("wss://api.upbit.com/websocket/v1"));
+    UpbitStreamAdapter(RawWsBus bus, StreamProperties props, int connection) {
+        super(props.uriFor(Exchange.UPBIT, "wss://api.upbit.com/websocket/v1", connection));
         this.bus = bus;
+        this.props = props;
+        this.connection = connection;
     }
 
     @Override
@@ -24,6 +41,11 @@ public class UpbitStreamAdapter extends WebSocketClient implements ExchangeStrea
         return Exchange.UPBIT;
     }
 
+    @Override
+    public ExchangeStreamer newConnection(int connection) {
+        return new UpbitStreamAdapter(bus, props, connection);
+    }
+
     @Override
     public void start() {
         this.connect();
@@ -43,7 +65,7 @@ public class UpbitStreamAdapter extends WebSocketClient implements ExchangeStrea
         ]
         """;
         send(subscribe);
-        System.out.println("Upbit connection opened + subscribed");
+        log.info("Upbit connection opened + subscribed");
     }
 
     // Upbit sends binary frames, decode to UTF-8 JSON and hand off to workers
@@ -60,17 +82,18 @@ public class UpbitStreamAdapter extends WebSocketClient implements ExchangeStrea
 
     @Override
     public void onMessage(String raw) {
-        if (raw == null || raw.isBlank()) return;
-        bus.publish(Exchange.UPBIT, raw);
+        // heartbeats and subscribe acks stop here, data frames go to the workers as-is
+        if (!ControlFrameClassifier.isData(Exchange.UPBIT, raw)) return;
+        bus.publish(Exchange.UPBIT, connection, raw);
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
-        System.out.println("Upbit connection closed: " + code + " " + reason);
+        log.info("Upbit connection closed: {} {}", code, reason);
     }
 
     @Override
     public void onError(Exception e) {
-        e.printStackTrace();
+        ERRORS.log("Upbit stream error: " + e.getMessage(), e);
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.whalewatcher.ingest.offchain.websocket;
 import com.google.gson.Gson;
 import com.whalewatcher.domain.Exchange;
 import com.whalewatcher.domain.Trade;
+import com.whalewatcher.infrastructure.jfr.FrameParseEvent;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -18,6 +19,14 @@ public class WsMessageParser {
     public List<Trade> parse(Exchange exchange, String raw) {
         if (exchange == null) return List.of();
 
+        FrameParseEvent event = new FrameParseEvent();
+        event.begin();
+        List<Trade> trades = parseFrame(exchange, raw);
+        event.complete(exchange, raw, trades.size());
+        return trades;
+    }
+
+    private List<Trade> parseFrame(Exchange exchange, String raw) {
         return switch (exchange) {
             case KUCOIN -> parseKucoinTrades(raw);
             case BINANCE -> parseBinanceTrades(raw);
@@ -39,9 +48,25 @@ public class WsMessageParser {
         catch (Exception ignored) { return null; }
     }
 
+    // Venue trade ids arrive as numeric strings, anything else is treated as missing
+    static long parseTradeId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 18) return Trade.NO_TRADE_ID;
+        long v = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return Trade.NO_TRADE_ID;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static long tradeIdOrNone(Long id) {
+        return id == null || id < 0 ? Trade.NO_TRADE_ID : id;
+    }
+
     // KUCOIN parser
     record KucoinMsg(String type, String subject, KucoinTradeData data) {}
-    record KucoinTradeData(String price, String side, String size, String symbol, String time) {}
+    record KucoinTradeData(String price, String side, String size, String symbol, String time, String tradeId) {}
 
     private List<Trade> parseKucoinTrades(String raw) {
         KucoinMsg msg = tryParse(raw, KucoinMsg.class);
@@ -60,7 +85,8 @@ public class WsMessageParser {
                 Double.parseDouble(t.price()),
                 Double.parseDouble(t.size()),
                 t.side() == null ? null : t.side().toLowerCase(Locale.ROOT),
-                timeMs
+                timeMs,
+                parseTradeId(t.tradeId())
         ));
     }
 
@@ -70,8 +96,8 @@ public class WsMessageParser {
         return (v > 1_000_000_000_000_000L) ? (v / 1_000_000L) : v;
     }
 
-    // BINANCE parser
-    record BinanceTrade(String e, long E, String s, String p, String q, long T, boolean m) {}
+    // BINANCE parser, handles both @trade and @aggTrade (a = aggregate trade id)
+    record BinanceTrade(String e, long E, String s, Long t, Long a, String p, String q, long T, boolean m) {}
     record BinanceMsg(String stream, BinanceTrade data) {}
 
     private List<Trade> parseBinanceTrades(String raw) {
@@ -79,7 +105,8 @@ public class WsMessageParser {
         if (parsed == null || parsed.data() == null) return List.of();
 
         BinanceTrade data = parsed.data();
-        if (!"trade".equalsIgnoreCase(data.e())) return List.of();
+        boolean aggregate = "aggTrade".equalsIgnoreCase(data.e());
+        if (!aggregate && !"trade".equalsIgnoreCase(data.e())) return List.of();
 
         return List.of(new Trade(
                 Exchange.BINANCE,
@@ -87,7 +114,8 @@ public class WsMessageParser {
                 Double.parseDouble(data.p()),
                 Double.parseDouble(data.q()),
                 data.m() ? "sell" : "buy",
-                data.T()
+                data.T(),
+                tradeIdOrNone(aggregate ? data.a() : data.t())
         ));
     }
 
@@ -119,7 +147,8 @@ public class WsMessageParser {
                         Double.parseDouble(t.price()),
                         Double.parseDouble(t.size()),
                         t.side() == null ? null : t.side().toLowerCase(Locale.ROOT),
-                        Instant.parse(t.time()).toEpochMilli()
+                        Instant.parse(t.time()).toEpochMilli(),
+                        parseTradeId(t.trade_id())
                 ));
             }
         }
@@ -128,7 +157,7 @@ public class WsMessageParser {
     }
 
     // KRAKEN parser
-    record KrakenTrade(String symbol, String side, double price, double qty, String timestamp) {}
+    record KrakenTrade(String symbol, String side, double price, double qty, Long trade_id, String timestamp) {}
     record KrakenMsg(String channel, String type, List<KrakenTrade> data) {}
 
     private List<Trade> parseKrakenTrades(String raw) {
@@ -147,7 +176,8 @@ public class WsMessageParser {
                     t.price(),
                     t.qty(),
                     t.side(),
-                    Instant.parse(t.timestamp()).toEpochMilli()
+                    Instant.parse(t.timestamp()).toEpochMilli(),
+                    tradeIdOrNone(t.trade_id())
             ));
         }
         return out;
@@ -186,14 +216,15 @@ public class WsMessageParser {
                     Double.parseDouble(t.price()),
                     Double.parseDouble(t.size()),
                     side,
-                    Long.parseLong(t.ts())
+                    Long.parseLong(t.ts()),
+                    parseTradeId(t.tradeId())
             ));
         }
         return out;
     }
 
     //  BYBIT parser
-    record BybitTrade(String p, String v, String S, long T) {}
+    record BybitTrade(String p, String v, String S, long T, String i) {}
     record BybitMsg(String topic, List<BybitTrade> data) {}
 
     private List<Trade> parseBybitTrades(String s) {
@@ -217,7 +248,8 @@ public class WsMessageParser {
                     Double.parseDouble(t.p()),
                     Double.parseDouble(t.v()),
                     t.S() == null ? null : t.S().toLowerCase(Locale.ROOT),
-                    t.T()
+                    t.T(),
+                    parseTradeId(t.i())
             ));
         }
         return out;
@@ -259,7 +291,8 @@ public class WsMessageParser {
                     Double.parseDouble(t.p()),
                     Double.parseDouble(t.q()),
                     t.s() == null ? null : t.s().toLowerCase(Locale.ROOT),
-                    t.t()
+                    t.t(),
+                    parseTradeId(t.d())
             ));
         }
         return out;
@@ -306,12 +339,13 @@ public class WsMessageParser {
                 Double.parseDouble(t.price()),
                 Double.parseDouble(t.amount()),
                 side,
-                tsMs
+                tsMs,
+                tradeIdOrNone(t.id())
         ));
     }
 
     // UPBIT parser
-    record UpbitTrade(String type, String code, Double trade_price, Double trade_volume, String ask_bid, Long trade_timestamp) {}
+    record UpbitTrade(String type, String code, Double trade_price, Double trade_volume, String ask_bid, Long trade_timestamp, Long sequential_id) {}
 
     private List<Trade> parseUpbitTrades(String raw) {
         if (raw == null || raw.isBlank()) return List.of();
@@ -327,7 +361,8 @@ public class WsMessageParser {
                 t.trade_price(),
                 t.trade_volume(),
                 normalizeUpbitSide(t.ask_bid()),
-                t.trade_timestamp()
+                t.trade_timestamp(),
+                tradeIdOrNone(t.sequential_id())
         ));
     }
 
@@ -341,7 +376,7 @@ public class WsMessageParser {
     }
 
     // OKX parser
-    record OkxTrade(String instId, String px, String sz, String side, String ts) {}
+    record OkxTrade(String instId, String tradeId, String px, String sz, String side, String ts) {}
     record OkxArg(String channel, String instId) {}
     record OkxMsg(OkxArg arg, List<OkxTrade> data) {}
 
@@ -372,7 +407,8 @@ public class WsMessageParser {
                     Double.parseDouble(t.px()),
                     Double.parseDouble(t.sz()),
                     side,
-                    Long.parseLong(t.ts())
+                    Long.parseLong(t.ts()),
+                    parseTradeId(t.tradeId())
             ));
         }
         return out;
@@ -1,66 +1,387 @@
 package com.whalewatcher.ingest.offchain.websocket;
 
 import com.whalewatcher.domain.Trade;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import com.whalewatcher.service.IngestionService;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/*
+ * Pool of threads draining the RawWsBus into the parser and IngestionService.
+ *
+ * The pool is elastic between streams.workers.minWorkers and maxWorkers: a controller samples the bus
+ * size trend and the dequeue latency (time a frame waited on the bus) every control interval and adds
+ * or retires one worker at a time (see WsWorkersProperties for the hysteresis).
+ *
+ * In PARTITIONED dispatch a single dispatcher thread routes each frame by (exchange, symbol) to a fixed
+ * partition with its own queue and thread, so downstream state per stream sees frames in order from
+ * one thread. The express lane is switched off in that mode, it would reorder a stream's frames.
+ *
+ * Parse failures go to the ParseCircuitBreaker, which sheds a broken venue's frames while it is tripped.
+ *
+ * On shutdown drain() works off the bus (and partition queues) before the threads stop, see IngestShutdown.
+ */
 @Component
-public class WsWorkers {
+@ConditionalOnProperty(prefix = "streams", name = "engine", havingValue = "QUEUE", matchIfMissing = true)
+public class WsWorkers implements IngestEngine {
 
-    private static final int WS_WORKERS =
-            Math.max(2, Math.min(6, Runtime.getRuntime().availableProcessors() - 1));
+    private static final Logger log = LoggerFactory.getLogger(WsWorkers.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.error(log, Duration.ofSeconds(10));
 
     private final RawWsBus bus;
     private final IngestionService ingestionService;
     private final WsMessageParser parser;
-    private final ExecutorService pool;
+    private final WsWorkersProperties props;
+    private final ParseCircuitBreaker breaker;
+
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final ExecutorService pool = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "ws-worker-" + threadIds.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private final ScheduledExecutorService controller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ws-workers-controller");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Live workers, newest last (guarded by this)
+    private final Deque<Worker> workers = new ArrayDeque<>();
+
+    // PARTITIONED dispatch only, empty otherwise
+    private Partition[] partitions = new Partition[0];
+    private volatile double lastSkew;
+
+    // Dequeue latency of the current control interval
+    private final LongAdder latencySumMs = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+
+    // Frames taken off the bus and handed to the parser
+    private final LongAdder processed = new LongAdder();
+
+    private final AtomicLong scaleUps = new AtomicLong();
+    private final AtomicLong scaleDowns = new AtomicLong();
+    private volatile double lastLatencyMs;
+
+    private int prevQueueSize;
+    private int upStreak;
+    private int downStreak;
 
     private volatile boolean running = true;
 
     public WsWorkers(RawWsBus bus, IngestionService ingestionService, WsMessageParser parser) {
+        this(bus, ingestionService, parser, new WsWorkersProperties());
+    }
+
+    public WsWorkers(RawWsBus bus, IngestionService ingestionService, WsMessageParser parser,
+                     WsWorkersProperties props) {
+        this(bus, ingestionService, parser, props, ParseCircuitBreaker.disabled());
+    }
+
+    @Autowired
+    public WsWorkers(RawWsBus bus, IngestionService ingestionService, WsMessageParser parser,
+                     WsWorkersProperties props, ParseCircuitBreaker breaker) {
         this.bus = bus;
         this.ingestionService = ingestionService;
         this.parser = parser;
-
-        this.pool = Executors.newFixedThreadPool(WS_WORKERS);
-        System.out.println("WS workers started: " + WS_WORKERS);
+        this.props = props;
+        this.breaker = breaker;
     }
 
     @PostConstruct
     public void start() {
-        for (int i = 0; i < WS_WORKERS; i++) {
-            pool.submit(this::loop);
+        if (props.getDispatch() == WsWorkersProperties.Dispatch.PARTITIONED) {
+            startPartitioned();
+            return;
+        }
+
+        int initial = props.isElastic()
+                ? clamp(props.getInitialWorkers(), props.getMinWorkers(), props.getMaxWorkers())
+                : props.getInitialWorkers();
+
+        synchronized (this) {
+            for (int i = 0; i < initial; i++) addWorker();
+        }
+        if (props.isElastic()) {
+            controller.scheduleWithFixedDelay(this::rebalance,
+                    props.getControlIntervalMs(), props.getControlIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+
+        if (props.isElastic()) {
+            log.info("WS workers started: {} (elastic {}-{})", initial, props.getMinWorkers(), props.getMaxWorkers());
+        } else {
+            log.info("WS workers started: {}", initial);
         }
     }
 
-    private void loop() {
+    public synchronized int workerCount() { return workers.size() + partitions.length; }
+
+    public int partitionCount() { return partitions.length; }
+
+    public long partitionProcessed(int partition) { return partitions[partition].processed.get(); }
+
+    public int partitionDepth(int partition) { return partitions[partition].queue.size(); }
+
+    // Busiest partition's share of the last report interval relative to a fair share (1.0 = balanced)
+    public double partitionSkew() { return lastSkew; }
+
+    public long scaleUps() { return scaleUps.get(); }
+
+    public long scaleDowns() { return scaleDowns.get(); }
+
+    // Average time frames waited on the bus during the last control interval
+    public double dequeueLatencyMs() { return lastLatencyMs; }
+
+    private synchronized void rebalance() {
+        if (!running) return;
+
+        int size = bus.size();
+        long n = latencyCount.sumThenReset();
+        long sum = latencySumMs.sumThenReset();
+        double latency = n == 0 ? 0 : (double) sum / n;
+        lastLatencyMs = latency;
+
+        boolean overloaded = (size >= props.getScaleUpQueueDepth() && size >= prevQueueSize)
+                || latency >= props.getScaleUpLatencyMs();
+        boolean idle = size <= props.getScaleDownQueueDepth() && latency < props.getScaleDownLatencyMs();
+        prevQueueSize = size;
+
+        upStreak = overloaded ? upStreak + 1 : 0;
+        downStreak = idle ? downStreak + 1 : 0;
+
+        if (upStreak >= props.getScaleUpIntervals() && workers.size() < props.getMaxWorkers()) {
+            addWorker();
+            scaleUps.incrementAndGet();
+            upStreak = 0;
+            log.info("WS workers scaled up to {} (queue={}, latency={}ms)", workers.size(), size, Math.round(latency));
+        } else if (downStreak >= props.getScaleDownIntervals() && workers.size() > props.getMinWorkers()) {
+            workers.removeLast().retired = true;
+            scaleDowns.incrementAndGet();
+            downStreak = 0;
+            log.info("WS workers scaled down to {}", workers.size());
+        }
+    }
+
+    // caller holds the lock
+    private void addWorker() {
+        Worker w = new Worker();
+        workers.addLast(w);
+        pool.submit(w);
+    }
+
+    private void process(RawWsBus.RawWsMsg m) {
+        processed.increment();
+        latencySumMs.add(System.currentTimeMillis() - m.receivedAtMs());
+        latencyCount.increment();
+
+        if (!breaker.admit(m.exchange())) return;
+
+        List<Trade> trades;
+        try {
+            trades = parser.parse(m.exchange(), m.raw());
+        } catch (RuntimeException e) {
+            // counted by the breaker instead of logged per frame
+            breaker.rejected(m.exchange(), m.raw(), e);
+            return;
+        }
+        if (trades.isEmpty()) {
+            breaker.rejected(m.exchange(), m.raw(), null);
+            return;
+        }
+        breaker.accepted(m.exchange());
+
+        for (Trade t : trades) {
+            ingestionService.ingest(t);
+        }
+    }
+
+    private void startPartitioned() {
+        int n = Math.max(1, props.getPartitions());
+        bus.disableExpressLane();
+
+        Partition[] ps = new Partition[n];
+        for (int i = 0; i < n; i++) {
+            ps[i] = new Partition(i, props.getPartitionCapacity());
+        }
+        synchronized (this) {
+            partitions = ps;
+        }
+        for (Partition p : ps) pool.submit(p);
+        pool.submit(this::dispatch);
+
+        controller.scheduleWithFixedDelay(this::reportSkew,
+                props.getSkewReportMs(), props.getSkewReportMs(), TimeUnit.MILLISECONDS);
+
+        log.info("WS workers started: {} partitions (per-stream order, express lane off)", n);
+    }
+
+    private void dispatch() {
+        Partition[] ps = partitions;
         while (running) {
             try {
-                RawWsBus.RawWsMsg m = bus.take();
+                RawWsBus.RawWsMsg m = bus.poll(props.getIdlePollMs(), TimeUnit.MILLISECONDS);
+                if (m == null) continue;
 
-                List<Trade> trades = parser.parse(m.exchange(), m.raw());
-                for (Trade t : trades) {
-                    ingestionService.ingest(t);
-                }
+                // blocks while the partition is full, the backlog then builds up (and is shed) in the bus
+                ps[FramePartitioner.partition(m.exchange(), m.raw(), ps.length)].queue.put(m);
 
             } catch (InterruptedException ie) {
                 Thread.currentThread().interrupt();
                 break;
-            } catch (Exception e) {
-                System.err.println("WS worker error: " + e.getMessage());
             }
         }
     }
 
+    private void reportSkew() {
+        Partition[] ps = partitions;
+        long total = 0;
+        long max = 0;
+        int busiest = 0;
+        for (int i = 0; i < ps.length; i++) {
+            long cur = ps[i].processed.get();
+            long delta = cur - ps[i].reported;
+            ps[i].reported = cur;
+            total += delta;
+            if (delta > max) {
+                max = delta;
+                busiest = i;
+            }
+        }
+
+        long n = latencyCount.sumThenReset();
+        long sum = latencySumMs.sumThenReset();
+        lastLatencyMs = n == 0 ? 0 : (double) sum / n;
+
+        if (total == 0) {
+            lastSkew = 0;
+            return;
+        }
+        double skew = max / ((double) total / ps.length);
+        lastSkew = skew;
+
+        if (skew >= props.getSkewThreshold()) {
+            log.warn("WS partition {} is skewed: {}% of {} frames ({}x fair share), queue={}", busiest,
+                    Math.round(100.0 * max / total), total, String.format("%.1f", skew), ps[busiest].queue.size());
+        }
+    }
+
+    private final class Partition implements Runnable {
+        final int index;
+        final BlockingQueue<RawWsBus.RawWsMsg> queue;
+        final AtomicLong processed = new AtomicLong();
+        long reported; // controller thread only
+
+        Partition(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            Thread.currentThread().setName("ws-partition-" + index);
+            // after stop the queue is still worked off, the dispatcher has exited by then
+            while (running || !queue.isEmpty()) {
+                try {
+                    RawWsBus.RawWsMsg m = queue.poll(props.getIdlePollMs(), TimeUnit.MILLISECONDS);
+                    if (m == null) continue;
+
+                    process(m);
+                    processed.incrementAndGet();
+
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    processed.incrementAndGet();
+                    ERRORS.log("WS worker error: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        volatile boolean retired;
+
+        @Override
+        public void run() {
+            while (running && !retired) {
+                try {
+                    RawWsBus.RawWsMsg m = bus.poll(props.getIdlePollMs(), TimeUnit.MILLISECONDS);
+                    if (m == null) continue;
+
+                    process(m);
+
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    ERRORS.log("WS worker error: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static int clamp(int v, int min, int max) {
+        return Math.max(min, Math.min(max, v));
+    }
+
+    // Frames still waiting for a worker, on the bus or in a partition queue
+    private int queued() {
+        int n = bus.size();
+        for (Partition p : partitions) n += p.queue.size();
+        return n;
+    }
+
+    @Override
+    public DrainReport drain(Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long before = processed.sum();
+
+        try {
+            while (queued() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // workers finish the frame they hold and exit
+            running = false;
+            controller.shutdownNow();
+            pool.shutdown();
+            long left = deadline - System.nanoTime();
+            if (left <= 0 || !pool.awaitTermination(left, TimeUnit.NANOSECONDS)) pool.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        }
+
+        return new DrainReport(processed.sum() - before, queued(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
     @PreDestroy
     public void stop() {
         running = false;
+        controller.shutdownNow();
         pool.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.whalewatcher.ingest.offchain.websocket;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * Sizing of the WsWorkers pool. With elastic enabled a controller re-evaluates the pool every
+ * controlIntervalMs: it adds a worker after scaleUpIntervals overloaded intervals (backlog not
+ * shrinking above scaleUpQueueDepth, or dequeue latency above scaleUpLatencyMs) and retires one
+ * after scaleDownIntervals idle intervals. The asymmetric interval counts are the hysteresis.
+ *
+ * PARTITIONED dispatch pins each (exchange, symbol) to one of a fixed number of workers, so frames
+ * of a stream are processed in arrival order by a single thread. The pool is not elastic in that mode.
+ */
+@Component
+@ConfigurationProperties(prefix = "streams.workers")
+public class WsWorkersProperties {
+
+    private static final int CPUS = Runtime.getRuntime().availableProcessors();
+
+    public enum Dispatch { SHARED, PARTITIONED }
+
+    private Dispatch dispatch = Dispatch.SHARED;
+
+    private boolean elastic = true;
+
+    // Workers at startup, and the fixed pool size when elastic is off
+    private int initialWorkers = Math.max(2, Math.min(6, CPUS - 1));
+
+    private int minWorkers = 2;
+    private int maxWorkers = Math.max(2, CPUS);
+
+    private long controlIntervalMs = 1_000;
+
+    private int scaleUpQueueDepth = 1_000;
+    private long scaleUpLatencyMs = 200;
+    private int scaleUpIntervals = 2;
+
+    private int scaleDownQueueDepth = 10;
+    private long scaleDownLatencyMs = 20;
+    private int scaleDownIntervals = 30;
+
+    // PARTITIONED: worker count, per-partition queue capacity and how often skew is checked
+    private int partitions = Math.max(2, Math.min(6, CPUS - 1));
+    private int partitionCapacity = 10_000;
+    private long skewReportMs = 30_000;
+    // a partition is reported when it handled this many times its fair share
+    private double skewThreshold = 2.0;
+
+    // How long an idle worker waits on the bus before re-checking whether it was retired
+    private long idlePollMs = 1_000;
+
+    public Dispatch getDispatch() { return dispatch; }
+    public void setDispatch(Dispatch dispatch) { this.dispatch = dispatch; }
+
+    public boolean isElastic() { return elastic; }
+    public void setElastic(boolean elastic) { this.elastic = elastic; }
+
+    public int getInitialWorkers() { return initialWorkers; }
+    public void setInitialWorkers(int initialWorkers) { this.initialWorkers = initialWorkers; }
+
+    public int getMinWorkers() { return minWorkers; }
+    public void setMinWorkers(int minWorkers) { this.minWorkers = minWorkers; }
+
+    public int getMaxWorkers() { return maxWorkers; }
+    public void setMaxWorkers(int maxWorkers) { this.maxWorkers = maxWorkers; }
+
+    public long getControlIntervalMs() { return controlIntervalMs; }
+    public void setControlIntervalMs(long controlIntervalMs) { this.controlIntervalMs = controlIntervalMs; }
+
+    public int getScaleUpQueueDepth() { return scaleUpQueueDepth; }
+    public void setScaleUpQueueDepth(int scaleUpQueueDepth) { this.scaleUpQueueDepth = scaleUpQueueDepth; }
+
+    public long getScaleUpLatencyMs() { return scaleUpLatencyMs; }
+    public void setScaleUpLatencyMs(long scaleUpLatencyMs) { this.scaleUpLatencyMs = scaleUpLatencyMs; }
+
+    public int getScaleUpIntervals() { return scaleUpIntervals; }
+    public void setScaleUpIntervals(int scaleUpIntervals) { this.scaleUpIntervals = scaleUpIntervals; }
+
+    public int getScaleDownQueueDepth() { return scaleDownQueueDepth; }
+    public void setScaleDownQueueDepth(int scaleDownQueueDepth) { this.scaleDownQueueDepth = scaleDownQueueDepth; }
+
+    public long getScaleDownLatencyMs() { return scaleDownLatencyMs; }
+    public void setScaleDownLatencyMs(long scaleDownLatencyMs) { this.scaleDownLatencyMs = scaleDownLatencyMs; }
+
+    public int getScaleDownIntervals() { return scaleDownIntervals; }
+    public void setScaleDownIntervals(int scaleDownIntervals) { this.scaleDownIntervals = scaleDownIntervals; }
+
+    public int getPartitions() { return partitions; }
+    public void setPartitions(int partitions) { this.partitions = partitions; }
+
+    public int getPartitionCapacity() { return partitionCapacity; }
+    public void setPartitionCapacity(int partitionCapacity) { this.partitionCapacity = partitionCapacity; }
+
+    public long getSkewReportMs() { return skewReportMs; }
+    public void setSkewReportMs(long skewReportMs) { this.skewReportMs = skewReportMs; }
+
+    public double getSkewThreshold() { return skewThreshold; }
+    public void setSkewThreshold(double skewThreshold) { this.skewThreshold = skewThreshold; }
+
+    public long getIdlePollMs() { return idlePollMs; }
+    public void setIdlePollMs(long idlePollMs) { this.idlePollMs = idlePollMs; }
+}
@@ -0,0 +1,50 @@
+package com.whalewatcher.ingest.onchain;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.Trigger;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/*
+ * Current on-chain settings, seeded from whalewatcher.onchain.* and replaceable at runtime.
+ * pollMs is read by the watchers' triggers, so a change applies from the next scheduled poll.
+ */
+@Component
+public class OnChainControl {
+
+    private static final Logger log = LoggerFactory.getLogger(OnChainControl.class);
+
+    private final AtomicReference<OnChainSettings> settings;
+
+    public OnChainControl(@Value("${whalewatcher.onchain.pollMs:60000}") long pollMs,
+                          @Value("${whalewatcher.onchain.maxBlocksPerPoll:50}") long maxBlocksPerPoll,
+                          @Value("${whalewatcher.onchain.native.whaleThresholdEth:500}") BigDecimal whaleThresholdEth,
+                          @Value("${whalewatcher.onchain.native.whaleThresholdBtc:100}") BigDecimal whaleThresholdBtc) {
+        this.settings = new AtomicReference<>(
+                new OnChainSettings(pollMs, maxBlocksPerPoll, whaleThresholdEth, whaleThresholdBtc));
+    }
+
+    public OnChainSettings current() {
+        return settings.get();
+    }
+
+    public OnChainSettings update(UnaryOperator<OnChainSettings> change) {
+        OnChainSettings updated = settings.updateAndGet(change);
+        log.info("On-chain settings changed: {}", updated);
+        return updated;
+    }
+
+    // Fixed delay between polls, re-read after every poll
+    public Trigger pollTrigger() {
+        return ctx -> {
+            Instant last = ctx.lastCompletion();
+            return last == null ? Instant.now() : last.plusMillis(current().pollMs());
+        };
+    }
+}
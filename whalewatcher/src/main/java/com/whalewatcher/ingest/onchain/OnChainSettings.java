@@ -0,0 +1,25 @@
+package com.whalewatcher.ingest.onchain;
+
+import java.math.BigDecimal;
+
+/*
+ * One consistent set of on-chain polling parameters. Watchers load it once per poll, so a runtime
+ * change (see OnChainControl) never mixes old and new values within one pass over the blocks.
+ */
+public record OnChainSettings(
+        long pollMs,
+        long maxBlocksPerPoll,
+        BigDecimal whaleThresholdEth,
+        BigDecimal whaleThresholdBtc
+) {
+    public OnChainSettings {
+        if (pollMs <= 0) throw new IllegalArgumentException("pollMs must be positive: " + pollMs);
+        if (maxBlocksPerPoll <= 0) throw new IllegalArgumentException("maxBlocksPerPoll must be positive: " + maxBlocksPerPoll);
+        if (whaleThresholdEth == null || whaleThresholdEth.signum() <= 0) {
+            throw new IllegalArgumentException("whaleThresholdEth must be positive: " + whaleThresholdEth);
+        }
+        if (whaleThresholdBtc == null || whaleThresholdBtc.signum() <= 0) {
+            throw new IllegalArgumentException("whaleThresholdBtc must be positive: " + whaleThresholdBtc);
+        }
+    }
+}
@@ -4,44 +4,63 @@ package com.whalewatcher.ingest.onchain.bitcoin;
 import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.Chain;
 import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.infrastructure.jfr.BlockProcessedEvent;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import com.whalewatcher.infrastructure.rpc.bitcoin.BitcoinRpcClient;
+import com.whalewatcher.ingest.onchain.OnChainControl;
+import com.whalewatcher.ingest.onchain.OnChainSettings;
+import com.whalewatcher.persistence.journal.WhaleJournal;
 import com.whalewatcher.repository.OnChainEventBuffer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
-public class BitcoinWhaleWatcher {
+public class BitcoinWhaleWatcher implements SchedulingConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(BitcoinWhaleWatcher.class);
+    private static final ThrottledLog BLOCK_ERRORS = ThrottledLog.error(log, Duration.ofSeconds(60));
 
     private final BitcoinRpcClient btcRpcClient;
     private final OnChainEventBuffer buffer;
 
-    @Value("${whalewatcher.onchain.native.whaleThresholdBtc:100}")
-    private BigDecimal whaleThresholdBtc;
+    private final OnChainControl control;
 
-    @Value("${whalewatcher.onchain.maxBlocksPerPoll:50}")
-    private long maxBlocksPerPoll;
+    private final WhaleJournal journal;
 
     private long lastProcessedBlock = -1;
 
+    // pollMs can change at runtime, so the poll is registered with a trigger instead of @Scheduled
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addTriggerTask(this::poll, control.pollTrigger());
+    }
+
     // poll api process latest blocks
-    @Scheduled(fixedDelayString = "${whalewatcher.onchain.pollMs:60000}")
     public void poll() {
+        // one snapshot per poll
+        OnChainSettings settings = control.current();
         long latest = btcRpcClient.getBlockCount();
 
         if (lastProcessedBlock < 0) {
-            lastProcessedBlock = latest - 10;
+            // continues after the journaled checkpoint of the previous run, if recent enough
+            lastProcessedBlock = journal.resumeBlock(Chain.BITCOIN, latest);
         }
 
-        long to = Math.min(latest, lastProcessedBlock + maxBlocksPerPoll);
+        long to = Math.min(latest, lastProcessedBlock + settings.maxBlocksPerPoll());
 
         for (long height = lastProcessedBlock + 1; height <= to; height++) {
+            BlockProcessedEvent jfr = new BlockProcessedEvent();
+            jfr.begin();
             try {
                 String blockHash = btcRpcClient.getBlockHash(height);
                 Map<?, ?> resp = btcRpcClient.getBlockVerbose2(blockHash);
@@ -52,6 +71,7 @@ public class BitcoinWhaleWatcher {
                 Object txObj = block.get("tx");
                 if (!(txObj instanceof List<?> txs)) continue;
 
+                int whales = 0;
                 for (Object t : txs) {
                     if (!(t instanceof Map<?, ?> tx)) continue;
 
@@ -66,7 +86,7 @@ public class BitcoinWhaleWatcher {
 
                         BigDecimal valueBtc = parseBtcValue(vout.get("value"));
                         if (valueBtc == null) continue;
-                        if (valueBtc.compareTo(whaleThresholdBtc) < 0) continue;
+                        if (valueBtc.compareTo(settings.whaleThresholdBtc()) < 0) continue;
 
                         String toAddr = extractToAddress(vout.get("scriptPubKey"));
 
@@ -80,14 +100,17 @@ public class BitcoinWhaleWatcher {
                                 height,
                                 System.currentTimeMillis()
                         ));
+                        whales++;
                     }
                 }
+                jfr.complete(Chain.BITCOIN, height, txs.size(), whales);
             } catch (Exception e) {
-                e.printStackTrace();
+                BLOCK_ERRORS.log("BTC block " + height + " failed: " + e.getMessage(), e);
             }
         }
 
         lastProcessedBlock = to;
+        journal.checkpoint(Chain.BITCOIN, to);
     }
 
     private BigDecimal parseBtcValue(Object valueObj) {
@@ -3,44 +3,65 @@ package com.whalewatcher.ingest.onchain.evm;
 import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.Chain;
 import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.infrastructure.jfr.BlockProcessedEvent;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
 import com.whalewatcher.infrastructure.rpc.evm.EvmRpcClient;
+import com.whalewatcher.ingest.onchain.OnChainControl;
+import com.whalewatcher.ingest.onchain.OnChainSettings;
+import com.whalewatcher.persistence.journal.WhaleJournal;
 import com.whalewatcher.repository.OnChainEventBuffer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
-public class EthereumWhaleWatcher {
+public class EthereumWhaleWatcher implements SchedulingConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(EthereumWhaleWatcher.class);
+    private static final ThrottledLog BLOCK_ERRORS = ThrottledLog.error(log, Duration.ofSeconds(60));
 
     private final EvmRpcClient evmRpcClient;
     private final OnChainEventBuffer buffer;
 
-    @Value("${whalewatcher.onchain.native.whaleThresholdEth:500}")
-    private BigDecimal whaleThresholdEth;
+    private final OnChainControl control;
+
+    private final WhaleJournal journal;
 
     private long lastProcessedBlock = -1;
 
-    @Scheduled(fixedDelayString = "${whalewatcher.onchain.pollMs:60000}")
+    // pollMs can change at runtime, so the poll is registered with a trigger instead of @Scheduled
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addTriggerTask(this::poll, control.pollTrigger());
+    }
+
     public void poll() {
+        // one snapshot per poll
+        OnChainSettings settings = control.current();
         long latest = evmRpcClient.ethBlockNumber();
 
         if(lastProcessedBlock < 0){
-            lastProcessedBlock = latest - 10;
+            // continues after the journaled checkpoint of the previous run, if recent enough
+            lastProcessedBlock = journal.resumeBlock(Chain.ETHEREUM, latest);
         }
 
-        // Cap number of blocks processed per minute
-        long maxBlocks = 50;
-        long to = Math.min(latest, lastProcessedBlock + maxBlocks);
+        // Cap number of blocks processed per poll
+        long to = Math.min(latest, lastProcessedBlock + settings.maxBlocksPerPoll());
 
         //Fetch each block in order
         for (long b = lastProcessedBlock + 1; b <= to; b++) {
+            BlockProcessedEvent jfr = new BlockProcessedEvent();
+            jfr.begin();
             try {
                 Map<?, ?> resp = evmRpcClient.getBlockByNumber(b);
                 Object resultObj = resp.get("result");
@@ -49,6 +70,7 @@ public class EthereumWhaleWatcher {
                 Object txObj = block.get("transactions");
                 if (!(txObj instanceof List<?> txs)) continue;
 
+                int whales = 0;
                 for (Object t : txs) {
                     if (!(t instanceof Map<?, ?> tx)) continue;
 
@@ -60,7 +82,7 @@ public class EthereumWhaleWatcher {
 
                     BigDecimal eth = new BigDecimal(wei).movePointLeft(18);
 
-                    if (eth.compareTo(whaleThresholdEth) >= 0) {
+                    if (eth.compareTo(settings.whaleThresholdEth()) >= 0) {
                         String fromAddr = (String) tx.get("from");
                         // "to" can be null (contract creation) but will not if regular transaction
                         String toAddr = (String) tx.get("to");
@@ -72,12 +94,15 @@ public class EthereumWhaleWatcher {
                                 fromAddr, toAddr, hash,
                                 b, System.currentTimeMillis()
                         ));
+                        whales++;
                     }
                 }
+                jfr.complete(Chain.ETHEREUM, b, txs.size(), whales);
             } catch (Exception e) {
-                e.printStackTrace();
+                BLOCK_ERRORS.log("ETH block " + b + " failed: " + e.getMessage(), e);
             }
         }
         lastProcessedBlock = to;
+        journal.checkpoint(Chain.ETHEREUM, to);
     }
 }
\ No newline at end of file
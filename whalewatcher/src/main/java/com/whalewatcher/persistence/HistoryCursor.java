@@ -0,0 +1,35 @@
+package com.whalewatcher.persistence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/*
+ * Keyset position in a history query: the event time and tie-breaker columns of the last row returned
+ * (id off-chain, chain and tx hash on-chain). The next page continues strictly below it. Clients only
+ * see the opaque encode() form and hand it back as `before`.
+ */
+public record HistoryCursor(long timeMs, List<String> ties) {
+
+    public HistoryCursor {
+        ties = List.copyOf(ties);
+    }
+
+    public String encode() {
+        String raw = timeMs + "\n" + String.join("\n", ties);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // IllegalArgumentException for anything encode() did not produce
+    public static HistoryCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\n", -1);
+        if (parts.length < 2) throw new IllegalArgumentException("malformed history cursor");
+        try {
+            return new HistoryCursor(Long.parseLong(parts[0]), Arrays.asList(parts).subList(1, parts.length));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("malformed history cursor");
+        }
+    }
+}
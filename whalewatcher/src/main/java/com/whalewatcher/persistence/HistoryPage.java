@@ -0,0 +1,6 @@
+package com.whalewatcher.persistence;
+
+import java.util.List;
+
+// One page of a history query, newest first; next is null on the last page
+public record HistoryPage<E>(List<E> events, HistoryCursor next) {}
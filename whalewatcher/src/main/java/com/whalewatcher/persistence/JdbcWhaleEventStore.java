@@ -0,0 +1,172 @@
+package com.whalewatcher.persistence;
+
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/*
+ * PostgreSQL store: one multi-row INSERT per batch (one round trip, one statement to plan), made
+ * idempotent with ON CONFLICT DO NOTHING so a retry after an unclear failure does not duplicate rows.
+ *
+ * Both tables are range-partitioned by month of event_time, so history queries with a time range only
+ * touch the months they cover and old months can be detached or dropped whole. Keys and indexes lead
+ * with the filter columns of WhaleHistory and end in its keyset (event_time, tie-breaker). Tables,
+ * indexes and the partitions from last month to partitionMonthsAhead are created on startup and kept
+ * ahead daily; rows outside them land in the DEFAULT partition instead of failing the batch.
+ */
+@Component
+@ConditionalOnProperty(prefix = "whalewatcher.persistence", name = "enabled", havingValue = "true")
+public class JdbcWhaleEventStore implements WhaleEventStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcWhaleEventStore.class);
+    private static final ThrottledLog PARTITION_ERRORS = ThrottledLog.warn(log, Duration.ofMinutes(10));
+
+    static final String OFFCHAIN_COLUMNS =
+            "(id, exchange, asset, side, price, quantity, total_usd, trade_id, event_time)";
+    static final String ONCHAIN_COLUMNS =
+            "(chain, tx_hash, asset, amount, from_address, to_address, block_number, event_time)";
+
+    public static final String OFFCHAIN_TABLE = "offchain_whale_events";
+    public static final String ONCHAIN_TABLE = "onchain_whale_events";
+
+    private final JdbcTemplate jdbc;
+    private final PersistenceProperties props;
+
+    public JdbcWhaleEventStore(JdbcTemplate jdbc, PersistenceProperties props) {
+        this.jdbc = jdbc;
+        this.props = props;
+        createTables();
+        ensurePartitions();
+    }
+
+    private void createTables() {
+        // the partition key has to be part of every unique key
+        jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS offchain_whale_events (
+                    id          text NOT NULL,
+                    exchange    text NOT NULL,
+                    asset       text NOT NULL,
+                    side        text NOT NULL,
+                    price       double precision NOT NULL,
+                    quantity    double precision NOT NULL,
+                    total_usd   double precision NOT NULL,
+                    trade_id    bigint NOT NULL,
+                    event_time  timestamptz NOT NULL,
+                    PRIMARY KEY (id, event_time)
+                ) PARTITION BY RANGE (event_time)""");
+        jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS onchain_whale_events (
+                    chain        text NOT NULL,
+                    tx_hash      text NOT NULL,
+                    asset        text NOT NULL,
+                    amount       numeric NOT NULL,
+                    from_address text,
+                    to_address   text,
+                    block_number bigint NOT NULL,
+                    event_time   timestamptz NOT NULL,
+                    PRIMARY KEY (chain, tx_hash, event_time)
+                ) PARTITION BY RANGE (event_time)""");
+
+        // created on the parent, PostgreSQL adds them to every partition
+        jdbc.execute("CREATE INDEX IF NOT EXISTS offchain_whale_events_time ON offchain_whale_events (event_time, id)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS offchain_whale_events_asset ON offchain_whale_events (asset, event_time, id)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS offchain_whale_events_exchange ON offchain_whale_events (exchange, event_time, id)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS offchain_whale_events_pair ON offchain_whale_events (asset, exchange, event_time, id)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS onchain_whale_events_time ON onchain_whale_events (event_time, chain, tx_hash)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS onchain_whale_events_asset ON onchain_whale_events (asset, event_time, chain, tx_hash)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS onchain_whale_events_chain ON onchain_whale_events (chain, event_time, tx_hash)");
+
+        jdbc.execute("CREATE TABLE IF NOT EXISTS offchain_whale_events_default PARTITION OF offchain_whale_events DEFAULT");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS onchain_whale_events_default PARTITION OF onchain_whale_events DEFAULT");
+    }
+
+    // Last month (late events around the turn of a month) up to partitionMonthsAhead; runs daily
+    @Scheduled(cron = "0 7 0 * * *", zone = "UTC")
+    public void ensurePartitions() {
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        for (int m = -1; m <= props.getHistory().getPartitionMonthsAhead(); m++) {
+            for (String table : List.of(OFFCHAIN_TABLE, ONCHAIN_TABLE)) {
+                try {
+                    jdbc.execute(partition(table, now.plusMonths(m)));
+                } catch (DataAccessException e) {
+                    // e.g. the DEFAULT partition already holds rows of that month
+                    PARTITION_ERRORS.log(table, "Could not create partition of " + table + " for "
+                            + now.plusMonths(m) + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    // CREATE TABLE IF NOT EXISTS t_y2026m10 PARTITION OF t FOR VALUES FROM (2026-10-01 UTC) TO (2026-11-01 UTC)
+    public static String partition(String table, YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + table + "_y" + month.getYear() + "m" + String.format("%02d", month.getMonthValue())
+                + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00+00') TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')";
+    }
+
+    @Override
+    public void insertOffChain(List<OffChainWhaleEvent> events) {
+        if (events.isEmpty()) return;
+        Object[] args = new Object[events.size() * 9];
+        int i = 0;
+        for (OffChainWhaleEvent e : events) {
+            args[i++] = e.id();
+            args[i++] = e.exchange().name();
+            args[i++] = e.asset().name();
+            args[i++] = e.side();
+            args[i++] = e.price();
+            args[i++] = e.quantity();
+            args[i++] = e.totalUsd();
+            args[i++] = e.tradeId();
+            args[i++] = new Timestamp(e.timestampMs());
+        }
+        jdbc.update(insert(OFFCHAIN_TABLE, OFFCHAIN_COLUMNS, 9, events.size(), "(id, event_time)"), args);
+    }
+
+    @Override
+    public void insertOnChain(List<OnChainWhaleEvent> events) {
+        if (events.isEmpty()) return;
+        Object[] args = new Object[events.size() * 8];
+        int i = 0;
+        for (OnChainWhaleEvent e : events) {
+            args[i++] = e.chain().name();
+            args[i++] = e.txHash();
+            args[i++] = e.asset().name();
+            args[i++] = e.amount();
+            args[i++] = e.fromAddress();
+            args[i++] = e.toAddress();
+            args[i++] = e.blockNumber();
+            args[i++] = new Timestamp(e.timestampMs());
+        }
+        jdbc.update(insert(ONCHAIN_TABLE, ONCHAIN_COLUMNS, 8, events.size(), "(chain, tx_hash, event_time)"), args);
+    }
+
+    // INSERT INTO t (...) VALUES (?,?),(?,?) ON CONFLICT (key) DO NOTHING
+    static String insert(String table, String columns, int width, int rows, String conflictKey) {
+        StringBuilder sql = new StringBuilder(64 + rows * (width * 2 + 3))
+                .append("INSERT INTO ").append(table).append(' ').append(columns).append(" VALUES ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) sql.append(',');
+            sql.append('(');
+            for (int c = 0; c < width; c++) {
+                if (c > 0) sql.append(',');
+                sql.append('?');
+            }
+            sql.append(')');
+        }
+        return sql.append(" ON CONFLICT ").append(conflictKey).append(" DO NOTHING").toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.whalewatcher.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * Write-behind persistence of whale events (see WriteBehindPersister). Saved events wait in a queue of
+ * queueCapacity and are inserted batchSize at a time, at the latest flushMs after the first one queued.
+ * A failing batch is retried with exponential backoff from backoffMs up to maxBackoffMs, maxAttempts
+ * times in total.
+ *
+ * The tables are partitioned by month of event time; history holds the partition horizon and the
+ * limits of the history endpoints (see WhaleHistory).
+ */
+@Component
+@ConfigurationProperties(prefix = "whalewatcher.persistence")
+public class PersistenceProperties {
+
+    private boolean enabled = false;
+
+    private int queueCapacity = 50_000;
+
+    private int batchSize = 500;
+
+    private long flushMs = 200;
+
+    private int maxAttempts = 20;
+
+    private long backoffMs = 100;
+
+    private long maxBackoffMs = 30_000;
+
+    // On shutdown the writer gets this long to empty the queue
+    private long shutdownFlushMs = 10_000;
+
+    private History history = new History();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public long getFlushMs() { return flushMs; }
+    public void setFlushMs(long flushMs) { this.flushMs = flushMs; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public long getBackoffMs() { return backoffMs; }
+    public void setBackoffMs(long backoffMs) { this.backoffMs = backoffMs; }
+
+    public long getMaxBackoffMs() { return maxBackoffMs; }
+    public void setMaxBackoffMs(long maxBackoffMs) { this.maxBackoffMs = maxBackoffMs; }
+
+    public long getShutdownFlushMs() { return shutdownFlushMs; }
+    public void setShutdownFlushMs(long shutdownFlushMs) { this.shutdownFlushMs = shutdownFlushMs; }
+
+    public History getHistory() { return history; }
+    public void setHistory(History history) { this.history = history; }
+
+    public static class History {
+
+        // Monthly partitions are kept created this many months past the current one
+        private int partitionMonthsAhead = 2;
+
+        // Page size cap of /offchain/history and /onchain/history
+        private int maxLimit = 1_000;
+
+        // Exports read the range in keyset chunks of this many rows
+        private int exportChunkSize = 5_000;
+
+        public int getPartitionMonthsAhead() { return partitionMonthsAhead; }
+        public void setPartitionMonthsAhead(int partitionMonthsAhead) { this.partitionMonthsAhead = partitionMonthsAhead; }
+
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+        public int getExportChunkSize() { return exportChunkSize; }
+        public void setExportChunkSize(int exportChunkSize) { this.exportChunkSize = exportChunkSize; }
+    }
+}
@@ -0,0 +1,14 @@
+package com.whalewatcher.persistence;
+
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+
+import java.util.List;
+
+// Durable storage written by WriteBehindPersister. Inserts are idempotent, a retried batch may repeat rows.
+public interface WhaleEventStore {
+
+    void insertOffChain(List<OffChainWhaleEvent> events);
+
+    void insertOnChain(List<OnChainWhaleEvent> events);
+}
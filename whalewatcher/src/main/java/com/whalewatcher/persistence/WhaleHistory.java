@@ -0,0 +1,190 @@
+package com.whalewatcher.persistence;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.repository.TimeRange;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * Queries over the persisted whale history (see JdbcWhaleEventStore), newest first, filtered by asset,
+ * exchange or chain and time range.
+ *
+ * Paging is keyset based: a page continues below the (event_time, tie-breaker) of the previous page's
+ * last row, which the indexes serve directly, so page 1000 costs what page 1 does and rows inserted
+ * meanwhile do not shift the pages. A time range also prunes the monthly partitions.
+ *
+ * Exports walk the same keyset in chunks of exportChunkSize and hand each row to the caller as it is
+ * read, so neither this class nor the driver ever holds more than one chunk, however long the range.
+ */
+@Component
+@ConditionalOnProperty(prefix = "whalewatcher.persistence", name = "enabled", havingValue = "true")
+public class WhaleHistory {
+
+    // name, selected columns, keyset columns (event_time first), row mapper, keyset of a mapped row
+    record Table<E>(String name, String columns, List<String> keyset, RowMapper<E> mapper,
+                    Function<E, HistoryCursor> key) {}
+
+    static final Table<OffChainWhaleEvent> OFFCHAIN = new Table<>(JdbcWhaleEventStore.OFFCHAIN_TABLE,
+            "id, exchange, asset, side, price, quantity, total_usd, trade_id, event_time",
+            List.of("event_time", "id"),
+            WhaleHistory::offChain,
+            e -> new HistoryCursor(e.timestampMs(), List.of(e.id())));
+
+    static final Table<OnChainWhaleEvent> ONCHAIN = new Table<>(JdbcWhaleEventStore.ONCHAIN_TABLE,
+            "chain, tx_hash, asset, amount, from_address, to_address, block_number, event_time",
+            List.of("event_time", "chain", "tx_hash"),
+            WhaleHistory::onChain,
+            e -> new HistoryCursor(e.timestampMs(), List.of(e.chain().name(), e.txHash())));
+
+    private final JdbcTemplate jdbc;
+    private final PersistenceProperties props;
+
+    public WhaleHistory(JdbcTemplate jdbc, PersistenceProperties props) {
+        this.jdbc = jdbc;
+        this.props = props;
+    }
+
+    // Null filters and a null range or cursor are not applied
+    public HistoryPage<OffChainWhaleEvent> offChain(Asset asset, Exchange exchange, TimeRange range,
+                                                    HistoryCursor before, int limit) {
+        return page(OFFCHAIN, filters("asset", asset, "exchange", exchange), range, before, limit);
+    }
+
+    public HistoryPage<OnChainWhaleEvent> onChain(Asset asset, Chain chain, TimeRange range,
+                                                  HistoryCursor before, int limit) {
+        return page(ONCHAIN, filters("asset", asset, "chain", chain), range, before, limit);
+    }
+
+    // Every matching row, newest first; returns the number of rows exported
+    public long exportOffChain(Asset asset, Exchange exchange, TimeRange range, Consumer<OffChainWhaleEvent> sink) {
+        return export(OFFCHAIN, filters("asset", asset, "exchange", exchange), range, sink);
+    }
+
+    public long exportOnChain(Asset asset, Chain chain, TimeRange range, Consumer<OnChainWhaleEvent> sink) {
+        return export(ONCHAIN, filters("asset", asset, "chain", chain), range, sink);
+    }
+
+    private <E> HistoryPage<E> page(Table<E> table, Map<String, String> filters, TimeRange range,
+                                    HistoryCursor before, int limit) {
+        int n = Math.max(1, Math.min(limit, props.getHistory().getMaxLimit()));
+        List<Object> args = new ArrayList<>();
+        // one row more than asked tells whether there is a next page
+        List<E> rows = jdbc.query(select(table, filters, range, before, n + 1, args), table.mapper(), args.toArray());
+        if (rows.size() <= n) return new HistoryPage<>(rows, null);
+        List<E> events = List.copyOf(rows.subList(0, n));
+        return new HistoryPage<>(events, table.key().apply(events.get(n - 1)));
+    }
+
+    private <E> long export(Table<E> table, Map<String, String> filters, TimeRange range, Consumer<? super E> sink) {
+        int chunk = Math.max(1, props.getHistory().getExportChunkSize());
+        HistoryCursor before = null;
+        long total = 0;
+        while (true) {
+            List<Object> args = new ArrayList<>();
+            ChunkReader<E> reader = new ChunkReader<>(table, sink);
+            jdbc.query(select(table, filters, range, before, chunk, args), reader, args.toArray());
+            total += reader.rows;
+            if (reader.rows < chunk) return total;
+            before = reader.last;
+        }
+    }
+
+    // Streams rows to the sink as the result set is read, remembering only the last keyset
+    private static final class ChunkReader<E> implements RowCallbackHandler {
+        private final Table<E> table;
+        private final Consumer<? super E> sink;
+        int rows;
+        HistoryCursor last;
+
+        ChunkReader(Table<E> table, Consumer<? super E> sink) {
+            this.table = table;
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            E event = table.mapper().mapRow(rs, rows++);
+            sink.accept(event);
+            last = table.key().apply(event);
+        }
+    }
+
+    // SELECT ... WHERE filters AND range AND (keyset) < (cursor) ORDER BY keyset DESC LIMIT n
+    static String select(Table<?> table, Map<String, String> filters, TimeRange range, HistoryCursor before,
+                         int limit, List<Object> args) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(table.columns())
+                .append(" FROM ").append(table.name()).append(" WHERE true");
+        filters.forEach((column, value) -> {
+            sql.append(" AND ").append(column).append(" = ?");
+            args.add(value);
+        });
+        if (range != null && range.sinceMs() != Long.MIN_VALUE) {
+            sql.append(" AND event_time >= ?");
+            args.add(new Timestamp(range.sinceMs()));
+        }
+        if (range != null && range.untilMs() != Long.MAX_VALUE) {
+            sql.append(" AND event_time < ?");
+            args.add(new Timestamp(range.untilMs()));
+        }
+        if (before != null) {
+            if (before.ties().size() != table.keyset().size() - 1) {
+                throw new IllegalArgumentException("history cursor does not belong to " + table.name());
+            }
+            sql.append(" AND (").append(String.join(", ", table.keyset())).append(") < (?")
+                    .append(", ?".repeat(before.ties().size())).append(')');
+            args.add(new Timestamp(before.timeMs()));
+            args.addAll(before.ties());
+        }
+        sql.append(" ORDER BY ").append(String.join(" DESC, ", table.keyset())).append(" DESC LIMIT ").append(limit);
+        return sql.toString();
+    }
+
+    private static Map<String, String> filters(String column1, Enum<?> value1, String column2, Enum<?> value2) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        if (value1 != null) filters.put(column1, value1.name());
+        if (value2 != null) filters.put(column2, value2.name());
+        return filters;
+    }
+
+    private static OffChainWhaleEvent offChain(ResultSet rs, int row) throws SQLException {
+        return new OffChainWhaleEvent(
+                rs.getString("id"),
+                Exchange.valueOf(rs.getString("exchange")),
+                Asset.valueOf(rs.getString("asset")),
+                rs.getString("side"),
+                rs.getDouble("price"),
+                rs.getDouble("quantity"),
+                rs.getDouble("total_usd"),
+                rs.getTimestamp("event_time").getTime(),
+                rs.getLong("trade_id"));
+    }
+
+    private static OnChainWhaleEvent onChain(ResultSet rs, int row) throws SQLException {
+        return new OnChainWhaleEvent(
+                Chain.valueOf(rs.getString("chain")),
+                Asset.valueOf(rs.getString("asset")),
+                rs.getBigDecimal("amount"),
+                rs.getString("from_address"),
+                rs.getString("to_address"),
+                rs.getString("tx_hash"),
+                rs.getLong("block_number"),
+                rs.getTimestamp("event_time").getTime());
+    }
+}
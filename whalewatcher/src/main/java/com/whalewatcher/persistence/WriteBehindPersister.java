@@ -0,0 +1,202 @@
+package com.whalewatcher.persistence;
+
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import com.whalewatcher.repository.OnWhaleEventRepository;
+import com.whalewatcher.repository.WhaleEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Write-behind persistence of whale events: the repositories hand every saved event to offer(), which
+ * only queues it (never waits, a full queue drops the event and counts it), and one writer thread
+ * inserts the queue in batches through the WhaleEventStore. A failing batch is retried with backoff
+ * while new events keep queueing; the queue depth and drop count are the backpressure signal
+ * (whalewatcher.persist.*).
+ *
+ * Stops after IngestShutdown, so the whales the ingest drain still produces are flushed too.
+ */
+@Component
+public class WriteBehindPersister implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindPersister.class);
+    private static final ThrottledLog FAILURES = ThrottledLog.warn(log, Duration.ofSeconds(30));
+
+    private final WhaleEventStore store;
+    private final PersistenceProperties props;
+    private final BlockingQueue<Object> queue;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private Thread writer;
+
+    @Autowired
+    public WriteBehindPersister(ObjectProvider<WhaleEventStore> store, PersistenceProperties props,
+                                WhaleEventRepository offChain, OnWhaleEventRepository onChain) {
+        this(store.getIfAvailable(), props);
+        if (this.store != null) {
+            offChain.onSave(this::offer);
+            onChain.onAdd(this::offer);
+        }
+    }
+
+    // store null: persistence is off
+    public WriteBehindPersister(WhaleEventStore store, PersistenceProperties props) {
+        this.store = store;
+        this.props = props;
+        this.queue = new ArrayBlockingQueue<>(store == null ? 1 : props.getQueueCapacity());
+    }
+
+    public boolean enabled() {
+        return store != null;
+    }
+
+    // Saving threads (ingest workers, on-chain watchers) only enqueue
+    public boolean offer(OffChainWhaleEvent event) {
+        return enqueue(event);
+    }
+
+    public boolean offer(OnChainWhaleEvent event) {
+        return enqueue(event);
+    }
+
+    private boolean enqueue(Object event) {
+        if (store == null) return false;
+        if (queue.offer(event)) return true;
+        dropped.increment();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (store == null || running) return;
+        running = true;
+        writer = Thread.ofPlatform().name("whale-persist").daemon().start(this::writeLoop);
+        log.info("Write-behind persistence on: queue {}, batches of {}", props.getQueueCapacity(), props.getBatchSize());
+    }
+
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>(props.getBatchSize());
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                Object first = queue.poll(props.getFlushMs(), TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, props.getBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                // stop() gave up waiting, whatever is still queued is reported there
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // One insert per kind, retried as a whole; a batch that keeps failing is dropped after maxAttempts
+    private void write(List<Object> batch) throws InterruptedException {
+        List<OffChainWhaleEvent> offChain = new ArrayList<>(batch.size());
+        List<OnChainWhaleEvent> onChain = new ArrayList<>();
+        for (Object e : batch) {
+            if (e instanceof OffChainWhaleEvent off) offChain.add(off);
+            else if (e instanceof OnChainWhaleEvent on) onChain.add(on);
+        }
+
+        long backoff = props.getBackoffMs();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (!offChain.isEmpty()) {
+                    store.insertOffChain(offChain);
+                    written.add(offChain.size());
+                    offChain = List.of();
+                }
+                if (!onChain.isEmpty()) {
+                    store.insertOnChain(onChain);
+                    written.add(onChain.size());
+                }
+                return;
+            } catch (RuntimeException e) {
+                int left = offChain.size() + onChain.size();
+                if (attempt >= props.getMaxAttempts()) {
+                    failed.add(left);
+                    log.error("Giving up on {} whale events after {} attempts: {}", left, attempt, e.getMessage());
+                    return;
+                }
+                retries.increment();
+                FAILURES.log("insert", "Persisting " + left + " whale events failed (attempt " + attempt
+                        + "), retrying in " + backoff + "ms: " + e.getMessage(), e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, props.getMaxBackoffMs());
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        stopping = true;
+        try {
+            writer.join(props.getShutdownFlushMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.warn("Write-behind flush hit the {}ms deadline, {} whale events not persisted",
+                    props.getShutdownFlushMs(), queue.size());
+        } else {
+            log.info("Write-behind flushed on shutdown, {} whale events persisted in total", written.sum());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops right after IngestShutdown (DEFAULT_PHASE), before the datasource goes away
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+}
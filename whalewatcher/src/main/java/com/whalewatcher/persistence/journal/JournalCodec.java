@@ -0,0 +1,145 @@
+package com.whalewatcher.persistence.journal;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/*
+ * Journal record framing: [int payload length][int CRC32C of the payload][payload], the payload a type
+ * byte followed by the fields. Enums are written by name so reordering a constant does not corrupt
+ * the journal. A record cut short by a crash, or one failing its checksum, ends the readable part
+ * of a file.
+ */
+final class JournalCodec {
+
+    static final byte OFFCHAIN = 1;
+    static final byte ONCHAIN = 2;
+    static final byte CHECKPOINT = 3;
+
+    private static final int FRAME_BYTES = 8;
+
+    record Checkpoint(Chain chain, long block) {}
+
+    private JournalCodec() {}
+
+    // BufferOverflowException when the record does not fit, out is then left as before
+    static void encode(Object record, ByteBuffer out) {
+        int start = out.position();
+        try {
+            out.position(start + FRAME_BYTES);
+            switch (record) {
+                case OffChainWhaleEvent e -> {
+                    out.put(OFFCHAIN);
+                    putString(out, e.id());
+                    putString(out, e.exchange().name());
+                    putString(out, e.asset().name());
+                    putString(out, e.side());
+                    out.putDouble(e.price());
+                    out.putDouble(e.quantity());
+                    out.putDouble(e.totalUsd());
+                    out.putLong(e.timestampMs());
+                    out.putLong(e.tradeId());
+                }
+                case OnChainWhaleEvent e -> {
+                    out.put(ONCHAIN);
+                    putString(out, e.chain().name());
+                    putString(out, e.asset().name());
+                    putString(out, e.amount().toString());
+                    putString(out, e.fromAddress());
+                    putString(out, e.toAddress());
+                    putString(out, e.txHash());
+                    out.putLong(e.blockNumber());
+                    out.putLong(e.timestampMs());
+                }
+                case Checkpoint c -> {
+                    out.put(CHECKPOINT);
+                    putString(out, c.chain().name());
+                    out.putLong(c.block());
+                }
+                default -> throw new IllegalArgumentException("not a journal record: " + record.getClass());
+            }
+        } catch (RuntimeException e) {
+            out.position(start);
+            throw e;
+        }
+        int length = out.position() - start - FRAME_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), out.arrayOffset() + start + FRAME_BYTES, length);
+        out.putInt(start, length);
+        out.putInt(start + 4, (int) crc.getValue());
+    }
+
+    // Next record, or null at the end of the readable part
+    static Object decode(ByteBuffer in) {
+        if (in.remaining() < FRAME_BYTES) return null;
+        int length = in.getInt();
+        int checksum = in.getInt();
+        if (length <= 0 || length > in.remaining()) return null;
+
+        ByteBuffer payload = in.slice(in.position(), length);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) return null;
+        in.position(in.position() + length);
+
+        try {
+            return switch (payload.get()) {
+                case OFFCHAIN -> new OffChainWhaleEvent(
+                        getString(payload),
+                        Exchange.valueOf(getString(payload)),
+                        Asset.valueOf(getString(payload)),
+                        getString(payload),
+                        payload.getDouble(),
+                        payload.getDouble(),
+                        payload.getDouble(),
+                        payload.getLong(),
+                        payload.getLong());
+                case ONCHAIN -> new OnChainWhaleEvent(
+                        Chain.valueOf(getString(payload)),
+                        Asset.valueOf(getString(payload)),
+                        new BigDecimal(getString(payload)),
+                        getString(payload),
+                        getString(payload),
+                        getString(payload),
+                        payload.getLong(),
+                        payload.getLong());
+                case CHECKPOINT -> new Checkpoint(Chain.valueOf(getString(payload)), payload.getLong());
+                default -> Skipped.INSTANCE;
+            };
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // checksum fine but not decodable (e.g. an enum constant that was removed): skip the record
+            return Skipped.INSTANCE;
+        }
+    }
+
+    // A well-formed record this version cannot use
+    enum Skipped { INSTANCE }
+
+    // -1 length for null
+    private static void putString(ByteBuffer out, String s) {
+        if (s == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) throw new IllegalArgumentException("string too long for the journal");
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.whalewatcher.persistence.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * Local journal of emitted whale events and on-chain checkpoints (see WhaleJournal). Records wait in a
+ * queue of queueCapacity and are written and synced in groups of up to maxBatch; with fsync off they
+ * only reach the page cache (survive a process crash, not a machine crash). A new file is started every
+ * segmentBytes, old files are deleted once the newer ones hold retainOffChainEvents off-chain and
+ * retainOnChainEvents on-chain events, counted apart so a trade burst cannot push out the on-chain
+ * whales; both have to cover what the in-memory buffers keep. On-chain whales are rare, so a file
+ * holding some can outlive the off-chain events next to it by a while.
+ *
+ * On startup the on-chain watchers resume from their checkpoint unless it is more than
+ * maxCatchUpBlocks behind the chain head, then they start near the head as before.
+ */
+@Component
+@ConfigurationProperties(prefix = "whalewatcher.journal")
+public class JournalProperties {
+
+    private boolean enabled = false;
+
+    private String dir = "data/journal";
+
+    private int queueCapacity = 65_536;
+
+    private int maxBatch = 4_096;
+
+    private boolean fsync = true;
+
+    private long segmentBytes = 64L << 20;
+
+    private int retainOffChainEvents = 200_000;
+
+    // what OnChainEventBuffer keeps
+    private int retainOnChainEvents = 500;
+
+    private long maxCatchUpBlocks = 1_000;
+
+    // On shutdown the writer gets this long to write the queue
+    private long shutdownFlushMs = 5_000;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDir() { return dir; }
+    public void setDir(String dir) { this.dir = dir; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public int getMaxBatch() { return maxBatch; }
+    public void setMaxBatch(int maxBatch) { this.maxBatch = maxBatch; }
+
+    public boolean isFsync() { return fsync; }
+    public void setFsync(boolean fsync) { this.fsync = fsync; }
+
+    public long getSegmentBytes() { return segmentBytes; }
+    public void setSegmentBytes(long segmentBytes) { this.segmentBytes = segmentBytes; }
+
+    public int getRetainOffChainEvents() { return retainOffChainEvents; }
+    public void setRetainOffChainEvents(int retainOffChainEvents) { this.retainOffChainEvents = retainOffChainEvents; }
+
+    public int getRetainOnChainEvents() { return retainOnChainEvents; }
+    public void setRetainOnChainEvents(int retainOnChainEvents) { this.retainOnChainEvents = retainOnChainEvents; }
+
+    public long getMaxCatchUpBlocks() { return maxCatchUpBlocks; }
+    public void setMaxCatchUpBlocks(long maxCatchUpBlocks) { this.maxCatchUpBlocks = maxCatchUpBlocks; }
+
+    public long getShutdownFlushMs() { return shutdownFlushMs; }
+    public void setShutdownFlushMs(long shutdownFlushMs) { this.shutdownFlushMs = shutdownFlushMs; }
+}
@@ -0,0 +1,392 @@
+package com.whalewatcher.persistence.journal;
+
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import com.whalewatcher.persistence.journal.JournalCodec.Checkpoint;
+import com.whalewatcher.repository.OnWhaleEventRepository;
+import com.whalewatcher.repository.WhaleEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/*
+ * Append-only local journal of every emitted whale event plus the on-chain watchers' block checkpoints,
+ * replayed into the in-memory buffers on startup so a restart comes back with the same latest whales
+ * and the watchers carry on from the last processed block (whalewatcher.journal).
+ *
+ * Saving threads only queue the event (a full queue drops and counts it). One writer thread takes
+ * whatever has queued up, encodes it into one buffer, writes it and syncs once: group commit, so one
+ * fsync covers every event that arrived while the previous one ran and the ingest path never waits
+ * for the disk. A checkpoint is queued after the events of its blocks, so a durable checkpoint implies
+ * durable events; once an on-chain event of a chain has been dropped, that chain's checkpoint stays
+ * where it was for the rest of the run, so the next start re-scans the blocks of the lost event.
+ *
+ * Each run appends to a new file; files are rotated at segmentBytes. Every new file starts with the
+ * checkpoints the writer has already committed (never ones whose events are still queued), then older
+ * files are deleted: those without events right away, the others once the newer files hold
+ * retainOffChainEvents off-chain and retainOnChainEvents on-chain events of each kind they carry, so a
+ * burst of trades does not take the rarer on-chain whales with it. Replay reads the files front to back
+ * with restore(), which bypasses the repositories' listeners, so replayed events are neither journaled
+ * nor persisted again.
+ */
+@Component
+public class WhaleJournal implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WhaleJournal.class);
+    private static final ThrottledLog FAILURES = ThrottledLog.error(log, Duration.ofSeconds(30));
+
+    // Without a usable checkpoint the watchers start this far below the chain head
+    public static final long DEFAULT_LOOKBACK = 10;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final JournalProperties props;
+    private final BlockingQueue<Object> queue;
+    private final Map<Chain, Long> checkpoints = new ConcurrentHashMap<>();
+    // chains with a dropped on-chain event, their checkpoints no longer advance
+    private final Set<Chain> frozen = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile long replayedEvents;
+    private volatile long replayMs;
+
+    // writer thread only, after start
+    private record JournalFile(Path path, long offChain, long onChain) {}
+    private final Deque<JournalFile> files = new ArrayDeque<>();
+    // checkpoints written to the journal, the ones a new file may start with
+    private final Map<Chain, Long> committed = new EnumMap<>(Chain.class);
+    private Path dir;
+    private FileChannel channel;
+    private Path current;
+    private long currentOffChain;
+    private long currentOnChain;
+    private long sequence;
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+    private Thread writer;
+
+    @Autowired
+    public WhaleJournal(JournalProperties props, WhaleEventRepository offChain, OnWhaleEventRepository onChain) throws IOException {
+        this(props);
+        if (!props.isEnabled()) return;
+        replay(offChain, onChain);
+        offChain.onSave(this::append);
+        onChain.onAdd(this::append);
+    }
+
+    // Not wired to any repository, replay with replay()
+    public WhaleJournal(JournalProperties props) throws IOException {
+        this.props = props;
+        this.queue = new ArrayBlockingQueue<>(props.isEnabled() ? props.getQueueCapacity() : 1);
+        if (props.isEnabled()) this.dir = Files.createDirectories(Path.of(props.getDir()));
+    }
+
+    public boolean enabled() {
+        return props.isEnabled();
+    }
+
+    // Restores the journaled events and checkpoints, oldest file first
+    public void replay(WhaleEventRepository offChain, OnWhaleEventRepository onChain) throws IOException {
+        long t0 = System.nanoTime();
+        long events = 0;
+        for (Path file : journalFiles()) {
+            long off = 0;
+            long on = 0;
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            Object record;
+            while ((record = JournalCodec.decode(in)) != null) {
+                switch (record) {
+                    case OffChainWhaleEvent e -> { offChain.restore(e); off++; }
+                    case OnChainWhaleEvent e -> { onChain.restore(e); on++; }
+                    case Checkpoint c -> checkpoints.put(c.chain(), c.block());
+                    default -> {}
+                }
+            }
+            if (in.hasRemaining()) {
+                log.warn("Journal {} ends in {} unreadable bytes, replayed up to there", file.getFileName(), in.remaining());
+            }
+            files.addLast(new JournalFile(file, off, on));
+            sequence = Math.max(sequence, sequenceOf(file));
+            events += off + on;
+        }
+        committed.putAll(checkpoints);
+        replayedEvents = events;
+        replayMs = (System.nanoTime() - t0) / 1_000_000;
+        log.info("Journal replayed {} whale events from {} files in {}ms, checkpoints {}", events, files.size(), replayMs, checkpoints);
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.filter(p -> p.getFileName().toString().startsWith(PREFIX) && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // Saving threads (ingest workers, on-chain watchers) only enqueue
+    public boolean append(OffChainWhaleEvent event) {
+        return enqueue(event);
+    }
+
+    public boolean append(OnChainWhaleEvent event) {
+        if (enqueue(event)) return true;
+        if (frozen.add(event.chain())) {
+            log.warn("Journal queue full, dropped a {} whale: its checkpoint stays at {} for the rest of this run",
+                    event.chain(), checkpoints.get(event.chain()));
+        }
+        return false;
+    }
+
+    // Records that every block up to and including block has been processed
+    public void checkpoint(Chain chain, long block) {
+        if (frozen.contains(chain)) return;
+        Long previous = checkpoints.put(chain, block);
+        if (previous == null || previous != block) enqueue(new Checkpoint(chain, block));
+    }
+
+    // Where a watcher continues: after its checkpoint, unless that is too far behind (or missing)
+    public long resumeBlock(Chain chain, long latest) {
+        Long saved = checkpoints.get(chain);
+        if (saved == null) return latest - DEFAULT_LOOKBACK;
+        if (latest - saved > props.getMaxCatchUpBlocks()) {
+            log.info("{} checkpoint {} is {} blocks behind the head, starting at {} instead",
+                    chain, saved, latest - saved, latest - DEFAULT_LOOKBACK);
+            return latest - DEFAULT_LOOKBACK;
+        }
+        return Math.min(saved, latest);
+    }
+
+    private boolean enqueue(Object record) {
+        if (!props.isEnabled()) return false;
+        if (queue.offer(record)) return true;
+        dropped.increment();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (!props.isEnabled() || running) return;
+        running = true;
+        writer = Thread.ofPlatform().name("whale-journal").daemon().start(this::writeLoop);
+    }
+
+    private void writeLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        List<Object> batch = new ArrayList<>(props.getMaxBatch());
+        try {
+            open();
+            while (!stopping || !queue.isEmpty()) {
+                Object first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, props.getMaxBatch() - 1);
+                commit(batch, buffer);
+                batch.clear();
+                if (channel.position() >= props.getSegmentBytes()) rotate();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // nothing more can be journaled this run; the buffers and ingest carry on without it
+            log.error("Journal writer stopped: {}", e.getMessage(), e);
+        } finally {
+            close();
+        }
+    }
+
+    // One write and at most one sync for the whole batch
+    private void commit(List<Object> batch, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        long off = 0;
+        long on = 0;
+        for (Object record : batch) {
+            try {
+                JournalCodec.encode(record, buffer);
+            } catch (BufferOverflowException full) {
+                writeOut(buffer);
+                buffer.clear();
+                try {
+                    JournalCodec.encode(record, buffer);
+                } catch (RuntimeException tooLarge) {
+                    failed.increment();
+                    continue;
+                }
+            } catch (IllegalArgumentException unencodable) {
+                failed.increment();
+                FAILURES.log("encode", "Cannot journal " + record + ": " + unencodable.getMessage(), unencodable);
+                continue;
+            }
+            switch (record) {
+                case OffChainWhaleEvent e -> off++;
+                case OnChainWhaleEvent e -> on++;
+                // read by open() only, which runs after this batch is written and synced
+                case Checkpoint c -> committed.put(c.chain(), c.block());
+                default -> {}
+            }
+        }
+        writeOut(buffer);
+        if (props.isFsync()) channel.force(false);
+        commits.increment();
+        appended.add(off + on);
+        currentOffChain += off;
+        currentOnChain += on;
+    }
+
+    private void writeOut(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private void open() throws IOException {
+        sequence++;
+        current = dir.resolve(PREFIX + String.format("%020d", sequence) + SUFFIX);
+        channel = FileChannel.open(current, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        currentOffChain = 0;
+        currentOnChain = 0;
+        // every file starts with the committed checkpoints, so deleting older files never loses them;
+        // not the watchers' latest, whose events may still be queued and lost with this run
+        ByteBuffer head = ByteBuffer.allocate(4096);
+        for (Map.Entry<Chain, Long> c : committed.entrySet()) {
+            JournalCodec.encode(new Checkpoint(c.getKey(), c.getValue()), head);
+        }
+        writeOut(head);
+        // the checkpoints are durable in the new file before any older file goes
+        if (props.isFsync()) channel.force(true);
+        prune();
+    }
+
+    private void rotate() throws IOException {
+        if (props.isFsync()) channel.force(true);
+        channel.close();
+        files.addLast(new JournalFile(current, currentOffChain, currentOnChain));
+        open();
+    }
+
+    // Newest first: deletes each file whose events of either kind the newer kept files already retain
+    private void prune() throws IOException {
+        long off = 0;
+        long on = 0;
+        for (Iterator<JournalFile> it = files.descendingIterator(); it.hasNext(); ) {
+            JournalFile f = it.next();
+            boolean offCovered = f.offChain() == 0 || off >= props.getRetainOffChainEvents();
+            boolean onCovered = f.onChain() == 0 || on >= props.getRetainOnChainEvents();
+            if (offCovered && onCovered) {
+                it.remove();
+                Files.deleteIfExists(f.path());
+                if (f.offChain() + f.onChain() > 0) {
+                    log.info("Journal {} deleted, newer files hold {} off-chain and {} on-chain events",
+                            f.path().getFileName(), off, on);
+                }
+            } else {
+                off += f.offChain();
+                on += f.onChain();
+            }
+        }
+    }
+
+    private void close() {
+        if (channel == null || !channel.isOpen()) return;
+        try {
+            if (props.isFsync()) channel.force(true);
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Closing journal {} failed: {}", current, e.getMessage());
+        }
+    }
+
+    // After IngestShutdown, so the whales of the ingest drain are journaled too
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        stopping = true;
+        try {
+            writer.join(props.getShutdownFlushMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.warn("Journal flush hit the {}ms deadline, {} records not written", props.getShutdownFlushMs(), queue.size());
+        } else {
+            log.info("Journal closed, {} whale events in {} group commits this run", appended.sum(), commits.sum());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    public long appended() {
+        return appended.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public long commits() {
+        return commits.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public long replayedEvents() {
+        return replayedEvents;
+    }
+
+    public long replayMs() {
+        return replayMs;
+    }
+}
@@ -0,0 +1,13 @@
+package com.whalewatcher.persistence.segment;
+
+/*
+ * Fold over scanned trades. Every fork/join task gets its own instance, partial results are combined
+ * with merge, so implementations need no synchronization. Ids are the Exchange and Asset ordinals,
+ * side is TradeSegment.BUY, SELL or UNKNOWN_SIDE.
+ */
+public interface TradeAccumulator<A extends TradeAccumulator<A>> {
+
+    void accept(long timestampMs, int exchange, int asset, int side, double price, double quantity);
+
+    A merge(A other);
+}
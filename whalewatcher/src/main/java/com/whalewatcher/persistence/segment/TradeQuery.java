@@ -0,0 +1,17 @@
+package com.whalewatcher.persistence.segment;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.repository.TimeRange;
+
+// Rows a scan hands to the accumulator; null asset or exchange matches all
+public record TradeQuery(TimeRange range, Asset asset, Exchange exchange) {
+
+    public TradeQuery {
+        if (range == null) range = TimeRange.of(null, null);
+    }
+
+    public static TradeQuery all() {
+        return new TradeQuery(null, null, null);
+    }
+}
@@ -0,0 +1,219 @@
+package com.whalewatcher.persistence.segment;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/*
+ * One segment of the trade store: up to capacity trades ingested on one UTC day, one memory-mapped
+ * file per column, row r of every column at offset r * width:
+ *
+ *   ts.col        long    event time, epoch ms
+ *   exchange.col  byte    Exchange ordinal
+ *   asset.col     byte    Asset ordinal
+ *   side.col      byte    BUY, SELL or UNKNOWN_SIDE
+ *   price.col     double
+ *   quantity.col  double
+ *
+ * segment.idx holds a header (magic, version, capacity, row count) and per block of BLOCK_ROWS rows the
+ * min and max event time plus bitmasks of the assets and exchanges in it, so scans skip blocks that
+ * cannot match without touching the columns. Trades arrive roughly but not strictly in time order,
+ * hence min/max per block rather than a sorted time column.
+ *
+ * All of it lives in the page cache, not on the heap. One thread appends (TradeSegmentStore holds the
+ * lock), readers see the rows below rows(): the columns and index entries of a row are written before
+ * the volatile row count that publishes it.
+ */
+final class TradeSegment {
+
+    static final byte BUY = 0;
+    static final byte SELL = 1;
+    static final byte UNKNOWN_SIDE = -1;
+
+    static final int BLOCK_ROWS = 8192;
+
+    private static final int MAGIC = 0x57545331; // "WTS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ROWS_OFFSET = 16;
+    private static final int ENTRY_BYTES = 24;
+    private static final String INDEX = "segment.idx";
+
+    private final Path dir;
+    private final LocalDate day;
+    private final int part;
+    private final int capacity;
+    private final MappedByteBuffer ts, exchange, asset, side, price, quantity, index;
+    private volatile int rows;
+    private volatile boolean sealed;
+
+    private TradeSegment(Path dir, LocalDate day, int part, int capacity, boolean write) throws IOException {
+        this.dir = dir;
+        this.day = day;
+        this.part = part;
+        this.capacity = capacity;
+        this.index = map(dir.resolve(INDEX), HEADER_BYTES + (long) blocks(capacity) * ENTRY_BYTES, write);
+        this.ts = map(dir.resolve("ts.col"), (long) capacity * 8, write);
+        this.exchange = map(dir.resolve("exchange.col"), capacity, write);
+        this.asset = map(dir.resolve("asset.col"), capacity, write);
+        this.side = map(dir.resolve("side.col"), capacity, write);
+        this.price = map(dir.resolve("price.col"), (long) capacity * 8, write);
+        this.quantity = map(dir.resolve("quantity.col"), (long) capacity * 8, write);
+        this.sealed = !write;
+    }
+
+    // <day>.<part>, e.g. 2026-10-19.000
+    static String name(LocalDate day, int part) {
+        return day + "." + String.format("%03d", part);
+    }
+
+    static TradeSegment create(Path root, LocalDate day, int part, int capacity) throws IOException {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE / 8) {
+            throw new IllegalArgumentException("rows per segment out of range: " + capacity);
+        }
+        Path dir = Files.createDirectories(root.resolve(name(day, part)));
+        TradeSegment segment = new TradeSegment(dir, day, part, capacity, true);
+        segment.index.putInt(0, MAGIC);
+        segment.index.putInt(4, VERSION);
+        segment.index.putLong(8, capacity);
+        segment.index.putLong(ROWS_OFFSET, 0);
+        return segment;
+    }
+
+    // Read-only, e.g. the segments of earlier runs
+    static TradeSegment open(Path dir) throws IOException {
+        String[] name = dir.getFileName().toString().split("\\.");
+        if (name.length != 2) throw new IOException("not a segment directory: " + dir);
+        LocalDate day = LocalDate.parse(name[0]);
+        int part = Integer.parseInt(name[1]);
+
+        MappedByteBuffer header = map(dir.resolve(INDEX), HEADER_BYTES, false);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) throw new IOException("bad segment header: " + dir);
+        long capacity = header.getLong(8);
+        long rows = header.getLong(ROWS_OFFSET);
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE / 8 || rows < 0 || rows > capacity) {
+            throw new IOException("corrupt segment header: " + dir);
+        }
+        TradeSegment segment = new TradeSegment(dir, day, part, (int) capacity, false);
+        segment.rows = (int) rows;
+        return segment;
+    }
+
+    private static MappedByteBuffer map(Path file, long bytes, boolean write) throws IOException {
+        try (FileChannel ch = write
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping outlives the channel
+            return ch.map(write ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, bytes);
+        }
+    }
+
+    private static int blocks(int rows) {
+        return (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+    }
+
+    // Single writer; false when full
+    boolean append(long timestampMs, int exchangeId, int assetId, byte sideId, double px, double qty) {
+        int r = rows;
+        if (r >= capacity || sealed) return false;
+
+        int at = r << 3;
+        ts.putLong(at, timestampMs);
+        price.putDouble(at, px);
+        quantity.putDouble(at, qty);
+        exchange.put(r, (byte) exchangeId);
+        asset.put(r, (byte) assetId);
+        side.put(r, sideId);
+
+        int entry = HEADER_BYTES + (r / BLOCK_ROWS) * ENTRY_BYTES;
+        if (r % BLOCK_ROWS == 0) {
+            index.putLong(entry, timestampMs);
+            index.putLong(entry + 8, timestampMs);
+            index.putInt(entry + 16, 1 << assetId);
+            index.putInt(entry + 20, 1 << exchangeId);
+        } else {
+            if (timestampMs < index.getLong(entry)) index.putLong(entry, timestampMs);
+            if (timestampMs > index.getLong(entry + 8)) index.putLong(entry + 8, timestampMs);
+            index.putInt(entry + 16, index.getInt(entry + 16) | 1 << assetId);
+            index.putInt(entry + 20, index.getInt(entry + 20) | 1 << exchangeId);
+        }
+        index.putLong(ROWS_OFFSET, r + 1);
+        rows = r + 1;
+        return true;
+    }
+
+    // No further appends; writes the pages out so a sealed segment survives a machine crash too
+    void seal() {
+        if (sealed) return;
+        sealed = true;
+        for (MappedByteBuffer column : new MappedByteBuffer[]{ts, exchange, asset, side, price, quantity, index}) {
+            if (!column.isReadOnly()) column.force();
+        }
+    }
+
+    // Scans the blocks [fromBlock, toBlock) up to row limit
+    <A extends TradeAccumulator<A>> void scan(int fromBlock, int toBlock, int limit, TradeQuery q, A acc) {
+        long since = q.range().sinceMs();
+        long until = q.range().untilMs();
+        int assetId = q.asset() == null ? -1 : q.asset().ordinal();
+        int exchangeId = q.exchange() == null ? -1 : q.exchange().ordinal();
+
+        for (int b = fromBlock; b < toBlock; b++) {
+            if (!blockMatches(b, since, until, assetId, exchangeId)) continue;
+            int end = Math.min(limit, (b + 1) * BLOCK_ROWS);
+            for (int r = b * BLOCK_ROWS; r < end; r++) {
+                long t = ts.getLong(r << 3);
+                if (t < since || t >= until) continue;
+                int a = asset.get(r);
+                if (assetId >= 0 && a != assetId) continue;
+                int e = exchange.get(r);
+                if (exchangeId >= 0 && e != exchangeId) continue;
+                acc.accept(t, e, a, side.get(r), price.getDouble(r << 3), quantity.getDouble(r << 3));
+            }
+        }
+    }
+
+    private boolean blockMatches(int b, long since, long until, int assetId, int exchangeId) {
+        int entry = HEADER_BYTES + b * ENTRY_BYTES;
+        if (index.getLong(entry + 8) < since || index.getLong(entry) >= until) return false;
+        if (assetId >= 0 && (index.getInt(entry + 16) & 1 << assetId) == 0) return false;
+        return exchangeId < 0 || (index.getInt(entry + 20) & 1 << exchangeId) != 0;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int blockCount() {
+        return blocks(rows);
+    }
+
+    boolean full() {
+        return rows >= capacity;
+    }
+
+    boolean sealed() {
+        return sealed;
+    }
+
+    LocalDate day() {
+        return day;
+    }
+
+    int part() {
+        return part;
+    }
+
+    Path dir() {
+        return dir;
+    }
+
+    // Mapped bytes of the written rows, what the segment occupies on disk and in the page cache
+    long bytes() {
+        return (long) rows * 27 + HEADER_BYTES + (long) blockCount() * ENTRY_BYTES;
+    }
+}
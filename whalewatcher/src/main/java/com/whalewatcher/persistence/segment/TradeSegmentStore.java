@@ -0,0 +1,300 @@
+package com.whalewatcher.persistence.segment;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Side;
+import com.whalewatcher.domain.Trade;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import com.whalewatcher.service.SymbolMapper;
+import com.whalewatcher.service.TradeRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/*
+ * Every deduplicated trade of the ingest path, whale or not, in memory-mapped column segments
+ * (see TradeSegment), for backtests and analytics over the full history
+ * (whalewatcher.tradestore.enabled).
+ *
+ * Appends take one short lock and write a few bytes into the mapped columns, the OS writes the pages
+ * back. A new segment starts with each UTC day and whenever one fills up; the old one is swapped out
+ * under the lock and flushed to disk on the trade-seal thread, so ingest never waits for the msync of
+ * hundreds of MB. Segments of earlier runs are opened read-only on startup and stay queryable. The heap only holds a handful of objects per segment,
+ * so retained history costs disk and page cache, not GC time.
+ *
+ * Scans split the segments into chunks of blocks and fold them in parallel on a fork/join pool, each
+ * task with its own accumulator.
+ */
+@Component
+@ConditionalOnProperty(prefix = "whalewatcher.tradestore", name = "enabled", havingValue = "true")
+public class TradeSegmentStore implements TradeRecorder, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeSegmentStore.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.error(log, Duration.ofSeconds(30));
+
+    private static final long DAY_MS = 86_400_000L;
+    // blocks per fork/join leaf task
+    private static final int CHUNK_BLOCKS = 16;
+    private static final long RETRY_MS = 10_000;
+
+    private final TradeStoreProperties props;
+    private final SymbolMapper symbolMapper;
+    private final Path root;
+    private final ForkJoinPool pool;
+    // seals (msyncs) rolled-over segments off the append lock
+    private final ExecutorService sealer =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("trade-seal").daemon(true).factory());
+
+    // oldest first; the active segment is last until it is sealed
+    private final List<TradeSegment> segments = new CopyOnWriteArrayList<>();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // guarded by this
+    private TradeSegment active;
+    private long activeDay = Long.MIN_VALUE;
+    private long retryAtMs;
+    private boolean closed;
+
+    private volatile boolean running;
+
+    public TradeSegmentStore(TradeStoreProperties props, SymbolMapper symbolMapper) throws IOException {
+        this.props = props;
+        this.symbolMapper = symbolMapper;
+        this.root = Files.createDirectories(Path.of(props.getDir()));
+        int parallelism = props.getScanParallelism() > 0 ? props.getScanParallelism() : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism);
+        openExisting();
+    }
+
+    private void openExisting() throws IOException {
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).sorted().toList()) {
+                try {
+                    segments.add(TradeSegment.open(dir));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Skipping trade segment {}: {}", dir, e.getMessage());
+                }
+            }
+        }
+        long rows = segments.stream().mapToLong(TradeSegment::rows).sum();
+        log.info("Trade store at {}: {} segments, {} trades", root.toAbsolutePath(), segments.size(), rows);
+    }
+
+    @Override
+    public void record(Trade trade) {
+        Asset asset = symbolMapper.normalize(trade.symbol(), trade.exchange());
+        if (asset == null) return;
+        append(trade.timestamp(), trade.exchange().ordinal(), asset.ordinal(), side(trade.side()),
+                trade.price(), trade.volume());
+    }
+
+    private static byte side(String code) {
+        try {
+            Side side = Side.fromExchangeCode(code);
+            if (side == Side.BUY) return TradeSegment.BUY;
+            if (side == Side.SELL) return TradeSegment.SELL;
+        } catch (IllegalArgumentException ignored) {
+            // an unknown code is stored as such, the trade still counts
+        }
+        return TradeSegment.UNKNOWN_SIDE;
+    }
+
+    public synchronized boolean append(long timestampMs, int exchange, int asset, byte side, double price, double quantity) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        // segments go by ingest day; a venue's clock skew or late trades only widen the block index
+        long day = Math.floorDiv(System.currentTimeMillis(), DAY_MS);
+        if (active == null || day != activeDay || active.full()) roll(day);
+        if (active == null || !active.append(timestampMs, exchange, asset, side, price, quantity)) {
+            dropped.increment();
+            return false;
+        }
+        appended.increment();
+        return true;
+    }
+
+    // caller holds the lock
+    private void roll(long day) {
+        long now = System.currentTimeMillis();
+        if (active != null) {
+            TradeSegment full = active;
+            sealer.execute(() -> seal(full));
+            active = null;
+        }
+        if (now < retryAtMs) return;
+
+        LocalDate date = LocalDate.ofEpochDay(day);
+        int part = segments.stream()
+                .filter(s -> s.day().equals(date))
+                .mapToInt(TradeSegment::part)
+                .max().orElse(-1) + 1;
+        try {
+            active = TradeSegment.create(root, date, part, props.getRowsPerSegment());
+            activeDay = day;
+            segments.add(active);
+            log.info("Trade segment {} started", TradeSegment.name(date, part));
+        } catch (IOException | RuntimeException e) {
+            // e.g. disk full; trades are dropped and counted until the next attempt
+            retryAtMs = now + RETRY_MS;
+            ERRORS.log("create", "Could not create trade segment " + TradeSegment.name(date, part) + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void seal(TradeSegment segment) {
+        try {
+            segment.seal();
+        } catch (RuntimeException e) {
+            // the rows stay in the page cache, the OS still writes them back
+            ERRORS.log("seal", "Could not flush trade segment " + segment.dir().getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Folds every matching trade into accumulators from the supplier, in parallel
+    public <A extends TradeAccumulator<A>> A scan(TradeQuery query, Supplier<A> accumulator) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (TradeSegment segment : segments) {
+            // rows read once, later appends are not part of this scan
+            int rows = segment.rows();
+            int blocks = (rows + TradeSegment.BLOCK_ROWS - 1) / TradeSegment.BLOCK_ROWS;
+            for (int b = 0; b < blocks; b += CHUNK_BLOCKS) {
+                chunks.add(new Chunk(segment, b, Math.min(b + CHUNK_BLOCKS, blocks), rows));
+            }
+        }
+        if (chunks.isEmpty()) return accumulator.get();
+        return pool.invoke(new ScanTask<>(chunks, 0, chunks.size(), query, accumulator));
+    }
+
+    private record Chunk(TradeSegment segment, int fromBlock, int toBlock, int rows) {}
+
+    private static final class ScanTask<A extends TradeAccumulator<A>> extends RecursiveTask<A> {
+        private final List<Chunk> chunks;
+        private final int from, to;
+        private final TradeQuery query;
+        private final Supplier<A> accumulator;
+
+        ScanTask(List<Chunk> chunks, int from, int to, TradeQuery query, Supplier<A> accumulator) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.query = query;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from == 1) {
+                Chunk c = chunks.get(from);
+                A acc = accumulator.get();
+                c.segment().scan(c.fromBlock(), c.toBlock(), c.rows(), query, acc);
+                return acc;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask<A> left = new ScanTask<>(chunks, from, mid, query, accumulator);
+            left.fork();
+            A right = new ScanTask<>(chunks, mid, to, query, accumulator).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // Deletes sealed segments of days before the retention window
+    @Scheduled(cron = "0 17 0 * * *", zone = "UTC")
+    public void expire() {
+        int days = props.getRetentionDays();
+        if (days <= 0) return;
+        LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(days);
+        for (TradeSegment segment : segments) {
+            if (!segment.sealed() || !segment.day().isBefore(oldest)) continue;
+            segments.remove(segment);
+            // the mapping goes away with the last reference, the file once that is gone too
+            try (Stream<Path> files = Files.walk(segment.dir())) {
+                for (Path p : files.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+                log.info("Trade segment {} expired", segment.dir().getFileName());
+            } catch (IOException e) {
+                log.warn("Could not delete expired trade segment {}: {}", segment.dir(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // After IngestShutdown, so the drained trades are written; the active segment and any rolled-over
+    // ones still in the seal queue are flushed to disk
+    @Override
+    public void stop() {
+        synchronized (this) {
+            closed = true;
+            if (active != null) active.seal();
+        }
+        sealer.shutdown();
+        try {
+            if (!sealer.awaitTermination(30, TimeUnit.SECONDS)) log.warn("Trade segments still being sealed at shutdown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        running = false;
+        pool.shutdown();
+        log.info("Trade store closed, {} trades appended this run, {} dropped", appended.sum(), dropped.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1;
+    }
+
+    public long appended() {
+        return appended.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long rows() {
+        long rows = 0;
+        for (TradeSegment s : segments) rows += s.rows();
+        return rows;
+    }
+
+    public long bytes() {
+        long bytes = 0;
+        for (TradeSegment s : segments) bytes += s.bytes();
+        return bytes;
+    }
+}
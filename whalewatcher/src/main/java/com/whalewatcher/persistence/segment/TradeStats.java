@@ -0,0 +1,57 @@
+package com.whalewatcher.persistence.segment;
+
+// Volume and price summary of the scanned trades
+public class TradeStats implements TradeAccumulator<TradeStats> {
+
+    private long trades;
+    private double quantity;
+    private double notionalUsd;
+    private double buyNotionalUsd;
+    private double sellNotionalUsd;
+    private double minPrice = Double.NaN;
+    private double maxPrice = Double.NaN;
+    private long firstMs = Long.MAX_VALUE;
+    private long lastMs = Long.MIN_VALUE;
+
+    @Override
+    public void accept(long timestampMs, int exchange, int asset, int side, double price, double qty) {
+        double usd = price * qty;
+        trades++;
+        quantity += qty;
+        notionalUsd += usd;
+        if (side == TradeSegment.BUY) buyNotionalUsd += usd;
+        else if (side == TradeSegment.SELL) sellNotionalUsd += usd;
+        if (!(price >= minPrice)) minPrice = price;
+        if (!(price <= maxPrice)) maxPrice = price;
+        firstMs = Math.min(firstMs, timestampMs);
+        lastMs = Math.max(lastMs, timestampMs);
+    }
+
+    @Override
+    public TradeStats merge(TradeStats o) {
+        if (o.trades == 0) return this;
+        if (trades == 0) return o;
+        trades += o.trades;
+        quantity += o.quantity;
+        notionalUsd += o.notionalUsd;
+        buyNotionalUsd += o.buyNotionalUsd;
+        sellNotionalUsd += o.sellNotionalUsd;
+        minPrice = Math.min(minPrice, o.minPrice);
+        maxPrice = Math.max(maxPrice, o.maxPrice);
+        firstMs = Math.min(firstMs, o.firstMs);
+        lastMs = Math.max(lastMs, o.lastMs);
+        return this;
+    }
+
+    public long getTrades() { return trades; }
+    public double getQuantity() { return quantity; }
+    public double getNotionalUsd() { return notionalUsd; }
+    public double getBuyNotionalUsd() { return buyNotionalUsd; }
+    public double getSellNotionalUsd() { return sellNotionalUsd; }
+    // null while nothing matched
+    public Double getMinPrice() { return trades == 0 ? null : minPrice; }
+    public Double getMaxPrice() { return trades == 0 ? null : maxPrice; }
+    public Double getVwap() { return quantity == 0 ? null : notionalUsd / quantity; }
+    public Long getFirstMs() { return trades == 0 ? null : firstMs; }
+    public Long getLastMs() { return trades == 0 ? null : lastMs; }
+}
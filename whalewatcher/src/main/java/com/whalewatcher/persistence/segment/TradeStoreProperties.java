@@ -0,0 +1,41 @@
+package com.whalewatcher.persistence.segment;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * Columnar store of every ingested trade (see TradeSegmentStore). Segments live under dir, one per
+ * UTC day and rowsPerSegment rows; a day with more trades continues in further segments. Segments of
+ * days older than retentionDays are deleted (0 keeps everything). Scans run on a fork/join pool of
+ * scanParallelism threads (0: one per core).
+ */
+@Component
+@ConfigurationProperties(prefix = "whalewatcher.tradestore")
+public class TradeStoreProperties {
+
+    private boolean enabled = false;
+
+    private String dir = "data/trades";
+
+    // 2^24 rows: 128MB per 8-byte column, files are sparse until written
+    private int rowsPerSegment = 1 << 24;
+
+    private int retentionDays = 0;
+
+    private int scanParallelism = 0;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDir() { return dir; }
+    public void setDir(String dir) { this.dir = dir; }
+
+    public int getRowsPerSegment() { return rowsPerSegment; }
+    public void setRowsPerSegment(int rowsPerSegment) { this.rowsPerSegment = rowsPerSegment; }
+
+    public int getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+
+    public int getScanParallelism() { return scanParallelism; }
+    public void setScanParallelism(int scanParallelism) { this.scanParallelism = scanParallelism; }
+}
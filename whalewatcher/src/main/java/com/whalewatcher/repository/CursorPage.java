@@ -0,0 +1,10 @@
+package com.whalewatcher.repository;
+
+import java.util.List;
+
+/*
+ * Result of an incremental read: the view's events from the requested cursor on, oldest first.
+ * cursor is what to pass as the next `after`; missed counts events that left the ring before they
+ * could be read (the client fell more than a ring behind).
+ */
+public record CursorPage<E>(List<E> events, long cursor, long missed) {}
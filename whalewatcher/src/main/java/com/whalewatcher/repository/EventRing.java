@@ -0,0 +1,172 @@
+package com.whalewatcher.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToLongFunction;
+
+/*
+ * Fixed-capacity lock-free ring of the latest elements, the storage behind RingWhaleRepository.
+ *
+ * A writer claims the next sequence from the single cursor and writes slot seq % capacity, overwriting
+ * the element one lap older; nothing is allocated per add. Each slot carries the sequence it holds, negative
+ * (-(seq + 1)) while that sequence is being written. Readers walk back from the cursor and keep a slot's
+ * element only if the slot showed the expected sequence before and after reading it, so a snapshot never
+ * mixes in an element that was overwritten or half-published during the read. Readers never wait.
+ *
+ * Time-range reads: next to each element the slot keeps the running maximum of the element timestamps
+ * up to it, which never decreases along the sequence. The oldest sequence that can be in range is found by
+ * binary search over it; late events (timestamp below the running maximum) are caught by the per-element
+ * check. Writers racing between claiming a sequence and taking the maximum can leave the stamps out of
+ * order by a few slots, so the scan starts SLACK slots below the search result.
+ */
+final class EventRing<E> {
+
+    private static final int SLACK = 64;
+
+    private final int capacity;
+    private final ToLongFunction<E> timestamp;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    // running maximum of the timestamps up to the slot's element
+    private final AtomicLongArray stamps;
+    private final AtomicLong maxStamp = new AtomicLong(Long.MIN_VALUE);
+    // next sequence to hand out, sequences below it are claimed (and published or about to be)
+    private final AtomicLong cursor = new AtomicLong();
+
+    EventRing(int capacity, ToLongFunction<E> timestamp) {
+        if (capacity <= 0) throw new IllegalArgumentException("Ring capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.timestamp = timestamp;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.stamps = new AtomicLongArray(capacity);
+        // no slot holds a sequence yet
+        for (int i = 0; i < capacity; i++) sequences.set(i, Long.MIN_VALUE);
+    }
+
+    // Returns the element pushed out of the ring, null while it is filling up
+    E add(E element) {
+        long seq = cursor.getAndIncrement();
+        int slot = (int) (seq % capacity);
+        long stamp = maxStamp.accumulateAndGet(timestamp.applyAsLong(element), Math::max);
+
+        while (true) {
+            long held = sequences.get(slot);
+            // a writer one lap behind is still on this slot, its single store is about to finish
+            if (held < 0 && held != Long.MIN_VALUE) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // a writer one lap ahead already took the slot: this element is older than the whole ring
+            if (held > seq) return element;
+            if (sequences.compareAndSet(slot, held, -(seq + 1))) {
+                stamps.set(slot, stamp);
+                E evicted = elements.getAndSet(slot, element);
+                sequences.set(slot, seq);
+                return evicted;
+            }
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int size() {
+        return (int) Math.min(cursor.get(), capacity);
+    }
+
+    // Walks back from the cursor, at most one lap and n elements
+    List<E> newestFirst(int n) {
+        long hi = cursor.get();
+        long lo = Math.max(0, hi - capacity);
+
+        List<E> out = new ArrayList<>(Math.min(n, 128));
+        for (long seq = hi - 1; seq >= lo && out.size() < n; seq--) {
+            int slot = (int) (seq % capacity);
+            if (sequences.get(slot) != seq) continue; // not published yet, or already overwritten
+            E e = elements.get(slot);
+            if (sequences.get(slot) != seq) continue;
+            out.add(e);
+        }
+        return List.copyOf(out);
+    }
+
+    // Sequence the next element gets, i.e. the number of elements ever added
+    long cursor() {
+        return cursor.get();
+    }
+
+    /*
+     * Oldest first from sequence `from`, at most n. Stops at the first sequence still being written so
+     * the returned cursor never skips it. A cursor ahead of the ring is from before a restart and reads
+     * from the oldest element held.
+     */
+    CursorPage<E> from(long from, int n) {
+        long hi = cursor.get();
+        if (from > hi || from < 0) from = 0;
+        long oldest = Math.max(0, hi - capacity);
+        long missed = Math.max(0, oldest - from);
+
+        List<E> out = new ArrayList<>(Math.min(n, 128));
+        long seq = Math.max(from, oldest);
+        for (; seq < hi && out.size() < n; seq++) {
+            int slot = (int) (seq % capacity);
+            long held = sequences.get(slot);
+            E e = elements.get(slot);
+            if (held == seq && sequences.get(slot) == seq) {
+                out.add(e);
+            } else if (claimed(held) > seq) {
+                missed++; // overwritten while we read
+            } else {
+                break; // not published yet
+            }
+        }
+        return new CursorPage<>(List.copyOf(out), seq, missed);
+    }
+
+    // Newest first within the range, stops after n matches
+    List<E> newestFirst(int n, TimeRange range) {
+        long hi = cursor.get();
+        long lo = Math.max(Math.max(0, hi - capacity), firstAtOrAfter(range.sinceMs(), hi) - SLACK);
+
+        List<E> out = new ArrayList<>(Math.min(n, 128));
+        for (long seq = hi - 1; seq >= lo && out.size() < n; seq--) {
+            int slot = (int) (seq % capacity);
+            if (sequences.get(slot) != seq) continue;
+            E e = elements.get(slot);
+            if (sequences.get(slot) != seq) continue;
+            if (range.contains(timestamp.applyAsLong(e))) out.add(e);
+        }
+        return List.copyOf(out);
+    }
+
+    // Lowest sequence below hi whose running-max stamp is >= sinceMs; everything before it is older
+    private long firstAtOrAfter(long sinceMs, long hi) {
+        long lo = Math.max(0, hi - capacity);
+        long left = lo, right = hi;
+        while (left < right) {
+            long mid = (left + right) >>> 1;
+            int slot = (int) (mid % capacity);
+            long held = sequences.get(slot);
+            long stamp = stamps.get(slot);
+            long after = sequences.get(slot);
+            boolean before = held == mid && after == mid
+                    ? stamp < sinceMs
+                    // (being) rewritten for a newer lap: older than anything still held.
+                    // Otherwise mid itself is still being written, which only happens at the new end.
+                    : claimed(held) > mid || claimed(after) > mid;
+            if (before) left = mid + 1;
+            else right = mid;
+        }
+        return left;
+    }
+
+    // Sequence a slot holds or is being written for
+    private static long claimed(long held) {
+        return held < 0 && held != Long.MIN_VALUE ? -(held + 1) : held;
+    }
+}
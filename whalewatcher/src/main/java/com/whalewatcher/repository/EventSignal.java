@@ -0,0 +1,68 @@
+package com.whalewatcher.repository;
+
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/*
+ * Wakes long-poll readers of a repository when events are saved. A waiter is a callback that tries to
+ * complete its request and reports whether it did; it is called once on registration and then after
+ * every save until it succeeds or is cancelled. Nothing blocks: waiters are parked as callbacks only.
+ *
+ * The saving thread (an ingest worker, the ring store stage, an on-chain watcher inside the buffer's
+ * lock) only schedules a wake-up; the waiters run on the event-signal thread, and saves arriving while
+ * a wake-up is pending share it. A waiter that throws is logged and dropped.
+ */
+public final class EventSignal {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSignal.class);
+    private static final ThrottledLog ERRORS = ThrottledLog.error(log, Duration.ofSeconds(30));
+
+    // one thread for all repositories' waiters
+    private static final ExecutorService NOTIFIER =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("event-signal").daemon(true).factory());
+
+    private final Set<BooleanSupplier> waiters = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    public void await(BooleanSupplier tryComplete) {
+        waiters.add(tryComplete);
+        // an event saved before the add would not have woken it
+        if (tryComplete.getAsBoolean()) waiters.remove(tryComplete);
+    }
+
+    public void cancel(BooleanSupplier tryComplete) {
+        waiters.remove(tryComplete);
+    }
+
+    public int waiting() {
+        return waiters.size();
+    }
+
+    // Called by the writer after each save, a no-op without waiters
+    void signal() {
+        if (waiters.isEmpty()) return;
+        if (pending.compareAndSet(false, true)) NOTIFIER.execute(this::wake);
+    }
+
+    private void wake() {
+        // cleared first, a save during the loop schedules the next wake-up
+        pending.set(false);
+        for (BooleanSupplier waiter : waiters) {
+            try {
+                if (waiter.getAsBoolean()) waiters.remove(waiter);
+            } catch (RuntimeException e) {
+                waiters.remove(waiter);
+                ERRORS.log("waiter", "Long-poll waiter failed: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -2,63 +2,103 @@ package com.whalewatcher.repository;
 
 import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.infrastructure.jfr.RepositorySaveEvent;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.function.Consumer;
 
+/*
+ * Latest on-chain whale transfers, newest first. Adds are serialized for the tx hash check, reads go to
+ * lock-free rings (all events and one per asset) with a timestamp index for time-range queries and
+ * per-ring cursors for incremental reads.
+ */
 @Component
 public class OnChainEventBuffer implements OnWhaleEventRepository{
 
     private static final int MAX_EVENTS = 500;
-    private static final int MAX_HASHES = 5000;
     private static final int MAX_SIZE = 1000;
 
-    private final Deque<OnChainWhaleEvent> events = new ArrayDeque<>();
+    private final EventRing<OnChainWhaleEvent> events = new EventRing<>(MAX_EVENTS, OnChainWhaleEvent::timestampMs);
+    private final List<EventRing<OnChainWhaleEvent>> byAsset = Arrays.stream(Asset.values())
+            .map(a -> new EventRing<>(MAX_EVENTS, OnChainWhaleEvent::timestampMs))
+            .toList();
+    // tx hashes of the events held in the ring of all events
     private final Set<String> seenTxHashes = new HashSet<>();
+    private final EventSignal signal = new EventSignal();
+    private volatile Consumer<OnChainWhaleEvent> listener = e -> {};
 
     public synchronized void add(OnChainWhaleEvent e) {
-        String key = e.chain().name() + ":" + e.txHash();
+        if (store(e)) listener.accept(e);
+    }
 
-        if (seenTxHashes.contains(key)) return;
+    @Override
+    public synchronized void restore(OnChainWhaleEvent e) {
+        store(e);
+    }
 
-        events.addFirst(e);
-        seenTxHashes.add(key);
+    // false for a tx already held
+    private boolean store(OnChainWhaleEvent e) {
+        RepositorySaveEvent jfr = new RepositorySaveEvent();
+        jfr.begin();
 
-        while (events.size() > MAX_EVENTS) {
-            OnChainWhaleEvent removed = events.removeLast();
-            seenTxHashes.remove(removed.chain().name() + ":" + removed.txHash());
-        }
+        String key = key(e);
 
-        if (seenTxHashes.size() > MAX_HASHES) {
-            Iterator<OnChainWhaleEvent> it = events.descendingIterator();
-            Set<String> keep = new HashSet<>();
+        if (seenTxHashes.contains(key)) return false;
 
-            while (it.hasNext() && keep.size() < MAX_EVENTS) {
-                OnChainWhaleEvent ev = it.next();
-                keep.add(ev.chain().name() + ":" + ev.txHash());
-            }
+        seenTxHashes.add(key);
+        OnChainWhaleEvent removed = events.add(e);
+        if (removed != null) seenTxHashes.remove(key(removed));
+        if (e.asset() != null) byAsset.get(e.asset().ordinal()).add(e);
+
+        jfr.complete("onchain", e.chain().name(), events.size());
+        signal.signal();
+        return true;
+    }
 
-            seenTxHashes.retainAll(keep);
-        }
+    private static String key(OnChainWhaleEvent e) {
+        return e.chain().name() + ":" + e.txHash();
     }
 
     @Override
     public List<OnChainWhaleEvent> getAll(int limit) {
         int safeLimit = Math.max(0, Math.min(limit, MAX_EVENTS));
-        return events.stream().limit(safeLimit).toList();
+        return safeLimit == 0 ? List.of() : events.newestFirst(safeLimit);
     }
 
     @Override
     public List<OnChainWhaleEvent> getAllByAsset(Asset asset, int limit) {
-        int n = clampLimit(limit);
-        List<OnChainWhaleEvent> out = new ArrayList<>(Math.min(n, 128));
-        for (OnChainWhaleEvent e : events) {
-            if (e.asset() == asset) {
-                out.add(e);
-                if (out.size() >= n) break;
-            }
-        }
-        return List.copyOf(out);
+        return byAsset.get(asset.ordinal()).newestFirst(clampLimit(limit));
+    }
+
+    @Override
+    public List<OnChainWhaleEvent> getAll(TimeRange range, int limit) {
+        return events.newestFirst(clampLimit(limit), range);
+    }
+
+    @Override
+    public List<OnChainWhaleEvent> getAllByAsset(Asset asset, TimeRange range, int limit) {
+        return byAsset.get(asset.ordinal()).newestFirst(clampLimit(limit), range);
+    }
+
+    @Override
+    public CursorPage<OnChainWhaleEvent> getAllAfter(long cursor, int limit) {
+        return events.from(cursor, clampLimit(limit));
+    }
+
+    @Override
+    public CursorPage<OnChainWhaleEvent> getAllByAssetAfter(Asset asset, long cursor, int limit) {
+        return byAsset.get(asset.ordinal()).from(cursor, clampLimit(limit));
+    }
+
+    @Override
+    public EventSignal signal() {
+        return signal;
+    }
+
+    @Override
+    public synchronized void onAdd(Consumer<OnChainWhaleEvent> listener) {
+        this.listener = this.listener.andThen(listener);
     }
 
     // limit number of events requested to repo
@@ -66,4 +106,4 @@ public class OnChainEventBuffer implements OnWhaleEventRepository{
         if (limit <= 0) return 1;
         return Math.min(limit, MAX_SIZE);
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,26 @@ import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.OnChainWhaleEvent;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OnWhaleEventRepository {
+    // Adds an event without calling the onAdd listeners: for events replayed from the journal on startup
+    void restore(OnChainWhaleEvent event);
+
     List<OnChainWhaleEvent> getAll(int limit);
     List<OnChainWhaleEvent> getAllByAsset(Asset asset, int limit);
+
+    // Newest first, limited to events whose timestampMs falls in the range
+    List<OnChainWhaleEvent> getAll(TimeRange range, int limit);
+    List<OnChainWhaleEvent> getAllByAsset(Asset asset, TimeRange range, int limit);
+
+    // Incremental reads, oldest first from a cursor returned by the same query (see CursorPage)
+    CursorPage<OnChainWhaleEvent> getAllAfter(long cursor, int limit);
+    CursorPage<OnChainWhaleEvent> getAllByAssetAfter(Asset asset, long cursor, int limit);
+
+    // Signalled on every add, for long-poll readers
+    EventSignal signal();
+
+    // Called with every added event on the adding thread, must not block (e.g. write-behind persistence)
+    void onAdd(Consumer<OnChainWhaleEvent> listener);
 }
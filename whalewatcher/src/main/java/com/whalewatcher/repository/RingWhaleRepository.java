@@ -0,0 +1,205 @@
+package com.whalewatcher.repository;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.infrastructure.jfr.RepositorySaveEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * Latest off-chain whale events in lock-free rings (whalewatcher.repository).
+ *
+ * Besides the ring of all events, every asset, exchange and (asset, exchange) pair has its own ring with
+ * its own quota, written on save. Filtered queries read only the matching ring, so they cost O(limit),
+ * and a BTC flood no longer evicts the last SOL whales from the asset and pair views. Time-range queries
+ * find their oldest candidate by binary search over the ring's timestamp index.
+ *
+ * Each ring numbers its events, so every view has its own monotonically increasing cursor for
+ * incremental reads (a cursor from the BTC view means nothing to the ETH view).
+ * See EventRing for how writers and readers stay consistent without locks.
+ */
+@Repository
+public class RingWhaleRepository implements WhaleEventRepository {
+
+    private static final int ASSETS = Asset.values().length;
+
+    private final EventRing<OffChainWhaleEvent> all;
+    private final List<EventRing<OffChainWhaleEvent>> byAsset;
+    private final List<EventRing<OffChainWhaleEvent>> byExchange;
+    // [exchange * ASSETS + asset]
+    private final List<EventRing<OffChainWhaleEvent>> byPair;
+
+    private final EventSignal signal = new EventSignal();
+    private volatile Consumer<OffChainWhaleEvent> listener = e -> {};
+
+    @Autowired
+    public RingWhaleRepository(@Value("${whalewatcher.repository.capacity:1000}") int capacity,
+                               @Value("${whalewatcher.repository.assetCapacity:1000}") int assetCapacity,
+                               @Value("${whalewatcher.repository.exchangeCapacity:1000}") int exchangeCapacity,
+                               @Value("${whalewatcher.repository.pairCapacity:250}") int pairCapacity) {
+        this.all = new EventRing<>(capacity, OffChainWhaleEvent::timestampMs);
+        this.byAsset = rings(ASSETS, assetCapacity);
+        this.byExchange = rings(Exchange.values().length, exchangeCapacity);
+        this.byPair = rings(Exchange.values().length * ASSETS, pairCapacity);
+    }
+
+    // Same quota for every view
+    public RingWhaleRepository(int capacity) {
+        this(capacity, capacity, capacity, capacity);
+    }
+
+    private static List<EventRing<OffChainWhaleEvent>> rings(int count, int capacity) {
+        List<EventRing<OffChainWhaleEvent>> rings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) rings.add(new EventRing<>(capacity, OffChainWhaleEvent::timestampMs));
+        return List.copyOf(rings);
+    }
+
+    @Override
+    public void save(OffChainWhaleEvent whaleEvent) {
+        store(whaleEvent);
+        listener.accept(whaleEvent);
+    }
+
+    @Override
+    public void restore(OffChainWhaleEvent whaleEvent) {
+        store(whaleEvent);
+    }
+
+    private void store(OffChainWhaleEvent whaleEvent) {
+        RepositorySaveEvent jfr = new RepositorySaveEvent();
+        jfr.begin();
+
+        all.add(whaleEvent);
+        Asset asset = whaleEvent.asset();
+        Exchange exchange = whaleEvent.exchange();
+        if (asset != null) byAsset.get(asset.ordinal()).add(whaleEvent);
+        if (exchange != null) byExchange.get(exchange.ordinal()).add(whaleEvent);
+        if (asset != null && exchange != null) byPair.get(exchange.ordinal() * ASSETS + asset.ordinal()).add(whaleEvent);
+
+        jfr.complete("offchain", String.valueOf(exchange), all.size());
+        signal.signal();
+    }
+
+    public int capacity() {
+        return all.capacity();
+    }
+
+    // Events held in the ring of all events, at most capacity
+    public int size() {
+        return all.size();
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAll() {
+        return getAll(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAllByAsset(Asset asset) {
+        return getAllByAsset(asset, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAllByExchange(Exchange exchange) {
+        return getAllByExchange(exchange, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getByAssetAndExchange(Asset asset, Exchange exchange) {
+        return getByAssetAndExchange(asset, exchange, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAll(int limit) {
+        return read(all, limit);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAllByAsset(Asset asset, int limit) {
+        return read(byAsset.get(asset.ordinal()), limit);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAllByExchange(Exchange exchange, int limit) {
+        return read(byExchange.get(exchange.ordinal()), limit);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getByAssetAndExchange(Asset asset, Exchange exchange, int limit) {
+        return read(byPair.get(exchange.ordinal() * ASSETS + asset.ordinal()), limit);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAll(TimeRange range, int limit) {
+        return read(all, range, limit);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAllByAsset(Asset asset, TimeRange range, int limit) {
+        return read(byAsset.get(asset.ordinal()), range, limit);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getAllByExchange(Exchange exchange, TimeRange range, int limit) {
+        return read(byExchange.get(exchange.ordinal()), range, limit);
+    }
+
+    @Override
+    public List<OffChainWhaleEvent> getByAssetAndExchange(Asset asset, Exchange exchange, TimeRange range, int limit) {
+        return read(byPair.get(exchange.ordinal() * ASSETS + asset.ordinal()), range, limit);
+    }
+
+    @Override
+    public CursorPage<OffChainWhaleEvent> getAllAfter(long cursor, int limit) {
+        return all.from(cursor, clampLimit(limit, all.capacity()));
+    }
+
+    @Override
+    public CursorPage<OffChainWhaleEvent> getAllByAssetAfter(Asset asset, long cursor, int limit) {
+        return from(byAsset.get(asset.ordinal()), cursor, limit);
+    }
+
+    @Override
+    public CursorPage<OffChainWhaleEvent> getAllByExchangeAfter(Exchange exchange, long cursor, int limit) {
+        return from(byExchange.get(exchange.ordinal()), cursor, limit);
+    }
+
+    @Override
+    public CursorPage<OffChainWhaleEvent> getByAssetAndExchangeAfter(Asset asset, Exchange exchange, long cursor, int limit) {
+        return from(byPair.get(exchange.ordinal() * ASSETS + asset.ordinal()), cursor, limit);
+    }
+
+    @Override
+    public EventSignal signal() {
+        return signal;
+    }
+
+    @Override
+    public synchronized void onSave(Consumer<OffChainWhaleEvent> listener) {
+        this.listener = this.listener.andThen(listener);
+    }
+
+    private static CursorPage<OffChainWhaleEvent> from(EventRing<OffChainWhaleEvent> ring, long cursor, int limit) {
+        return ring.from(cursor, clampLimit(limit, ring.capacity()));
+    }
+
+    private static List<OffChainWhaleEvent> read(EventRing<OffChainWhaleEvent> ring, int limit) {
+        return ring.newestFirst(clampLimit(limit, ring.capacity()));
+    }
+
+    private static List<OffChainWhaleEvent> read(EventRing<OffChainWhaleEvent> ring, TimeRange range, int limit) {
+        return ring.newestFirst(clampLimit(limit, ring.capacity()), range);
+    }
+
+    // limit number of events requested to repo
+    private static int clampLimit(int limit, int capacity) {
+        if (limit <= 0) return 1;
+        return Math.min(limit, capacity);
+    }
+}
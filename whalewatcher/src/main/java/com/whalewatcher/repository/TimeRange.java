@@ -0,0 +1,23 @@
+package com.whalewatcher.repository;
+
+/*
+ * Event time window for repository queries, epoch ms: sinceMs inclusive, untilMs exclusive.
+ * Either end may be left open.
+ */
+public record TimeRange(long sinceMs, long untilMs) {
+
+    public TimeRange {
+        if (sinceMs > untilMs) {
+            throw new IllegalArgumentException("since must not be after until: " + sinceMs + " > " + untilMs);
+        }
+    }
+
+    // null ends are open
+    public static TimeRange of(Long sinceMs, Long untilMs) {
+        return new TimeRange(sinceMs == null ? Long.MIN_VALUE : sinceMs, untilMs == null ? Long.MAX_VALUE : untilMs);
+    }
+
+    public boolean contains(long timestampMs) {
+        return timestampMs >= sinceMs && timestampMs < untilMs;
+    }
+}
@@ -6,11 +6,15 @@ import com.whalewatcher.domain.OffChainWhaleEvent;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Repository
 public interface WhaleEventRepository {
     void save(OffChainWhaleEvent whaleEvent);
 
+    // As save, without calling the onSave listeners: for events replayed from the journal on startup
+    void restore(OffChainWhaleEvent whaleEvent);
+
     List<OffChainWhaleEvent> getAll();
     List<OffChainWhaleEvent> getAllByAsset(Asset asset);
     List<OffChainWhaleEvent> getAllByExchange(Exchange exchange);
@@ -20,4 +24,22 @@ public interface WhaleEventRepository {
     List<OffChainWhaleEvent> getAllByAsset(Asset asset, int limit);
     List<OffChainWhaleEvent> getAllByExchange(Exchange exchange, int limit);
     List<OffChainWhaleEvent> getByAssetAndExchange(Asset asset, Exchange exchange, int limit);
+
+    // Newest first, limited to events whose timestampMs falls in the range
+    List<OffChainWhaleEvent> getAll(TimeRange range, int limit);
+    List<OffChainWhaleEvent> getAllByAsset(Asset asset, TimeRange range, int limit);
+    List<OffChainWhaleEvent> getAllByExchange(Exchange exchange, TimeRange range, int limit);
+    List<OffChainWhaleEvent> getByAssetAndExchange(Asset asset, Exchange exchange, TimeRange range, int limit);
+
+    // Incremental reads, oldest first from a cursor returned by the same query (see CursorPage)
+    CursorPage<OffChainWhaleEvent> getAllAfter(long cursor, int limit);
+    CursorPage<OffChainWhaleEvent> getAllByAssetAfter(Asset asset, long cursor, int limit);
+    CursorPage<OffChainWhaleEvent> getAllByExchangeAfter(Exchange exchange, long cursor, int limit);
+    CursorPage<OffChainWhaleEvent> getByAssetAndExchangeAfter(Asset asset, Exchange exchange, long cursor, int limit);
+
+    // Signalled on every save, for long-poll readers
+    EventSignal signal();
+
+    // Called with every saved event on the saving thread, must not block (e.g. write-behind persistence)
+    void onSave(Consumer<OffChainWhaleEvent> listener);
 }
@@ -0,0 +1,103 @@
+package com.whalewatcher.service;
+
+/*
+ * Fixed-capacity set of non-negative longs that forgets its oldest entries.
+ *
+ * Backed by primitive arrays only: an insertion-order ring for eviction and an open-addressing
+ * (linear probing) table for membership, so adding an id never allocates. Not thread-safe, callers
+ * guard each instance (one per stream).
+ */
+public final class BoundedLongSet {
+
+    private static final long EMPTY = 0L;
+
+    private final long[] ring;
+    private final long[] table;
+    private final int ringMask;
+    private final int tableMask;
+
+    private long inserted;
+
+    public BoundedLongSet(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new long[cap];
+        this.table = new long[cap << 1];
+        this.ringMask = cap - 1;
+        this.tableMask = table.length - 1;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    public int size() {
+        return (int) Math.min(inserted, ring.length);
+    }
+
+    public boolean contains(long value) {
+        long key = value + 1;
+        int i = slot(key);
+        while (table[i] != EMPTY) {
+            if (table[i] == key) return true;
+            i = (i + 1) & tableMask;
+        }
+        return false;
+    }
+
+    // Returns false when the value is already present
+    public boolean add(long value) {
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        long key = value + 1;
+
+        int i = slot(key);
+        while (table[i] != EMPTY) {
+            if (table[i] == key) return false;
+            i = (i + 1) & tableMask;
+        }
+
+        int r = (int) (inserted & ringMask);
+        if (inserted >= ring.length) {
+            remove(ring[r]);
+        }
+
+        table[slotOf(key)] = key;
+        ring[r] = key;
+        inserted++;
+        return true;
+    }
+
+    // first free slot for key (the evicted key may have opened one earlier in the probe chain)
+    private int slotOf(long key) {
+        int i = slot(key);
+        while (table[i] != EMPTY) i = (i + 1) & tableMask;
+        return i;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void remove(long key) {
+        int i = slot(key);
+        while (table[i] != key) {
+            if (table[i] == EMPTY) return;
+            i = (i + 1) & tableMask;
+        }
+
+        int j = i;
+        while (true) {
+            j = (j + 1) & tableMask;
+            if (table[j] == EMPTY) break;
+            int home = slot(table[j]);
+            // move table[j] into the hole at i unless its home lies cyclically in (i, j]
+            boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = EMPTY;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & tableMask;
+    }
+}
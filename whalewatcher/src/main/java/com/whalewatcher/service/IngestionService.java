@@ -2,20 +2,30 @@ package com.whalewatcher.service;
 
 import com.whalewatcher.domain.Trade;
 import com.whalewatcher.repository.WhaleEventRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 @Service
 public class IngestionService {
     private final NormalizationService normalizationService;
     private final WhaleEventRepository whaleEventRepository;
+    private final TradeDeduplicator deduplicator;
+    private final TradeRecorder recorder;
 
-    public IngestionService(NormalizationService normalizationService, WhaleEventRepository whaleEventRepository) {
+    public IngestionService(NormalizationService normalizationService, WhaleEventRepository whaleEventRepository,
+                            TradeDeduplicator deduplicator, ObjectProvider<TradeRecorder> recorder) {
         this.normalizationService = normalizationService;
         this.whaleEventRepository = whaleEventRepository;
+        this.deduplicator = deduplicator;
+        this.recorder = recorder.getIfAvailable(() -> TradeRecorder.NONE);
     }
 
     public void ingest(Trade trade){
+        // Replayed trades (e.g. reconnect snapshots) were already ingested
+        if (!deduplicator.firstSeen(trade)) return;
+        recorder.record(trade);
+
         normalizationService.normalizeAndFilter(trade)
                 .ifPresent(whaleEventRepository::save);
     }
-}
\ No newline at end of file
+}
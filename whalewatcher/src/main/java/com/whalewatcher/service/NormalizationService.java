@@ -4,6 +4,8 @@ import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.Side;
 import com.whalewatcher.domain.Trade;
 import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.infrastructure.jfr.NormalizeEvent;
+import com.whalewatcher.infrastructure.jfr.WhaleDetectedEvent;
 import org.springframework.stereotype.Service;
 
 import java.util.Locale;
@@ -22,10 +24,14 @@ public class NormalizationService {
     }
 
     public OffChainWhaleEvent normalize(Trade trade) {
+        NormalizeEvent jfr = new NormalizeEvent();
+        jfr.begin();
+
         // 1) Symbol normalization
         Asset normalizedSymbol = symbolMapper.normalize(trade.symbol(), trade.exchange());
 
         if (normalizedSymbol == null) {
+            jfr.complete(String.valueOf(trade.exchange()), trade.symbol(), null);
             return null;
         }
 
@@ -37,7 +43,7 @@ public class NormalizationService {
         String id = UUID.randomUUID().toString();
 
         // 5) Build canonical event
-        return new OffChainWhaleEvent(
+        OffChainWhaleEvent event = new OffChainWhaleEvent(
                 id,
                 trade.exchange(),
                 normalizedSymbol,
@@ -45,16 +51,20 @@ public class NormalizationService {
                 trade.price(),
                 trade.volume(),
                 totalUsd,
-                trade.timestamp()
+                trade.timestamp(),
+                trade.tradeId()
         );
+        jfr.complete(trade.exchange().name(), trade.symbol(), normalizedSymbol);
+        return event;
     }
 
     public Optional<OffChainWhaleEvent> normalizeAndFilter(Trade trade) {
         OffChainWhaleEvent event = normalize(trade);
         if (event == null) return Optional.empty();
 
-        return whaleDetectionService.isWhale(event)
-                ? Optional.of(event)
-                : Optional.empty();
+        if (!whaleDetectionService.isWhale(event)) return Optional.empty();
+
+        WhaleDetectedEvent.emit(event);
+        return Optional.of(event);
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.whalewatcher.service;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.Trade;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Drops trades that were already ingested, keyed by the venue trade id per (exchange, symbol).
+ *
+ * Reconnect snapshots (Coinbase, Kraken) replay the most recent trades, which would otherwise be
+ * re-detected as new whales. Each stream remembers a bounded window of recent ids, so memory does
+ * not grow with uptime. For venues whose ids are sequential per symbol, skipped ids are counted as
+ * missing trades (and un-counted if they arrive late), giving a data-loss metric per stream. Only ids
+ * inside a recorded gap are un-counted; the oldest gaps are forgotten beyond MAX_GAPS per stream, so
+ * their late arrivals leave the count high rather than low.
+ */
+@Component
+public class TradeDeduplicator {
+
+    // Venues whose trade ids increase by exactly one per symbol
+    private static final Set<Exchange> SEQUENTIAL_IDS = EnumSet.of(Exchange.BINANCE, Exchange.KRAKEN, Exchange.COINBASE);
+    // Open gaps remembered per stream
+    static final int MAX_GAPS = 256;
+
+    public record StreamStats(Exchange exchange, String symbol, long lastTradeId, long duplicates, long missing) {}
+
+    private final int windowSize;
+
+    private final Map<Exchange, ConcurrentHashMap<String, StreamState>> streams = new EnumMap<>(Exchange.class);
+    private final Map<Exchange, AtomicLong> duplicates = new EnumMap<>(Exchange.class);
+
+    public TradeDeduplicator(@Value("${whalewatcher.dedup.windowSize:4096}") int windowSize) {
+        this.windowSize = windowSize;
+        for (Exchange ex : Exchange.values()) {
+            streams.put(ex, new ConcurrentHashMap<>());
+            duplicates.put(ex, new AtomicLong());
+        }
+    }
+
+    // Returns false if this trade id was already seen on its stream
+    public boolean firstSeen(Trade trade) {
+        if (trade.exchange() == null || trade.symbol() == null || !trade.hasTradeId()) return true;
+
+        StreamState state = streams.get(trade.exchange())
+                .computeIfAbsent(trade.symbol(), s -> new StreamState(windowSize));
+
+        boolean first = state.record(trade.tradeId(), SEQUENTIAL_IDS.contains(trade.exchange()));
+        if (!first) duplicates.get(trade.exchange()).incrementAndGet();
+        return first;
+    }
+
+    public long duplicates(Exchange exchange) {
+        return duplicates.get(exchange).get();
+    }
+
+    // Trades known to be missing on an exchange's sequential streams
+    public long missing(Exchange exchange) {
+        long total = 0;
+        for (StreamState s : streams.get(exchange).values()) {
+            total += s.missing();
+        }
+        return total;
+    }
+
+    public List<StreamStats> stats() {
+        List<StreamStats> out = new ArrayList<>();
+        streams.forEach((ex, bySymbol) -> bySymbol.forEach((symbol, s) -> out.add(s.stats(ex, symbol))));
+        return out;
+    }
+
+    private static final class StreamState {
+        private final BoundedLongSet seen;
+        // first missing id -> last missing id of each open gap
+        private final TreeMap<Long, Long> gaps = new TreeMap<>();
+        private long lastId = -1;
+        private long duplicates;
+        private long missing;
+
+        StreamState(int windowSize) {
+            this.seen = new BoundedLongSet(windowSize);
+        }
+
+        synchronized boolean record(long id, boolean sequential) {
+            if (!seen.add(id)) {
+                duplicates++;
+                return false;
+            }
+
+            if (sequential) {
+                if (lastId >= 0 && id > lastId + 1) {
+                    missing += id - lastId - 1;
+                    gaps.put(lastId + 1, id - 1);
+                    if (gaps.size() > MAX_GAPS) gaps.pollFirstEntry();
+                } else if (id < lastId && fillGap(id)) {
+                    // late arrival filling an earlier gap
+                    missing--;
+                }
+            }
+            if (id > lastId) lastId = id;
+            return true;
+        }
+
+        // Removes id from the gap containing it, false when it was never counted missing
+        private boolean fillGap(long id) {
+            Map.Entry<Long, Long> gap = gaps.floorEntry(id);
+            if (gap == null || id > gap.getValue()) return false;
+            long from = gap.getKey();
+            long to = gap.getValue();
+            gaps.remove(from);
+            if (from < id) gaps.put(from, id - 1);
+            if (id < to) gaps.put(id + 1, to);
+            return true;
+        }
+
+        synchronized long missing() {
+            return missing;
+        }
+
+        synchronized StreamStats stats(Exchange exchange, String symbol) {
+            return new StreamStats(exchange, symbol, lastId, duplicates, missing);
+        }
+    }
+}
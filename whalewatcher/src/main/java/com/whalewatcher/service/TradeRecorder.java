@@ -0,0 +1,12 @@
+package com.whalewatcher.service;
+
+import com.whalewatcher.domain.Trade;
+
+// Receives every deduplicated trade of the ingest path, whale or not (see TradeSegmentStore)
+public interface TradeRecorder {
+
+    TradeRecorder NONE = trade -> {};
+
+    // Called on ingest threads, must not block
+    void record(Trade trade);
+}
@@ -1,22 +1,36 @@
 package com.whalewatcher.service;
 
 import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
 import com.whalewatcher.domain.OffChainWhaleEvent;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
 @Service
 public class WhaleDetectionService {
 
+    // Swapped as a whole at runtime (see ControlEndpoint), the hot path only reads the reference
+    private final AtomicReference<WhaleThresholds> thresholds = new AtomicReference<>(WhaleThresholds.defaults());
+
     public boolean isWhale(OffChainWhaleEvent event){
-        Asset asset = event.asset();
-        double usd = event.totalUsd();
-
-        // Event thresholds based on official Whale Alert reporting limits
-        // https://whale-alert.io/whales.html
-        return switch (asset){
-            case BTC, ETH , XRP ->  usd >= 50_000_000;
-            case BNB, SOL ->  usd >= 20_000_000;
-            default -> false;
-        };
+        return isWhale(event.exchange(), event.asset(), event.totalUsd());
+    }
+
+    public boolean isWhale(Asset asset, double usd){
+        return isWhale(null, asset, usd);
+    }
+
+    public boolean isWhale(Exchange exchange, Asset asset, double usd){
+        return usd >= thresholds.get().usd(exchange, asset);
+    }
+
+    public WhaleThresholds thresholds() {
+        return thresholds.get();
+    }
+
+    public WhaleThresholds updateThresholds(UnaryOperator<WhaleThresholds> change) {
+        return thresholds.updateAndGet(change);
     }
 }
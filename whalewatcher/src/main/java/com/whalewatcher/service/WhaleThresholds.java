@@ -0,0 +1,93 @@
+package com.whalewatcher.service;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Immutable USD whale thresholds: a default per asset, optionally overridden per (exchange, asset).
+ * Changes produce a new snapshot (with/without), readers hold on to whichever snapshot they loaded.
+ */
+public final class WhaleThresholds {
+
+    private static final int ASSETS = Asset.values().length;
+    private static final double NEVER = Double.POSITIVE_INFINITY;
+
+    private final double[] defaults;
+    // [exchange * ASSETS + asset], NaN = no override
+    private final double[] overrides;
+
+    private WhaleThresholds(double[] defaults, double[] overrides) {
+        this.defaults = defaults;
+        this.overrides = overrides;
+    }
+
+    // Event thresholds based on official Whale Alert reporting limits
+    // https://whale-alert.io/whales.html
+    public static WhaleThresholds defaults() {
+        double[] defaults = new double[ASSETS];
+        for (Asset asset : Asset.values()) {
+            defaults[asset.ordinal()] = switch (asset) {
+                case BTC, ETH, XRP -> 50_000_000;
+                case BNB, SOL -> 20_000_000;
+            };
+        }
+        double[] overrides = new double[Exchange.values().length * ASSETS];
+        Arrays.fill(overrides, Double.NaN);
+        return new WhaleThresholds(defaults, overrides);
+    }
+
+    public double usd(Exchange exchange, Asset asset) {
+        if (asset == null) return NEVER;
+        if (exchange != null) {
+            double o = overrides[exchange.ordinal() * ASSETS + asset.ordinal()];
+            if (!Double.isNaN(o)) return o;
+        }
+        return defaults[asset.ordinal()];
+    }
+
+    // exchange null changes the asset's default
+    public WhaleThresholds with(Exchange exchange, Asset asset, double usd) {
+        if (!(usd > 0) || Double.isInfinite(usd)) {
+            throw new IllegalArgumentException("Threshold must be a positive USD amount: " + usd);
+        }
+        if (exchange == null) {
+            double[] d = defaults.clone();
+            d[asset.ordinal()] = usd;
+            return new WhaleThresholds(d, overrides);
+        }
+        double[] o = overrides.clone();
+        o[exchange.ordinal() * ASSETS + asset.ordinal()] = usd;
+        return new WhaleThresholds(defaults, o);
+    }
+
+    // Drops an exchange override, the asset default applies again
+    public WhaleThresholds without(Exchange exchange, Asset asset) {
+        double[] o = overrides.clone();
+        o[exchange.ordinal() * ASSETS + asset.ordinal()] = Double.NaN;
+        return new WhaleThresholds(defaults, o);
+    }
+
+    // {"defaults": {BTC: ...}, "overrides": {BINANCE: {BTC: ...}}}
+    public Map<String, Object> describe() {
+        Map<Asset, Double> d = new EnumMap<>(Asset.class);
+        for (Asset asset : Asset.values()) d.put(asset, defaults[asset.ordinal()]);
+
+        Map<Exchange, Map<Asset, Double>> o = new EnumMap<>(Exchange.class);
+        for (Exchange ex : Exchange.values()) {
+            for (Asset asset : Asset.values()) {
+                double v = overrides[ex.ordinal() * ASSETS + asset.ordinal()];
+                if (!Double.isNaN(v)) o.computeIfAbsent(ex, k -> new EnumMap<>(Asset.class)).put(asset, v);
+            }
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("defaults", d);
+        out.put("overrides", o);
+        return out;
+    }
+}
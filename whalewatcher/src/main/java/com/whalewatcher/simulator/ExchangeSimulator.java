@@ -0,0 +1,469 @@
+package com.whalewatcher.simulator;
+
+import com.sun.net.httpserver.HttpServer;
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.service.SymbolMapper;
+import jakarta.annotation.PreDestroy;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Local WebSocket server emulating the venues handled by WsMessageParser, for load testing without
+ * connecting to real exchanges. Each venue is served on its own path (ws://localhost:9100/kraken, ...)
+ * and reproduces that venue's handshake: KuCoin bullet/welcome/ping, Crypto.com heartbeats, Bitget
+ * text pings, MEXC method pings, Upbit binary frames and the subscribe acks of the others.
+ *
+ * Point the adapters at it with streams.uris.<EXCHANGE> (see application-sim.yaml).
+ */
+@Component
+@ConditionalOnProperty(prefix = "simulator", name = "enabled", havingValue = "true")
+public class ExchangeSimulator extends WebSocketServer {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeSimulator.class);
+
+    private static final Map<Asset, Double> BASE_PRICES = Map.of(
+            Asset.BTC, 65_000.0,
+            Asset.ETH, 3_200.0,
+            Asset.SOL, 150.0,
+            Asset.XRP, 0.6,
+            Asset.BNB, 600.0
+    );
+
+    // Whale sizes are drawn above WhaleDetectionService's thresholds
+    private static final Map<Asset, Double> WHALE_USD = Map.of(
+            Asset.BTC, 75_000_000.0,
+            Asset.ETH, 75_000_000.0,
+            Asset.XRP, 75_000_000.0,
+            Asset.SOL, 30_000_000.0,
+            Asset.BNB, 30_000_000.0
+    );
+
+    private static final long TICK_MS = 10;
+
+    private final SimulatorProperties props;
+    private final SymbolMapper symbolMapper;
+    private final RawWsBus bus;
+
+    private final ScheduledExecutorService scheduler =
+            Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong tradesSent = new AtomicLong();
+    private final AtomicLong whalesSent = new AtomicLong();
+
+    // First subscribed session per venue, the source of mirrored connections (mirrorConnections)
+    private final Map<Exchange, Session> leaders = new ConcurrentHashMap<>();
+
+    private volatile HttpServer bulletServer;
+    private volatile long startedAtMs;
+
+    public ExchangeSimulator(SimulatorProperties props, SymbolMapper symbolMapper, RawWsBus bus) {
+        super(new InetSocketAddress("localhost", props.getPort()));
+        this.props = props;
+        this.symbolMapper = symbolMapper;
+        this.bus = bus;
+        setReuseAddr(true);
+
+        start();
+        startBulletServer();
+        scheduler.scheduleAtFixedRate(this::report, props.getReportIntervalMs(), props.getReportIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    // Blocks until the server is listening so adapters do not race the bind
+    public void awaitStarted() {
+        try {
+            if (!started.await(5, TimeUnit.SECONDS)) {
+                log.warn("Simulator did not start within 5s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (bulletServer != null) bulletServer.stop(0);
+        try { stop(1000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    @Override
+    public void onStart() {
+        startedAtMs = System.currentTimeMillis();
+        started.countDown();
+        log.info("Exchange simulator listening on ws://localhost:{}", getPort());
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        Exchange exchange = venueFromPath(handshake.getResourceDescriptor());
+        if (exchange == null) {
+            conn.close(1008, "unknown venue path " + handshake.getResourceDescriptor());
+            return;
+        }
+
+        String resource = handshake.getResourceDescriptor();
+        Session session = new Session(exchange, conn, resource != null && resource.contains("@aggTrade"));
+        conn.setAttachment(session);
+
+        switch (exchange) {
+            // Binance subscribes through the URL
+            case BINANCE -> session.subscribe();
+            case KUCOIN -> conn.send("{\"id\":\"" + session.connectId + "\",\"type\":\"welcome\"}");
+            case CRYPTOCOM, KRAKEN, COINBASE -> session.heartbeatTask = scheduler.scheduleAtFixedRate(
+                    session::heartbeat, props.getHeartbeatMs(), props.getHeartbeatMs(), TimeUnit.MILLISECONDS);
+            default -> {}
+        }
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        Session session = conn.getAttachment();
+        if (session == null || message == null) return;
+
+        String msg = message.trim();
+        switch (session.exchange) {
+            case BITGET -> {
+                if ("ping".equals(msg)) { conn.send("pong"); return; }
+                if (msg.contains("\"subscribe\"")) {
+                    conn.send("{\"event\":\"subscribe\",\"arg\":{\"instType\":\"SPOT\",\"channel\":\"trade\"}}");
+                    session.subscribe();
+                }
+            }
+            case KUCOIN -> {
+                String id = extractString(msg, "id");
+                if (msg.contains("\"ping\"")) {
+                    conn.send("{\"id\":\"" + id + "\",\"type\":\"pong\"}");
+                } else if (msg.contains("\"subscribe\"")) {
+                    conn.send("{\"id\":\"" + id + "\",\"type\":\"ack\"}");
+                    session.subscribe();
+                }
+            }
+            case CRYPTOCOM -> {
+                if (msg.contains("public/respond-heartbeat")) {
+                    session.heartbeatsAnswered.incrementAndGet();
+                } else if (msg.contains("\"subscribe\"")) {
+                    conn.send("{\"id\":" + extractNumber(msg, "id") + ",\"method\":\"subscribe\",\"code\":0}");
+                    session.subscribe();
+                }
+            }
+            case MEXC -> {
+                if (msg.contains("\"ping\"")) {
+                    conn.send("{\"channel\":\"pong\",\"data\":" + System.currentTimeMillis() + "}");
+                } else if (msg.contains("sub.deal")) {
+                    conn.send("{\"channel\":\"rs.sub.deal\",\"data\":\"success\",\"ts\":" + System.currentTimeMillis() + "}");
+                    session.subscribe();
+                }
+            }
+            case UPBIT -> {
+                if (msg.startsWith("[") && msg.contains("ticket")) session.subscribe();
+            }
+            case COINBASE -> {
+                if (msg.contains("market_trades")) {
+                    conn.send("{\"channel\":\"subscriptions\",\"timestamp\":\"" + Instant.now()
+                            + "\",\"sequence_num\":0,\"events\":[{\"subscriptions\":{\"market_trades\":[]}}]}");
+                    session.subscribe();
+                }
+            }
+            case KRAKEN -> {
+                if (msg.contains("\"subscribe\"")) {
+                    conn.send("{\"method\":\"subscribe\",\"result\":{\"channel\":\"trade\"},\"success\":true,\"time_in\":\""
+                            + Instant.now() + "\"}");
+                    session.subscribe();
+                }
+            }
+            case BYBIT -> {
+                if (msg.contains("\"subscribe\"")) {
+                    conn.send("{\"success\":true,\"ret_msg\":\"subscribe\",\"conn_id\":\"" + session.connectId + "\",\"op\":\"subscribe\"}");
+                    session.subscribe();
+                }
+            }
+            case OKX -> {
+                if (msg.contains("\"subscribe\"")) {
+                    conn.send("{\"event\":\"subscribe\",\"arg\":{\"channel\":\"trades\"},\"connId\":\"" + session.connectId + "\"}");
+                    session.subscribe();
+                }
+            }
+            case GATE -> {
+                if (msg.contains("\"subscribe\"")) {
+                    conn.send("{\"time\":" + (System.currentTimeMillis() / 1000)
+                            + ",\"channel\":\"spot.trades\",\"event\":\"subscribe\",\"result\":{\"status\":\"success\"}}");
+                    session.subscribe();
+                }
+            }
+            default -> {}
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        Session session = conn.getAttachment();
+        if (session != null) session.cancel();
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        log.warn("Simulator error: {}", ex.getMessage());
+    }
+
+    private void startBulletServer() {
+        try {
+            HttpServer http = HttpServer.create(new InetSocketAddress("localhost", props.getHttpPort()), 0);
+            http.createContext("/api/v1/bullet-public", exchange -> {
+                byte[] body = ("{\"code\":\"200000\",\"data\":{\"token\":\"simulator\",\"instanceServers\":[{"
+                        + "\"endpoint\":\"ws://localhost:" + props.getPort() + "/kucoin\","
+                        + "\"protocol\":\"websocket\",\"encrypt\":false,\"pingInterval\":18000,\"pingTimeout\":10000}]}}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            http.start();
+            bulletServer = http;
+        } catch (Exception e) {
+            log.warn("Simulator bullet-public server failed: {}", e.getMessage());
+        }
+    }
+
+    private void report() {
+        long elapsed = System.currentTimeMillis() - startedAtMs;
+        long frames = framesSent.getAndSet(0);
+        long trades = tradesSent.getAndSet(0);
+        double seconds = props.getReportIntervalMs() / 1000.0;
+
+        log.info("Simulator: target={} frames/s/venue sent={} frames/s trades={}/s whales={} venues={} busSize={} busDropped={}",
+                props.rateAt(elapsed), Math.round(frames / seconds), Math.round(trades / seconds), whalesSent.get(),
+                getConnections().size(), bus.size(), bus.droppedCount());
+    }
+
+    private static Exchange venueFromPath(String resource) {
+        if (resource == null) return null;
+        String path = resource;
+        int q = path.indexOf('?');
+        if (q >= 0) path = path.substring(0, q);
+        path = path.replace("/", "").toUpperCase(Locale.ROOT);
+        try {
+            return Exchange.valueOf(path);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String extractString(String json, String field) {
+        String key = "\"" + field + "\":\"";
+        int i = json.indexOf(key);
+        if (i < 0) return "";
+        int end = json.indexOf('"', i + key.length());
+        return end < 0 ? "" : json.substring(i + key.length(), end);
+    }
+
+    private static String extractNumber(String json, String field) {
+        String key = "\"" + field + "\":";
+        int i = json.indexOf(key);
+        if (i < 0) return "0";
+        int start = i + key.length();
+        int end = start;
+        while (end < json.length() && (Character.isDigit(json.charAt(end)) || json.charAt(end) == '-')) end++;
+        return end > start ? json.substring(start, end) : "0";
+    }
+
+    // Per-connection generator state
+    private final class Session {
+        final Exchange exchange;
+        final WebSocket conn;
+        final String connectId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        final List<String> symbols;
+        final double[] prices;
+        final long[] tradeIds;
+        final AtomicLong heartbeatsAnswered = new AtomicLong();
+
+        // Binance @aggTrade: fills of the current taker order are merged into one frame
+        final boolean aggregate;
+        final long[] aggIds;
+        int orderSymbol;
+        int orderFillsLeft;
+        double orderQty;
+        SimulatedFrames.SimTrade orderFirstFill;
+
+        // sessions receiving copies of this session's frames
+        final List<Session> mirrors = new CopyOnWriteArrayList<>();
+
+        volatile ScheduledFuture<?> generatorTask;
+        volatile ScheduledFuture<?> heartbeatTask;
+
+        long heartbeatId;
+        long tradeCounter;
+        double carry;
+        int nextSymbol;
+
+        Session(Exchange exchange, WebSocket conn, boolean aggregate) {
+            this.exchange = exchange;
+            this.conn = conn;
+            this.aggregate = aggregate;
+            this.symbols = SimulatedFrames.SYMBOLS.get(exchange);
+            this.prices = new double[symbols.size()];
+            this.tradeIds = new long[symbols.size()];
+            this.aggIds = new long[symbols.size()];
+            for (int i = 0; i < symbols.size(); i++) {
+                Asset asset = symbolMapper.normalize(symbols.get(i), exchange);
+                prices[i] = BASE_PRICES.getOrDefault(asset, 100.0);
+                tradeIds[i] = 1_000_000L;
+            }
+        }
+
+        synchronized void subscribe() {
+            if (generatorTask != null) return;
+            if (props.isMirrorConnections()) {
+                Session leader = leaders.computeIfAbsent(exchange, ex -> this);
+                if (leader != this && leader.conn.isOpen() && leader.aggregate == aggregate) {
+                    leader.mirrors.add(this);
+                    return;
+                }
+                leaders.put(exchange, this);
+            }
+            generatorTask = scheduler.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel() {
+            if (generatorTask != null) generatorTask.cancel(false);
+            if (heartbeatTask != null) heartbeatTask.cancel(false);
+            leaders.remove(exchange, this);
+            leaders.values().forEach(l -> l.mirrors.remove(this));
+        }
+
+        private void emit(String frame) {
+            if (exchange == Exchange.UPBIT) {
+                byte[] bytes = frame.getBytes(StandardCharsets.UTF_8);
+                conn.send(bytes);
+                for (Session m : mirrors) if (m.conn.isOpen()) m.conn.send(bytes);
+            } else {
+                conn.send(frame);
+                for (Session m : mirrors) if (m.conn.isOpen()) m.conn.send(frame);
+            }
+        }
+
+        void heartbeat() {
+            if (!conn.isOpen()) return;
+            switch (exchange) {
+                case CRYPTOCOM -> conn.send("{\"id\":" + (++heartbeatId) + ",\"method\":\"public/heartbeat\",\"code\":0}");
+                case KRAKEN -> conn.send("{\"channel\":\"heartbeat\"}");
+                case COINBASE -> conn.send("{\"channel\":\"heartbeats\",\"timestamp\":\"" + Instant.now()
+                        + "\",\"sequence_num\":0,\"events\":[{\"current_time\":\"" + Instant.now()
+                        + "\",\"heartbeat_counter\":" + (++heartbeatId) + "}]}");
+                default -> {}
+            }
+        }
+
+        // Emits this tick's share of the target rate, carrying the fractional remainder forward
+        void tick() {
+            if (!conn.isOpen()) return;
+            long elapsed = System.currentTimeMillis() - startedAtMs;
+            carry += props.rateAt(elapsed) * (TICK_MS / 1000.0);
+            int frames = (int) carry;
+            carry -= frames;
+
+            int perFrame = SimulatedFrames.singleTradeFrames(exchange) ? 1 : Math.max(1, props.getTradesPerFrame());
+
+            try {
+                if (aggregate) {
+                    // the rate counts fills here, frames go out once per completed order
+                    for (int f = 0; f < frames; f++) aggregateFill();
+                    return;
+                }
+
+                for (int f = 0; f < frames; f++) {
+                    int s = nextSymbol;
+                    nextSymbol = (nextSymbol + 1) % symbols.size();
+
+                    List<SimulatedFrames.SimTrade> trades = new ArrayList<>(perFrame);
+                    for (int i = 0; i < perFrame; i++) {
+                        trades.add(nextTrade(s));
+                    }
+
+                    emit(SimulatedFrames.frame(exchange, trades));
+                    framesSent.incrementAndGet();
+                    tradesSent.addAndGet(perFrame);
+                }
+            } catch (Exception e) {
+                // connection closed mid-tick
+            }
+        }
+
+        private void aggregateFill() {
+            if (orderFillsLeft == 0) {
+                orderSymbol = nextSymbol;
+                nextSymbol = (nextSymbol + 1) % symbols.size();
+                orderFillsLeft = orderSize();
+                orderQty = 0;
+                orderFirstFill = null;
+            }
+
+            SimulatedFrames.SimTrade fill = nextTrade(orderSymbol);
+            if (orderFirstFill == null) orderFirstFill = fill;
+            orderQty += fill.qty();
+            tradesSent.incrementAndGet();
+
+            if (--orderFillsLeft == 0) {
+                SimulatedFrames.SimTrade merged = new SimulatedFrames.SimTrade(
+                        fill.symbol(), orderFirstFill.price(), Math.round(orderQty * 1e6) / 1e6,
+                        orderFirstFill.buy(), orderFirstFill.tsMs(), ++aggIds[orderSymbol]);
+                emit(SimulatedFrames.binanceAggTrade(merged, orderFirstFill.tradeId(), fill.tradeId()));
+                framesSent.incrementAndGet();
+            }
+        }
+
+        // Geometric order size with mean fillsPerOrder
+        private int orderSize() {
+            double mean = props.getFillsPerOrder();
+            if (mean <= 1.0) return 1;
+            double u = ThreadLocalRandom.current().nextDouble();
+            return 1 + (int) (Math.log(1 - u) / Math.log(1 - 1.0 / mean));
+        }
+
+        private SimulatedFrames.SimTrade nextTrade(int s) {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+            // small random walk around the base price
+            prices[s] *= 1 + (rnd.nextDouble() - 0.5) * 0.0004;
+            double price = prices[s];
+
+            Asset asset = symbolMapper.normalize(symbols.get(s), exchange);
+            double qty;
+            long whaleEvery = props.getWhaleEvery();
+            if (whaleEvery > 0 && ++tradeCounter % whaleEvery == 0) {
+                qty = WHALE_USD.getOrDefault(asset, 75_000_000.0) / price;
+                whalesSent.incrementAndGet();
+            } else {
+                // typical fill of a few thousand USD
+                qty = (-Math.log(1 - rnd.nextDouble()) * 5_000.0) / price;
+            }
+
+            return new SimulatedFrames.SimTrade(
+                    symbols.get(s),
+                    Math.round(price * 100.0) / 100.0,
+                    Math.round(qty * 1e6) / 1e6,
+                    rnd.nextBoolean(),
+                    System.currentTimeMillis(),
+                    ++tradeIds[s]
+            );
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.whalewatcher.simulator;
+
+import com.whalewatcher.domain.Exchange;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Builds trade frames in the wire format of each venue, mirroring the shapes WsMessageParser understands.
+ * Frames are assembled with a StringBuilder so the simulator itself is not the bottleneck at high rates.
+ */
+public final class SimulatedFrames {
+
+    public record SimTrade(String symbol, double price, double qty, boolean buy, long tsMs, long tradeId) {}
+
+    // Symbols each adapter subscribes to
+    public static final Map<Exchange, List<String>> SYMBOLS = Map.ofEntries(
+            Map.entry(Exchange.KRAKEN, List.of("BTC/USD", "ETH/USD", "BNB/USD", "SOL/USD", "XRP/USD")),
+            Map.entry(Exchange.BINANCE, List.of("BTCUSDT", "ETHUSDT", "BNBUSDT", "SOLUSDT", "XRPUSDT")),
+            Map.entry(Exchange.COINBASE, List.of("BTC-USD", "ETH-USD", "SOL-USD", "XRP-USD")),
+            Map.entry(Exchange.BYBIT, List.of("BTCUSDT", "ETHUSDT", "BNBUSDT", "SOLUSDT", "XRPUSDT")),
+            Map.entry(Exchange.UPBIT, List.of("USDT-BTC", "USDT-ETH", "USDT-SOL", "USDT-XRP")),
+            Map.entry(Exchange.OKX, List.of("BTC-USDT", "ETH-USDT", "BNB-USDT", "SOL-USDT", "XRP-USDT")),
+            Map.entry(Exchange.BITGET, List.of("BTCUSDT", "ETHUSDT", "BNBUSDT", "SOLUSDT", "XRPUSDT")),
+            Map.entry(Exchange.GATE, List.of("BTC_USDT", "ETH_USDT", "BNB_USDT", "SOL_USDT", "XRP_USDT")),
+            Map.entry(Exchange.KUCOIN, List.of("BTC-USDT", "ETH-USDT", "BNB-USDT", "SOL-USDT", "XRP-USDT")),
+            Map.entry(Exchange.CRYPTOCOM, List.of("BTCUSD-PERP", "ETHUSD-PERP", "SOLUSD-PERP", "XRPUSD-PERP", "BNBUSD-PERP")),
+            Map.entry(Exchange.MEXC, List.of("BTC_USDT", "ETH_USDT", "BNB_USDT", "SOL_USDT", "XRP_USDT"))
+    );
+
+    private SimulatedFrames() {}
+
+    // Venues that carry one trade per frame regardless of tradesPerFrame
+    public static boolean singleTradeFrames(Exchange exchange) {
+        return switch (exchange) {
+            case BINANCE, GATE, UPBIT, KUCOIN -> true;
+            default -> false;
+        };
+    }
+
+    // Binance @aggTrade: one message for the fills firstId..lastId of a taker order, price and qty already merged
+    public static String binanceAggTrade(SimTrade aggregate, long firstId, long lastId) {
+        return new StringBuilder(256)
+                .append("{\"stream\":\"").append(aggregate.symbol().toLowerCase()).append("@aggTrade\",\"data\":{")
+                .append("\"e\":\"aggTrade\",\"E\":").append(aggregate.tsMs())
+                .append(",\"s\":\"").append(aggregate.symbol())
+                .append("\",\"a\":").append(aggregate.tradeId())
+                .append(",\"p\":\"").append(aggregate.price())
+                .append("\",\"q\":\"").append(aggregate.qty())
+                .append("\",\"f\":").append(firstId)
+                .append(",\"l\":").append(lastId)
+                .append(",\"T\":").append(aggregate.tsMs())
+                .append(",\"m\":").append(!aggregate.buy())
+                .append(",\"M\":true}}")
+                .toString();
+    }
+
+    // All trades in a frame share the first trade's symbol, as venues push one channel per frame
+    public static String frame(Exchange exchange, List<SimTrade> trades) {
+        StringBuilder sb = new StringBuilder(256 * trades.size());
+        SimTrade first = trades.get(0);
+
+        switch (exchange) {
+            case BINANCE -> {
+                sb.append("{\"stream\":\"").append(first.symbol().toLowerCase()).append("@trade\",\"data\":{")
+                        .append("\"e\":\"trade\",\"E\":").append(first.tsMs())
+                        .append(",\"s\":\"").append(first.symbol())
+                        .append("\",\"t\":").append(first.tradeId())
+                        .append(",\"p\":\"").append(first.price())
+                        .append("\",\"q\":\"").append(first.qty())
+                        .append("\",\"T\":").append(first.tsMs())
+                        .append(",\"m\":").append(!first.buy())
+                        .append("}}");
+            }
+            case COINBASE -> {
+                sb.append("{\"channel\":\"market_trades\",\"timestamp\":\"").append(Instant.ofEpochMilli(first.tsMs()))
+                        .append("\",\"sequence_num\":").append(first.tradeId())
+                        .append(",\"events\":[{\"type\":\"update\",\"trades\":[");
+                for (int i = 0; i < trades.size(); i++) {
+                    SimTrade t = trades.get(i);
+                    if (i > 0) sb.append(',');
+                    sb.append("{\"trade_id\":\"").append(t.tradeId())
+                            .append("\",\"product_id\":\"").append(first.symbol())
+                            .append("\",\"price\":\"").append(t.price())
+                            .append("\",\"size\":\"").append(t.qty())
+                            .append("\",\"side\":\"").append(t.buy() ? "BUY" : "SELL")
+                            .append("\",\"time\":\"").append(Instant.ofEpochMilli(t.tsMs()))
+                            .append("\"}");
+                }
+                sb.append("]}]}");
+            }
+            case KRAKEN -> {
+                sb.append("{\"channel\":\"trade\",\"type\":\"update\",\"data\":[");
+                for (int i = 0; i < trades.size(); i++) {
+                    SimTrade t = trades.get(i);
+                    if (i > 0) sb.append(',');
+                    sb.append("{\"symbol\":\"").append(first.symbol())
+                            .append("\",\"side\":\"").append(t.buy() ? "buy" : "sell")
+                            .append("\",\"price\":").append(t.price())
+                            .append(",\"qty\":").append(t.qty())
+                            .append(",\"ord_type\":\"market\",\"trade_id\":").append(t.tradeId())
+                            .append(",\"timestamp\":\"").append(Instant.ofEpochMilli(t.tsMs()))
+                            .append("\"}");
+                }
+                sb.append("]}");
+            }
+            case BITGET -> {
+                sb.append("{\"action\":\"update\",\"arg\":{\"instType\":\"SPOT\",\"channel\":\"trade\",\"instId\":\"")
+                        .append(first.symbol()).append("\"},\"data\":[");
+                for (int i = 0; i < trades.size(); i++) {
+                    SimTrade t = trades.get(i);
+                    if (i > 0) sb.append(',');
+                    sb.append("{\"ts\":\"").append(t.tsMs())
+                            .append("\",\"price\":\"").append(t.price())
+                            .append("\",\"size\":\"").append(t.qty())
+                            .append("\",\"side\":\"").append(t.buy() ? "buy" : "sell")
+                            .append("\",\"tradeId\":\"").append(t.tradeId())
+                            .append("\"}");
+                }
+                sb.append("],\"ts\":").append(first.tsMs()).append('}');
+            }
+            case BYBIT -> {
+                sb.append("{\"topic\":\"publicTrade.").append(first.symbol())
+                        .append("\",\"type\":\"snapshot\",\"ts\":").append(first.tsMs()).append(",\"data\":[");
+                for (int i = 0; i < trades.size(); i++) {
+                    SimTrade t = trades.get(i);
+                    if (i > 0) sb.append(',');
+                    sb.append("{\"T\":").append(t.tsMs())
+                            .append(",\"s\":\"").append(first.symbol())
+                            .append("\",\"S\":\"").append(t.buy() ? "Buy" : "Sell")
+                            .append("\",\"v\":\"").append(t.qty())
+                            .append("\",\"p\":\"").append(t.price())
+                            .append("\",\"i\":\"").append(t.tradeId())
+                            .append("\",\"BT\":false}");
+                }
+                sb.append("]}");
+            }
+            case CRYPTOCOM -> {
+                sb.append("{\"id\":-1,\"method\":\"subscribe\",\"code\":0,\"result\":{\"channel\":\"trade\",\"instrument_name\":\"")
+                        .append(first.symbol()).append("\",\"subscription\":\"trade.").append(first.symbol())
+                        .append("\",\"data\":[");
+                for (int i = 0; i < trades.size(); i++) {
+                    SimTrade t = trades.get(i);
+                    if (i > 0) sb.append(',');
+                    sb.append("{\"d\":\"").append(t.tradeId())
+                            .append("\",\"t\":").append(t.tsMs())
+                            .append(",\"p\":\"").append(t.price())
+                            .append("\",\"q\":\"").append(t.qty())
+                            .append("\",\"s\":\"").append(t.buy() ? "BUY" : "SELL")
+                            .append("\",\"i\":\"").append(first.symbol())
+                            .append("\"}");
+                }
+                sb.append("]}}");
+            }
+            case GATE -> {
+                sb.append("{\"time\":").append(first.tsMs() / 1000)
+                        .append(",\"time_ms\":").append(first.tsMs())
+                        .append(",\"channel\":\"spot.trades\",\"event\":\"update\",\"result\":{")
+                        .append("\"id\":").append(first.tradeId())
+                        .append(",\"create_time\":").append(first.tsMs() / 1000)
+                        .append(",\"create_time_ms\":\"").append(first.tsMs()).append(".000")
+                        .append("\",\"side\":\"").append(first.buy() ? "buy" : "sell")
+                        .append("\",\"currency_pair\":\"").append(first.symbol())
+                        .append("\",\"amount\":\"").append(first.qty())
+                        .append("\",\"price\":\"").append(first.price())
+                        .append("\"}}");
+            }
+            case UPBIT -> {
+                sb.append("{\"type\":\"trade\",\"code\":\"").append(first.symbol())
+                        .append("\",\"trade_price\":").append(first.price())
+                        .append(",\"trade_volume\":").append(first.qty())
+                        .append(",\"ask_bid\":\"").append(first.buy() ? "BID" : "ASK")
+                        .append("\",\"trade_timestamp\":").append(first.tsMs())
+                        .append(",\"sequential_id\":").append(first.tradeId())
+                        .append(",\"stream_type\":\"REALTIME\"}");
+            }
+            case OKX -> {
+                sb.append("{\"arg\":{\"channel\":\"trades\",\"instId\":\"").append(first.symbol()).append("\"},\"data\":[");
+                for (int i = 0; i < trades.size(); i++) {
+                    SimTrade t = trades.get(i);
+                    if (i > 0) sb.append(',');
+                    sb.append("{\"instId\":\"").append(first.symbol())
+                            .append("\",\"tradeId\":\"").append(t.tradeId())
+                            .append("\",\"px\":\"").append(t.price())
+                            .append("\",\"sz\":\"").append(t.qty())
+                            .append("\",\"side\":\"").append(t.buy() ? "buy" : "sell")
+                            .append("\",\"ts\":\"").append(t.tsMs())
+                            .append("\"}");
+                }
+                sb.append("]}");
+            }
+            case MEXC -> {
+                sb.append("{\"channel\":\"push.deal\",\"data\":[");
+                for (int i = 0; i < trades.size(); i++) {
+                    SimTrade t = trades.get(i);
+                    if (i > 0) sb.append(',');
+                    sb.append("{\"M\":1,\"O\":1,\"T\":").append(t.buy() ? 1 : 2)
+                            .append(",\"p\":").append(t.price())
+                            .append(",\"t\":").append(t.tsMs())
+                            .append(",\"v\":").append(t.qty())
+                            .append('}');
+                }
+                sb.append("],\"symbol\":\"").append(first.symbol()).append("\",\"ts\":").append(first.tsMs()).append('}');
+            }
+            case KUCOIN -> {
+                sb.append("{\"type\":\"message\",\"topic\":\"/market/match:").append(first.symbol())
+                        .append("\",\"subject\":\"trade.l3match\",\"data\":{")
+                        .append("\"price\":\"").append(first.price())
+                        .append("\",\"sequence\":\"").append(first.tradeId())
+                        .append("\",\"side\":\"").append(first.buy() ? "buy" : "sell")
+                        .append("\",\"size\":\"").append(first.qty())
+                        .append("\",\"symbol\":\"").append(first.symbol())
+                        .append("\",\"time\":\"").append(first.tsMs() * 1_000_000L)
+                        .append("\",\"tradeId\":\"").append(first.tradeId())
+                        .append("\",\"type\":\"match\"}}");
+            }
+        }
+        return sb.toString();
+    }
+}
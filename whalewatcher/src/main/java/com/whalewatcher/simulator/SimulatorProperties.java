@@ -0,0 +1,111 @@
+package com.whalewatcher.simulator;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/*
+ * Settings for the local exchange simulator used for load testing the ingest path.
+ *
+ * Rates are per connected venue. The effective rate is ratePerSecond, raised by rampStepPerSecond every
+ * rampIntervalMs (when ramping is enabled) and multiplied by burstMultiplier during a burst window.
+ */
+@Component
+@ConfigurationProperties(prefix = "simulator")
+public class SimulatorProperties {
+
+    private boolean enabled = false;
+
+    // WebSocket port, venues are selected by path (ws://localhost:9100/binance, /kraken, ...)
+    private int port = 9100;
+
+    // HTTP port serving KuCoin's bullet-public endpoint
+    private int httpPort = 9101;
+
+    private int ratePerSecond = 200;
+
+    // Trades per frame for venues that batch (Coinbase, Kraken, Bitget, Bybit, Crypto.com, OKX, MEXC)
+    private int tradesPerFrame = 1;
+
+    // Mean fills per taker order. Binance @aggTrade sessions merge an order's fills into one frame,
+    // @trade sessions send each fill (ratePerSecond counts fills for Binance)
+    private double fillsPerOrder = 1.0;
+
+    // Burst profile: every burstEveryMs the rate is multiplied for burstDurationMs (0 disables bursts)
+    private int burstMultiplier = 10;
+    private long burstEveryMs = 30_000;
+    private long burstDurationMs = 2_000;
+
+    // Linear ramp to find the sustainable rate (0 disables ramping)
+    private int rampStepPerSecond = 0;
+    private long rampIntervalMs = 10_000;
+
+    // One in whaleEvery trades is sized above the whale threshold (0 disables injection)
+    private long whaleEvery = 10_000;
+
+    // Crypto.com / Kraken heartbeat interval
+    private long heartbeatMs = 30_000;
+
+    private long reportIntervalMs = 5_000;
+
+    // Further connections to a venue that is already being served receive copies of the first connection's
+    // frames instead of their own trades, like a replicated feed (exercises streams.redundancy)
+    private boolean mirrorConnections = false;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getPort() { return port; }
+    public void setPort(int port) { this.port = port; }
+
+    public int getHttpPort() { return httpPort; }
+    public void setHttpPort(int httpPort) { this.httpPort = httpPort; }
+
+    public int getRatePerSecond() { return ratePerSecond; }
+    public void setRatePerSecond(int ratePerSecond) { this.ratePerSecond = ratePerSecond; }
+
+    public int getTradesPerFrame() { return tradesPerFrame; }
+    public void setTradesPerFrame(int tradesPerFrame) { this.tradesPerFrame = tradesPerFrame; }
+
+    public double getFillsPerOrder() { return fillsPerOrder; }
+    public void setFillsPerOrder(double fillsPerOrder) { this.fillsPerOrder = fillsPerOrder; }
+
+    public int getBurstMultiplier() { return burstMultiplier; }
+    public void setBurstMultiplier(int burstMultiplier) { this.burstMultiplier = burstMultiplier; }
+
+    public long getBurstEveryMs() { return burstEveryMs; }
+    public void setBurstEveryMs(long burstEveryMs) { this.burstEveryMs = burstEveryMs; }
+
+    public long getBurstDurationMs() { return burstDurationMs; }
+    public void setBurstDurationMs(long burstDurationMs) { this.burstDurationMs = burstDurationMs; }
+
+    public int getRampStepPerSecond() { return rampStepPerSecond; }
+    public void setRampStepPerSecond(int rampStepPerSecond) { this.rampStepPerSecond = rampStepPerSecond; }
+
+    public long getRampIntervalMs() { return rampIntervalMs; }
+    public void setRampIntervalMs(long rampIntervalMs) { this.rampIntervalMs = rampIntervalMs; }
+
+    public long getWhaleEvery() { return whaleEvery; }
+    public void setWhaleEvery(long whaleEvery) { this.whaleEvery = whaleEvery; }
+
+    public long getHeartbeatMs() { return heartbeatMs; }
+    public void setHeartbeatMs(long heartbeatMs) { this.heartbeatMs = heartbeatMs; }
+
+    public long getReportIntervalMs() { return reportIntervalMs; }
+    public void setReportIntervalMs(long reportIntervalMs) { this.reportIntervalMs = reportIntervalMs; }
+
+    public boolean isMirrorConnections() { return mirrorConnections; }
+    public void setMirrorConnections(boolean mirrorConnections) { this.mirrorConnections = mirrorConnections; }
+
+    // Target frames per second at the given time since start
+    public int rateAt(long elapsedMs) {
+        long rate = ratePerSecond;
+        if (rampStepPerSecond > 0 && rampIntervalMs > 0) {
+            rate += (elapsedMs / rampIntervalMs) * rampStepPerSecond;
+        }
+        if (burstEveryMs > 0 && burstDurationMs > 0 && burstMultiplier > 1
+                && (elapsedMs % burstEveryMs) >= burstEveryMs - burstDurationMs) {
+            rate *= burstMultiplier;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, rate);
+    }
+}
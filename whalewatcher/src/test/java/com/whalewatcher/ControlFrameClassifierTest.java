@@ -0,0 +1,72 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.websocket.ControlFrameClassifier;
+import com.whalewatcher.ingest.offchain.websocket.ControlFrameClassifier.Kind;
+import com.whalewatcher.simulator.SimulatedFrames;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Control frames must be recognized on the IO thread, and no trade frame may ever be mistaken for one.
+ */
+class ControlFrameClassifierTest {
+
+    @Test
+    void everyVenueTradeFrame_isData(){
+        for (Exchange exchange : Exchange.values()) {
+            String symbol = SimulatedFrames.SYMBOLS.get(exchange).get(0);
+            String raw = SimulatedFrames.frame(exchange, List.of(
+                    new SimulatedFrames.SimTrade(symbol, 42000.5, 0.25, true, 1700000000123L, 1001)));
+
+            assertEquals(Kind.DATA, ControlFrameClassifier.classify(exchange, raw), exchange.name());
+        }
+    }
+
+    @Test
+    void kucoin_controlFrames(){
+        assertEquals(Kind.WELCOME, ControlFrameClassifier.classify(Exchange.KUCOIN, "{\"id\":\"hQvf8jkno\",\"type\":\"welcome\"}"));
+        assertEquals(Kind.PONG, ControlFrameClassifier.classify(Exchange.KUCOIN, "{\"id\":\"1545910590801\",\"type\":\"pong\"}"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.KUCOIN, "{\"id\":\"1545910660739\",\"type\":\"ack\"}"));
+        assertEquals(Kind.IGNORED, ControlFrameClassifier.classify(Exchange.KUCOIN,
+                "{\"type\":\"message\",\"topic\":\"/market/ticker:BTC-USDT\",\"subject\":\"trade.ticker\",\"data\":{}}"));
+    }
+
+    @Test
+    void cryptocom_heartbeat_exposesId(){
+        String hb = "{\"id\":1587523073344,\"method\":\"public/heartbeat\",\"code\":0}";
+
+        assertEquals(Kind.HEARTBEAT, ControlFrameClassifier.classify(Exchange.CRYPTOCOM, hb));
+        assertEquals(1587523073344L, ControlFrameClassifier.longField(hb, "id"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.CRYPTOCOM, "{\"id\":1,\"method\":\"subscribe\",\"code\":0}"));
+    }
+
+    @Test
+    void heartbeatsAndAcks_ofOtherVenues(){
+        assertEquals(Kind.PONG, ControlFrameClassifier.classify(Exchange.BITGET, "pong"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.BITGET,
+                "{\"event\":\"subscribe\",\"arg\":{\"instType\":\"SPOT\",\"channel\":\"trade\"}}"));
+        assertEquals(Kind.PONG, ControlFrameClassifier.classify(Exchange.MEXC, "{\"channel\":\"pong\",\"data\":1700000000000}"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.MEXC, "{\"channel\":\"rs.sub.deal\",\"data\":\"success\"}"));
+        assertEquals(Kind.HEARTBEAT, ControlFrameClassifier.classify(Exchange.KRAKEN, "{\"channel\":\"heartbeat\"}"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.KRAKEN,
+                "{\"method\":\"subscribe\",\"result\":{\"channel\":\"trade\"},\"success\":true}"));
+        assertEquals(Kind.HEARTBEAT, ControlFrameClassifier.classify(Exchange.COINBASE,
+                "{\"channel\":\"heartbeats\",\"timestamp\":\"2024-01-01T00:00:00Z\",\"events\":[]}"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.BYBIT,
+                "{\"success\":true,\"ret_msg\":\"subscribe\",\"conn_id\":\"abc\",\"op\":\"subscribe\"}"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.OKX,
+                "{\"event\":\"subscribe\",\"arg\":{\"channel\":\"trades\"},\"connId\":\"a4d3ae55\"}"));
+        assertEquals(Kind.ACK, ControlFrameClassifier.classify(Exchange.BINANCE, "{\"result\":null,\"id\":1}"));
+        assertEquals(Kind.HEARTBEAT, ControlFrameClassifier.classify(Exchange.UPBIT, "{\"status\":\"UP\"}"));
+    }
+
+    @Test
+    void blankFrames_areIgnored(){
+        assertEquals(Kind.IGNORED, ControlFrameClassifier.classify(Exchange.BINANCE, " "));
+        assertEquals(Kind.IGNORED, ControlFrameClassifier.classify(Exchange.BINANCE, null));
+    }
+}
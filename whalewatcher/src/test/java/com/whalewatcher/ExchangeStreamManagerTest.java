@@ -0,0 +1,151 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.websocket.ExchangeStreamManager;
+import com.whalewatcher.ingest.offchain.websocket.ExchangeStreamer;
+import com.whalewatcher.ingest.offchain.websocket.JitWarmup;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.ingest.offchain.websocket.RedundantFeedMerger;
+import com.whalewatcher.ingest.offchain.websocket.StreamProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ExchangeStreamManagerTest {
+
+    private final RawWsBus bus = new RawWsBus();
+    private final StreamProperties props = new StreamProperties();
+    private final JitWarmup warmup = mock(JitWarmup.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExchangeStreamManager manager;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (manager != null) manager.stopAll();
+    }
+
+    @Test
+    void startEnabled_returnsWhileSlowStreamsAreStillConnecting() throws Exception {
+        FakeStreamer slow = new FakeStreamer(Exchange.KUCOIN, release);
+        FakeStreamer fast = new FakeStreamer(Exchange.KRAKEN, null);
+        manager = manager(List.of(slow, fast), Exchange.KUCOIN, Exchange.KRAKEN);
+
+        manager.startEnabled();
+
+        // the blocked KuCoin start holds up neither the caller nor Kraken
+        assertTrue(fast.started.await(2, TimeUnit.SECONDS));
+        assertTrue(slow.entered.await(2, TimeUnit.SECONDS));
+        assertEquals(1, slow.started.getCount());
+    }
+
+    @Test
+    void firstTradeFrame_recordsTimeToFirstTrade() throws Exception {
+        FakeStreamer kraken = new FakeStreamer(Exchange.KRAKEN, null);
+        manager = manager(List.of(kraken), Exchange.KRAKEN);
+
+        manager.startEnabled();
+        assertTrue(kraken.started.await(2, TimeUnit.SECONDS));
+        assertTrue(Double.isNaN(manager.timeToFirstTradeMs(Exchange.KRAKEN)));
+
+        Thread.sleep(20);
+        bus.publish(Exchange.KRAKEN, "{\"channel\":\"trade\"}");
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (Double.isNaN(manager.timeToFirstTradeMs(Exchange.KRAKEN)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(manager.timeToFirstTradeMs(Exchange.KRAKEN) >= 20);
+        assertTrue(Double.isNaN(manager.timeToFirstTradeMs(Exchange.BINANCE)));
+    }
+
+    @Test
+    void enabledWarmup_runsBeforeAnyStreamConnects() throws Exception {
+        CountDownLatch warming = new CountDownLatch(1);
+        doAnswer(inv -> {
+            warming.countDown();
+            release.await();
+            return null;
+        }).when(warmup).run(anyList());
+        props.getWarmup().setEnabled(true);
+        FakeStreamer kraken = new FakeStreamer(Exchange.KRAKEN, null);
+        manager = manager(List.of(kraken), Exchange.KRAKEN);
+
+        manager.startEnabled();
+
+        assertTrue(warming.await(2, TimeUnit.SECONDS));
+        assertFalse(kraken.entered.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(kraken.started.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void stopAllWhileConnecting_closesTheConnectionOnceConnected() throws Exception {
+        FakeStreamer slow = new FakeStreamer(Exchange.KUCOIN, release);
+        manager = manager(List.of(slow));
+
+        Thread starting = Thread.ofVirtual().start(() -> manager.start(Exchange.KUCOIN));
+        assertTrue(slow.entered.await(2, TimeUnit.SECONDS));
+        manager.stopAll();
+        release.countDown();
+        starting.join(2_000);
+
+        assertTrue(slow.started.await(2, TimeUnit.SECONDS));
+        assertFalse(slow.live, "connection opened after stopAll must be closed");
+        assertEquals(Set.of(), manager.running());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ExchangeStreamManager manager(List<ExchangeStreamer> streamers, Exchange... enabled) {
+        props.setEnabled(List.of(enabled));
+        return new ExchangeStreamManager(streamers, props, mock(ObjectProvider.class), bus,
+                new RedundantFeedMerger(List.of(), 16), warmup);
+    }
+
+    private static final class FakeStreamer implements ExchangeStreamer {
+        final Exchange exchange;
+        final CountDownLatch block;
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile boolean live;
+
+        FakeStreamer(Exchange exchange, CountDownLatch block) {
+            this.exchange = exchange;
+            this.block = block;
+        }
+
+        @Override
+        public Exchange exchange() { return exchange; }
+
+        @Override
+        public void start() {
+            entered.countDown();
+            try {
+                if (block != null) block.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            live = true;
+            started.countDown();
+        }
+
+        @Override
+        public void stop() {
+            live = false;
+        }
+
+        @Override
+        public ExchangeStreamer newConnection(int connection) { return new FakeStreamer(exchange, block); }
+    }
+}
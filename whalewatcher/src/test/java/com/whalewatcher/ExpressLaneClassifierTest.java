@@ -0,0 +1,77 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.websocket.ExpressLaneClassifier;
+import com.whalewatcher.simulator.SimulatedFrames;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The express lane classifier reads size and price without parsing JSON, so it is checked
+ * against every venue's frame shape.
+ */
+class ExpressLaneClassifierTest {
+
+    private final ExpressLaneClassifier classifier = new ExpressLaneClassifier(20_000_000, List.of());
+
+    private static String frame(Exchange exchange, double qty) {
+        String symbol = SimulatedFrames.SYMBOLS.get(exchange).get(0);
+        return SimulatedFrames.frame(exchange, List.of(
+                new SimulatedFrames.SimTrade(symbol, 65000.0, 0.5, true, 1700000000123L, 1),
+                new SimulatedFrames.SimTrade(symbol, 65000.0, qty, false, 1700000000456L, 2)
+        ));
+    }
+
+    @Test
+    void smallFills_stayInNormalLane(){
+        for (Exchange exchange : Exchange.values()) {
+            assertFalse(classifier.isExpress(exchange, frame(exchange, 1.0)), exchange.name());
+        }
+    }
+
+    @Test
+    void whaleSizedFill_isExpressOnEveryVenue(){
+        for (Exchange exchange : Exchange.values()) {
+            // single-trade venues only carry the first trade, so size that one up
+            String symbol = SimulatedFrames.SYMBOLS.get(exchange).get(0);
+            String raw = SimulatedFrames.frame(exchange, List.of(
+                    new SimulatedFrames.SimTrade(symbol, 1.0, 0.5, true, 1700000000123L, 1),
+                    new SimulatedFrames.SimTrade(symbol, 65000.0, 400.0, false, 1700000000456L, 2)
+            ));
+            String whale = SimulatedFrames.singleTradeFrames(exchange)
+                    ? SimulatedFrames.frame(exchange, List.of(new SimulatedFrames.SimTrade(symbol, 65000.0, 400.0, true, 1700000000123L, 1)))
+                    : raw;
+
+            assertTrue(classifier.isExpress(exchange, whale), exchange.name());
+        }
+    }
+
+    @Test
+    void sizeIsPairedWithPriceOfSameTrade(){
+        // large qty at a tiny price next to a small qty at a high price, neither is a whale
+        String raw = """
+        {"channel":"trade","data":[
+            {"symbol":"XRP/USD","price":0.0001,"qty":50000000},
+            {"symbol":"BTC/USD","price":65000.0,"qty":1.0}
+        ]}
+        """;
+
+        assertFalse(classifier.isExpress(Exchange.KRAKEN, raw));
+    }
+
+    @Test
+    void configuredSymbol_isAlwaysExpress(){
+        ExpressLaneClassifier bySymbol = new ExpressLaneClassifier(20_000_000, List.of("SOLUSDT"));
+
+        assertTrue(bySymbol.isExpress(Exchange.BYBIT, frame(Exchange.BYBIT, 1.0).replace("BTCUSDT", "SOLUSDT")));
+        assertFalse(bySymbol.isExpress(Exchange.BYBIT, frame(Exchange.BYBIT, 1.0)));
+    }
+
+    @Test
+    void disabled_neverSelectsExpress(){
+        assertFalse(ExpressLaneClassifier.disabled().isExpress(Exchange.BINANCE, frame(Exchange.BINANCE, 1_000_000)));
+    }
+}
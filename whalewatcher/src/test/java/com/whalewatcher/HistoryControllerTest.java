@@ -0,0 +1,106 @@
+package com.whalewatcher;
+
+import com.whalewatcher.controller.HistoryController;
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.persistence.HistoryCursor;
+import com.whalewatcher.persistence.HistoryPage;
+import com.whalewatcher.persistence.WhaleHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = HistoryController.class, properties = "whalewatcher.persistence.enabled=true")
+class HistoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private WhaleHistory history;
+
+    private static OffChainWhaleEvent event(int n) {
+        return new OffChainWhaleEvent("id-" + n, Exchange.BINANCE, Asset.BTC, "BUY", 65_000, 1_000, 65_000_000, n);
+    }
+
+    @Test
+    void page_returnsNextCursorInHeader_andTakesItBack() throws Exception {
+        HistoryCursor next = new HistoryCursor(2, List.of("id-2"));
+        when(history.offChain(eq(Asset.BTC), isNull(), any(), isNull(), eq(2)))
+                .thenReturn(new HistoryPage<>(List.of(event(3), event(2)), next));
+        when(history.offChain(eq(Asset.BTC), isNull(), any(), eq(next), eq(2)))
+                .thenReturn(new HistoryPage<>(List.of(event(1)), null));
+
+        mockMvc.perform(get("/offchain/history").param("asset", "BTC").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Whale-Next-Cursor", next.encode()))
+                .andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(get("/offchain/history").param("asset", "BTC").param("limit", "2").param("before", next.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Whale-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value("id-1"));
+    }
+
+    @Test
+    void badCursorOrRange_isRejected() throws Exception {
+        mockMvc.perform(get("/offchain/history").param("before", "%%%")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/onchain/history").param("since", "10").param("until", "5")).andExpect(status().isBadRequest());
+        verifyNoInteractions(history);
+    }
+
+    @Test
+    void cursorFromTheOtherHistory_isRejected() throws Exception {
+        String offChain = new HistoryCursor(2, List.of("id-2")).encode();
+        String onChain = new HistoryCursor(2, List.of("ETHEREUM", "0xabc")).encode();
+
+        mockMvc.perform(get("/onchain/history").param("before", offChain)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/offchain/history").param("before", onChain)).andExpect(status().isBadRequest());
+        verifyNoInteractions(history);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void export_streamsOneJsonObjectPerLine() throws Exception {
+        when(history.exportOffChain(isNull(), eq(Exchange.BINANCE), isNull(), any())).thenAnswer(inv -> {
+            Consumer<OffChainWhaleEvent> sink = inv.getArgument(3);
+            for (int i = 3; i > 0; i--) sink.accept(event(i));
+            return 3L;
+        });
+
+        MvcResult started = mockMvc.perform(get("/offchain/history/export").param("exchange", "BINANCE"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult done = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn();
+
+        String body = done.getResponse().getContentAsString();
+        assertTrue(body.endsWith("}\n"));
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            // every line is exactly one object, nothing before or after it
+            assertTrue(lines[i].startsWith("{\"id\":\"id-" + (3 - i) + "\""), lines[i]);
+            assertTrue(lines[i].endsWith("}"), lines[i]);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.infrastructure.jfr.JfrEvents;
+import com.whalewatcher.infrastructure.jfr.WhaleDetectedEvent;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.ingest.offchain.websocket.WsMessageParser;
+import com.whalewatcher.simulator.SimulatedFrames;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The custom events must show up in a recording with the fields needed to line
+ * stages up against GC and safepoint pauses.
+ */
+class JfrEventsTest {
+
+    @Test
+    void registeredEvents_areRecordedWithTheirFields(@TempDir Path dir) throws Exception {
+        JfrEvents.register();
+
+        String raw = SimulatedFrames.frame(Exchange.OKX, List.of(
+                new SimulatedFrames.SimTrade("BTC-USDT", 42000.5, 0.25, true, 1700000000123L, 1001)));
+
+        Path file = dir.resolve("ingest.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("whalewatcher.FrameReceived");
+            recording.enable("whalewatcher.FrameParse").withThreshold(Duration.ZERO);
+            recording.enable("whalewatcher.WhaleDetected");
+            recording.start();
+
+            new RawWsBus().publish(Exchange.OKX, raw);
+            new WsMessageParser().parse(Exchange.OKX, raw);
+            WhaleDetectedEvent.emit(new OffChainWhaleEvent("id", Exchange.OKX, Asset.BTC, "buy",
+                    100_000, 500, 50_000_000, System.currentTimeMillis()));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        RecordedEvent received = only(events, "whalewatcher.FrameReceived");
+        assertEquals("OKX", received.getString("exchange"));
+        assertEquals(raw.length(), received.getInt("size"));
+
+        RecordedEvent parse = only(events, "whalewatcher.FrameParse");
+        assertEquals("OKX", parse.getString("exchange"));
+        assertEquals(1, parse.getInt("trades"));
+
+        RecordedEvent whale = only(events, "whalewatcher.WhaleDetected");
+        assertEquals("BTC", whale.getString("asset"));
+        assertEquals(50_000_000, whale.getDouble("totalUsd"), 1e-6);
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,63 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.websocket.JitWarmup;
+import com.whalewatcher.ingest.offchain.websocket.StreamProperties;
+import com.whalewatcher.ingest.offchain.websocket.WsMessageParser;
+import com.whalewatcher.service.NormalizationService;
+import com.whalewatcher.service.SymbolMapper;
+import com.whalewatcher.service.WhaleDetectionService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JitWarmupTest {
+
+    private final StreamProperties props = new StreamProperties();
+    private final WsMessageParser parser = new WsMessageParser();
+
+    private JitWarmup warmup() {
+        SymbolMapper symbolMapper = new SymbolMapper();
+        WhaleDetectionService detection = new WhaleDetectionService();
+        return new JitWarmup(parser, new NormalizationService(symbolMapper, detection), detection, symbolMapper, props);
+    }
+
+    @Test
+    void disabled_isANoOp() {
+        JitWarmup warmup = warmup();
+
+        assertNull(warmup.run(List.of(Exchange.KRAKEN)));
+        assertTrue(Double.isNaN(warmup.warmupMs()));
+    }
+
+    @Test
+    void enabled_runsRoundsUntilSettledOrDeadline_andReportsLatency() {
+        props.getWarmup().setEnabled(true);
+        props.getWarmup().setFramesPerExchange(32);
+        props.getWarmup().setMinRounds(3);
+        props.getWarmup().setMaxMs(2_000);
+        JitWarmup warmup = warmup();
+
+        JitWarmup.Report report = warmup.run(List.of(Exchange.BINANCE, Exchange.COINBASE, Exchange.KUCOIN));
+
+        assertNotNull(report);
+        assertTrue(report.rounds() >= 3);
+        assertEquals(report.rounds() * 96L, report.frames());
+        assertTrue(report.steadyNsPerFrame() > 0);
+        assertTrue(report.elapsedMs() <= 2_000 + 500);
+        assertEquals(report.elapsedMs(), warmup.warmupMs());
+    }
+
+    @Test
+    void fixtureFramesOfEveryVenue_parseToTrades() {
+        props.getWarmup().setEnabled(true);
+        List<Exchange> all = List.of(Exchange.values());
+
+        for (var fixture : warmup().corpus(all, 8)) {
+            assertFalse(parser.parse(fixture.exchange(), fixture.raw()).isEmpty(),
+                    () -> "no trades parsed from " + fixture.exchange() + " fixture " + fixture.raw());
+        }
+    }
+}
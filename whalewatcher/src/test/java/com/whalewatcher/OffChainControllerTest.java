@@ -4,6 +4,9 @@ import com.whalewatcher.controller.OffChainController;
 import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.Exchange;
 import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.repository.CursorPage;
+import com.whalewatcher.repository.RingWhaleRepository;
+import com.whalewatcher.repository.TimeRange;
 import com.whalewatcher.repository.WhaleEventRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +14,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 
@@ -195,4 +205,90 @@ public class OffChainControllerTest {
 
         verifyNoInteractions(whaleEventRepository);
     }
-}
\ No newline at end of file
+
+    // since / until
+
+    @Test
+    void getAllWhales_withSince_queriesTheTimeRange() throws Exception {
+        when(whaleEventRepository.getAll(new TimeRange(17_000_000, Long.MAX_VALUE), 100))
+                .thenReturn(List.of(btcBinanceBuy));
+
+        mockMvc.perform(get("/offchain/whales").param("since", "17000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("1"));
+
+        verify(whaleEventRepository).getAll(new TimeRange(17_000_000, Long.MAX_VALUE), 100);
+        verifyNoMoreInteractions(whaleEventRepository);
+    }
+
+    @Test
+    void getWhalesByAssetAndExchange_withSinceAndUntil_queriesTheTimeRange() throws Exception {
+        when(whaleEventRepository.getByAssetAndExchange(Asset.BTC, Exchange.BINANCE, new TimeRange(1, 2), 5))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/offchain/whales/asset/BTC/exchange/BINANCE")
+                        .param("since", "1").param("until", "2").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        verify(whaleEventRepository).getByAssetAndExchange(Asset.BTC, Exchange.BINANCE, new TimeRange(1, 2), 5);
+        verifyNoMoreInteractions(whaleEventRepository);
+    }
+
+    @Test
+    void getWhalesByExchange_returns400WhenSinceIsAfterUntil() throws Exception {
+        mockMvc.perform(get("/offchain/whales/exchange/BINANCE").param("since", "5").param("until", "4"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(whaleEventRepository);
+    }
+
+    // after / wait
+
+    @Test
+    void getAllWhales_afterCursor_returnsNewerEventsAndTheNextCursor() throws Exception {
+        RingWhaleRepository ring = new RingWhaleRepository(16);
+        ring.save(btcBinanceBuy);
+        ring.save(ethKrakenSell);
+        when(whaleEventRepository.signal()).thenReturn(ring.signal());
+        when(whaleEventRepository.getAllAfter(1, 100)).thenReturn(ring.getAllAfter(1, 100));
+
+        MvcResult started = mockMvc.perform(get("/offchain/whales").param("after", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Whale-Cursor", "2"))
+                .andExpect(header().string("X-Whale-Missed", "0"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("2"));
+    }
+
+    @Test
+    void getWhalesByAsset_longPoll_answersOnceAMatchingEventIsSaved() throws Exception {
+        RingWhaleRepository ring = new RingWhaleRepository(16);
+        ring.save(btcBinanceBuy);
+        when(whaleEventRepository.signal()).thenReturn(ring.signal());
+        when(whaleEventRepository.getAllByAssetAfter(eq(Asset.ETH), anyLong(), anyInt()))
+                .thenAnswer(inv -> ring.getAllByAssetAfter(Asset.ETH, inv.getArgument(1), inv.getArgument(2)));
+
+        MvcResult started = mockMvc.perform(get("/offchain/whales/asset/ETH").param("after", "0").param("wait", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, ring.signal().waiting());
+
+        // another BTC whale does not answer the ETH poll, the ETH one does
+        ring.save(btcBinanceBuy);
+        assertEquals(1, ring.signal().waiting());
+        ring.save(ethKrakenSell);
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Whale-Cursor", "1"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].asset").value("ETH"));
+        assertEquals(0, ring.signal().waiting());
+    }
+}
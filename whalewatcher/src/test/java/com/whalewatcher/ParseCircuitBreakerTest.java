@@ -0,0 +1,142 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.infrastructure.health.ParseBreakerHealthIndicator;
+import com.whalewatcher.ingest.offchain.websocket.ParseBreakerProperties;
+import com.whalewatcher.ingest.offchain.websocket.ParseCircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A venue that changes its message format must be shed to a trickle of samples,
+ * without affecting the other venues, and recover once its frames parse again.
+ */
+class ParseCircuitBreakerTest {
+
+    // test clock, advanced past the window instead of sleeping
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private ParseCircuitBreaker breaker() {
+        ParseBreakerProperties props = new ParseBreakerProperties();
+        props.setWindowMs(50);
+        props.setMinFrames(20);
+        props.setSampleEvery(10);
+        props.setMinSampledFrames(3);
+        props.setQuarantineSize(4);
+        return new ParseCircuitBreaker(props, now::get);
+    }
+
+    // reports frames, then lets the window elapse
+    private void feed(ParseCircuitBreaker b, Exchange ex, boolean ok, int frames) {
+        for (int i = 0; i < frames; i++) {
+            if (!b.admit(ex)) continue;
+            if (ok) b.accepted(ex);
+            else b.rejected(ex, "{\"v2\":" + i + "}", i % 2 == 0 ? null : new IllegalStateException("bad"));
+        }
+        now.addAndGet(60);
+    }
+
+    @Test
+    void tripsOnHighRejectRate_andSamplesWhileOpen() {
+        ParseCircuitBreaker b = breaker();
+
+        feed(b, Exchange.OKX, false, 100);
+        b.rejected(Exchange.OKX, "{\"v2\":\"last\"}", null); // evaluates the window
+
+        assertTrue(b.isOpen(Exchange.OKX));
+        assertFalse(b.isOpen(Exchange.BINANCE));
+
+        int admitted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (b.admit(Exchange.OKX)) admitted++;
+        }
+        assertEquals(100, admitted);
+        assertEquals(900, b.skippedCount(Exchange.OKX));
+        assertTrue(b.admit(Exchange.BINANCE));
+    }
+
+    @Test
+    void lowRejectRate_orTooFewFrames_doesNotTrip() {
+        ParseCircuitBreaker b = breaker();
+
+        for (int i = 0; i < 50; i++) {
+            if (i % 5 == 0) b.rejected(Exchange.GATE, "{}", null);
+            else b.accepted(Exchange.GATE);
+        }
+        feed(b, Exchange.KRAKEN, false, 10);
+        now.addAndGet(60);
+        b.accepted(Exchange.GATE);
+        b.rejected(Exchange.KRAKEN, "{}", null);
+
+        assertFalse(b.isOpen(Exchange.GATE));
+        assertFalse(b.isOpen(Exchange.KRAKEN));
+    }
+
+    @Test
+    void quarantinesRejectedSamples_andReportsDegradedHealth() {
+        ParseCircuitBreaker b = breaker();
+        ParseBreakerHealthIndicator health = new ParseBreakerHealthIndicator(b);
+        assertEquals(Status.UP, health.health().getStatus());
+
+        feed(b, Exchange.MEXC, false, 100);
+        b.rejected(Exchange.MEXC, "{\"v2\":\"trip\"}", null);
+        for (int i = 0; i < 100; i++) {
+            if (b.admit(Exchange.MEXC)) b.rejected(Exchange.MEXC, "x".repeat(5_000), new IllegalStateException("schema"));
+        }
+
+        ParseCircuitBreaker.State state = b.state(Exchange.MEXC);
+        assertEquals(4, state.quarantine().size());
+        assertEquals(1_024, state.quarantine().get(3).frame().length());
+        assertEquals("IllegalStateException: schema", state.quarantine().get(3).reason());
+
+        Health h = health.health();
+        assertEquals(ParseBreakerHealthIndicator.DEGRADED, h.getStatus());
+        assertTrue(h.getDetails().containsKey("MEXC"));
+    }
+
+    @Test
+    void closesOnceSampledFramesParseAgain() {
+        ParseCircuitBreaker b = breaker();
+        feed(b, Exchange.BYBIT, false, 100);
+        b.rejected(Exchange.BYBIT, "{}", null);
+        assertTrue(b.isOpen(Exchange.BYBIT));
+
+        // fixed feed: only the sampled frames reach the parser
+        feed(b, Exchange.BYBIT, true, 100);
+        b.accepted(Exchange.BYBIT);
+
+        assertFalse(b.isOpen(Exchange.BYBIT));
+        assertEquals(1, b.state(Exchange.BYBIT).trips());
+    }
+
+    @Test
+    void lowRateVenue_closesOnceEnoughSamplesAddUpAcrossWindows() {
+        ParseCircuitBreaker b = breaker();
+        feed(b, Exchange.BITGET, false, 100);
+        b.rejected(Exchange.BITGET, "{}", null);
+        assertTrue(b.isOpen(Exchange.BITGET));
+
+        // 10 frames per window, so no single window samples the 3 needed to decide
+        for (int window = 0; window < 4; window++) {
+            feed(b, Exchange.BITGET, true, 10);
+        }
+        b.accepted(Exchange.BITGET);
+
+        assertFalse(b.isOpen(Exchange.BITGET));
+    }
+
+    @Test
+    void disabledBreaker_admitsEverything(){
+        ParseCircuitBreaker b = ParseCircuitBreaker.disabled();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(b.admit(Exchange.BINANCE));
+            b.rejected(Exchange.BINANCE, "{}", null);
+        }
+        assertFalse(b.isOpen(Exchange.BINANCE));
+    }
+}
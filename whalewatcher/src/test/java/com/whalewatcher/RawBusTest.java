@@ -2,8 +2,10 @@ package com.whalewatcher;
 
 import com.whalewatcher.domain.Exchange;
 import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBusProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -102,4 +104,74 @@ class RawWsBusTest {
         assertEquals(200_000, bus.size());
         assertTrue(bus.droppedCount() > 0, "Expected droppedCount to increase when queue is full");
     }
-}
\ No newline at end of file
+
+    @Test
+    void publish_whenByteBudgetExhausted_dropsBeforeCountCap() {
+        RawWsBusProperties props = new RawWsBusProperties();
+        props.setMaxBytes(DataSize.ofKilobytes(100));
+        RawWsBus small = new RawWsBus(props);
+
+        String frame = "x".repeat(1_000);
+        for (int i = 0; i < 500; i++) {
+            small.publish(Exchange.COINBASE, frame);
+        }
+
+        assertTrue(small.size() < 100, "byte budget should cap the queue well below 500 frames");
+        assertTrue(small.bytesInFlight() <= 100 * 1024);
+        assertEquals(500 - small.size(), small.droppedCount());
+    }
+
+    @Test
+    void publish_exchangeBudget_doesNotStarveOtherExchanges() {
+        RawWsBusProperties props = new RawWsBusProperties();
+        props.getExchangeMaxBytes().put(Exchange.COINBASE, DataSize.ofKilobytes(10));
+        RawWsBus bus = new RawWsBus(props);
+
+        String frame = "x".repeat(1_000);
+        for (int i = 0; i < 100; i++) {
+            bus.publish(Exchange.COINBASE, frame);
+        }
+        bus.publish(Exchange.KRAKEN, frame);
+
+        assertTrue(bus.bytesInFlight(Exchange.COINBASE) <= 10 * 1024);
+        assertTrue(bus.bytesInFlight(Exchange.KRAKEN) > 0, "other exchanges keep their share");
+    }
+
+    @Test
+    void take_releasesBytesInFlight() throws Exception {
+        bus.publish(Exchange.KRAKEN, "{\"channel\":\"trade\"}");
+        assertTrue(bus.bytesInFlight() > 0);
+
+        bus.take();
+
+        assertEquals(0, bus.bytesInFlight());
+        assertEquals(0, bus.bytesInFlight(Exchange.KRAKEN));
+    }
+
+    @Test
+    void take_drainsExpressLaneFirst() throws Exception {
+        bus.publish(Exchange.BINANCE, "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"p\":\"42000.5\",\"q\":\"0.01\"}}");
+        bus.publish(Exchange.BINANCE, "{\"stream\":\"btcusdt@trade\",\"data\":{\"e\":\"trade\",\"p\":\"42000.5\",\"q\":\"1200\"}}");
+
+        assertEquals(1, bus.expressSize());
+        assertTrue(bus.take().raw().contains("\"q\":\"1200\""), "whale-sized frame should jump the queue");
+        assertTrue(bus.take().raw().contains("\"q\":\"0.01\""));
+        assertEquals(0, bus.bytesInFlight());
+    }
+
+    @Test
+    void publish_whenNormalLaneFull_stillAcceptsExpressFrames() {
+        RawWsBusProperties props = new RawWsBusProperties();
+        props.setMaxMessages(10);
+        RawWsBus small = new RawWsBus(props);
+
+        for (int i = 0; i < 20; i++) {
+            small.publish(Exchange.KRAKEN, "{\"channel\":\"trade\",\"data\":[{\"price\":42000.5,\"qty\":0.01}]}");
+        }
+        small.publish(Exchange.KRAKEN, "{\"channel\":\"trade\",\"data\":[{\"price\":42000.5,\"qty\":1500}]}");
+
+        assertEquals(10, small.droppedCount());
+        assertEquals(11, small.size());
+        assertEquals(1, small.expressSize());
+    }
+}
@@ -0,0 +1,137 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.ingest.offchain.websocket.RedundantFeedMerger;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.whalewatcher.ingest.offchain.websocket.RedundantFeedMerger.PRIMARY;
+import static com.whalewatcher.ingest.offchain.websocket.RedundantFeedMerger.STANDBY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedundantFeedMergerTest {
+
+    private static String frame(int id) {
+        return "{\"e\":\"trade\",\"s\":\"BTCUSDT\",\"t\":" + id + ",\"p\":\"42000.5\",\"q\":\"0.25\"}";
+    }
+
+    @Test
+    void firstCopyWins_secondIsDroppedAndCreditedToTheWinner() {
+        RedundantFeedMerger merger = new RedundantFeedMerger(List.of(Exchange.BINANCE), 64);
+
+        assertTrue(merger.firstArrival(Exchange.BINANCE, STANDBY, frame(1)));
+        assertFalse(merger.firstArrival(Exchange.BINANCE, PRIMARY, frame(1)));
+        assertTrue(merger.firstArrival(Exchange.BINANCE, PRIMARY, frame(2)));
+        assertFalse(merger.firstArrival(Exchange.BINANCE, STANDBY, frame(2)));
+        assertTrue(merger.firstArrival(Exchange.BINANCE, PRIMARY, frame(3)));
+        assertFalse(merger.firstArrival(Exchange.BINANCE, STANDBY, frame(3)));
+
+        assertEquals(2, merger.wins(Exchange.BINANCE, PRIMARY));
+        assertEquals(1, merger.wins(Exchange.BINANCE, STANDBY));
+        assertEquals(3, merger.stats(Exchange.BINANCE).duplicates());
+        assertTrue(merger.leadSeconds(Exchange.BINANCE, PRIMARY) >= 0);
+    }
+
+    @Test
+    void identicalFramesRepeatedOnOneConnection_allPass() {
+        RedundantFeedMerger merger = new RedundantFeedMerger(List.of(Exchange.KRAKEN), 64);
+
+        // two real trades that serialize identically (no trade id on the venue)
+        assertTrue(merger.firstArrival(Exchange.KRAKEN, PRIMARY, frame(7)));
+        assertTrue(merger.firstArrival(Exchange.KRAKEN, PRIMARY, frame(7)));
+
+        // the standby's copies of both are duplicates, a third one is new again
+        assertFalse(merger.firstArrival(Exchange.KRAKEN, STANDBY, frame(7)));
+        assertFalse(merger.firstArrival(Exchange.KRAKEN, STANDBY, frame(7)));
+        assertTrue(merger.firstArrival(Exchange.KRAKEN, STANDBY, frame(7)));
+    }
+
+    @Test
+    void framesOnlyOneConnectionDelivered_countAsSoloOnEviction() {
+        RedundantFeedMerger merger = new RedundantFeedMerger(List.of(Exchange.OKX), 4);
+
+        // the primary is stalled: the standby alone delivers frames 1..4, then both deliver 5..8
+        for (int i = 1; i <= 4; i++) assertTrue(merger.firstArrival(Exchange.OKX, STANDBY, frame(i)));
+        for (int i = 5; i <= 8; i++) {
+            assertTrue(merger.firstArrival(Exchange.OKX, STANDBY, frame(i)));
+            assertFalse(merger.firstArrival(Exchange.OKX, PRIMARY, frame(i)));
+        }
+
+        assertEquals(4, merger.solo(Exchange.OKX, STANDBY));
+        assertEquals(0, merger.solo(Exchange.OKX, PRIMARY));
+        assertEquals(4, merger.wins(Exchange.OKX, STANDBY));
+
+        // frame 1 fell out of the window, a late copy is no longer recognised
+        assertTrue(merger.firstArrival(Exchange.OKX, PRIMARY, frame(1)));
+    }
+
+    @Test
+    void coinbaseSequenceNumbers_doNotDefeatTheMerge() {
+        RedundantFeedMerger merger = new RedundantFeedMerger(List.of(Exchange.COINBASE), 64);
+        String events = "\"events\":[{\"type\":\"update\",\"trades\":[{\"trade_id\":\"42\",\"product_id\":\"BTC-USD\"}]}]}";
+
+        assertTrue(merger.firstArrival(Exchange.COINBASE, PRIMARY, "{\"channel\":\"market_trades\",\"sequence_num\":10," + events));
+        assertFalse(merger.firstArrival(Exchange.COINBASE, STANDBY, "{\"channel\":\"market_trades\",\"sequence_num\":3," + events));
+    }
+
+    @Test
+    void tradeIdVenues_areKeyedOnSymbolAndIds_notOnPushTimeFields() {
+        RedundantFeedMerger merger = new RedundantFeedMerger(List.of(Exchange.GATE, Exchange.BITGET), 64);
+
+        assertTrue(merger.firstArrival(Exchange.GATE, PRIMARY, gate(1700000000, 5)));
+        assertFalse(merger.firstArrival(Exchange.GATE, STANDBY, gate(1700000001, 5)));
+        assertTrue(merger.firstArrival(Exchange.GATE, STANDBY, gate(1700000001, 6)));
+
+        assertTrue(merger.firstArrival(Exchange.BITGET, STANDBY, bitget(1700000000123L, "BTCUSDT", "11", "12")));
+        assertFalse(merger.firstArrival(Exchange.BITGET, PRIMARY, bitget(1700000000456L, "BTCUSDT", "11", "12")));
+        // the same ids on another symbol, or a differently batched frame, are other keys
+        assertTrue(merger.firstArrival(Exchange.BITGET, PRIMARY, bitget(1700000000456L, "ETHUSDT", "11", "12")));
+        assertTrue(merger.firstArrival(Exchange.BITGET, PRIMARY, bitget(1700000000456L, "BTCUSDT", "11")));
+
+        assertEquals(1, merger.wins(Exchange.GATE, PRIMARY));
+        assertEquals(1, merger.wins(Exchange.BITGET, STANDBY));
+    }
+
+    @Test
+    void venuesWithoutTradeIds_ignoreThePushTimestamp() {
+        RedundantFeedMerger merger = new RedundantFeedMerger(List.of(Exchange.MEXC), 64);
+        String deals = ",\"symbol\":\"BTC_USDT\",\"data\":[{\"p\":42000.5,\"v\":0.25,\"T\":1,\"t\":1700000000000}]}";
+
+        assertTrue(merger.firstArrival(Exchange.MEXC, PRIMARY, "{\"ts\":1700000000010" + deals));
+        assertFalse(merger.firstArrival(Exchange.MEXC, STANDBY, "{\"ts\":1700000000042" + deals));
+        assertTrue(merger.firstArrival(Exchange.MEXC, STANDBY, "{\"ts\":1700000000042" + deals.replace("0.25", "0.5")));
+    }
+
+    private static String gate(long pushTime, long tradeId) {
+        return "{\"time\":" + pushTime + ",\"time_ms\":" + pushTime * 1000 + ",\"channel\":\"spot.trades\",\"event\":\"update\","
+                + "\"result\":{\"id\":" + tradeId + ",\"create_time\":1700000000,\"side\":\"buy\",\"currency_pair\":\"BTC_USDT\","
+                + "\"amount\":\"0.25\",\"price\":\"42000.5\"}}";
+    }
+
+    private static String bitget(long pushTs, String symbol, String... tradeIds) {
+        StringBuilder sb = new StringBuilder("{\"action\":\"update\",\"arg\":{\"instType\":\"SPOT\",\"channel\":\"trade\",\"instId\":\"")
+                .append(symbol).append("\"},\"data\":[");
+        for (int i = 0; i < tradeIds.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"ts\":\"1700000000000\",\"price\":\"42000.5\",\"size\":\"0.25\",\"side\":\"buy\",\"tradeId\":\"")
+                    .append(tradeIds[i]).append("\"}");
+        }
+        return sb.append("],\"ts\":").append(pushTs).append('}').toString();
+    }
+
+    @Test
+    void bus_publishesOnlyTheFirstCopyOfRedundantExchanges() {
+        RawWsBus bus = new RawWsBus();
+        bus.mergeRedundant(new RedundantFeedMerger(List.of(Exchange.BINANCE), 64));
+
+        bus.publish(Exchange.BINANCE, PRIMARY, frame(1));
+        bus.publish(Exchange.BINANCE, STANDBY, frame(1));
+        bus.publish(Exchange.BYBIT, PRIMARY, frame(1));
+        bus.publish(Exchange.BYBIT, PRIMARY, frame(1));
+
+        assertEquals(1, bus.publishedCount(Exchange.BINANCE));
+        assertEquals(2, bus.publishedCount(Exchange.BYBIT));
+    }
+}
@@ -0,0 +1,118 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.ingest.offchain.pipeline.RingIngestPipeline;
+import com.whalewatcher.ingest.offchain.pipeline.RingPipelineProperties;
+import com.whalewatcher.ingest.offchain.pipeline.WaitStrategy;
+import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
+import com.whalewatcher.ingest.offchain.websocket.WsMessageParser;
+import com.whalewatcher.repository.WhaleEventRepository;
+import com.whalewatcher.service.NormalizationService;
+import com.whalewatcher.service.SymbolMapper;
+import com.whalewatcher.service.TradeDeduplicator;
+import com.whalewatcher.service.WhaleDetectionService;
+import com.whalewatcher.simulator.SimulatedFrames;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the ring engine: frames published on the bus go through parse, detect and store,
+ * in sequence order, with every wait strategy.
+ */
+class RingIngestPipelineTest {
+
+    private final WhaleEventRepository repository = mock(WhaleEventRepository.class);
+
+    private RingIngestPipeline pipeline(RawWsBus bus, WaitStrategy.Type wait, int size, int parseThreads) {
+        RingPipelineProperties props = new RingPipelineProperties();
+        props.setSize(size);
+        props.setParseThreads(parseThreads);
+        props.setWaitStrategy(wait);
+
+        SymbolMapper symbolMapper = new SymbolMapper();
+        WhaleDetectionService detection = new WhaleDetectionService();
+        return new RingIngestPipeline(bus, new WsMessageParser(), new TradeDeduplicator(4096), symbolMapper,
+                detection, new NormalizationService(symbolMapper, detection), repository, props);
+    }
+
+    private static String binanceFrame(long tradeId, double qty) {
+        return SimulatedFrames.frame(Exchange.BINANCE, List.of(
+                new SimulatedFrames.SimTrade("BTCUSDT", 65000.0, qty, true, 1700000000123L, tradeId)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.Type.class)
+    void whalesReachRepositoryInPublishOrder(WaitStrategy.Type wait) {
+        RawWsBus bus = new RawWsBus();
+        RingIngestPipeline pipeline = pipeline(bus, wait, 8192, 3);
+        pipeline.start();
+        try {
+            // every 100th frame is a whale (1000 BTC at 65k)
+            for (int i = 1; i <= 5_000; i++) {
+                bus.publish(Exchange.BINANCE, binanceFrame(i, i % 100 == 0 ? 1_000 : 0.5));
+            }
+
+            ArgumentCaptor<OffChainWhaleEvent> saved = ArgumentCaptor.forClass(OffChainWhaleEvent.class);
+            verify(repository, timeout(5_000).times(50)).save(saved.capture());
+
+            List<OffChainWhaleEvent> events = saved.getAllValues();
+            for (int i = 0; i < events.size(); i++) {
+                assertEquals(100L * (i + 1), events.get(i).tradeId(), "store stage out of order");
+            }
+            assertEquals(0, bus.size(), "frames must bypass the bus queue");
+            assertEquals(0, bus.droppedCount());
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void failingSave_isSkipped_andLaterFramesStillComeThrough() throws InterruptedException {
+        doThrow(new IllegalStateException("boom")).doNothing().when(repository).save(any());
+        RawWsBus bus = new RawWsBus();
+        RingIngestPipeline pipeline = pipeline(bus, WaitStrategy.Type.BLOCKING, 16, 1);
+        pipeline.start();
+        try {
+            // far more frames than ring slots, so they only fit if the store stage keeps freeing them
+            for (int i = 1; i <= 200; i++) {
+                bus.publish(Exchange.BINANCE, binanceFrame(i, i % 10 == 0 ? 1_000 : 0.5));
+                if (i % 8 == 0) awaitEmpty(pipeline);
+            }
+            ArgumentCaptor<OffChainWhaleEvent> saved = ArgumentCaptor.forClass(OffChainWhaleEvent.class);
+            verify(repository, timeout(5_000).times(20)).save(saved.capture());
+            assertEquals(10L, saved.getAllValues().getFirst().tradeId());
+            assertEquals(200L, saved.getAllValues().getLast().tradeId());
+            assertEquals(0, bus.droppedCount());
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    private static void awaitEmpty(RingIngestPipeline pipeline) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pipeline.backlog() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(1);
+    }
+
+    @Test
+    void fullRing_dropsFramesInsteadOfBlockingProducers() {
+        RawWsBus bus = new RawWsBus();
+        RingIngestPipeline pipeline = pipeline(bus, WaitStrategy.Type.BLOCKING, 16, 1);
+        // stages never started, nothing drains the ring
+        bus.redirectTo(pipeline);
+
+        for (int i = 1; i <= 20; i++) {
+            bus.publish(Exchange.BINANCE, binanceFrame(i, 0.5));
+        }
+
+        assertEquals(4, bus.droppedCount());
+        assertEquals(0, pipeline.remainingCapacity());
+    }
+}
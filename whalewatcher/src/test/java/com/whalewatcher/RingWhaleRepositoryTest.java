@@ -0,0 +1,211 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.repository.CursorPage;
+import com.whalewatcher.repository.OnChainEventBuffer;
+import com.whalewatcher.repository.RingWhaleRepository;
+import com.whalewatcher.repository.TimeRange;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingWhaleRepositoryTest {
+
+    private static OffChainWhaleEvent event(long n, Exchange exchange, Asset asset) {
+        return new OffChainWhaleEvent(String.valueOf(n), exchange, asset, "buy", 1, 1, 60_000_000, n, n);
+    }
+
+    private static List<Long> ids(List<OffChainWhaleEvent> events) {
+        return events.stream().map(OffChainWhaleEvent::tradeId).toList();
+    }
+
+    @Test
+    void keepsTheLatestCapacityEvents_newestFirst() {
+        RingWhaleRepository repo = new RingWhaleRepository(4);
+        for (long i = 1; i <= 6; i++) repo.save(event(i, Exchange.BINANCE, Asset.BTC));
+
+        assertEquals(List.of(6L, 5L, 4L, 3L), ids(repo.getAll()));
+        assertEquals(List.of(6L, 5L), ids(repo.getAll(2)));
+        assertEquals(List.of(6L), ids(repo.getAll(0)));
+        assertEquals(4, repo.size());
+    }
+
+    @Test
+    void filtersByAssetAndExchange() {
+        RingWhaleRepository repo = new RingWhaleRepository(16);
+        repo.save(event(1, Exchange.BINANCE, Asset.BTC));
+        repo.save(event(2, Exchange.KRAKEN, Asset.ETH));
+        repo.save(event(3, Exchange.BINANCE, Asset.ETH));
+        repo.save(event(4, Exchange.KRAKEN, Asset.BTC));
+
+        assertEquals(List.of(4L, 1L), ids(repo.getAllByAsset(Asset.BTC)));
+        assertEquals(List.of(3L, 1L), ids(repo.getAllByExchange(Exchange.BINANCE)));
+        assertEquals(List.of(3L), ids(repo.getByAssetAndExchange(Asset.ETH, Exchange.BINANCE, 5)));
+        assertEquals(List.of(4L), ids(repo.getAllByAsset(Asset.BTC, 1)));
+    }
+
+    @Test
+    void floodOfOneAsset_doesNotEvictTheOthersFromTheirViews() {
+        RingWhaleRepository repo = new RingWhaleRepository(8, 4, 8, 2);
+        repo.save(event(1, Exchange.KRAKEN, Asset.SOL));
+        repo.save(event(2, Exchange.BINANCE, Asset.SOL));
+        for (long i = 3; i <= 100; i++) repo.save(event(i, Exchange.BINANCE, Asset.BTC));
+
+        // the overall view only holds the flood, the SOL views still have their whales
+        assertTrue(repo.getAll().stream().allMatch(e -> e.asset() == Asset.BTC));
+        assertEquals(List.of(2L, 1L), ids(repo.getAllByAsset(Asset.SOL)));
+        assertEquals(List.of(1L), ids(repo.getAllByExchange(Exchange.KRAKEN)));
+        assertEquals(List.of(2L), ids(repo.getByAssetAndExchange(Asset.SOL, Exchange.BINANCE, 10)));
+        // per-key quotas bound the views
+        assertEquals(List.of(100L, 99L, 98L, 97L), ids(repo.getAllByAsset(Asset.BTC)));
+        assertEquals(List.of(100L, 99L), ids(repo.getByAssetAndExchange(Asset.BTC, Exchange.BINANCE)));
+    }
+
+    @Test
+    void timeRange_returnsEventsInTheWindowNewestFirst_includingLateOnes() {
+        RingWhaleRepository repo = new RingWhaleRepository(1000);
+        // timestamps 10, 20, ... with one late event (ts 15) saved after ts 400
+        for (long i = 1; i <= 40; i++) repo.save(event(i * 10, Exchange.BINANCE, Asset.BTC));
+        repo.save(event(15, Exchange.KRAKEN, Asset.BTC));
+        for (long i = 41; i <= 500; i++) repo.save(event(i * 10, Exchange.BINANCE, Asset.BTC));
+
+        assertEquals(List.of(120L, 110L, 100L), ids(repo.getAll(new TimeRange(100, 130), 100)));
+        assertEquals(List.of(15L, 20L, 10L), ids(repo.getAll(new TimeRange(10, 30), 100)));
+        assertEquals(List.of(5000L, 4990L), ids(repo.getAll(TimeRange.of(4990L, null), 100)));
+        assertEquals(List.of(4980L), ids(repo.getAll(TimeRange.of(4000L, 4990L), 1)));
+        assertEquals(List.of(15L), ids(repo.getAllByExchange(Exchange.KRAKEN, TimeRange.of(null, 100L), 10)));
+        assertTrue(repo.getAll(new TimeRange(6000, 7000), 10).isEmpty());
+    }
+
+    @Test
+    void timeRange_onlySeesWhatTheRingStillHolds() {
+        RingWhaleRepository repo = new RingWhaleRepository(8);
+        for (long i = 1; i <= 20; i++) repo.save(event(i, Exchange.OKX, Asset.ETH));
+
+        assertEquals(List.of(20L, 19L, 18L, 17L, 16L, 15L, 14L, 13L), ids(repo.getAll(TimeRange.of(0L, null), 100)));
+        assertEquals(List.of(14L, 13L), ids(repo.getAllByAsset(Asset.ETH, new TimeRange(0, 15), 100)));
+    }
+
+    @Test
+    void onChainBuffer_timeRangeAndDuplicateTx() {
+        OnChainEventBuffer buffer = new OnChainEventBuffer();
+        for (long ts = 1; ts <= 10; ts++) {
+            buffer.add(new OnChainWhaleEvent(ts % 2 == 0 ? Chain.ETHEREUM : Chain.BITCOIN, ts % 2 == 0 ? Asset.ETH : Asset.BTC,
+                    BigDecimal.TEN, "from", "to", "tx" + ts, ts, ts));
+        }
+        buffer.add(new OnChainWhaleEvent(Chain.ETHEREUM, Asset.ETH, BigDecimal.TEN, "from", "to", "tx4", 4, 4));
+
+        assertEquals(10, buffer.getAll(100).size());
+        assertEquals(List.of(8L, 6L, 4L), buffer.getAllByAsset(Asset.ETH, new TimeRange(3, 9), 10).stream()
+                .map(OnChainWhaleEvent::timestampMs).toList());
+        assertEquals(List.of(10L, 9L, 8L), buffer.getAll(TimeRange.of(8L, null), 10).stream()
+                .map(OnChainWhaleEvent::timestampMs).toList());
+    }
+
+    @Test
+    void cursorReads_pageForwardOldestFirst_andCountWhatWasEvicted() {
+        RingWhaleRepository repo = new RingWhaleRepository(4);
+        repo.save(event(1, Exchange.BINANCE, Asset.BTC));
+        repo.save(event(2, Exchange.BINANCE, Asset.BTC));
+        repo.save(event(3, Exchange.BINANCE, Asset.BTC));
+
+        CursorPage<OffChainWhaleEvent> page = repo.getAllAfter(0, 2);
+        assertEquals(List.of(1L, 2L), ids(page.events()));
+        assertEquals(2, page.cursor());
+        page = repo.getAllAfter(page.cursor(), 2);
+        assertEquals(List.of(3L), ids(page.events()));
+        assertTrue(repo.getAllAfter(page.cursor(), 2).events().isEmpty());
+        assertEquals(3, repo.getAllAfter(page.cursor(), 2).cursor());
+
+        // the poller falls behind by more than the ring
+        for (long i = 4; i <= 10; i++) repo.save(event(i, Exchange.BINANCE, Asset.BTC));
+        page = repo.getAllAfter(page.cursor(), 100);
+        assertEquals(List.of(7L, 8L, 9L, 10L), ids(page.events()));
+        assertEquals(3, page.missed());
+        assertEquals(10, page.cursor());
+
+        // a cursor from before a restart (ahead of the ring) reads from the oldest event held
+        assertEquals(List.of(7L), ids(repo.getAllAfter(1_000, 1).events()));
+        assertEquals(List.of(10L), ids(repo.getAllByExchangeAfter(Exchange.BINANCE, 9, 10).events()));
+    }
+
+    @Test
+    void concurrentWriters_readersSeeDistinctEventsInSaveOrderPerWriter() throws Exception {
+        RingWhaleRepository repo = new RingWhaleRepository(64);
+        int writers = 4;
+        int perWriter = 50_000;
+        CountDownLatch done = new CountDownLatch(writers);
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        for (int w = 0; w < writers; w++) {
+            Exchange ex = Exchange.values()[w];
+            Thread.ofPlatform().start(() -> {
+                for (long i = 1; i <= perWriter; i++) repo.save(event(i, ex, Asset.BTC));
+                done.countDown();
+            });
+        }
+        Thread reader = Thread.ofPlatform().start(() -> {
+            while (!stop.get()) {
+                List<OffChainWhaleEvent> snapshot = repo.getAll();
+                Set<OffChainWhaleEvent> seen = new HashSet<>();
+                long[] last = new long[Exchange.values().length];
+                for (OffChainWhaleEvent e : snapshot) {
+                    if (!seen.add(e)) failure.compareAndSet(null, "duplicate " + e);
+                    // newest first: one writer's events must appear with decreasing ids
+                    long prev = last[e.exchange().ordinal()];
+                    if (prev != 0 && e.tradeId() >= prev) failure.compareAndSet(null, "out of order " + e);
+                    last[e.exchange().ordinal()] = e.tradeId();
+                }
+                if (snapshot.size() > 64) failure.compareAndSet(null, "more than capacity");
+            }
+        });
+
+        done.await();
+        stop.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(64, repo.getAll().size());
+    }
+
+    @Test
+    void longPollWaiters_runOffTheSavingThread_andTheirFailuresStayThere() throws Exception {
+        RingWhaleRepository repo = new RingWhaleRepository(16);
+        AtomicReference<String> wokenOn = new AtomicReference<>();
+        CountDownLatch woken = new CountDownLatch(1);
+        AtomicBoolean registered = new AtomicBoolean();
+        repo.signal().await(() -> {
+            // the first call is the registration check
+            if (!registered.getAndSet(true)) return false;
+            throw new IllegalStateException("broken waiter");
+        });
+        repo.signal().await(() -> {
+            if (repo.getAll().isEmpty()) return false;
+            wokenOn.set(Thread.currentThread().getName());
+            woken.countDown();
+            return true;
+        });
+
+        repo.save(event(1, Exchange.BINANCE, Asset.BTC));
+
+        assertTrue(woken.await(2, TimeUnit.SECONDS));
+        assertEquals("event-signal", wokenOn.get());
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (repo.signal().waiting() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        assertEquals(0, repo.signal().waiting());
+    }
+}
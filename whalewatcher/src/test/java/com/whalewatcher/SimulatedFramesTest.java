@@ -0,0 +1,61 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.Trade;
+import com.whalewatcher.ingest.offchain.websocket.WsMessageParser;
+import com.whalewatcher.service.SymbolMapper;
+import com.whalewatcher.simulator.SimulatedFrames;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The simulator is only useful for load testing if every frame it emits takes the same
+ * path through WsMessageParser and SymbolMapper as real exchange traffic.
+ */
+class SimulatedFramesTest {
+
+    private final WsMessageParser parser = new WsMessageParser();
+    private final SymbolMapper symbolMapper = new SymbolMapper();
+
+    @Test
+    void everyVenueFrame_parsesBackIntoTrades(){
+        for (Exchange exchange : Exchange.values()) {
+            List<String> symbols = SimulatedFrames.SYMBOLS.get(exchange);
+            assertNotNull(symbols, exchange + " has no simulated symbols");
+
+            String symbol = symbols.get(0);
+            List<SimulatedFrames.SimTrade> trades = List.of(
+                    new SimulatedFrames.SimTrade(symbol, 42000.5, 0.25, true, 1700000000123L, 1001),
+                    new SimulatedFrames.SimTrade(symbol, 42001.0, 0.5, false, 1700000000456L, 1002)
+            );
+
+            List<Trade> out = parser.parse(exchange, SimulatedFrames.frame(exchange, trades));
+
+            int expected = SimulatedFrames.singleTradeFrames(exchange) ? 1 : 2;
+            assertEquals(expected, out.size(), exchange + " trade count");
+
+            Trade t = out.get(0);
+            assertEquals(exchange, t.exchange());
+            assertNotNull(symbolMapper.normalize(t.symbol(), exchange), exchange + " symbol not mapped: " + t.symbol());
+            assertEquals(42000.5, t.price(), 1e-9, exchange + " price");
+            assertEquals(0.25, t.volume(), 1e-12, exchange + " volume");
+            assertEquals("buy", t.side(), exchange + " side");
+            assertEquals(1700000000123L, t.timestamp(), exchange + " timestamp");
+        }
+    }
+
+    @Test
+    void binanceAggTradeFrame_parsesWithAggregateId(){
+        SimulatedFrames.SimTrade merged = new SimulatedFrames.SimTrade("BTCUSDT", 42000.5, 1.75, false, 1700000000123L, 77);
+
+        List<Trade> out = parser.parse(Exchange.BINANCE, SimulatedFrames.binanceAggTrade(merged, 1001, 1004));
+
+        assertEquals(1, out.size());
+        assertEquals(1.75, out.get(0).volume(), 1e-12);
+        assertEquals("sell", out.get(0).side());
+        assertEquals(77L, out.get(0).tradeId());
+    }
+}
@@ -0,0 +1,70 @@
+package com.whalewatcher;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.whalewatcher.infrastructure.logging.ThrottledLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A flood of identical errors must produce one line per window plus a summary,
+ * not one console write per occurrence.
+ */
+class ThrottledLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("throttled-log-test");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setup(){
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown(){
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void repeatedErrors_areSuppressed_andSummarizedInTheNextWindow() throws Exception {
+        ThrottledLog errors = ThrottledLog.warn(logger, Duration.ofMillis(200));
+        RuntimeException cause = new IllegalStateException("boom");
+
+        for (int i = 0; i < 1_000; i++) {
+            errors.log("OKX", "Parse failed " + i, cause);
+        }
+
+        assertEquals(1, appender.list.size());
+        assertEquals("[OKX] Parse failed 0", appender.list.get(0).getFormattedMessage());
+        assertNotNull(appender.list.get(0).getThrowableProxy());
+        assertEquals(999, errors.pending());
+
+        // reported by whichever comes first, the next occurrence or the background flush
+        Thread.sleep(250);
+        errors.log("OKX", "Parse failed again", cause);
+
+        List<String> lines = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertTrue(lines.contains("[OKX] 999 similar errors in last 1s, latest: Parse failed 999"), lines.toString());
+    }
+
+    @Test
+    void keysAreThrottledIndependently(){
+        ThrottledLog errors = ThrottledLog.warn(logger, Duration.ofSeconds(10));
+
+        errors.log("BINANCE", "down", null);
+        errors.log("BINANCE", "down", null);
+        errors.log("KRAKEN", "down", null);
+
+        assertEquals(2, appender.list.size());
+        assertEquals(1, errors.pending());
+    }
+}
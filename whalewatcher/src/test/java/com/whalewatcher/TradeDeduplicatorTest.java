@@ -0,0 +1,103 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.Trade;
+import com.whalewatcher.service.BoundedLongSet;
+import com.whalewatcher.service.TradeDeduplicator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reconnect dedup and sequence-gap counting on trade ids.
+ */
+class TradeDeduplicatorTest {
+
+    private TradeDeduplicator dedup;
+
+    @BeforeEach
+    void setup() {
+        dedup = new TradeDeduplicator(64);
+    }
+
+    private static Trade trade(Exchange ex, String symbol, long id) {
+        return new Trade(ex, symbol, 42000.5, 0.01, "buy", 1700000000123L, id);
+    }
+
+    @Test
+    void replayedTradeId_isDroppedOnce() {
+        assertTrue(dedup.firstSeen(trade(Exchange.COINBASE, "BTC-USD", 10)));
+        assertFalse(dedup.firstSeen(trade(Exchange.COINBASE, "BTC-USD", 10)));
+
+        assertEquals(1, dedup.duplicates(Exchange.COINBASE));
+    }
+
+    @Test
+    void sameIdOnDifferentStreams_isNotADuplicate() {
+        assertTrue(dedup.firstSeen(trade(Exchange.KRAKEN, "BTC/USD", 10)));
+        assertTrue(dedup.firstSeen(trade(Exchange.KRAKEN, "ETH/USD", 10)));
+        assertTrue(dedup.firstSeen(trade(Exchange.BINANCE, "BTCUSDT", 10)));
+    }
+
+    @Test
+    void tradesWithoutId_areAlwaysAccepted() {
+        Trade noId = new Trade(Exchange.MEXC, "BTC_USDT", 42000.5, 0.01, "buy", 1700000000123L);
+
+        assertTrue(dedup.firstSeen(noId));
+        assertTrue(dedup.firstSeen(noId));
+    }
+
+    @Test
+    void sequentialStream_countsSkippedIds_andLateFills() {
+        dedup.firstSeen(trade(Exchange.BINANCE, "BTCUSDT", 100));
+        dedup.firstSeen(trade(Exchange.BINANCE, "BTCUSDT", 101));
+        dedup.firstSeen(trade(Exchange.BINANCE, "BTCUSDT", 105));
+
+        // 102, 103, 104 never arrived
+        assertEquals(3, dedup.missing(Exchange.BINANCE));
+
+        dedup.firstSeen(trade(Exchange.BINANCE, "BTCUSDT", 103));
+        assertEquals(2, dedup.missing(Exchange.BINANCE));
+    }
+
+    @Test
+    void lateIdsOutsideARecordedGap_doNotUncountMissingTrades() {
+        dedup.firstSeen(trade(Exchange.KRAKEN, "BTC/USD", 100));
+        dedup.firstSeen(trade(Exchange.KRAKEN, "BTC/USD", 103));
+        assertEquals(2, dedup.missing(Exchange.KRAKEN));
+
+        // older than the first trade seen on the stream, never counted as missing
+        dedup.firstSeen(trade(Exchange.KRAKEN, "BTC/USD", 50));
+        assertEquals(2, dedup.missing(Exchange.KRAKEN));
+
+        dedup.firstSeen(trade(Exchange.KRAKEN, "BTC/USD", 102));
+        dedup.firstSeen(trade(Exchange.KRAKEN, "BTC/USD", 101));
+        assertEquals(0, dedup.missing(Exchange.KRAKEN));
+    }
+
+    @Test
+    void nonSequentialVenue_doesNotCountGaps() {
+        dedup.firstSeen(trade(Exchange.BITGET, "BTCUSDT", 100));
+        dedup.firstSeen(trade(Exchange.BITGET, "BTCUSDT", 5000));
+
+        assertEquals(0, dedup.missing(Exchange.BITGET));
+    }
+
+    @Test
+    void boundedSet_forgetsOldestIdsBeyondCapacity() {
+        BoundedLongSet set = new BoundedLongSet(64);
+
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(set.add(i));
+        }
+
+        assertEquals(64, set.size());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(935));
+        for (long i = 936; i < 1000; i++) {
+            assertTrue(set.contains(i), "missing " + i);
+        }
+        assertFalse(set.add(999));
+    }
+}
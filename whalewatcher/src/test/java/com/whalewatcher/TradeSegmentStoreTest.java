@@ -0,0 +1,134 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.Trade;
+import com.whalewatcher.persistence.segment.TradeAccumulator;
+import com.whalewatcher.persistence.segment.TradeQuery;
+import com.whalewatcher.persistence.segment.TradeSegmentStore;
+import com.whalewatcher.persistence.segment.TradeStats;
+import com.whalewatcher.persistence.segment.TradeStoreProperties;
+import com.whalewatcher.repository.TimeRange;
+import com.whalewatcher.service.SymbolMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeSegmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final TradeStoreProperties props = new TradeStoreProperties();
+    private TradeSegmentStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) store.stop();
+    }
+
+    private TradeSegmentStore open() throws Exception {
+        props.setDir(dir.toString());
+        props.setScanParallelism(4);
+        TradeSegmentStore s = new TradeSegmentStore(props, new SymbolMapper());
+        s.start();
+        return s;
+    }
+
+    // Remembers which threads folded rows, and the rows seen
+    private static final class Threads implements TradeAccumulator<Threads> {
+        final Set<String> names = new HashSet<>();
+        long rows;
+
+        @Override
+        public void accept(long ts, int exchange, int asset, int side, double price, double quantity) {
+            if (rows++ == 0) names.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public Threads merge(Threads other) {
+            names.addAll(other.names);
+            rows += other.rows;
+            return this;
+        }
+    }
+
+    @Test
+    void recordedTrades_areFoldedByFilter() throws Exception {
+        store = open();
+        store.record(new Trade(Exchange.BINANCE, "BTCUSDT", 65_000, 2, "buy", 1_000));
+        store.record(new Trade(Exchange.BINANCE, "ETHUSDT", 3_000, 10, "sell", 2_000));
+        store.record(new Trade(Exchange.KRAKEN, "BTC/USD", 64_000, 1, "s", 3_000));
+        // unmapped symbols are not stored
+        store.record(new Trade(Exchange.BINANCE, "DOGEUSDT", 0.1, 1, "buy", 4_000));
+
+        TradeStats btc = store.scan(new TradeQuery(null, Asset.BTC, null), TradeStats::new);
+        assertEquals(2, btc.getTrades());
+        assertEquals(130_000, btc.getBuyNotionalUsd());
+        assertEquals(64_000, btc.getSellNotionalUsd());
+        assertEquals(64_000, btc.getMinPrice());
+        assertEquals(65_000, btc.getMaxPrice());
+
+        TradeStats binance = store.scan(new TradeQuery(TimeRange.of(1_500L, null), null, Exchange.BINANCE), TradeStats::new);
+        assertEquals(1, binance.getTrades());
+        assertEquals(2_000, binance.getFirstMs());
+
+        TradeStats none = store.scan(new TradeQuery(null, Asset.SOL, null), TradeStats::new);
+        assertEquals(0, none.getTrades());
+        assertNull(none.getVwap());
+        assertEquals(3, store.appended());
+    }
+
+    @Test
+    void fullSegments_roll_andScansRunInParallel() throws Exception {
+        props.setRowsPerSegment(100_000);
+        store = open();
+        for (int i = 0; i < 250_000; i++) {
+            assertTrue(store.append(i, Exchange.OKX.ordinal(), Asset.ETH.ordinal(), (byte) 0, 3_000, 1));
+        }
+
+        assertEquals(3, store.segmentCount());
+        assertEquals(250_000, store.rows());
+        Threads seen = store.scan(TradeQuery.all(), Threads::new);
+        assertEquals(250_000, seen.rows);
+        assertTrue(seen.names.size() > 1, "one thread folded everything: " + seen.names);
+
+        // the block index skips everything outside the range, the rows inside are exact
+        TradeStats window = store.scan(new TradeQuery(TimeRange.of(120_000L, 120_010L), null, null), TradeStats::new);
+        assertEquals(10, window.getTrades());
+    }
+
+    @Test
+    void segmentsOfEarlierRuns_stayQueryable() throws Exception {
+        store = open();
+        for (int i = 0; i < 1_000; i++) store.append(i, Exchange.COINBASE.ordinal(), Asset.SOL.ordinal(), (byte) 1, 150, 2);
+        store.stop();
+
+        store = open();
+        store.append(5_000, Exchange.COINBASE.ordinal(), Asset.SOL.ordinal(), (byte) 0, 151, 1);
+
+        TradeStats sol = store.scan(new TradeQuery(null, Asset.SOL, Exchange.COINBASE), TradeStats::new);
+        assertEquals(1_001, sol.getTrades());
+        assertEquals(2_001, sol.getQuantity());
+        // the new run writes a new part instead of reopening the old one
+        try (Stream<Path> segments = Files.list(dir)) {
+            assertEquals(2, segments.count());
+        }
+    }
+
+    @Test
+    void appendsAfterStop_areDropped() throws Exception {
+        store = open();
+        store.stop();
+        assertFalse(store.append(1, 0, 0, (byte) 0, 1, 1));
+        assertEquals(1, store.dropped());
+    }
+}
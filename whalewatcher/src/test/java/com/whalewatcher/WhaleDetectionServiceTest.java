@@ -4,10 +4,13 @@ import com.whalewatcher.domain.Asset;
 import com.whalewatcher.domain.Exchange;
 import com.whalewatcher.domain.OffChainWhaleEvent;
 import com.whalewatcher.service.WhaleDetectionService;
+import com.whalewatcher.service.WhaleThresholds;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class WhaleDetectionServiceTest {
@@ -49,4 +52,36 @@ public class WhaleDetectionServiceTest {
 
         assertFalse(service.isWhale(event));
     }
+
+    @Test
+    void exchangeOverride_appliesToThatExchangeOnly() {
+        service.updateThresholds(t -> t.with(Exchange.UPBIT, Asset.BTC, 10_000_000));
+
+        assertTrue(service.isWhale(Exchange.UPBIT, Asset.BTC, 12_000_000));
+        assertFalse(service.isWhale(Exchange.KRAKEN, Asset.BTC, 12_000_000));
+        assertFalse(service.isWhale(Asset.BTC, 12_000_000));
+
+        service.updateThresholds(t -> t.without(Exchange.UPBIT, Asset.BTC));
+        assertFalse(service.isWhale(Exchange.UPBIT, Asset.BTC, 12_000_000));
+    }
+
+    @Test
+    void defaultChange_replacesTheSnapshot() {
+        WhaleThresholds before = service.thresholds();
+
+        service.updateThresholds(t -> t.with(null, Asset.SOL, 5_000_000));
+
+        assertTrue(service.isWhale(Exchange.OKX, Asset.SOL, 6_000_000));
+        // readers holding the old snapshot keep a consistent view
+        assertFalse(6_000_000 >= before.usd(Exchange.OKX, Asset.SOL));
+    }
+
+    @Test
+    void invalidThreshold_isRejectedAndLeavesTheSnapshot() {
+        WhaleThresholds before = service.thresholds();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.updateThresholds(t -> t.with(null, Asset.BTC, -1)));
+        assertSame(before, service.thresholds());
+    }
 }
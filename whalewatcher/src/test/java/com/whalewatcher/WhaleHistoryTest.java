@@ -0,0 +1,142 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.persistence.HistoryCursor;
+import com.whalewatcher.persistence.HistoryPage;
+import com.whalewatcher.persistence.JdbcWhaleEventStore;
+import com.whalewatcher.persistence.PersistenceProperties;
+import com.whalewatcher.persistence.WhaleHistory;
+import com.whalewatcher.repository.TimeRange;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WhaleHistoryTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final PersistenceProperties props = new PersistenceProperties();
+    private final WhaleHistory history = new WhaleHistory(jdbc, props);
+
+    private static OffChainWhaleEvent event(int n) {
+        return new OffChainWhaleEvent("id-" + n, Exchange.BINANCE, Asset.BTC, "buy", 65_000, 1_000, 65_000_000, 1_000L * n, n);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void page_filtersAndContinuesBelowTheCursor() {
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(event(9), event(8), event(7)));
+
+        HistoryPage<OffChainWhaleEvent> page = history.offChain(Asset.BTC, null, TimeRange.of(5_000L, null),
+                new HistoryCursor(10_000, List.of("id-10")), 2);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertEquals("SELECT id, exchange, asset, side, price, quantity, total_usd, trade_id, event_time"
+                + " FROM offchain_whale_events WHERE true AND asset = ? AND event_time >= ?"
+                + " AND (event_time, id) < (?, ?) ORDER BY event_time DESC, id DESC LIMIT 3", sql.getValue());
+        assertArrayEquals(new Object[]{"BTC", new Timestamp(5_000), new Timestamp(10_000), "id-10"}, args.getValue());
+
+        // the extra row only signals a next page
+        assertEquals(List.of(event(9), event(8)), page.events());
+        assertEquals(new HistoryCursor(8_000, List.of("id-8")), page.next());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lastPage_hasNoCursor_andLimitIsCapped() {
+        props.getHistory().setMaxLimit(50);
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(event(1)));
+
+        HistoryPage<OffChainWhaleEvent> page = history.offChain(null, null, null, null, 10_000);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbc).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        assertTrue(sql.getValue().endsWith(" LIMIT 51"));
+        assertNull(page.next());
+    }
+
+    @Test
+    void export_walksTheKeysetChunkByChunk() throws Exception {
+        props.getHistory().setExportChunkSize(4);
+        List<Integer> rows = IntStream.rangeClosed(1, 10).map(i -> 11 - i).boxed().toList();
+        List<String> queries = new ArrayList<>();
+        doAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            queries.add(sql);
+            // varargs arrive spread out, the cursor's event time is the first of them
+            long below = sql.contains("(event_time, id) <") ? ((Timestamp) inv.getArgument(2)).getTime() : Long.MAX_VALUE;
+            RowCallbackHandler handler = inv.getArgument(1);
+            int served = 0;
+            for (int n : rows) {
+                if (1_000L * n >= below || served == 4) continue;
+                handler.processRow(row(event(n)));
+                served++;
+            }
+            return null;
+        }).when(jdbc).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        List<String> ids = new ArrayList<>();
+        long exported = history.exportOffChain(null, null, null, e -> ids.add(e.id()));
+
+        assertEquals(10, exported);
+        assertEquals(rows.stream().map(n -> "id-" + n).toList(), ids);
+        // 4 + 4 + 2, the short chunk ends the export
+        assertEquals(3, queries.size());
+    }
+
+    @Test
+    void cursor_roundTripsAndRejectsGarbage() {
+        HistoryCursor cursor = new HistoryCursor(1_700_000_000_000L, List.of("ETHEREUM", "0xabc"));
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("bm90LWEtY3Vyc29y"));
+        // an on-chain cursor does not fit the off-chain keyset
+        assertThrows(IllegalArgumentException.class, () -> history.offChain(null, null, null, cursor, 10));
+    }
+
+    @Test
+    void partitions_coverWholeUtcMonths() {
+        assertEquals("CREATE TABLE IF NOT EXISTS offchain_whale_events_y2026m12 PARTITION OF offchain_whale_events"
+                        + " FOR VALUES FROM ('2026-12-01 00:00:00+00') TO ('2027-01-01 00:00:00+00')",
+                JdbcWhaleEventStore.partition("offchain_whale_events", YearMonth.of(2026, 12)));
+
+        new JdbcWhaleEventStore(jdbc, props);
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbc, atLeastOnce()).execute(ddl.capture());
+        // last month, this month and two ahead, for both tables
+        assertEquals(8, ddl.getAllValues().stream().filter(s -> s.contains(" FOR VALUES FROM ")).count());
+        assertTrue(ddl.getAllValues().stream().anyMatch(s -> s.contains("PARTITION OF onchain_whale_events DEFAULT")));
+    }
+
+    private static ResultSet row(OffChainWhaleEvent e) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("id")).thenReturn(e.id());
+        when(rs.getString("exchange")).thenReturn(e.exchange().name());
+        when(rs.getString("asset")).thenReturn(e.asset().name());
+        when(rs.getString("side")).thenReturn(e.side());
+        when(rs.getDouble("price")).thenReturn(e.price());
+        when(rs.getDouble("quantity")).thenReturn(e.quantity());
+        when(rs.getDouble("total_usd")).thenReturn(e.totalUsd());
+        when(rs.getLong("trade_id")).thenReturn(e.tradeId());
+        when(rs.getTimestamp("event_time")).thenReturn(new Timestamp(e.timestampMs()));
+        return rs;
+    }
+}
@@ -0,0 +1,248 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.persistence.journal.JournalProperties;
+import com.whalewatcher.persistence.journal.WhaleJournal;
+import com.whalewatcher.repository.OnChainEventBuffer;
+import com.whalewatcher.repository.RingWhaleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WhaleJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final JournalProperties props = new JournalProperties();
+    private WhaleJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) journal.stop();
+    }
+
+    private static OffChainWhaleEvent offChain(int n) {
+        return new OffChainWhaleEvent("id-" + n, Exchange.BINANCE, Asset.BTC, "buy", 65_000, 1_000, 65_000_000, n, n);
+    }
+
+    private static OnChainWhaleEvent onChain(int n) {
+        return new OnChainWhaleEvent(Chain.ETHEREUM, Asset.ETH, new BigDecimal("1234.500000000000000001"), "0xa", null, "0x" + n, n, n);
+    }
+
+    private WhaleJournal open(RingWhaleRepository offRepo, OnChainEventBuffer onRepo) throws Exception {
+        props.setEnabled(true);
+        props.setDir(dir.toString());
+        WhaleJournal j = new WhaleJournal(props, offRepo, onRepo);
+        j.start();
+        return j;
+    }
+
+    private List<Path> files() throws Exception {
+        try (Stream<Path> list = Files.list(dir)) {
+            return list.sorted().toList();
+        }
+    }
+
+    @Test
+    void restart_restoresBuffersAndCheckpoints_withoutRejournaling() throws Exception {
+        RingWhaleRepository offRepo = new RingWhaleRepository(1_000);
+        OnChainEventBuffer onRepo = new OnChainEventBuffer();
+        journal = open(offRepo, onRepo);
+        for (int i = 0; i < 1_500; i++) offRepo.save(offChain(i));
+        onRepo.add(onChain(7));
+        journal.checkpoint(Chain.ETHEREUM, 7);
+        journal.stop();
+
+        RingWhaleRepository restoredOff = new RingWhaleRepository(1_000);
+        OnChainEventBuffer restoredOn = new OnChainEventBuffer();
+        AtomicInteger notified = new AtomicInteger();
+        restoredOff.onSave(e -> notified.incrementAndGet());
+        restoredOn.onAdd(e -> notified.incrementAndGet());
+        journal = open(restoredOff, restoredOn);
+
+        assertEquals(offRepo.getAll(1_000), restoredOff.getAll(1_000));
+        assertEquals(onRepo.getAll(10), restoredOn.getAll(10));
+        assertEquals(1_501, journal.replayedEvents());
+        assertEquals(0, notified.get());
+        // the replayed tx is known, the watcher re-adding it is not a new whale
+        restoredOn.add(onChain(7));
+        assertEquals(1, restoredOn.getAll(10).size());
+
+        assertEquals(7, journal.resumeBlock(Chain.ETHEREUM, 20));
+        assertEquals(10_000 - WhaleJournal.DEFAULT_LOOKBACK, journal.resumeBlock(Chain.ETHEREUM, 10_000));
+        assertEquals(90, journal.resumeBlock(Chain.BITCOIN, 100));
+    }
+
+    @Test
+    void groupCommit_coversManyEventsPerSync() throws Exception {
+        RingWhaleRepository offRepo = new RingWhaleRepository(1_000);
+        journal = open(offRepo, new OnChainEventBuffer());
+        for (int i = 0; i < 20_000; i++) offRepo.save(offChain(i));
+        journal.stop();
+
+        assertEquals(20_000, journal.appended());
+        assertEquals(0, journal.dropped());
+        assertTrue(journal.commits() < 20_000 / 10, "commits: " + journal.commits());
+    }
+
+    @Test
+    void tornTail_isReplayedUpToTheLastCompleteRecord() throws Exception {
+        RingWhaleRepository offRepo = new RingWhaleRepository(1_000);
+        journal = open(offRepo, new OnChainEventBuffer());
+        for (int i = 0; i < 10; i++) offRepo.save(offChain(i));
+        journal.stop();
+
+        Path file = files().getLast();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 5);
+        }
+
+        RingWhaleRepository restored = new RingWhaleRepository(1_000);
+        journal = open(restored, new OnChainEventBuffer());
+        assertEquals(9, journal.replayedEvents());
+        assertEquals("id-8", restored.getAll(1).getFirst().id());
+    }
+
+    @Test
+    void restarts_pruneFilesOfEarlierRuns() throws Exception {
+        props.setRetainOffChainEvents(15);
+        for (int run = 0; run < 6; run++) {
+            RingWhaleRepository offRepo = new RingWhaleRepository(1_000);
+            journal = open(offRepo, new OnChainEventBuffer());
+            for (int i = 0; i < 10; i++) offRepo.save(offChain(run * 10 + i));
+            journal.stop();
+        }
+
+        RingWhaleRepository restored = new RingWhaleRepository(1_000);
+        journal = open(restored, new OnChainEventBuffer());
+        journal.stop();
+
+        // the two newest runs hold the 15 events to retain, plus the empty file of this run
+        assertEquals(30, journal.replayedEvents());
+        assertEquals(3, files().size());
+        assertEquals("id-59", restored.getAll(1).getFirst().id());
+    }
+
+    @Test
+    void droppedOnChainEvent_freezesItsChainsCheckpoint() throws Exception {
+        props.setEnabled(true);
+        props.setDir(dir.toString());
+        props.setQueueCapacity(2);
+        OnChainEventBuffer onRepo = new OnChainEventBuffer();
+        // not started, nothing drains the queue
+        journal = new WhaleJournal(props, new RingWhaleRepository(1_000), onRepo);
+
+        journal.checkpoint(Chain.ETHEREUM, 50);
+        onRepo.add(onChain(1));
+        onRepo.add(onChain(2));
+        journal.checkpoint(Chain.ETHEREUM, 60);
+
+        assertEquals(1, journal.dropped());
+        assertEquals(50, journal.resumeBlock(Chain.ETHEREUM, 70));
+        journal.start();
+        journal.stop();
+
+        OnChainEventBuffer restored = new OnChainEventBuffer();
+        journal = open(new RingWhaleRepository(1_000), restored);
+        assertEquals(50, journal.resumeBlock(Chain.ETHEREUM, 70));
+        assertEquals(1, restored.getAll(10).size());
+    }
+
+    @Test
+    void rotation_dropsOldFiles_butKeepsCheckpoints() throws Exception {
+        props.setSegmentBytes(4_096);
+        props.setRetainOffChainEvents(100);
+        props.setMaxBatch(16);
+        RingWhaleRepository offRepo = new RingWhaleRepository(1_000);
+        journal = open(offRepo, new OnChainEventBuffer());
+        journal.checkpoint(Chain.BITCOIN, 42);
+        for (int i = 0; i < 2_000; i++) {
+            offRepo.save(offChain(i));
+            if (i % 100 == 0) Thread.sleep(1);
+        }
+        journal.stop();
+
+        // 2000 events at ~70 bytes each went through many 4KB files, only the newest ones are left
+        assertTrue(files().size() < 10, "files: " + files().size());
+
+        RingWhaleRepository restored = new RingWhaleRepository(1_000);
+        journal = open(restored, new OnChainEventBuffer());
+        assertTrue(journal.replayedEvents() >= 100);
+        assertEquals("id-1999", restored.getAll(1).getFirst().id());
+        assertEquals(42, journal.resumeBlock(Chain.BITCOIN, 50));
+    }
+
+    @Test
+    void rotationWhileOnChainEventsAreQueued_startsTheFileWithCommittedCheckpointsOnly() throws Exception {
+        props.setEnabled(true);
+        props.setDir(dir.toString());
+        props.setSegmentBytes(1);
+        props.setMaxBatch(1);
+        RingWhaleRepository offRepo = new RingWhaleRepository(1_000);
+        OnChainEventBuffer onRepo = new OnChainEventBuffer();
+        // not started yet: the watcher's whale and checkpoint wait behind an off-chain whale
+        journal = new WhaleJournal(props, offRepo, onRepo);
+        offRepo.save(offChain(1));
+        onRepo.add(onChain(60));
+        journal.checkpoint(Chain.ETHEREUM, 60);
+        // one record per commit, each followed by a rotation
+        journal.start();
+        journal.stop();
+
+        // crash while the on-chain whale was being written to the file rotated in after the off-chain one
+        List<Path> written = files();
+        for (Path later : written.subList(2, written.size())) Files.delete(later);
+        try (FileChannel ch = FileChannel.open(written.get(1), StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 5);
+        }
+
+        OnChainEventBuffer restored = new OnChainEventBuffer();
+        journal = open(new RingWhaleRepository(1_000), restored);
+        assertTrue(restored.getAll(10).isEmpty());
+        // the lost whale's blocks are scanned again, not skipped by a checkpoint that got ahead of it
+        assertEquals(1_000 - WhaleJournal.DEFAULT_LOOKBACK, journal.resumeBlock(Chain.ETHEREUM, 1_000));
+    }
+
+    @Test
+    void offChainBurst_doesNotPruneTheOnChainWhales() throws Exception {
+        props.setRetainOffChainEvents(15);
+        RingWhaleRepository offRepo = new RingWhaleRepository(1_000);
+        OnChainEventBuffer onRepo = new OnChainEventBuffer();
+        journal = open(offRepo, onRepo);
+        offRepo.save(offChain(0));
+        onRepo.add(onChain(7));
+        journal.stop();
+        for (int run = 1; run < 6; run++) {
+            offRepo = new RingWhaleRepository(1_000);
+            journal = open(offRepo, new OnChainEventBuffer());
+            for (int i = 0; i < 10; i++) offRepo.save(offChain(run * 10 + i));
+            journal.stop();
+        }
+
+        RingWhaleRepository restoredOff = new RingWhaleRepository(1_000);
+        OnChainEventBuffer restoredOn = new OnChainEventBuffer();
+        journal = open(restoredOff, restoredOn);
+        journal.stop();
+
+        assertEquals(List.of(onChain(7)), restoredOn.getAll(10));
+        assertEquals("id-59", restoredOff.getAll(1).getFirst().id());
+        // the first run for its on-chain whale, the two newest for the 15 off-chain ones, this run's empty file
+        assertEquals(4, files().size());
+    }
+}
@@ -0,0 +1,179 @@
+package com.whalewatcher;
+
+import com.whalewatcher.domain.Asset;
+import com.whalewatcher.domain.Chain;
+import com.whalewatcher.domain.Exchange;
+import com.whalewatcher.domain.OffChainWhaleEvent;
+import com.whalewatcher.domain.OnChainWhaleEvent;
+import com.whalewatcher.persistence.JdbcWhaleEventStore;
+import com.whalewatcher.persistence.PersistenceProperties;
+import com.whalewatcher.persistence.WhaleEventStore;
+import com.whalewatcher.persistence.WriteBehindPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class WriteBehindPersisterTest {
+
+    private final PersistenceProperties props = new PersistenceProperties();
+    private WriteBehindPersister persister;
+
+    @AfterEach
+    void tearDown() {
+        if (persister != null) persister.stop();
+    }
+
+    private static OffChainWhaleEvent offChain(int n) {
+        return new OffChainWhaleEvent("id-" + n, Exchange.BINANCE, Asset.BTC, "buy", 65_000, 1_000, 65_000_000, n, n);
+    }
+
+    private static OnChainWhaleEvent onChain(int n) {
+        return new OnChainWhaleEvent(Chain.ETHEREUM, Asset.ETH, BigDecimal.valueOf(1_000), "0xa", "0xb", "0x" + n, n, n);
+    }
+
+    // Records batches; fails the first `failures` inserts, optionally blocks until released
+    private static final class FakeStore implements WhaleEventStore {
+        final List<List<Object>> batches = new CopyOnWriteArrayList<>();
+        final AtomicInteger failures;
+        final CountDownLatch release;
+
+        FakeStore(int failures, CountDownLatch release) {
+            this.failures = new AtomicInteger(failures);
+            this.release = release;
+        }
+
+        @Override
+        public void insertOffChain(List<OffChainWhaleEvent> events) { insert(events); }
+
+        @Override
+        public void insertOnChain(List<OnChainWhaleEvent> events) { insert(events); }
+
+        private void insert(List<?> events) {
+            try {
+                if (release != null) release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failures.getAndDecrement() > 0) throw new DataAccessResourceFailureException("connection refused");
+            batches.add(List.copyOf(events));
+        }
+
+        int rows() {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+
+    @Test
+    void eventsAreWrittenInBatches_andFlushedOnStop() {
+        props.setBatchSize(50);
+        FakeStore store = new FakeStore(0, null);
+        persister = new WriteBehindPersister(store, props);
+        persister.start();
+
+        for (int i = 0; i < 400; i++) assertTrue(persister.offer(offChain(i)));
+        persister.offer(onChain(1));
+        persister.stop();
+
+        assertEquals(401, store.rows());
+        assertEquals(401, persister.written());
+        assertTrue(store.batches.stream().allMatch(b -> b.size() <= 50));
+        assertEquals(0, persister.queued());
+    }
+
+    @Test
+    void failedInsert_isRetriedWithBackoff() throws Exception {
+        props.setBackoffMs(5);
+        FakeStore store = new FakeStore(2, null);
+        persister = new WriteBehindPersister(store, props);
+        persister.start();
+
+        persister.offer(offChain(1));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (persister.written() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+
+        assertEquals(1, store.rows());
+        assertEquals(2, persister.retries());
+        assertEquals(0, persister.failed());
+    }
+
+    @Test
+    void batchIsGivenUpAfterMaxAttempts() throws Exception {
+        props.setBackoffMs(1);
+        props.setMaxAttempts(3);
+        FakeStore store = new FakeStore(Integer.MAX_VALUE, null);
+        persister = new WriteBehindPersister(store, props);
+        persister.start();
+
+        persister.offer(offChain(1));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (persister.failed() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+
+        assertEquals(1, persister.failed());
+        assertEquals(2, persister.retries());
+    }
+
+    @Test
+    void fullQueue_dropsWithoutBlockingTheCaller() throws Exception {
+        props.setQueueCapacity(10);
+        props.setBatchSize(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeStore store = new FakeStore(0, release);
+        persister = new WriteBehindPersister(store, props);
+        persister.start();
+
+        long t0 = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) if (persister.offer(offChain(i))) accepted++;
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        release.countDown();
+
+        // the writer holds one event in its stalled insert, the queue the next ten
+        assertTrue(accepted <= 11);
+        assertEquals(100 - accepted, persister.dropped());
+        assertTrue(tookMs < 1_000);
+    }
+
+    @Test
+    void withoutAStore_offersAreIgnored() {
+        persister = new WriteBehindPersister(null, props);
+        persister.start();
+
+        assertFalse(persister.enabled());
+        assertFalse(persister.offer(offChain(1)));
+        assertEquals(0, persister.dropped());
+    }
+
+    @Test
+    void jdbcStore_insertsABatchAsOneMultiRowStatement() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        JdbcWhaleEventStore store = new JdbcWhaleEventStore(jdbc, props);
+
+        store.insertOffChain(List.of(offChain(1), offChain(2), offChain(3)));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbc).update(sql.capture(), args.capture());
+        assertTrue(sql.getValue().startsWith("INSERT INTO offchain_whale_events"));
+        assertEquals(3, sql.getValue().split("\\),\\(").length);
+        assertTrue(sql.getValue().endsWith("ON CONFLICT (id, event_time) DO NOTHING"));
+        assertEquals(27, args.getValue().length);
+        assertEquals("id-2", args.getValue()[9]);
+
+        store.insertOnChain(List.of());
+        verify(jdbc, times(1)).update(anyString(), any(Object[].class));
+    }
+}
@@ -79,6 +79,38 @@ class WsMessageParserTest {
         assertEquals(1700000000123L, t.timestamp());
     }
 
+    @Test
+    void binance_aggTradeMessage_parsesOneTradeWithAggregateId(){
+        String raw = """
+        {
+            "stream":"btcusdt@aggTrade",
+            "data":{
+            "e":"aggTrade",
+            "E":1700000000000,
+            "s":"BTCUSDT",
+            "a":26129,
+            "p":"42000.5",
+            "q":"3.2",
+            "f":100,
+            "l":105,
+            "T":1700000000123,
+            "m":true,
+            "M":true
+            }
+        }
+        """;
+
+        List<Trade> out = parser.parse(Exchange.BINANCE, raw);
+
+        assertEquals(1, out.size());
+
+        Trade t = out.get(0);
+        assertEquals("BTCUSDT", t.symbol());
+        assertEquals(3.2, t.volume(), 1e-12);
+        assertEquals("sell", t.side());
+        assertEquals(26129L, t.tradeId());
+    }
+
     @Test
     void binance_nonTradeMessage_isIgnored(){
         String raw = """
@@ -156,6 +188,28 @@ class WsMessageParserTest {
         assertEquals(Instant.parse("2024-01-01T00:00:02Z").toEpochMilli(), t2.timestamp());
     }
 
+    @Test
+    void coinbase_marketTrades_keepsTradeIds(){
+        String raw = """
+        {
+            "channel":"market_trades",
+            "events":[
+            {
+                "type":"snapshot",
+                "trades":[
+                { "trade_id":"7001", "product_id":"BTC-USD", "price":"42000.5", "size":"0.01", "side":"BUY", "time":"2024-01-01T00:00:01Z" }
+                ]
+            }
+            ]
+        }
+        """;
+
+        List<Trade> out = parser.parse(Exchange.COINBASE, raw);
+
+        assertEquals(1, out.size());
+        assertEquals(7001L, out.get(0).tradeId());
+    }
+
     @Test
     void coinbase_wrongChannel_isIgnored(){
         String raw = """
@@ -274,6 +328,24 @@ class WsMessageParserTest {
         assertEquals(Instant.parse("2024-01-01T00:00:02Z").toEpochMilli(), t2.timestamp());
     }
 
+    @Test
+    void kraken_tradeChannel_keepsTradeIds(){
+        String raw = """
+        {
+            "channel":"trade",
+            "type":"snapshot",
+            "data":[
+                { "symbol":"BTC/USD", "side":"buy", "price":42000.5, "qty":0.01, "trade_id":4665906, "timestamp":"2024-01-01T00:00:01Z" }
+            ]
+        }
+        """;
+
+        List<Trade> out = parser.parse(Exchange.KRAKEN, raw);
+
+        assertEquals(1, out.size());
+        assertEquals(4665906L, out.get(0).tradeId());
+    }
+
     @Test
     void kraken_nonTradeChannel_isIgnored(){
         String raw = """
@@ -2,16 +2,25 @@ package com.whalewatcher;
 
 import com.whalewatcher.domain.Exchange;
 import com.whalewatcher.domain.Trade;
+import com.whalewatcher.ingest.offchain.websocket.IngestEngine;
 import com.whalewatcher.ingest.offchain.websocket.RawWsBus;
 import com.whalewatcher.ingest.offchain.websocket.WsMessageParser;
 import com.whalewatcher.ingest.offchain.websocket.WsWorkers;
+import com.whalewatcher.ingest.offchain.websocket.WsWorkersProperties;
 import com.whalewatcher.service.IngestionService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -127,4 +136,149 @@ class WsWorkersTest {
         // trade2 should NOT be ingested after stop
         verify(ingestionService, after(200).never()).ingest(trade2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void drain_processesQueuedFramesBeforeStopping() {
+        WsWorkersProperties props = new WsWorkersProperties();
+        props.setElastic(false);
+        props.setInitialWorkers(1);
+        props.setIdlePollMs(20);
+
+        RawWsBus drainBus = new RawWsBus();
+        WsMessageParser slowParser = mock(WsMessageParser.class);
+        when(slowParser.parse(any(), any())).thenAnswer(inv -> {
+            Thread.sleep(1);
+            return List.of();
+        });
+        for (int i = 0; i < 200; i++) {
+            drainBus.publish(Exchange.BINANCE, "{\"msg\":" + i + "}");
+        }
+
+        WsWorkers draining = new WsWorkers(drainBus, ingestionService, slowParser, props);
+        draining.start();
+
+        IngestEngine.DrainReport report = draining.drain(Duration.ofSeconds(10));
+
+        assertEquals(0, report.discarded());
+        assertEquals(0, drainBus.size());
+        verify(slowParser, times(200)).parse(any(), any());
+        assertTrue(report.processed() > 0 && report.processed() <= 200);
+    }
+
+    @Test
+    void drain_reportsFramesLeftAtTheDeadline() {
+        WsWorkersProperties props = new WsWorkersProperties();
+        props.setElastic(false);
+        props.setInitialWorkers(1);
+        props.setIdlePollMs(20);
+
+        RawWsBus drainBus = new RawWsBus();
+        WsMessageParser slowParser = mock(WsMessageParser.class);
+        when(slowParser.parse(any(), any())).thenAnswer(inv -> {
+            Thread.sleep(20);
+            return List.of();
+        });
+        for (int i = 0; i < 500; i++) {
+            drainBus.publish(Exchange.BINANCE, "{\"msg\":" + i + "}");
+        }
+
+        WsWorkers draining = new WsWorkers(drainBus, ingestionService, slowParser, props);
+        draining.start();
+
+        IngestEngine.DrainReport report = draining.drain(Duration.ofMillis(200));
+
+        assertTrue(report.discarded() > 0);
+        assertEquals(drainBus.size(), report.discarded());
+        assertTrue(report.processed() < 500);
+    }
+
+    @Test
+    void elasticPool_growsUnderBacklog_andShrinksWhenIdle() throws Exception {
+        WsWorkersProperties props = new WsWorkersProperties();
+        props.setInitialWorkers(1);
+        props.setMinWorkers(1);
+        props.setMaxWorkers(4);
+        props.setControlIntervalMs(20);
+        props.setScaleUpQueueDepth(10);
+        props.setScaleUpIntervals(1);
+        props.setScaleDownIntervals(3);
+        props.setIdlePollMs(20);
+
+        RawWsBus slowBus = new RawWsBus();
+        WsMessageParser slowParser = mock(WsMessageParser.class);
+        when(slowParser.parse(any(), any())).thenAnswer(inv -> {
+            Thread.sleep(5);
+            return List.of();
+        });
+
+        WsWorkers elastic = new WsWorkers(slowBus, ingestionService, slowParser, props);
+        elastic.start();
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                slowBus.publish(Exchange.BINANCE, "{\"msg\":" + i + "}");
+            }
+
+            awaitWorkers(elastic, 4);
+            assertTrue(elastic.scaleUps() >= 3);
+
+            // backlog drains, then the pool returns to its minimum
+            awaitWorkers(elastic, 1);
+            assertTrue(elastic.scaleDowns() >= 3);
+        } finally {
+            elastic.stop();
+        }
+    }
+
+    private static void awaitWorkers(WsWorkers w, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (w.workerCount() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, w.workerCount());
+    }
+
+    @Test
+    void partitionedDispatch_keepsEachStreamOnOneThreadInOrder() throws Exception {
+        WsWorkersProperties props = new WsWorkersProperties();
+        props.setDispatch(WsWorkersProperties.Dispatch.PARTITIONED);
+        props.setPartitions(4);
+        props.setIdlePollMs(20);
+
+        Map<String, List<Integer>> seqBySymbol = new ConcurrentHashMap<>();
+        Map<String, Set<String>> threadsBySymbol = new ConcurrentHashMap<>();
+
+        RawWsBus partBus = new RawWsBus();
+        WsMessageParser recordingParser = mock(WsMessageParser.class);
+        when(recordingParser.parse(any(), any())).thenAnswer(inv -> {
+            String raw = inv.getArgument(1);
+            String symbol = raw.substring(raw.indexOf("\"stream\":\"") + 10, raw.indexOf("@"));
+            int seq = Integer.parseInt(raw.substring(raw.indexOf("\"seq\":") + 6, raw.indexOf('}')));
+            seqBySymbol.computeIfAbsent(symbol, k -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+            threadsBySymbol.computeIfAbsent(symbol, k -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        WsWorkers partitioned = new WsWorkers(partBus, ingestionService, recordingParser, props);
+        partitioned.start();
+        try {
+            List<String> symbols = List.of("btcusdt", "ethusdt", "solusdt", "xrpusdt", "bnbusdt");
+            for (int i = 0; i < 1_000; i++) {
+                String symbol = symbols.get(i % symbols.size());
+                partBus.publish(Exchange.BINANCE, "{\"stream\":\"" + symbol + "@trade\",\"seq\":" + i + "}");
+            }
+
+            verify(recordingParser, timeout(5_000).times(1_000)).parse(any(), any());
+
+            assertEquals(4, partitioned.partitionCount());
+            for (String symbol : symbols) {
+                assertEquals(1, threadsBySymbol.get(symbol).size(), symbol + " was split across threads");
+                List<Integer> seqs = seqBySymbol.get(symbol);
+                List<Integer> sorted = new ArrayList<>(seqs);
+                Collections.sort(sorted);
+                assertEquals(sorted, seqs, symbol + " processed out of order");
+            }
+        } finally {
+            partitioned.stop();
+        }
+    }
+}